@@ -0,0 +1,198 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.generator;
+
+import com.speedment.generator.core.GeneratorBundle;
+import com.speedment.generator.standard.StandardTranslatorKey;
+import com.speedment.generator.standard.entity.GeneratedEntityImplTranslator;
+import com.speedment.generator.translator.component.CodeGenerationComponent;
+import com.speedment.runtime.application.AbstractApplicationMetadata;
+import com.speedment.runtime.application.internal.DefaultApplicationBuilder;
+import com.speedment.runtime.config.*;
+import com.speedment.runtime.config.trait.HasEnabled;
+import com.speedment.runtime.config.trait.HasName;
+import com.speedment.runtime.config.trait.HasOrdinalPosition;
+import com.speedment.runtime.core.Speedment;
+import com.speedment.runtime.core.component.ProjectComponent;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static java.util.stream.Collectors.joining;
+import static java.util.stream.IntStream.rangeClosed;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the dirty tracking of the generated entity implementations. The bit
+ * of a column must be its index in {@code Manager.FIELDS}, which holds the
+ * enabled columns by ordinal position. The columns of the model are declared
+ * in another order.
+ *
+ * @author agent
+ */
+public class GeneratedEntityImplTranslatorTest {
+
+    private static final int WIDE_COLUMNS = 70;
+    private static final Pattern MARK_DIRTY = Pattern.compile("(\\w+) \\|= 1L << (\\d+);");
+
+    private static String pointCode;
+    private static String wideCode;
+
+    @BeforeClass
+    public static void setUp() {
+        final Speedment speedment = new DefaultApplicationBuilder(DirtyMetadata.class)
+            .withBundle(GeneratorBundle.class)
+            .withParam(GeneratedEntityImplTranslator.DIRTY_TRACKING, "true")
+            .withSkipCheckDatabaseConnectivity()
+            .withSkipValidateRuntimeConfig()
+            .build();
+
+        final Schema schema = speedment.getOrThrow(ProjectComponent.class).getProject()
+            .dbmses().findAny().get()
+            .schemas().findAny().get();
+
+        final CodeGenerationComponent codeGeneration = speedment.getOrThrow(CodeGenerationComponent.class);
+        pointCode = codeGeneration.findTranslator(table(schema, "point"), StandardTranslatorKey.GENERATED_ENTITY_IMPL).toCode();
+        wideCode = codeGeneration.findTranslator(table(schema, "wide"), StandardTranslatorKey.GENERATED_ENTITY_IMPL).toCode();
+    }
+
+    @Test
+    public void testBitIndexIsFieldOrdinal() {
+        assertEquals("dirtyMask |= 1L << 0", markDirty(pointCode, "setIdA"));
+        assertEquals("dirtyMask |= 1L << 1", markDirty(pointCode, "setIdB"));
+        assertEquals("dirtyMask |= 1L << 2", markDirty(pointCode, "setX"));
+        assertEquals("dirtyMask |= 1L << 3", markDirty(pointCode, "setLabel"));
+        assertFalse("Disabled columns have no setter", pointCode.contains("setHidden("));
+    }
+
+    @Test
+    public void testSingleMask() {
+        assertTrue(pointCode.contains("private long dirtyMask;"));
+        assertFalse(pointCode.contains("dirtyMask0"));
+        assertTrue(pointCode.contains("if (fieldIndex < 0 || fieldIndex >= 4) { return false; }"));
+        assertTrue(pointCode.contains("return (dirtyMask & (1L << fieldIndex)) != 0;"));
+        assertTrue(pointCode.contains("return dirtyMask != 0;"));
+    }
+
+    @Test
+    public void testMultipleMasks() {
+        for (int ordinal = 1; ordinal <= WIDE_COLUMNS; ordinal++) {
+            final int index = ordinal - 1;
+            assertEquals(
+                "dirtyMask" + (index / Long.SIZE) + " |= 1L << " + (index % Long.SIZE),
+                markDirty(wideCode, "setC" + ordinal)
+            );
+        }
+        assertTrue(wideCode.contains("private long dirtyMask0;"));
+        assertTrue(wideCode.contains("private long dirtyMask1;"));
+        assertFalse(wideCode.contains("dirtyMask2"));
+        assertTrue(wideCode.contains("if (fieldIndex < 0 || fieldIndex >= " + WIDE_COLUMNS + ") { return false; }"));
+        assertTrue(wideCode.contains("case 0 : return (dirtyMask0 & (1L << fieldIndex)) != 0;"));
+        assertTrue(wideCode.contains("default : return (dirtyMask1 & (1L << fieldIndex)) != 0;"));
+        assertTrue(wideCode.contains("return dirtyMask0 != 0 || dirtyMask1 != 0;"));
+    }
+
+    @Test
+    public void testClearDirty() {
+        assertEquals("dirtyMask = 0;", body(pointCode, "void clearDirty()"));
+        assertEquals("dirtyMask0 = 0;dirtyMask1 = 0;", body(wideCode, "void clearDirty()"));
+    }
+
+    private static Table table(Schema schema, String name) {
+        return schema.tables().filter(t -> name.equals(t.getName())).findAny().get();
+    }
+
+    /**
+     * Returns the statement that marks a field as dirty in the given setter,
+     * without the trailing semicolon.
+     */
+    private static String markDirty(String code, String setter) {
+        final Matcher matcher = MARK_DIRTY.matcher(body(code, " " + setter + "("));
+        assertTrue("Missing dirty mask in " + setter, matcher.find());
+        final String statement = matcher.group(1) + " |= 1L << " + matcher.group(2);
+        assertFalse("More than one dirty mask in " + setter, matcher.find());
+        return statement;
+    }
+
+    /**
+     * Returns the statements of the method with the given signature, without
+     * line breaks and indentation.
+     */
+    private static String body(String code, String signature) {
+        final int start = code.indexOf(signature);
+        assertTrue("Missing method " + signature, start >= 0);
+        final int open = code.indexOf('{', start);
+        final int close = code.indexOf("\n    }", open);
+        return code.substring(open + 1, close).replaceAll("\\s*\\n\\s*", "");
+    }
+
+    private final static class DirtyMetadata extends AbstractApplicationMetadata {
+
+        private String quote(String s) {
+            return "\"" + s + "\"";
+        }
+
+        private String column(String name, Class<?> type, int ordinalPosition, boolean enabled) {
+            return "{"
+                + quote(HasName.NAME) + " : " + quote(name) + ", "
+                + quote(Column.DATABASE_TYPE) + " : " + quote(type.getName()) + ", "
+                + quote(HasOrdinalPosition.ORDINAL_POSITION) + " : " + ordinalPosition + ", "
+                + quote(HasEnabled.ENABLED) + " : " + enabled
+                + "}";
+        }
+
+        private String table(String name, String columns) {
+            return "{"
+                + quote(HasName.NAME) + " : " + quote(name) + ", "
+                + quote(Table.COLUMNS) + " : [" + columns + "]"
+                + "}";
+        }
+
+        @Override
+        public Optional<String> getMetadata() {
+            return Optional.of("{" + quote("config") + " : {"
+                + quote(HasName.NAME) + " : " + quote("myProject") + ", "
+                + quote(Project.DBMSES) + " : [{"
+                + quote(HasName.NAME) + " : " + quote("myDbms") + ", "
+                + quote(Dbms.TYPE_NAME) + " : " + quote("MySQL") + ", "
+                + quote(Dbms.SCHEMAS) + " : [{"
+                + quote(HasName.NAME) + " : " + quote("mySchema") + ", "
+                + quote(Schema.TABLES) + " : ["
+                + table("point",
+                    column("label", String.class, 4, true) + ", "
+                    + column("x", Integer.class, 3, true) + ", "
+                    + column("hidden", Integer.class, 5, false) + ", "
+                    + column("id_b", Integer.class, 2, true) + ", "
+                    + column("id_a", Integer.class, 1, true)
+                ) + ", "
+                + table("wide",
+                    // Declared in reverse order
+                    rangeClosed(1, WIDE_COLUMNS)
+                        .map(i -> WIDE_COLUMNS + 1 - i)
+                        .mapToObj(i -> column("c" + i, Integer.class, i, true))
+                        .collect(joining(", "))
+                )
+                + "]}]}]}}"
+            );
+        }
+    }
+}
@@ -0,0 +1,159 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.generator;
+
+import com.speedment.generator.core.GeneratorBundle;
+import com.speedment.generator.standard.StandardTranslatorKey;
+import com.speedment.generator.translator.component.CodeGenerationComponent;
+import com.speedment.runtime.application.AbstractApplicationMetadata;
+import com.speedment.runtime.application.internal.DefaultApplicationBuilder;
+import com.speedment.runtime.config.*;
+import com.speedment.runtime.config.trait.HasEnabled;
+import com.speedment.runtime.config.trait.HasName;
+import com.speedment.runtime.config.trait.HasOrdinalPosition;
+import com.speedment.runtime.core.Speedment;
+import com.speedment.runtime.core.component.ProjectComponent;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests that the generated binders set the parameters in the same order as
+ * the statements rendered by {@code SqlPersistenceImpl}: enabled columns by
+ * ordinal position followed by the primary key columns by their ordinal
+ * position. The columns of the model are declared in another order.
+ *
+ * @author agent
+ */
+public class GeneratedSqlAdapterTranslatorTest {
+
+    private static final Pattern PARAMETER = Pattern.compile("\\((?:ps, )?(\\d+), \\w+\\.(\\w+)");
+
+    private String code;
+
+    @Before
+    public void setUp() {
+        final Speedment speedment = new DefaultApplicationBuilder(PointMetadata.class)
+            .withBundle(GeneratorBundle.class)
+            .withSkipCheckDatabaseConnectivity()
+            .withSkipValidateRuntimeConfig()
+            .build();
+
+        final Table table = speedment.getOrThrow(ProjectComponent.class).getProject()
+            .dbmses().findAny().get()
+            .schemas().findAny().get()
+            .tables().findAny().get();
+
+        code = speedment.getOrThrow(CodeGenerationComponent.class)
+            .findTranslator(table, StandardTranslatorKey.GENERATED_SQL_ADAPTER)
+            .toCode();
+    }
+
+    @Test
+    public void testBindInsert() {
+        // INSERT INTO point (id_a, id_b, x, label) VALUES (?, ?, ?, ?)
+        assertEquals(Arrays.asList("ID_A", "ID_B", "X", "LABEL"), parameters("bindInsert"));
+    }
+
+    @Test
+    public void testBindUpdate() {
+        // UPDATE point SET id_a = ?, id_b = ?, x = ?, label = ? WHERE id_a = ? AND id_b = ?
+        assertEquals(Arrays.asList("ID_A", "ID_B", "X", "LABEL", "ID_A", "ID_B"), parameters("bindUpdate"));
+    }
+
+    @Test
+    public void testBindPk() {
+        // DELETE FROM point WHERE id_a = ? AND id_b = ?
+        assertEquals(Arrays.asList("ID_A", "ID_B"), parameters("bindPk"));
+    }
+
+    /**
+     * Returns the fields set by the generated method with the given name,
+     * ordered by parameter index. The indices must be 1, 2, 3 and so on.
+     */
+    private List<String> parameters(String methodName) {
+        final int start = code.indexOf("void " + methodName + "(");
+        assertTrue("Missing method " + methodName, start >= 0);
+        final int next = code.indexOf("public ", start);
+        final String body = code.substring(start, next < 0 ? code.length() : next);
+
+        final List<String> fields = new ArrayList<>();
+        final Matcher matcher = PARAMETER.matcher(body);
+        while (matcher.find()) {
+            assertEquals(fields.size() + 1, Integer.parseInt(matcher.group(1)));
+            fields.add(matcher.group(2));
+        }
+        return fields;
+    }
+
+    private final static class PointMetadata extends AbstractApplicationMetadata {
+
+        private String quote(String s) {
+            return "\"" + s + "\"";
+        }
+
+        private String column(String name, Class<?> type, int ordinalPosition, boolean enabled) {
+            return "{"
+                + quote(HasName.NAME) + " : " + quote(name) + ", "
+                + quote(Column.DATABASE_TYPE) + " : " + quote(type.getName()) + ", "
+                + quote(HasOrdinalPosition.ORDINAL_POSITION) + " : " + ordinalPosition + ", "
+                + quote(HasEnabled.ENABLED) + " : " + enabled
+                + "}";
+        }
+
+        private String primaryKeyColumn(String name, int ordinalPosition) {
+            return "{"
+                + quote(HasName.NAME) + " : " + quote(name) + ", "
+                + quote(HasOrdinalPosition.ORDINAL_POSITION) + " : " + ordinalPosition
+                + "}";
+        }
+
+        @Override
+        public Optional<String> getMetadata() {
+            return Optional.of("{" + quote("config") + " : {"
+                + quote(HasName.NAME) + " : " + quote("myProject") + ", "
+                + quote(Project.DBMSES) + " : [{"
+                + quote(HasName.NAME) + " : " + quote("myDbms") + ", "
+                + quote(Dbms.TYPE_NAME) + " : " + quote("MySQL") + ", "
+                + quote(Dbms.SCHEMAS) + " : [{"
+                + quote(HasName.NAME) + " : " + quote("mySchema") + ", "
+                + quote(Schema.TABLES) + " : [{"
+                + quote(HasName.NAME) + " : " + quote("point") + ", "
+                + quote(Table.COLUMNS) + " : ["
+                + column("label", String.class, 4, true) + ", "
+                + column("x", Integer.class, 3, true) + ", "
+                + column("hidden", Integer.class, 5, false) + ", "
+                + column("id_b", Integer.class, 2, true) + ", "
+                + column("id_a", Integer.class, 1, true)
+                + "], "
+                + quote(Table.PRIMARY_KEY_COLUMNS) + " : ["
+                + primaryKeyColumn("id_b", 2) + ", "
+                + primaryKeyColumn("id_a", 1)
+                + "]}]}]}]}}"
+            );
+        }
+    }
+}
@@ -27,7 +27,9 @@ import com.speedment.common.codegen.model.File;
 import com.speedment.common.codegen.model.Import;
 import com.speedment.common.codegen.model.Method;
 import static com.speedment.common.codegen.util.Formatting.block;
+import static com.speedment.common.codegen.util.Formatting.indent;
 import com.speedment.common.injector.Injector;
+import com.speedment.common.injector.annotation.Config;
 import com.speedment.common.injector.annotation.Inject;
 import static com.speedment.generator.standard.entity.GeneratedEntityTranslator.getterReturnType;
 import static com.speedment.generator.standard.internal.util.ColumnUtil.optionalGetterName;
@@ -40,14 +42,20 @@ import com.speedment.generator.translator.component.TypeMapperComponent;
 import com.speedment.runtime.config.Column;
 import com.speedment.runtime.config.Table;
 import com.speedment.runtime.config.trait.HasNullable;
+import com.speedment.runtime.core.manager.DirtyTracking;
 import com.speedment.runtime.core.manager.Manager;
 import com.speedment.runtime.core.util.OptionalUtil;
 import java.lang.reflect.Type;
+import static java.util.Comparator.comparing;
+import java.util.List;
 import java.util.Objects;
 import static java.util.Objects.requireNonNull;
 import java.util.Optional;
 import java.util.OptionalInt;
 import java.util.StringJoiner;
+import java.util.stream.IntStream;
+import static java.util.stream.Collectors.joining;
+import static java.util.stream.Collectors.toList;
 
 /**
  *
@@ -56,8 +64,21 @@ import java.util.StringJoiner;
  */
 public final class GeneratedEntityImplTranslator extends AbstractEntityAndManagerTranslator<Class> {
 
+    /**
+     * The name of the configuration parameter that controls if generated
+     * entities keep track of their modified fields so that only those fields
+     * are written when the entity is updated.
+     *
+     * @since 3.1.2
+     */
+    public static final String DIRTY_TRACKING = "generator.entity.dirtyTracking";
+
+    private static final String DIRTY_MASK = "dirtyMask";
+    private static final int BITS_PER_MASK = Long.SIZE;
+
     @Inject private TypeMapperComponent typeMappers;
     @Inject private Injector injector;
+    @Config(name = DIRTY_TRACKING, value = "false") private boolean dirtyTracking;
     
     public GeneratedEntityImplTranslator(Table table) {
         super(table, Class::of);
@@ -67,6 +88,12 @@ public final class GeneratedEntityImplTranslator extends AbstractEntityAndManage
     protected Class makeCodeGenModel(File file) {
         requireNonNull(file);
 
+        // The index of a column is its index in Manager.fields()
+        final List<String> columnIds = columns()
+            .sorted(comparing(Column::getOrdinalPosition))
+            .map(Column::getId)
+            .collect(toList());
+
         return newBuilder(file, getSupport().generatedEntityImplName())
             
             /**
@@ -106,15 +133,27 @@ public final class GeneratedEntityImplTranslator extends AbstractEntityAndManage
             /**
              * Setters
              */
-            .forEveryColumn((clazz, col) -> 
-                clazz
-                    .add(Method.of(SETTER_METHOD_PREFIX + getSupport().typeName(col), getSupport().entityType())
-                        .public_()
-                        .add(OVERRIDE)
-                        .add(fieldFor(col))
-                        .add("this." + getSupport().variableName(col) + " = " + getSupport().variableName(col) + ";")
-                        .add("return this;"))
-            )
+            .forEveryColumn((clazz, col) -> {
+                final Method setter = Method.of(SETTER_METHOD_PREFIX + getSupport().typeName(col), getSupport().entityType())
+                    .public_()
+                    .add(OVERRIDE)
+                    .add(fieldFor(col))
+                    .add("this." + getSupport().variableName(col) + " = " + getSupport().variableName(col) + ";");
+                if (dirtyTracking) {
+                    final int index = columnIds.indexOf(col.getId());
+                    setter.add(dirtyMaskName(index / BITS_PER_MASK, columnIds.size()) + " |= 1L << " + (index % BITS_PER_MASK) + ";");
+                }
+                clazz.add(setter.add("return this;"));
+            })
+
+            /**
+             * Dirty tracking
+             */
+            .forEveryTable((clazz, table) -> {
+                if (dirtyTracking) {
+                    addDirtyTracking(clazz, columnIds.size());
+                }
+            })
             
             /**
              * Finders
@@ -171,6 +210,48 @@ public final class GeneratedEntityImplTranslator extends AbstractEntityAndManage
 
     }
 
+    private void addDirtyTracking(Class clazz, int columns) {
+        final int masks = Math.max(1, (columns + BITS_PER_MASK - 1) / BITS_PER_MASK);
+        clazz.add(DirtyTracking.class);
+        for (int i = 0; i < masks; i++) {
+            clazz.add(Field.of(dirtyMaskName(i, columns), long.class).private_());
+        }
+
+        final Method isDirtyIndex = Method.of("isDirty", boolean.class)
+            .public_()
+            .add(OVERRIDE)
+            .add(Field.of("fieldIndex", int.class))
+            .add("if (fieldIndex < 0 || fieldIndex >= " + columns + ") { return false; }");
+        if (masks == 1) {
+            isDirtyIndex.add("return (" + dirtyMaskName(0, columns) + " & (1L << fieldIndex)) != 0;");
+        } else {
+            isDirtyIndex.add("switch (fieldIndex / " + BITS_PER_MASK + ") {");
+            for (int i = 0; i < masks - 1; i++) {
+                isDirtyIndex.add(indent("case " + i + " : return (" + dirtyMaskName(i, columns) + " & (1L << fieldIndex)) != 0;"));
+            }
+            isDirtyIndex.add(indent("default : return (" + dirtyMaskName(masks - 1, columns) + " & (1L << fieldIndex)) != 0;"));
+            isDirtyIndex.add("}");
+        }
+
+        clazz.add(isDirtyIndex)
+            .add(Method.of("isDirty", boolean.class)
+                .public_()
+                .add(OVERRIDE)
+                .add("return " + IntStream.range(0, masks)
+                    .mapToObj(i -> dirtyMaskName(i, columns) + " != 0")
+                    .collect(joining(" || ")) + ";"))
+            .add(Method.of("clearDirty", void.class)
+                .public_()
+                .add(OVERRIDE)
+                .add(IntStream.range(0, masks)
+                    .mapToObj(i -> dirtyMaskName(i, columns) + " = 0;")
+                    .toArray(String[]::new)));
+    }
+
+    private static String dirtyMaskName(int mask, int columns) {
+        return columns <= BITS_PER_MASK ? DIRTY_MASK : DIRTY_MASK + mask;
+    }
+
     protected Method toStringMethod(File file) {
         file.add(Import.of(StringJoiner.class));
         file.add(Import.of(Objects.class));
@@ -101,10 +101,39 @@ public final class GenerateMethodBodyUtil {
         File file,
         Supplier<Stream<? extends Column>> columnsSupplier) {
 
+        return generateApplyResultSetBody(readFromResultSet, support, file, columnsSupplier, false);
+    }
+
+    /**
+     * Generates the body of a method that creates an entity from a result
+     * set. If {@code clearDirty} is {@code true}, the modifications made by
+     * the setters are cleared before the entity is returned so that a newly
+     * read entity is not considered modified.
+     *
+     * @param readFromResultSet  renders reading a column from the result set
+     * @param support            the translator support
+     * @param file               the file to add imports to
+     * @param columnsSupplier    supplier of the columns to read
+     * @param clearDirty         if the entity tracks modified fields
+     * @return                   the rows of the method body
+     * @since 3.1.2
+     */
+    public static String[] generateApplyResultSetBody(
+        ReadFromResultSet readFromResultSet,
+        TranslatorSupport<Table> support,
+        File file,
+        Supplier<Stream<? extends Column>> columnsSupplier,
+        boolean clearDirty) {
+
         file.add(Import.of(SQLException.class));
 
         final List<String> rows = new LinkedList<>();
-        rows.add("return createEntity()");
+        if (clearDirty) {
+            rows.add("final " + support.entityImplName() + " entity = createEntity();");
+            rows.add("entity");
+        } else {
+            rows.add("return createEntity()");
+        }
 
         final Stream.Builder<String> streamBuilder = Stream.builder();
 
@@ -119,6 +148,10 @@ public final class GenerateMethodBodyUtil {
             );
         streamBuilder.add(indent(";"));
         streamBuilder.build().forEachOrdered(rows::add);
+        if (clearDirty) {
+            rows.add("entity.clearDirty();");
+            rows.add("return entity;");
+        }
         return rows.toArray(new String[rows.size()]);
     }
 
@@ -21,14 +21,17 @@ import com.speedment.common.codegen.constant.SimpleType;
 import com.speedment.common.codegen.model.*;
 import com.speedment.common.codegen.model.Class;
 import com.speedment.common.injector.State;
+import com.speedment.common.injector.annotation.Config;
 import com.speedment.common.injector.annotation.ExecuteBefore;
 import com.speedment.common.injector.annotation.Inject;
+import com.speedment.generator.standard.entity.GeneratedEntityImplTranslator;
 import com.speedment.generator.translator.AbstractEntityAndManagerTranslator;
 import com.speedment.generator.translator.TranslatorSupport;
 import com.speedment.generator.translator.component.TypeMapperComponent;
 import com.speedment.generator.translator.exception.SpeedmentTranslatorException;
 import com.speedment.runtime.config.Column;
 import com.speedment.runtime.config.Dbms;
+import com.speedment.runtime.config.PrimaryKeyColumn;
 import com.speedment.runtime.config.Project;
 import com.speedment.runtime.config.Table;
 import com.speedment.runtime.config.identifier.TableIdentifier;
@@ -36,10 +39,13 @@ import com.speedment.runtime.config.trait.HasEnabled;
 import com.speedment.runtime.core.component.DbmsHandlerComponent;
 import com.speedment.runtime.core.component.ProjectComponent;
 import com.speedment.runtime.core.component.SqlAdapter;
+import com.speedment.runtime.core.component.SqlBinder;
 import com.speedment.runtime.core.component.resultset.ResultSetMapperComponent;
 import com.speedment.runtime.core.component.resultset.ResultSetMapping;
 import com.speedment.runtime.core.component.sql.SqlTypeMapperHelper;
+import com.speedment.runtime.core.db.DbmsColumnHandler;
 import com.speedment.runtime.core.db.SqlFunction;
+import com.speedment.runtime.core.internal.util.sql.PreparedStatementUtil;
 import com.speedment.runtime.core.internal.util.sql.ResultSetUtil;
 import com.speedment.runtime.typemapper.TypeMapper;
 
@@ -47,8 +53,11 @@ import java.lang.reflect.Type;
 import java.math.BigDecimal;
 import java.sql.Blob;
 import java.sql.Clob;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
@@ -58,9 +67,12 @@ import static com.speedment.common.codegen.constant.DefaultAnnotationUsage.OVERR
 import static com.speedment.common.codegen.constant.DefaultType.isPrimitive;
 import static com.speedment.common.codegen.constant.DefaultType.wrapperFor;
 import static com.speedment.common.codegen.util.Formatting.shortName;
+import static com.speedment.common.codegen.util.Formatting.ucfirst;
 import static com.speedment.generator.standard.internal.util.GenerateMethodBodyUtil.generateApplyResultSetBody;
 import static com.speedment.runtime.core.util.DatabaseUtil.dbmsTypeOf;
+import static java.util.Comparator.comparing;
 import static java.util.stream.Collectors.joining;
+import static java.util.stream.Collectors.toList;
 import static java.util.stream.Collectors.toSet;
 
 /**
@@ -74,6 +86,8 @@ public final class GeneratedSqlAdapterTranslator
     public final static String CREATE_HELPERS_METHOD_NAME = "createHelpers";
     public final static String INSTALL_METHOD_NAME = "installMethodName";
     public final static String OFFSET_PARAMETER_NAME = "offset";
+    public final static String STATEMENT_PARAMETER_NAME = "ps";
+    public final static String ENTITY_PARAMETER_NAME = "entity";
 
     @Inject
     private ResultSetMapperComponent resultSetMapperComponent;
@@ -81,6 +95,8 @@ public final class GeneratedSqlAdapterTranslator
     private DbmsHandlerComponent dbmsHandlerComponent;
     @Inject
     private TypeMapperComponent typeMapperComponent;
+    @Config(name = GeneratedEntityImplTranslator.DIRTY_TRACKING, value = "false")
+    private boolean dirtyTracking;
 
     public GeneratedSqlAdapterTranslator(Table table) {
         super(table, Class::of);
@@ -105,6 +121,12 @@ public final class GeneratedSqlAdapterTranslator
                             getSupport().entityType()
                         )
                     )
+                    .add(
+                        SimpleParameterizedType.create(
+                            SqlBinder.class,
+                            getSupport().entityType()
+                        )
+                    )
                     ////////////////////////////////////////////////////////////
                     // Generate constructor                                   //
                     ////////////////////////////////////////////////////////////
@@ -156,6 +178,16 @@ public final class GeneratedSqlAdapterTranslator
                             .add(Field.of(OFFSET_PARAMETER_NAME, int.class))
                             .add("return rs -> apply(rs, offset);")
                     )
+                    .add(
+                        Method.of("binder", SimpleParameterizedType.create(Optional.class,
+                            SimpleParameterizedType.create(SqlBinder.class, getSupport().entityType())))
+                            .public_()
+                            .add(OVERRIDE)
+                            .add("return Optional.of(this);")
+                    )
+                    .add(generateBind(file, "bindInsert", insertColumns(table)))
+                    .add(generateBind(file, "bindUpdate", updateColumns(table)))
+                    .add(generateBind(file, "bindPk", primaryKeyColumns(table)))
                     .call(() -> {
                         //file.add(Import.of(State.class).setStaticMember("RESOLVED").static_());
 
@@ -244,10 +276,146 @@ public final class GeneratedSqlAdapterTranslator
             .add(Field.of("resultSet", ResultSet.class))
             .add(Field.of(OFFSET_PARAMETER_NAME, int.class))
             .add(generateApplyResultSetBody(
-                this::readFromResultSet, support, file, columnsSupplier
+                this::readFromResultSet, support, file, columnsSupplier, dirtyTracking
             ));
     }
 
+    /**
+     * Returns the columns set by insert statements, in the order used by the
+     * default persistence.
+     */
+    private List<Column> insertColumns(Table table) {
+        final DbmsColumnHandler columnHandler = columnHandler();
+        return table.columns()
+            .filter(HasEnabled::test)
+            .sorted(comparing(Column::getOrdinalPosition))
+            .filter(columnHandler.excludedInInsertStatement().negate())
+            .collect(toList());
+    }
+
+    /**
+     * Returns the columns set by update statements followed by the primary
+     * key columns of the where clause, in the order used by the default
+     * persistence.
+     */
+    private List<Column> updateColumns(Table table) {
+        final DbmsColumnHandler columnHandler = columnHandler();
+        return Stream.concat(
+            table.columns()
+                .filter(HasEnabled::test)
+                .sorted(comparing(Column::getOrdinalPosition))
+                .filter(columnHandler.excludedInUpdateStatement().negate()),
+            primaryKeyColumns(table).stream()
+        ).collect(toList());
+    }
+
+    private List<Column> primaryKeyColumns(Table table) {
+        return table.primaryKeyColumns()
+            .sorted(comparing(PrimaryKeyColumn::getOrdinalPosition))
+            .map(pkc -> pkc.findColumn().orElseThrow(() -> new SpeedmentTranslatorException(
+                "Could not find column for primary key '" + pkc.getName() + "'."
+            )))
+            .collect(toList());
+    }
+
+    private DbmsColumnHandler columnHandler() {
+        return dbmsTypeOf(dbmsHandlerComponent, getSupport().dbmsOrThrow())
+            .getColumnHandler();
+    }
+
+    private Method generateBind(File file, String name, List<Column> columns) {
+        final Method method = Method.of(name, void.class)
+            .public_()
+            .add(OVERRIDE)
+            .add(SQLException.class)
+            .add(Field.of(STATEMENT_PARAMETER_NAME, PreparedStatement.class))
+            .add(Field.of(ENTITY_PARAMETER_NAME, getSupport().entityType()));
+
+        for (int i = 0; i < columns.size(); i++) {
+            method.add(writeToPreparedStatement(file, columns.get(i), i + 1));
+        }
+        return method;
+    }
+
+    private static Set<String> PRIMITIVE_SETTERS = Stream.of(
+        "setBoolean",
+        "setByte",
+        "setShort",
+        "setInt",
+        "setLong",
+        "setFloat",
+        "setDouble"
+    ).collect(toSet());
+
+    private static Set<java.lang.Class<?>> NULL_AWARE_SETTERS = Stream.of(
+        String.class,
+        BigDecimal.class,
+        java.sql.Time.class,
+        java.sql.Date.class,
+        java.sql.Timestamp.class
+    ).collect(toSet());
+
+    /**
+     * Returns a statement that sets the parameter with the given index to
+     * the value of the given column. Primitive fields are read and set
+     * without boxing. Columns that use a custom type mapper are converted
+     * to the database type by the type mapper of the field.
+     */
+    private String writeToPreparedStatement(File file, Column c, int parameterIndex) {
+        final Dbms dbms = c.getParentOrThrow().getParentOrThrow().getParentOrThrow();
+
+        final ResultSetMapping<?> mapping = resultSetMapperComponent.apply(
+            dbmsTypeOf(dbmsHandlerComponent, dbms),
+            c.findDatabaseType()
+        );
+
+        final Type javaType = typeMapperComponent.get(c).getJavaType(c);
+        final String field = getSupport().entityName() + "."
+            + getSupport().namer().javaStaticFieldName(c.getJavaName());
+        final String setterName = "set" + mapping.getResultSetMethodName(dbms);
+
+        if (!isCustomTypeMapper(c)) {
+            if (isPrimitive(javaType)
+                && PRIMITIVE_SETTERS.contains(setterName)
+                && wrapperFor(javaType).equals(mapping.getJavaClass())) {
+
+                return STATEMENT_PARAMETER_NAME + "." + setterName + "("
+                    + parameterIndex + ", " + field + ".getAs"
+                    + ucfirst(javaType.getTypeName()) + "("
+                    + ENTITY_PARAMETER_NAME + "));";
+            }
+
+            if (mapping.getJavaClass().equals(javaType)) {
+                if (PRIMITIVE_SETTERS.contains(setterName)) {
+                    // Nullable wrappers use the null safe setters
+                    file.add(Import.of(PreparedStatementUtil.class).static_().setStaticMember("*"));
+                    return setterName + "(" + STATEMENT_PARAMETER_NAME + ", "
+                        + parameterIndex + ", " + field + ".get("
+                        + ENTITY_PARAMETER_NAME + "));";
+                }
+
+                if (NULL_AWARE_SETTERS.contains(mapping.getJavaClass())
+                    && setterName.equals("set" + mapping.getJavaClass().getSimpleName())) {
+
+                    return STATEMENT_PARAMETER_NAME + "." + setterName + "("
+                        + parameterIndex + ", " + field + ".get("
+                        + ENTITY_PARAMETER_NAME + "));";
+                }
+            }
+        }
+
+        file.add(Import.of(PreparedStatementUtil.class).static_().setStaticMember("*"));
+        return "setDatabaseValue(" + STATEMENT_PARAMETER_NAME + ", "
+            + parameterIndex + ", " + field + ", " + ENTITY_PARAMETER_NAME + ");";
+    }
+
+    private boolean isCustomTypeMapper(Column c) {
+        final java.lang.Class<?> typeMapperClass = typeMapperComponent.get(c).getClass();
+        return c.getTypeMapper().isPresent()
+            && !TypeMapper.identity().getClass().isAssignableFrom(typeMapperClass)
+            && !TypeMapper.primitive().getClass().isAssignableFrom(typeMapperClass);
+    }
+
     private static Set<java.lang.Class<?>> NULL_AWARE_GETTERS = Stream.of(
         String.class,
         BigDecimal.class,
@@ -267,10 +435,7 @@ public final class GeneratedSqlAdapterTranslator
             c.findDatabaseType()
         );
 
-        final java.lang.Class<?> typeMapperClass = typeMapperComponent.get(c).getClass();
-        final boolean isCustomTypeMapper = c.getTypeMapper().isPresent()
-            && !TypeMapper.identity().getClass().isAssignableFrom(typeMapperClass)
-            && !TypeMapper.primitive().getClass().isAssignableFrom(typeMapperClass);
+        final boolean isCustomTypeMapper = isCustomTypeMapper(c);
 
         final StringBuilder sb = new StringBuilder();
         if (isCustomTypeMapper) {
@@ -31,6 +31,10 @@ import com.speedment.runtime.config.Dbms;
 import com.speedment.runtime.config.Document;
 import com.speedment.runtime.config.Project;
 import com.speedment.runtime.config.Schema;
+import com.speedment.runtime.config.identifier.TableIdentifier;
+import com.speedment.runtime.config.identifier.trait.HasDbmsId;
+import com.speedment.runtime.config.identifier.trait.HasSchemaId;
+import com.speedment.runtime.config.identifier.trait.HasTableId;
 import com.speedment.runtime.config.trait.HasEnabled;
 import com.speedment.runtime.config.trait.HasName;
 import com.speedment.runtime.config.util.DocumentDbUtil;
@@ -41,6 +45,7 @@ import com.speedment.runtime.core.ApplicationMetadata;
 import com.speedment.runtime.application.RuntimeBundle;
 import com.speedment.runtime.core.Speedment;
 import com.speedment.runtime.core.component.DbmsHandlerComponent;
+import com.speedment.runtime.core.component.EntityCacheComponent;
 import com.speedment.runtime.core.component.InfoComponent;
 import com.speedment.runtime.core.component.PasswordComponent;
 import com.speedment.runtime.core.component.ProjectComponent;
@@ -52,6 +57,7 @@ import com.speedment.runtime.core.manager.Manager;
 import com.speedment.runtime.core.util.DatabaseUtil;
 import static java.lang.Boolean.TRUE;
 import java.sql.SQLException;
+import java.time.Duration;
 import static java.util.Objects.requireNonNull;
 import java.util.Optional;
 import java.util.function.BiConsumer;
@@ -355,6 +361,31 @@ public abstract class AbstractApplicationBuilder<
         injectorBuilder.withParam("allowStreamIteratorAndSpliterator", TRUE.toString());
         return self();
     }
+
+    @Override
+    public <I extends HasDbmsId & HasSchemaId & HasTableId> BUILDER withEntityCache(I id, long maxSize, Duration ttl) {
+        requireNonNulls(id, ttl);
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException(
+                "The maximum size must be positive: " + maxSize
+            );
+        }
+        if (ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException(
+                "The time to live must be positive: " + ttl
+            );
+        }
+
+        final TableIdentifier<?> tableId = TableIdentifier.of(
+            id.getDbmsId(), id.getSchemaId(), id.getTableId()
+        );
+
+        injectorBuilder.before(started(EntityCacheComponent.class)
+            .withExecute(cacheComp -> cacheComp.putEntityCache(tableId, maxSize, ttl))
+        );
+
+        return self();
+    }
     
     @Override
     public final APP build() {
@@ -23,11 +23,13 @@ import com.speedment.runtime.connector.postgres.PostgresBundle;
 
 import com.speedment.runtime.core.internal.component.ConnectionPoolComponentImpl;
 import com.speedment.runtime.core.internal.component.DbmsHandlerComponentImpl;
+import com.speedment.runtime.core.internal.component.EntityCacheComponentImpl;
 import com.speedment.runtime.core.internal.component.EntityManagerImpl;
 import com.speedment.runtime.core.internal.component.InfoComponentImpl;
 import com.speedment.runtime.core.internal.component.ManagerComponentImpl;
 import com.speedment.runtime.core.internal.component.PasswordComponentImpl;
 import com.speedment.runtime.core.internal.component.ProjectComponentImpl;
+import com.speedment.runtime.core.internal.component.RetryPolicyComponentImpl;
 import com.speedment.runtime.core.internal.component.StatisticsReporterComponentImpl;
 import com.speedment.runtime.core.internal.component.StatisticsReporterSchedulerComponentImpl;
 import com.speedment.runtime.core.internal.component.resultset.ResultSetMapperComponentImpl;
@@ -54,11 +56,13 @@ public class RuntimeBundle implements InjectBundle {
             InfoComponentImpl.class,
             ConnectionPoolComponentImpl.class,
             DbmsHandlerComponentImpl.class,
+            EntityCacheComponentImpl.class,
             EntityManagerImpl.class,
             ManagerComponentImpl.class,
             PasswordComponentImpl.class,
             ProjectComponentImpl.class,
             ResultSetMapperComponentImpl.class,
+            RetryPolicyComponentImpl.class,
             SqlStreamSupplierComponentImpl.class,
             SqlPersistanceComponentImpl.class,
             //StandardDbmsTypes.class,
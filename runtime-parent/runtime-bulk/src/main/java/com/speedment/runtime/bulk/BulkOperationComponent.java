@@ -0,0 +1,81 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.bulk;
+
+import com.speedment.common.injector.annotation.InjectKey;
+import com.speedment.runtime.core.exception.SpeedmentException;
+import com.speedment.runtime.core.exception.TransactionException;
+
+/**
+ * A BulkOperationComponent can be used to execute {@link BulkOperation}
+ * objects.
+ * <p>
+ * Update and remove operations whose filters are all field predicates (e.g.
+ * {@code Point.X.greaterThan(0)}) and, for updates, whose mappers are all
+ * field setters (e.g. {@code Point.Y.setTo(0)}) are rendered as a single
+ * {@code UPDATE ... SET ... WHERE ...} or {@code DELETE ... WHERE ...}
+ * statement. Other operations are carried out by reading the entities in
+ * chunks ordered by primary key, applying the filters, consumers and mappers
+ * in the JVM and then writing each chunk back as a JDBC batch. Entities of a
+ * persist operation are written in batches.
+ * <p>
+ * Consumers of an update operation are applied before its mappers. Entities
+ * that are subject to a read-modify-write update must keep their primary key.
+ *
+ * @author agent
+ * @since  3.1.2
+ */
+@InjectKey(BulkOperationComponent.class)
+public interface BulkOperationComponent {
+
+    /**
+     * Executes the operations of the provided BulkOperation in order and
+     * returns the number of affected rows for each operation. Each statement
+     * and each chunk of a read-modify-write operation is committed separately
+     * unless the calling thread already participates in a transaction.
+     *
+     * @param bulkOperation to execute
+     * @return the number of affected rows for each operation, in the order
+     * of {@link BulkOperation#operations()}. An element is negative if the
+     * database did not report the number of affected rows
+     *
+     * @throws SpeedmentException if an operation fails
+     * @throws NullPointerException if the provided {@code bulkOperation} is
+     * {@code null}
+     */
+    long[] execute(BulkOperation bulkOperation);
+
+    /**
+     * Executes the operations of the provided BulkOperation in order within a
+     * single transaction and returns the number of affected rows for each
+     * operation. If any operation fails, the transaction is rolled back.
+     *
+     * @param bulkOperation to execute
+     * @return the number of affected rows for each operation, in the order
+     * of {@link BulkOperation#operations()}. An element is negative if the
+     * database did not report the number of affected rows
+     *
+     * @throws TransactionException if an operation fails or if the
+     * transaction could not be completed
+     * @throws IllegalArgumentException if the operations involve more than
+     * one database
+     * @throws NullPointerException if the provided {@code bulkOperation} is
+     * {@code null}
+     */
+    long[] executeInTransaction(BulkOperation bulkOperation);
+
+}
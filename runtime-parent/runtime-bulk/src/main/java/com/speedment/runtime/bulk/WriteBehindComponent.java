@@ -0,0 +1,105 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.bulk;
+
+import com.speedment.common.injector.annotation.InjectKey;
+import com.speedment.runtime.config.identifier.TableIdentifier;
+import com.speedment.runtime.core.manager.Manager;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A WriteBehindComponent persists and updates entities asynchronously. Writes
+ * are put on a queue per table and written by a background thread in JDBC
+ * batches, using a single transaction per flush. This trades a few
+ * milliseconds of latency before a write is durable for a much higher write
+ * throughput, since callers no longer pay for one commit per entity.
+ * <p>
+ * A table is flushed as soon as {@code writebehind.maxBatchSize} writes
+ * (default 1000) are waiting, or {@code writebehind.maxDelay} milliseconds
+ * (default 5) after the first waiting write, whichever comes first. The
+ * writes of a flush are written in the order they were queued. Repeated
+ * updates of the same entity instance that are not separated by a persist
+ * are coalesced into a single update.
+ * <p>
+ * An entity is written with the state it has when it is flushed, so it
+ * should not be modified until the returned future has completed. All
+ * waiting writes are flushed when the component is stopped.
+ *
+ * @author agent
+ * @since  3.1.2
+ */
+@InjectKey(WriteBehindComponent.class)
+public interface WriteBehindComponent {
+
+    /**
+     * Queues the given entity to be persisted by the given manager. The
+     * returned future completes with the entity, including any generated
+     * fields, once the flush that persisted it has been committed, or
+     * exceptionally if the flush failed.
+     *
+     * @param <ENTITY>  the entity type
+     * @param manager   the manager of the table to persist into
+     * @param entity    the entity to persist
+     * @return          a future that completes when the entity is persisted
+     *
+     * @throws IllegalStateException  if the component has been stopped
+     * @throws NullPointerException   if any of the parameters is {@code null}
+     */
+    <ENTITY> CompletableFuture<ENTITY> persist(Manager<ENTITY> manager, ENTITY entity);
+
+    /**
+     * Queues the given entity to be updated by the given manager. The
+     * returned future completes with the entity that was written once the
+     * flush that updated it has been committed, or exceptionally if the flush
+     * failed. If the update was coalesced with later updates of the same
+     * instance, the future completes once that single update is committed.
+     *
+     * @param <ENTITY>  the entity type
+     * @param manager   the manager of the table to update
+     * @param entity    the entity to update
+     * @return          a future that completes when the entity is updated
+     *
+     * @throws IllegalStateException  if the component has been stopped
+     * @throws NullPointerException   if any of the parameters is {@code null}
+     */
+    <ENTITY> CompletableFuture<ENTITY> update(Manager<ENTITY> manager, ENTITY entity);
+
+    /**
+     * Flushes all writes that are waiting when this method is called, without
+     * waiting for the size or latency triggers.
+     *
+     * @return  a future that completes when the writes have been flushed,
+     *          whether the flushes succeeded or not
+     */
+    CompletableFuture<Void> flush();
+
+    /**
+     * Returns the current metrics of the given table.
+     *
+     * @param tableId  the table
+     * @return         the metrics of the given table
+     */
+    WriteBehindMetrics getMetrics(TableIdentifier<?> tableId);
+
+    /**
+     * Returns the current metrics of all tables combined.
+     *
+     * @return  the metrics of all tables
+     */
+    WriteBehindMetrics getMetrics();
+
+}
@@ -0,0 +1,96 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.bulk;
+
+/**
+ * A snapshot of the metrics of a {@link WriteBehindComponent}.
+ *
+ * @author agent
+ * @since  3.1.2
+ */
+public interface WriteBehindMetrics {
+
+    /**
+     * Returns the number of writes that are waiting to be flushed.
+     *
+     * @return the number of waiting writes
+     */
+    long getQueueDepth();
+
+    /**
+     * Returns the number of writes that have been queued.
+     *
+     * @return the number of queued writes
+     */
+    long getQueuedWrites();
+
+    /**
+     * Returns the number of updates that were coalesced with a later update
+     * of the same entity instance rather than being written.
+     *
+     * @return the number of coalesced updates
+     */
+    long getCoalescedWrites();
+
+    /**
+     * Returns the number of rows that have been written by successful
+     * flushes.
+     *
+     * @return the number of written rows
+     */
+    long getFlushedRows();
+
+    /**
+     * Returns the number of flushes, including failed flushes.
+     *
+     * @return the number of flushes
+     */
+    long getFlushes();
+
+    /**
+     * Returns the number of flushes that failed and were rolled back.
+     *
+     * @return the number of failed flushes
+     */
+    long getFailedFlushes();
+
+    /**
+     * Returns the total time spent flushing, in nanoseconds.
+     *
+     * @return the total flush latency in nanoseconds
+     */
+    long getTotalFlushNanos();
+
+    /**
+     * Returns the longest time spent on a single flush, in nanoseconds.
+     *
+     * @return the maximum flush latency in nanoseconds
+     */
+    long getMaxFlushNanos();
+
+    /**
+     * Returns the average time spent on a flush, in nanoseconds, or
+     * {@code 0} if nothing has been flushed.
+     *
+     * @return the average flush latency in nanoseconds
+     */
+    default long getAverageFlushNanos() {
+        final long flushes = getFlushes();
+        return flushes == 0 ? 0 : getTotalFlushNanos() / flushes;
+    }
+
+}
@@ -0,0 +1,361 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.bulk.internal;
+
+import com.speedment.common.injector.annotation.Inject;
+import com.speedment.runtime.bulk.BulkOperation;
+import com.speedment.runtime.bulk.BulkOperationComponent;
+import com.speedment.runtime.bulk.Operation;
+import com.speedment.runtime.bulk.PersistOperation;
+import com.speedment.runtime.bulk.RemoveOperation;
+import com.speedment.runtime.bulk.UpdateOperation;
+import com.speedment.runtime.config.Column;
+import com.speedment.runtime.config.Dbms;
+import com.speedment.runtime.config.Project;
+import com.speedment.runtime.config.Table;
+import com.speedment.runtime.config.identifier.TableIdentifier;
+import com.speedment.runtime.config.util.DocumentDbUtil;
+import com.speedment.runtime.core.component.DbmsHandlerComponent;
+import com.speedment.runtime.core.component.EntityCacheComponent;
+import com.speedment.runtime.core.component.ProjectComponent;
+import com.speedment.runtime.core.component.transaction.TransactionComponent;
+import com.speedment.runtime.core.db.DatabaseNamingConvention;
+import com.speedment.runtime.core.db.DbmsType;
+import com.speedment.runtime.core.exception.SpeedmentException;
+import com.speedment.runtime.core.internal.stream.builder.streamterminator.StreamTerminatorUtil;
+import com.speedment.runtime.core.internal.stream.builder.streamterminator.StreamTerminatorUtil.RenderResult;
+import com.speedment.runtime.core.manager.BatchOperation;
+import com.speedment.runtime.core.manager.Manager;
+import com.speedment.runtime.core.manager.Page;
+import com.speedment.runtime.core.util.DatabaseUtil;
+import com.speedment.runtime.field.Field;
+import com.speedment.runtime.field.trait.HasComparableOperators;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import static java.util.Objects.requireNonNull;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import static java.util.stream.Collectors.joining;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Default implementation of the {@link BulkOperationComponent}.
+ *
+ * @author agent
+ * @since 3.1.2
+ */
+public class BulkOperationComponentImpl implements BulkOperationComponent {
+
+    private static final int CHUNK_SIZE = BatchOperation.DEFAULT_BATCH_SIZE;
+
+    @Inject
+    private ProjectComponent projectComponent;
+    @Inject
+    private DbmsHandlerComponent dbmsHandlerComponent;
+    @Inject
+    private TransactionComponent transactionComponent;
+    @Inject
+    private EntityCacheComponent entityCacheComponent;
+
+    @Override
+    public long[] execute(BulkOperation bulkOperation) {
+        requireNonNull(bulkOperation);
+        return execute(bulkOperation.operations().collect(toList()));
+    }
+
+    @Override
+    public long[] executeInTransaction(BulkOperation bulkOperation) {
+        requireNonNull(bulkOperation);
+        final List<Operation<?>> operations = bulkOperation.operations().collect(toList());
+        if (operations.isEmpty()) {
+            return new long[0];
+        }
+
+        final Project project = projectComponent.getProject();
+        final List<Dbms> dbmses = operations.stream()
+            .map(op -> DocumentDbUtil.referencedDbms(project, op.manager().getTableIdentifier()))
+            .distinct()
+            .collect(toList());
+        if (dbmses.size() != 1) {
+            throw new IllegalArgumentException(
+                "A bulk operation can only be executed in a single transaction if all its operations use the same database: "
+                + dbmses.stream().map(Dbms::getId).collect(joining(", "))
+            );
+        }
+
+        return transactionComponent.creaateTransactionHandler(dbmses.get(0)).createAndApply(tx -> {
+            final long[] result = execute(operations);
+            tx.commit();
+            return result;
+        });
+    }
+
+    private long[] execute(List<Operation<?>> operations) {
+        final long[] result = new long[operations.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = execute(operations.get(i));
+        }
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <ENTITY> long execute(Operation<ENTITY> operation) {
+        switch (operation.type()) {
+            case PERSIST:
+                return persist((PersistOperation<ENTITY>) operation);
+            case UPDATE:
+                return update((UpdateOperation<ENTITY>) operation);
+            case REMOVE:
+                return remove((RemoveOperation<ENTITY>) operation);
+            default:
+                throw new UnsupportedOperationException("Unknown operation type " + operation.type());
+        }
+    }
+
+    private <ENTITY> long persist(PersistOperation<ENTITY> operation) {
+        final Manager<ENTITY> manager = operation.manager();
+        long count = 0;
+        for (final Supplier<Stream<? extends ENTITY>> generatorSupplier : operation.generatorSuppliers().collect(toList())) {
+            try (final Stream<? extends ENTITY> entities = generatorSupplier.get()) {
+                count += manager.persister().batch(CHUNK_SIZE).apply(entities.map(e -> (ENTITY) e));
+            }
+        }
+        return count;
+    }
+
+    private <ENTITY> long update(UpdateOperation<ENTITY> operation) {
+        final Manager<ENTITY> manager = operation.manager();
+        final List<Predicate<ENTITY>> predicates = operation.predicates().collect(toList());
+        final List<Consumer<? super ENTITY>> consumers = operation.consumers().collect(toList());
+        final List<Function<? super ENTITY, ? extends ENTITY>> mappers = operation.mappers().collect(toList());
+
+        final List<ColumnAssignment<ENTITY>> assignments = mappers.stream()
+            .map(ColumnAssignment::<ENTITY>of)
+            .filter(Optional::isPresent)
+            .map(Optional::get)
+            .collect(toList());
+
+        if (consumers.isEmpty()
+            && !mappers.isEmpty()
+            && assignments.size() == mappers.size()
+            && isRenderable(predicates)) {
+
+            final SqlTarget<ENTITY> target = new SqlTarget<>(manager.getTableIdentifier());
+
+            // Later assignments to the same column take precedence
+            final Map<String, ColumnAssignment<ENTITY>> assignmentsByColumn = new LinkedHashMap<>();
+            assignments.forEach(a -> assignmentsByColumn.put(a.field().identifier().getColumnId(), a));
+
+            final List<Object> values = new ArrayList<>();
+            final StringBuilder sql = new StringBuilder("UPDATE ")
+                .append(target.tableReference)
+                .append(" SET ");
+            int cnt = 0;
+            for (final ColumnAssignment<ENTITY> assignment : assignmentsByColumn.values()) {
+                if (cnt++ != 0) {
+                    sql.append(", ");
+                }
+                sql.append(target.columnName(assignment.field())).append(" = ?");
+                values.add(assignment.databaseValue());
+            }
+            target.appendWhere(sql, values, predicates);
+
+            return execute(target, sql.toString(), values, target.dbmsType.getOperationHandler()::executeUpdateAndCount);
+        }
+
+        final Function<ENTITY, ENTITY> modifier = entity -> {
+            consumers.forEach(c -> c.accept(entity));
+            ENTITY result = entity;
+            for (final Function<? super ENTITY, ? extends ENTITY> mapper : mappers) {
+                result = mapper.apply(result);
+            }
+            return result;
+        };
+
+        return readModifyWrite(manager, predicates, chunk
+            -> manager.updater().batch(CHUNK_SIZE).apply(chunk.stream().map(modifier))
+        );
+    }
+
+    private <ENTITY> long remove(RemoveOperation<ENTITY> operation) {
+        final Manager<ENTITY> manager = operation.manager();
+        final List<Predicate<ENTITY>> predicates = operation.predicates().collect(toList());
+
+        if (isRenderable(predicates)) {
+            final SqlTarget<ENTITY> target = new SqlTarget<>(manager.getTableIdentifier());
+            final List<Object> values = new ArrayList<>();
+            final StringBuilder sql = new StringBuilder("DELETE FROM ").append(target.tableReference);
+            target.appendWhere(sql, values, predicates);
+
+            return execute(target, sql.toString(), values, target.dbmsType.getOperationHandler()::executeDeleteAndCount);
+        }
+
+        return readModifyWrite(manager, predicates, chunk
+            -> manager.remover().batch(CHUNK_SIZE).apply(chunk.stream())
+        );
+    }
+
+    private boolean isRenderable(List<? extends Predicate<?>> predicates) {
+        return predicates.stream().allMatch(StreamTerminatorUtil::isContainingOnlyFieldPredicate);
+    }
+
+    private long execute(SqlTarget<?> target, String sql, List<Object> values, SqlStatementExecutor executor) {
+        try {
+            return executor.execute(target.dbms, sql, values);
+        } catch (SQLException sqle) {
+            throw new SpeedmentException("Unable to execute bulk statement " + sql, sqle);
+        } finally {
+            invalidateEntityCache(target.tableIdentifier);
+        }
+    }
+
+    /**
+     * Evicts all the entities in the entity cache of the given table, if
+     * any, since a pushed down statement might have changed any of them.
+     * Readers outside of a transaction see the old entities until the
+     * transaction is committed, so they are then evicted again.
+     */
+    private void invalidateEntityCache(TableIdentifier<?> tableIdentifier) {
+        if (entityCacheComponent == null) {
+            return;
+        }
+        entityCacheComponent.getEntityCache(tableIdentifier).ifPresent(entityCache -> {
+            entityCache.invalidateAll();
+            if (transactionComponent != null) {
+                transactionComponent.afterCommit(Thread.currentThread(), entityCache::invalidateAll);
+            }
+        });
+    }
+
+    /**
+     * Reads all entities of the manager in chunks ordered by primary key and
+     * hands the entities of each chunk that match all the predicates to the
+     * provided writer. The next chunk is selected using keyset pagination, so
+     * entities removed or updated by the writer do not affect what is read.
+     */
+    private <ENTITY> long readModifyWrite(
+        final Manager<ENTITY> manager,
+        final List<Predicate<ENTITY>> predicates,
+        final Function<List<ENTITY>, Long> writer
+    ) {
+        final Comparator<ENTITY> order = primaryKeyOrder(manager);
+        final Predicate<ENTITY> filter = entity -> predicates.stream().allMatch(p -> p.test(entity));
+
+        long count = 0;
+        Page<ENTITY> page = manager.page(order, CHUNK_SIZE);
+        while (true) {
+            final List<ENTITY> chunk = page.getContent().stream()
+                .filter(filter)
+                .collect(toList());
+
+            if (!chunk.isEmpty()) {
+                count += writer.apply(chunk);
+            }
+
+            final Optional<List<Object>> nextKey = page.getNextKey();
+            if (!nextKey.isPresent()) {
+                return count;
+            }
+            page = manager.page(order, nextKey.get(), CHUNK_SIZE);
+        }
+    }
+
+    private <ENTITY> Comparator<ENTITY> primaryKeyOrder(Manager<ENTITY> manager) {
+        Comparator<ENTITY> result = null;
+        for (final Field<ENTITY> field : manager.primaryKeyFields().collect(toList())) {
+            if (!(field instanceof HasComparableOperators)) {
+                throw new SpeedmentException(
+                    "The primary key field " + field.identifier().getColumnId() + " is not comparable."
+                );
+            }
+            @SuppressWarnings("unchecked")
+            final Comparator<ENTITY> comparator = ((HasComparableOperators<ENTITY, ?>) field).comparator();
+            result = result == null ? comparator : result.thenComparing(comparator);
+        }
+        if (result == null) {
+            throw new SpeedmentException(
+                "Unable to execute a bulk operation with non-field predicates or mappers on "
+                + manager.getTableIdentifier() + " since it has no primary key."
+            );
+        }
+        return result;
+    }
+
+    @FunctionalInterface
+    private interface SqlStatementExecutor {
+
+        long execute(Dbms dbms, String sql, List<?> values) throws SQLException;
+    }
+
+    /**
+     * The table, database and naming needed to render SQL for a manager.
+     */
+    private final class SqlTarget<ENTITY> {
+
+        private final TableIdentifier<ENTITY> tableIdentifier;
+        private final Project project;
+        private final Dbms dbms;
+        private final DbmsType dbmsType;
+        private final DatabaseNamingConvention naming;
+        private final String tableReference;
+
+        private SqlTarget(TableIdentifier<ENTITY> tableIdentifier) {
+            this.tableIdentifier = tableIdentifier;
+            this.project = projectComponent.getProject();
+            final Table table = DocumentDbUtil.referencedTable(project, tableIdentifier);
+            this.dbms = DocumentDbUtil.referencedDbms(project, tableIdentifier);
+            this.dbmsType = DatabaseUtil.dbmsTypeOf(dbmsHandlerComponent, dbms);
+            this.naming = dbmsType.getDatabaseNamingConvention();
+            this.tableReference = naming.fullNameOf(table);
+        }
+
+        private String columnName(Field<ENTITY> field) {
+            return naming.encloseField(field.identifier().getColumnId());
+        }
+
+        private Class<?> databaseType(Field<ENTITY> field) {
+            return field.findColumn(project)
+                .map(Column::findDatabaseType)
+                .orElseThrow(() -> new SpeedmentException(
+                    "Field '" + field.identifier() + "' referred to a column that couldn't be found in config model."
+                ));
+        }
+
+        private void appendWhere(StringBuilder sql, List<Object> values, List<Predicate<ENTITY>> predicates) {
+            if (predicates.isEmpty()) {
+                return;
+            }
+            final RenderResult where = StreamTerminatorUtil.renderSqlWhere(
+                dbmsType,
+                this::columnName,
+                this::databaseType,
+                predicates
+            );
+            sql.append(" WHERE ").append(where.getSql());
+            values.addAll(where.getValues());
+        }
+    }
+
+}
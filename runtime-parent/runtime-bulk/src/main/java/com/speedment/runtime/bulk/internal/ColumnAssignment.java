@@ -0,0 +1,123 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.bulk.internal;
+
+import com.speedment.runtime.field.Field;
+import com.speedment.runtime.field.method.SetToBoolean;
+import com.speedment.runtime.field.method.SetToByte;
+import com.speedment.runtime.field.method.SetToChar;
+import com.speedment.runtime.field.method.SetToDouble;
+import com.speedment.runtime.field.method.SetToFloat;
+import com.speedment.runtime.field.method.SetToInt;
+import com.speedment.runtime.field.method.SetToLong;
+import com.speedment.runtime.field.method.SetToReference;
+import com.speedment.runtime.field.method.SetToShort;
+import com.speedment.runtime.typemapper.TypeMapper;
+import static java.util.Objects.requireNonNull;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * An assignment of a constant value to a column, obtained from one of the
+ * {@code setTo(value)} operators of a field (e.g.
+ * {@code Point.X.setTo(0)}). Mappers of this kind can be rendered as a
+ * {@code SET column = ?} clause rather than being applied to each entity.
+ *
+ * @author agent
+ * @param <ENTITY> type
+ * @since 3.1.2
+ */
+final class ColumnAssignment<ENTITY> {
+
+    private final Field<ENTITY> field;
+    private final Object value;
+
+    private ColumnAssignment(Field<ENTITY> field, Object value) {
+        this.field = requireNonNull(field);
+        this.value = value; // Nullable
+    }
+
+    /**
+     * Returns the field that is assigned.
+     *
+     * @return the field that is assigned
+     */
+    Field<ENTITY> field() {
+        return field;
+    }
+
+    /**
+     * Returns the value to assign to the column, converted to the database
+     * type using the type mapper of the field.
+     *
+     * @return the database value to assign
+     */
+    Object databaseValue() {
+        @SuppressWarnings("unchecked")
+        final TypeMapper<Object, Object> typeMapper = (TypeMapper<Object, Object>) field.typeMapper();
+        return typeMapper.toDatabaseType(value);
+    }
+
+    /**
+     * Returns the column assignment that the provided mapper represents, or
+     * {@code Optional.empty()} if the mapper is not a field
+     * {@code setTo(value)} operator.
+     *
+     * @param <ENTITY> type
+     * @param mapper   to examine
+     * @return the column assignment that the provided mapper represents
+     */
+    @SuppressWarnings("unchecked")
+    static <ENTITY> Optional<ColumnAssignment<ENTITY>> of(Function<? super ENTITY, ? extends ENTITY> mapper) {
+        requireNonNull(mapper);
+        if (mapper instanceof SetToReference) {
+            final SetToReference<ENTITY, ?, ?> setTo = (SetToReference<ENTITY, ?, ?>) mapper;
+            return Optional.of(new ColumnAssignment<>(setTo.getField(), setTo.getValue()));
+        } else if (mapper instanceof SetToInt) {
+            final SetToInt<ENTITY, ?> setTo = (SetToInt<ENTITY, ?>) mapper;
+            return Optional.of(new ColumnAssignment<>(setTo.getField(), setTo.getValue()));
+        } else if (mapper instanceof SetToLong) {
+            final SetToLong<ENTITY, ?> setTo = (SetToLong<ENTITY, ?>) mapper;
+            return Optional.of(new ColumnAssignment<>(setTo.getField(), setTo.getValue()));
+        } else if (mapper instanceof SetToDouble) {
+            final SetToDouble<ENTITY, ?> setTo = (SetToDouble<ENTITY, ?>) mapper;
+            return Optional.of(new ColumnAssignment<>(setTo.getField(), setTo.getValue()));
+        } else if (mapper instanceof SetToFloat) {
+            final SetToFloat<ENTITY, ?> setTo = (SetToFloat<ENTITY, ?>) mapper;
+            return Optional.of(new ColumnAssignment<>(setTo.getField(), setTo.getValue()));
+        } else if (mapper instanceof SetToShort) {
+            final SetToShort<ENTITY, ?> setTo = (SetToShort<ENTITY, ?>) mapper;
+            return Optional.of(new ColumnAssignment<>(setTo.getField(), setTo.getValue()));
+        } else if (mapper instanceof SetToByte) {
+            final SetToByte<ENTITY, ?> setTo = (SetToByte<ENTITY, ?>) mapper;
+            return Optional.of(new ColumnAssignment<>(setTo.getField(), setTo.getValue()));
+        } else if (mapper instanceof SetToChar) {
+            final SetToChar<ENTITY, ?> setTo = (SetToChar<ENTITY, ?>) mapper;
+            return Optional.of(new ColumnAssignment<>(setTo.getField(), setTo.getValue()));
+        } else if (mapper instanceof SetToBoolean) {
+            final SetToBoolean<ENTITY, ?> setTo = (SetToBoolean<ENTITY, ?>) mapper;
+            return Optional.of(new ColumnAssignment<>(setTo.getField(), setTo.getValue()));
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public String toString() {
+        return field.identifier().getColumnId() + " = " + value;
+    }
+
+}
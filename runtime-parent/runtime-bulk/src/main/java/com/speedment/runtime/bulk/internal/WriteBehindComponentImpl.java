@@ -0,0 +1,197 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.bulk.internal;
+
+import com.speedment.common.injector.State;
+import com.speedment.common.injector.annotation.Config;
+import com.speedment.common.injector.annotation.ExecuteBefore;
+import com.speedment.common.injector.annotation.Inject;
+import com.speedment.common.logger.Logger;
+import com.speedment.common.logger.LoggerManager;
+import com.speedment.runtime.bulk.WriteBehindComponent;
+import com.speedment.runtime.bulk.WriteBehindMetrics;
+import com.speedment.runtime.config.Dbms;
+import com.speedment.runtime.config.identifier.TableIdentifier;
+import com.speedment.runtime.config.util.DocumentDbUtil;
+import com.speedment.runtime.core.ApplicationBuilder.LogType;
+import com.speedment.runtime.core.component.ProjectComponent;
+import com.speedment.runtime.core.component.transaction.TransactionComponent;
+import com.speedment.runtime.core.manager.Manager;
+import java.util.Map;
+import static java.util.Objects.requireNonNull;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Default implementation of the {@link WriteBehindComponent}. All flushes are
+ * made by a single background thread, so the writes of a table are flushed in
+ * the order they were queued.
+ *
+ * @author agent
+ * @since 3.1.2
+ */
+public class WriteBehindComponentImpl implements WriteBehindComponent {
+
+    private static final Logger LOGGER_PERSIST = LoggerManager.getLogger(LogType.PERSIST.getLoggerName());
+
+    @Config(name = "writebehind.maxBatchSize", value = "1000")
+    private int maxBatchSize;
+    @Config(name = "writebehind.maxDelay", value = "5")
+    private long maxDelay;
+
+    @Inject
+    private ProjectComponent projectComponent;
+    @Inject
+    private TransactionComponent transactionComponent;
+
+    private final Map<TableIdentifier<?>, WriteBehindQueue<?>> queues = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        final Thread t = new Thread(r, "speedment-write-behind");
+        t.setDaemon(true);
+        return t;
+    }); // Waiting writes are flushed when the component is stopped
+    private volatile boolean stopped;
+
+    @Override
+    public <ENTITY> CompletableFuture<ENTITY> persist(Manager<ENTITY> manager, ENTITY entity) {
+        return offer(manager, WriteBehindQueue.Kind.PERSIST, entity);
+    }
+
+    @Override
+    public <ENTITY> CompletableFuture<ENTITY> update(Manager<ENTITY> manager, ENTITY entity) {
+        return offer(manager, WriteBehindQueue.Kind.UPDATE, entity);
+    }
+
+    @Override
+    public CompletableFuture<Void> flush() {
+        try {
+            return CompletableFuture.runAsync(this::flushAll, scheduler);
+        } catch (final RejectedExecutionException ex) {
+            flushAll();
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
+    @Override
+    public WriteBehindMetrics getMetrics(TableIdentifier<?> tableId) {
+        requireNonNull(tableId);
+        final WriteBehindQueue<?> queue = queues.get(tableId);
+        return queue == null ? WriteBehindMetricsImpl.EMPTY : queue.getMetrics();
+    }
+
+    @Override
+    public WriteBehindMetrics getMetrics() {
+        return queues.values().stream()
+            .map(WriteBehindQueue::getMetrics)
+            .reduce(WriteBehindMetricsImpl.EMPTY, (a, b) -> ((WriteBehindMetricsImpl) a).plus(b));
+    }
+
+    @ExecuteBefore(State.STOPPED)
+    void stop() {
+        stopped = true;
+        try {
+            flush().get();
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (final ExecutionException ex) {
+            LOGGER_PERSIST.error(ex, "Unable to flush waiting writes.");
+        } finally {
+            scheduler.shutdownNow();
+            // A write that passed the stopped check before the final flush
+            // might have been queued after it, with its flush scheduled
+            // before the shutdown. Writes queued after the shutdown are
+            // flushed by the offering thread.
+            flushAll();
+        }
+    }
+
+    private <ENTITY> CompletableFuture<ENTITY> offer(Manager<ENTITY> manager, WriteBehindQueue.Kind kind, ENTITY entity) {
+        requireNonNull(manager);
+        requireNonNull(entity);
+        if (stopped) {
+            throw new IllegalStateException("The write-behind component has been stopped.");
+        }
+        final WriteBehindQueue<ENTITY> queue = queue(manager);
+        final CompletableFuture<ENTITY> future = queue.offer(kind, entity);
+        try {
+            if (queue.getDepth() >= maxBatchSize) {
+                if (queue.tryScheduleImmediateFlush()) {
+                    scheduler.execute(() -> flush(queue));
+                }
+            } else if (queue.tryScheduleDelayedFlush()) {
+                scheduler.schedule(() -> flush(queue), maxDelay, TimeUnit.MILLISECONDS);
+            }
+        } catch (final RejectedExecutionException ex) {
+            // Stopped concurrently, so the write may have been missed by the final flush
+            flush(queue);
+        }
+        return future;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <ENTITY> WriteBehindQueue<ENTITY> queue(Manager<ENTITY> manager) {
+        return (WriteBehindQueue<ENTITY>) queues.computeIfAbsent(
+            manager.getTableIdentifier(),
+            tableId -> new WriteBehindQueue<>(manager, action -> inTransaction(tableId, action))
+        );
+    }
+
+    private void inTransaction(TableIdentifier<?> tableId, Runnable action) {
+        final Dbms dbms = DocumentDbUtil.referencedDbms(projectComponent.getProject(), tableId);
+        transactionComponent.creaateTransactionHandler(dbms).createAndAccept(tx -> {
+            action.run();
+            tx.commit();
+        });
+    }
+
+    private void flushAll() {
+        queues.values().forEach(this::flush);
+    }
+
+    private void flush(WriteBehindQueue<?> queue) {
+        synchronized (queue) {
+            queue.clearScheduledFlushes();
+            // Only flush what is waiting now so that other tables are not starved
+            long remaining = queue.getDepth();
+            while (remaining > 0) {
+                final int flushed = queue.flushBatch(maxBatchSize);
+                if (flushed == 0) {
+                    break;
+                }
+                remaining -= flushed;
+            }
+            final long depth = queue.getDepth();
+            try {
+                if (depth >= maxBatchSize) {
+                    if (queue.tryScheduleImmediateFlush()) {
+                        scheduler.execute(() -> flush(queue));
+                    }
+                } else if (depth > 0 && queue.tryScheduleDelayedFlush()) {
+                    scheduler.schedule(() -> flush(queue), maxDelay, TimeUnit.MILLISECONDS);
+                }
+            } catch (final RejectedExecutionException ex) {
+                // Stopped, the remaining writes are flushed by the caller
+            }
+        }
+    }
+
+}
@@ -0,0 +1,132 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.bulk.internal;
+
+import com.speedment.runtime.bulk.WriteBehindMetrics;
+
+/**
+ * An immutable snapshot of {@link WriteBehindMetrics}.
+ *
+ * @author agent
+ * @since 3.1.2
+ */
+final class WriteBehindMetricsImpl implements WriteBehindMetrics {
+
+    static final WriteBehindMetrics EMPTY = new WriteBehindMetricsImpl(0, 0, 0, 0, 0, 0, 0, 0);
+
+    private final long queueDepth;
+    private final long queuedWrites;
+    private final long coalescedWrites;
+    private final long flushedRows;
+    private final long flushes;
+    private final long failedFlushes;
+    private final long totalFlushNanos;
+    private final long maxFlushNanos;
+
+    WriteBehindMetricsImpl(
+        long queueDepth,
+        long queuedWrites,
+        long coalescedWrites,
+        long flushedRows,
+        long flushes,
+        long failedFlushes,
+        long totalFlushNanos,
+        long maxFlushNanos
+    ) {
+        this.queueDepth = queueDepth;
+        this.queuedWrites = queuedWrites;
+        this.coalescedWrites = coalescedWrites;
+        this.flushedRows = flushedRows;
+        this.flushes = flushes;
+        this.failedFlushes = failedFlushes;
+        this.totalFlushNanos = totalFlushNanos;
+        this.maxFlushNanos = maxFlushNanos;
+    }
+
+    /**
+     * Returns the combined metrics of this and the given metrics.
+     *
+     * @param other  the metrics to combine with
+     * @return       the combined metrics
+     */
+    WriteBehindMetricsImpl plus(WriteBehindMetrics other) {
+        return new WriteBehindMetricsImpl(
+            queueDepth + other.getQueueDepth(),
+            queuedWrites + other.getQueuedWrites(),
+            coalescedWrites + other.getCoalescedWrites(),
+            flushedRows + other.getFlushedRows(),
+            flushes + other.getFlushes(),
+            failedFlushes + other.getFailedFlushes(),
+            totalFlushNanos + other.getTotalFlushNanos(),
+            Math.max(maxFlushNanos, other.getMaxFlushNanos())
+        );
+    }
+
+    @Override
+    public long getQueueDepth() {
+        return queueDepth;
+    }
+
+    @Override
+    public long getQueuedWrites() {
+        return queuedWrites;
+    }
+
+    @Override
+    public long getCoalescedWrites() {
+        return coalescedWrites;
+    }
+
+    @Override
+    public long getFlushedRows() {
+        return flushedRows;
+    }
+
+    @Override
+    public long getFlushes() {
+        return flushes;
+    }
+
+    @Override
+    public long getFailedFlushes() {
+        return failedFlushes;
+    }
+
+    @Override
+    public long getTotalFlushNanos() {
+        return totalFlushNanos;
+    }
+
+    @Override
+    public long getMaxFlushNanos() {
+        return maxFlushNanos;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "{"
+            + "queueDepth=" + queueDepth
+            + ", queuedWrites=" + queuedWrites
+            + ", coalescedWrites=" + coalescedWrites
+            + ", flushedRows=" + flushedRows
+            + ", flushes=" + flushes
+            + ", failedFlushes=" + failedFlushes
+            + ", totalFlushNanos=" + totalFlushNanos
+            + ", maxFlushNanos=" + maxFlushNanos
+            + "}";
+    }
+}
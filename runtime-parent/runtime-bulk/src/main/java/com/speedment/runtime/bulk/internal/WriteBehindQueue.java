@@ -0,0 +1,276 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.bulk.internal;
+
+import com.speedment.runtime.bulk.WriteBehindMetrics;
+import com.speedment.runtime.core.manager.Manager;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * The queue of waiting writes of a single table. Writes may be offered by any
+ * number of threads, whereas batches are only flushed by one thread at a
+ * time.
+ *
+ * @param <ENTITY> the entity type
+ *
+ * @author agent
+ * @since 3.1.2
+ */
+final class WriteBehindQueue<ENTITY> {
+
+    enum Kind {
+        PERSIST, UPDATE
+    }
+
+    private final Manager<ENTITY> manager;
+    private final Consumer<Runnable> inTransaction;
+    private final Queue<Write<ENTITY>> queue;
+    private final AtomicLong depth;
+    private final AtomicBoolean delayedFlushScheduled;
+    private final AtomicBoolean immediateFlushScheduled;
+
+    private final LongAdder queuedWrites;
+    private final AtomicLong coalescedWrites;
+    private final AtomicLong flushedRows;
+    private final AtomicLong flushes;
+    private final AtomicLong failedFlushes;
+    private final AtomicLong totalFlushNanos;
+    private final AtomicLong maxFlushNanos;
+
+    /**
+     * Creates a queue for the table of the given manager.
+     *
+     * @param manager        the manager of the table
+     * @param inTransaction  runs the given action in a transaction and
+     *                       commits it, or throws an exception if the action
+     *                       or the commit fails
+     */
+    WriteBehindQueue(Manager<ENTITY> manager, Consumer<Runnable> inTransaction) {
+        this.manager = requireNonNull(manager);
+        this.inTransaction = requireNonNull(inTransaction);
+        this.queue = new ConcurrentLinkedQueue<>();
+        this.depth = new AtomicLong();
+        this.delayedFlushScheduled = new AtomicBoolean();
+        this.immediateFlushScheduled = new AtomicBoolean();
+        this.queuedWrites = new LongAdder();
+        this.coalescedWrites = new AtomicLong();
+        this.flushedRows = new AtomicLong();
+        this.flushes = new AtomicLong();
+        this.failedFlushes = new AtomicLong();
+        this.totalFlushNanos = new AtomicLong();
+        this.maxFlushNanos = new AtomicLong();
+    }
+
+    CompletableFuture<ENTITY> offer(Kind kind, ENTITY entity) {
+        final Write<ENTITY> write = new Write<>(kind, entity);
+        queue.add(write);
+        depth.incrementAndGet();
+        queuedWrites.increment();
+        return write.futures.get(0);
+    }
+
+    long getDepth() {
+        return depth.get();
+    }
+
+    boolean tryScheduleDelayedFlush() {
+        return delayedFlushScheduled.compareAndSet(false, true);
+    }
+
+    boolean tryScheduleImmediateFlush() {
+        return immediateFlushScheduled.compareAndSet(false, true);
+    }
+
+    void clearScheduledFlushes() {
+        delayedFlushScheduled.set(false);
+        immediateFlushScheduled.set(false);
+    }
+
+    /**
+     * Removes at most the given number of writes from the queue and writes
+     * them in a single transaction, in the order they were offered.
+     * Consecutive writes of the same kind are written as one batch. Repeated
+     * updates of the same entity instance within such a run are coalesced
+     * into a single update at the position of the last one. The futures of
+     * the writes are completed once the transaction has been committed or
+     * has failed.
+     *
+     * @param maxBatchSize  the maximum number of writes to flush
+     * @return              the number of writes that were removed from the
+     *                      queue
+     */
+    int flushBatch(int maxBatchSize) {
+        final List<Write<ENTITY>> batch = new ArrayList<>();
+        Write<ENTITY> write;
+        while (batch.size() < maxBatchSize && (write = queue.poll()) != null) {
+            batch.add(write);
+        }
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        depth.addAndGet(-batch.size());
+
+        final List<Run<ENTITY>> runs = new ArrayList<>();
+        Run<ENTITY> run = null;
+        for (final Write<ENTITY> w : batch) {
+            if (run == null || run.kind != w.kind) {
+                run = new Run<>(w.kind);
+                runs.add(run);
+            }
+            if (run.add(w)) {
+                coalescedWrites.incrementAndGet();
+            }
+        }
+
+        final long start = System.nanoTime();
+        try {
+            inTransaction.accept(() -> runs.forEach(r -> r.write(manager, maxBatchSize)));
+        } catch (final RuntimeException ex) {
+            recordFlush(start, 0, false);
+            runs.forEach(r -> r.writes.values().forEach(w -> w.completeExceptionally(ex)));
+            return batch.size();
+        }
+        recordFlush(start, runs.stream().mapToInt(r -> r.writes.size()).sum(), true);
+        runs.forEach(r -> r.writes.values().forEach(Write::complete));
+        return batch.size();
+    }
+
+    WriteBehindMetrics getMetrics() {
+        return new WriteBehindMetricsImpl(
+            depth.get(),
+            queuedWrites.sum(),
+            coalescedWrites.get(),
+            flushedRows.get(),
+            flushes.get(),
+            failedFlushes.get(),
+            totalFlushNanos.get(),
+            maxFlushNanos.get()
+        );
+    }
+
+    private void recordFlush(long start, long rows, boolean success) {
+        final long nanos = System.nanoTime() - start;
+        flushes.incrementAndGet();
+        totalFlushNanos.addAndGet(nanos);
+        maxFlushNanos.accumulateAndGet(nanos, Math::max);
+        if (success) {
+            flushedRows.addAndGet(rows);
+        } else {
+            failedFlushes.incrementAndGet();
+        }
+    }
+
+    private static final class Write<ENTITY> {
+
+        private final Kind kind;
+        private final List<CompletableFuture<ENTITY>> futures;
+        private final ENTITY entity;
+
+        private Write(Kind kind, ENTITY entity) {
+            this.kind = requireNonNull(kind);
+            this.entity = requireNonNull(entity);
+            this.futures = new ArrayList<>(1);
+            this.futures.add(new CompletableFuture<>());
+        }
+
+        private void coalesce(Write<ENTITY> earlier) {
+            futures.addAll(0, earlier.futures);
+        }
+
+        private void complete() {
+            futures.forEach(f -> f.complete(entity));
+        }
+
+        private void completeExceptionally(Throwable cause) {
+            futures.forEach(f -> f.completeExceptionally(cause));
+        }
+    }
+
+    /**
+     * Consecutive writes of the same kind that are written as one batch.
+     * Only updates of the same instance are coalesced, since a dirty tracking
+     * entity only writes the columns that were changed using that instance.
+     */
+    private static final class Run<ENTITY> {
+
+        private final Kind kind;
+        private final Map<Object, Write<ENTITY>> writes;
+
+        private Run(Kind kind) {
+            this.kind = requireNonNull(kind);
+            this.writes = new LinkedHashMap<>();
+        }
+
+        /**
+         * Adds the given write to this run.
+         *
+         * @param write  the write to add
+         * @return       {@code true} if an earlier write was coalesced
+         */
+        private boolean add(Write<ENTITY> write) {
+            final Object key = kind == Kind.UPDATE
+                ? new IdentityKey(write.entity)
+                : new Object();
+            final Write<ENTITY> earlier = writes.remove(key);
+            if (earlier != null) {
+                write.coalesce(earlier);
+            }
+            writes.put(key, write);
+            return earlier != null;
+        }
+
+        private void write(Manager<ENTITY> manager, int maxBatchSize) {
+            if (kind == Kind.PERSIST) {
+                manager.persister().batch(maxBatchSize)
+                    .apply(writes.values().stream().map(w -> w.entity));
+            } else {
+                manager.updater().batch(maxBatchSize)
+                    .apply(writes.values().stream().map(w -> w.entity));
+            }
+        }
+    }
+
+    private static final class IdentityKey {
+
+        private final Object value;
+
+        private IdentityKey(Object value) {
+            this.value = value;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof IdentityKey && ((IdentityKey) obj).value == value;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(value);
+        }
+    }
+}
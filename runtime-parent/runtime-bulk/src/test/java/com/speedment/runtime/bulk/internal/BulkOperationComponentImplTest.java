@@ -0,0 +1,354 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.bulk.internal;
+
+import com.speedment.runtime.bulk.BulkOperation;
+import com.speedment.runtime.config.Column;
+import com.speedment.runtime.config.Dbms;
+import com.speedment.runtime.config.Project;
+import com.speedment.runtime.config.Schema;
+import com.speedment.runtime.config.Table;
+import com.speedment.runtime.config.identifier.ColumnIdentifier;
+import com.speedment.runtime.config.identifier.TableIdentifier;
+import com.speedment.runtime.core.component.DbmsHandlerComponent;
+import com.speedment.runtime.core.component.EntityCacheComponent;
+import com.speedment.runtime.core.component.ProjectComponent;
+import com.speedment.runtime.core.component.transaction.Transaction;
+import com.speedment.runtime.core.component.transaction.TransactionComponent;
+import com.speedment.runtime.core.component.transaction.TransactionHandler;
+import com.speedment.runtime.core.db.DatabaseNamingConvention;
+import com.speedment.runtime.core.db.DbmsOperationHandler;
+import com.speedment.runtime.core.db.DbmsType;
+import com.speedment.runtime.core.db.FieldPredicateView;
+import com.speedment.runtime.core.db.SqlPredicateFragment;
+import com.speedment.runtime.core.internal.component.EntityCacheComponentImpl;
+import com.speedment.runtime.core.manager.EntityCache;
+import com.speedment.runtime.core.manager.Manager;
+import com.speedment.runtime.core.manager.Page;
+import com.speedment.runtime.core.manager.Persister;
+import com.speedment.runtime.core.manager.Remover;
+import com.speedment.runtime.core.manager.Updater;
+import com.speedment.runtime.field.IntField;
+import com.speedment.runtime.typemapper.TypeMapper;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import static java.util.stream.Collectors.toList;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import org.junit.Before;
+import org.junit.Test;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ *
+ * @author agent
+ */
+public class BulkOperationComponentImplTest {
+
+    private static final IntField<Point, Integer> ID = IntField.create(
+        ColumnIdentifier.of("db", "schema", "point", "id"),
+        Point::getId,
+        Point::setId,
+        TypeMapper.primitive(),
+        true
+    );
+
+    private static final IntField<Point, Integer> X = IntField.create(
+        ColumnIdentifier.of("db", "schema", "point", "x"),
+        Point::getX,
+        Point::setX,
+        TypeMapper.primitive(),
+        false
+    );
+
+    private Dbms dbms;
+    private DbmsOperationHandler operationHandler;
+    private TransactionComponent transactionComponent;
+    private Manager<Point> manager;
+    private BulkOperationComponentImpl instance;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() throws Exception {
+        final Column idColumn = column("id");
+        final Column xColumn = column("x");
+        final Table table = mock(Table.class);
+        when(table.getId()).thenReturn("point");
+        when(table.columns()).thenAnswer(i -> Stream.of(idColumn, xColumn));
+        final Schema schema = mock(Schema.class);
+        when(schema.getId()).thenReturn("schema");
+        when(schema.tables()).thenAnswer(i -> Stream.of(table));
+        dbms = mock(Dbms.class);
+        when(dbms.getId()).thenReturn("db");
+        when(dbms.getTypeName()).thenReturn("MockDbms");
+        when(dbms.schemas()).thenAnswer(i -> Stream.of(schema));
+        final Project project = mock(Project.class);
+        when(project.dbmses()).thenAnswer(i -> Stream.of(dbms));
+        final ProjectComponent projectComponent = mock(ProjectComponent.class);
+        when(projectComponent.getProject()).thenReturn(project);
+
+        final DatabaseNamingConvention naming = mock(DatabaseNamingConvention.class);
+        when(naming.fullNameOf(table)).thenReturn("`point`");
+        when(naming.encloseField(anyString())).thenAnswer(i -> "`" + i.getArgument(0) + "`");
+        final FieldPredicateView predicateView = mock(FieldPredicateView.class);
+        when(predicateView.transform(any(), any(), any())).thenReturn(SqlPredicateFragment.of("(`x` > ?)", (Object) 3));
+        operationHandler = mock(DbmsOperationHandler.class);
+        final DbmsType dbmsType = mock(DbmsType.class);
+        when(dbmsType.getDatabaseNamingConvention()).thenReturn(naming);
+        when(dbmsType.getFieldPredicateView()).thenReturn(predicateView);
+        when(dbmsType.getOperationHandler()).thenReturn(operationHandler);
+        final DbmsHandlerComponent dbmsHandlerComponent = mock(DbmsHandlerComponent.class);
+        when(dbmsHandlerComponent.findByName("MockDbms")).thenReturn(Optional.of(dbmsType));
+
+        transactionComponent = mock(TransactionComponent.class);
+
+        manager = mock(Manager.class);
+        when(manager.getTableIdentifier()).thenReturn(TableIdentifier.of("db", "schema", "point"));
+        when(manager.primaryKeyFields()).thenAnswer(i -> Stream.of(ID));
+
+        instance = new BulkOperationComponentImpl();
+        inject("projectComponent", projectComponent);
+        inject("dbmsHandlerComponent", dbmsHandlerComponent);
+        inject("transactionComponent", transactionComponent);
+    }
+
+    private EntityCache<Point> entityCache() throws ReflectiveOperationException {
+        final EntityCacheComponent entityCacheComponent = new EntityCacheComponentImpl();
+        entityCacheComponent.putEntityCache(manager.getTableIdentifier(), 10, Duration.ofMinutes(1));
+        inject("entityCacheComponent", entityCacheComponent);
+        return entityCacheComponent.getEntityCache(manager.getTableIdentifier()).get();
+    }
+
+    private Column column(String id) {
+        final Column column = mock(Column.class);
+        when(column.getId()).thenReturn(id);
+        when(column.findDatabaseType()).thenAnswer(i -> Integer.class);
+        return column;
+    }
+
+    private void inject(String fieldName, Object value) throws ReflectiveOperationException {
+        final java.lang.reflect.Field field = BulkOperationComponentImpl.class.getDeclaredField(fieldName);
+        field.setAccessible(true);
+        field.set(instance, value);
+    }
+
+    @Test
+    public void testRemoveIsPushedDown() throws SQLException {
+        when(operationHandler.executeDeleteAndCount(any(), anyString(), anyList())).thenReturn(7L);
+        final long[] result = instance.execute(BulkOperation.builder()
+            .remove(manager).where(X.greaterThan(3))
+            .build()
+        );
+        assertArrayEquals(new long[]{7}, result);
+        verify(operationHandler).executeDeleteAndCount(dbms, "DELETE FROM `point` WHERE (`x` > ?)", Collections.singletonList(3));
+    }
+
+    @Test
+    public void testRemoveAllIsPushedDown() throws SQLException {
+        when(operationHandler.executeDeleteAndCount(any(), anyString(), anyList())).thenReturn(10L);
+        final long[] result = instance.execute(BulkOperation.builder()
+            .remove(manager)
+            .build()
+        );
+        assertArrayEquals(new long[]{10}, result);
+        verify(operationHandler).executeDeleteAndCount(dbms, "DELETE FROM `point`", Collections.emptyList());
+    }
+
+    @Test
+    public void testUpdateIsPushedDown() throws SQLException {
+        when(operationHandler.executeUpdateAndCount(any(), anyString(), anyList())).thenReturn(2L);
+        final long[] result = instance.execute(BulkOperation.builder()
+            .update(manager).where(X.greaterThan(3)).compute(X.setTo(0)).compute(X.setTo(1))
+            .build()
+        );
+        assertArrayEquals(new long[]{2}, result);
+        verify(operationHandler).executeUpdateAndCount(dbms, "UPDATE `point` SET `x` = ? WHERE (`x` > ?)", Arrays.asList(1, 3));
+    }
+
+    @Test
+    public void testPushDownInvalidatesEntityCache() throws Exception {
+        final EntityCache<Point> entityCache = entityCache();
+        entityCache.put(1, () -> new Point(1, 5), entityCache.stamp(1));
+
+        instance.execute(BulkOperation.builder()
+            .update(manager).where(X.greaterThan(3)).compute(X.setTo(0))
+            .build()
+        );
+        assertFalse(entityCache.get(1).isPresent());
+
+        entityCache.put(1, () -> new Point(1, 0), entityCache.stamp(1));
+        instance.execute(BulkOperation.builder()
+            .remove(manager).where(X.greaterThan(3))
+            .build()
+        );
+        assertFalse(entityCache.get(1).isPresent());
+    }
+
+    @Test
+    public void testPushDownInTransactionInvalidatesEntityCacheAfterCommit() throws Exception {
+        final EntityCache<Point> entityCache = entityCache();
+        final List<Runnable> commitActions = new ArrayList<>();
+        when(transactionComponent.afterCommit(any(), any())).thenAnswer(i -> commitActions.add(i.getArgument(1)));
+
+        instance.execute(BulkOperation.builder()
+            .remove(manager).where(X.greaterThan(3))
+            .build()
+        );
+        assertEquals(1, commitActions.size());
+
+        // A reader outside the transaction still sees the old entity
+        entityCache.put(1, () -> new Point(1, 5), entityCache.stamp(1));
+        commitActions.forEach(Runnable::run);
+        assertFalse(entityCache.get(1).isPresent());
+    }
+
+    @Test
+    public void testRemoveWithLambdaReadsInChunks() {
+        final List<Point> removed = new ArrayList<>();
+        final Remover<Point> remover = mock(Remover.class);
+        when(remover.batch(anyInt())).thenReturn(entities -> collect(entities, removed));
+        when(manager.remover()).thenReturn(remover);
+        stubPages(new Point(1, 5), new Point(2, 1), new Point(3, 9));
+
+        final long[] result = instance.execute(BulkOperation.builder()
+            .remove(manager).where(p -> p.getX() > 3)
+            .build()
+        );
+
+        assertArrayEquals(new long[]{2}, result);
+        assertEquals(Arrays.asList(1, 3), removed.stream().map(Point::getId).collect(toList()));
+        verifyZeroInteractions(operationHandler);
+    }
+
+    @Test
+    public void testUpdateWithLambdaReadsInChunks() {
+        final List<Point> updated = new ArrayList<>();
+        final Updater<Point> updater = mock(Updater.class);
+        when(updater.batch(anyInt())).thenReturn(entities -> collect(entities, updated));
+        when(manager.updater()).thenReturn(updater);
+        stubPages(new Point(1, 5), new Point(2, 1), new Point(3, 9));
+
+        final long[] result = instance.execute(BulkOperation.builder()
+            .update(manager).where(X.greaterThan(3)).set(p -> p.setX(p.getX() + 1)).compute(X.setTo(0))
+            .build()
+        );
+
+        assertArrayEquals(new long[]{2}, result);
+        assertEquals(Arrays.asList(1, 3), updated.stream().map(Point::getId).collect(toList()));
+        // The setter is applied after the consumer
+        assertEquals(Arrays.asList(0, 0), updated.stream().map(Point::getX).collect(toList()));
+    }
+
+    @Test
+    public void testPersist() {
+        final List<Point> persisted = new ArrayList<>();
+        final Persister<Point> persister = mock(Persister.class);
+        when(persister.batch(anyInt())).thenReturn(entities -> collect(entities, persisted));
+        when(manager.persister()).thenReturn(persister);
+
+        final long[] result = instance.execute(BulkOperation.builder()
+            .persist(manager).values(() -> Stream.of(new Point(1, 1), new Point(2, 2)))
+            .persist(manager).values(() -> Stream.of(new Point(3, 3)))
+            .build()
+        );
+
+        assertArrayEquals(new long[]{2, 1}, result);
+        assertEquals(3, persisted.size());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testExecuteInTransaction() throws SQLException {
+        final Transaction tx = mock(Transaction.class);
+        final TransactionHandler txHandler = mock(TransactionHandler.class);
+        when(txHandler.createAndApply(any())).thenAnswer(i -> ((Function<Transaction, ?>) i.getArgument(0)).apply(tx));
+        when(transactionComponent.creaateTransactionHandler(dbms)).thenReturn(txHandler);
+        when(operationHandler.executeDeleteAndCount(any(), anyString(), anyList())).thenReturn(4L);
+
+        final long[] result = instance.executeInTransaction(BulkOperation.builder()
+            .remove(manager).where(X.greaterThan(3))
+            .remove(manager)
+            .build()
+        );
+
+        assertArrayEquals(new long[]{4, 4}, result);
+        verify(tx).commit();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void stubPages(Point... points) {
+        final Page<Point> first = mock(Page.class);
+        when(first.getContent()).thenReturn(Arrays.asList(points[0], points[1]));
+        when(first.getNextKey()).thenReturn(Optional.of(Collections.singletonList(points[1].getId())));
+        final Page<Point> last = mock(Page.class);
+        when(last.getContent()).thenReturn(Arrays.asList(points).subList(2, points.length));
+        when(last.getNextKey()).thenReturn(Optional.empty());
+        when(manager.page(any(Comparator.class), anyLong())).thenReturn(first);
+        when(manager.page(any(Comparator.class), eq(Collections.singletonList(points[1].getId())), anyLong())).thenReturn(last);
+    }
+
+    private static long collect(Stream<Point> entities, List<Point> result) {
+        final List<Point> list = entities.collect(toList());
+        result.addAll(list);
+        return list.size();
+    }
+
+    private static final class Point {
+
+        private int id, x;
+
+        private Point(int id, int x) {
+            this.id = id;
+            this.x = x;
+        }
+
+        int getId() {
+            return id;
+        }
+
+        void setId(int id) {
+            this.id = id;
+        }
+
+        int getX() {
+            return x;
+        }
+
+        void setX(int x) {
+            this.x = x;
+        }
+    }
+
+}
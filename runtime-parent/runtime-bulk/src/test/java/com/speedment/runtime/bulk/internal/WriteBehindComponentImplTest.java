@@ -0,0 +1,312 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.bulk.internal;
+
+import com.speedment.runtime.bulk.WriteBehindMetrics;
+import com.speedment.runtime.config.Dbms;
+import com.speedment.runtime.config.Project;
+import com.speedment.runtime.config.identifier.ColumnIdentifier;
+import com.speedment.runtime.config.identifier.TableIdentifier;
+import com.speedment.runtime.core.component.ProjectComponent;
+import com.speedment.runtime.core.component.transaction.Transaction;
+import com.speedment.runtime.core.component.transaction.TransactionComponent;
+import com.speedment.runtime.core.component.transaction.TransactionHandler;
+import com.speedment.runtime.core.exception.SpeedmentException;
+import com.speedment.runtime.core.manager.Manager;
+import com.speedment.runtime.core.manager.Persister;
+import com.speedment.runtime.core.manager.Updater;
+import com.speedment.runtime.field.IntField;
+import com.speedment.runtime.typemapper.TypeMapper;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import static java.util.stream.Collectors.toList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ *
+ * @author agent
+ */
+public class WriteBehindComponentImplTest {
+
+    private static final TableIdentifier<Point> TABLE = TableIdentifier.of("db", "schema", "point");
+
+    private static final IntField<Point, Integer> ID = IntField.create(
+        ColumnIdentifier.of("db", "schema", "point", "id"),
+        Point::getId,
+        Point::setId,
+        TypeMapper.primitive(),
+        true
+    );
+
+    private final List<List<Point>> persisted = new ArrayList<>();
+    private final List<List<Point>> updated = new ArrayList<>();
+    private final List<List<Point>> written = new ArrayList<>(); // Persists and updates in order
+    private Transaction tx;
+    private Manager<Point> manager;
+    private WriteBehindComponentImpl instance;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() throws Exception {
+        final Dbms dbms = mock(Dbms.class);
+        when(dbms.getId()).thenReturn("db");
+        final Project project = mock(Project.class);
+        when(project.dbmses()).thenAnswer(i -> Stream.of(dbms));
+        final ProjectComponent projectComponent = mock(ProjectComponent.class);
+        when(projectComponent.getProject()).thenReturn(project);
+
+        tx = mock(Transaction.class);
+        final TransactionHandler txHandler = mock(TransactionHandler.class);
+        doAnswer(i -> {
+            ((Consumer<Transaction>) i.getArgument(0)).accept(tx);
+            return null;
+        }).when(txHandler).createAndAccept(any());
+        final TransactionComponent transactionComponent = mock(TransactionComponent.class);
+        when(transactionComponent.creaateTransactionHandler(dbms)).thenReturn(txHandler);
+
+        final Persister<Point> persister = mock(Persister.class);
+        when(persister.batch(anyInt())).thenReturn(entities -> record(persisted, entities));
+        final Updater<Point> updater = mock(Updater.class);
+        when(updater.batch(anyInt())).thenReturn(entities -> record(updated, entities));
+        manager = mock(Manager.class);
+        when(manager.getTableIdentifier()).thenReturn(TABLE);
+        when(manager.primaryKeyFields()).thenAnswer(i -> Stream.of(ID));
+        when(manager.persister()).thenReturn(persister);
+        when(manager.updater()).thenReturn(updater);
+
+        instance = new WriteBehindComponentImpl();
+        inject("projectComponent", projectComponent);
+        inject("transactionComponent", transactionComponent);
+        inject("maxBatchSize", 3);
+        inject("maxDelay", TimeUnit.HOURS.toMillis(1));
+    }
+
+    @After
+    public void tearDown() {
+        instance.stop();
+    }
+
+    @Test
+    public void testFlushCoalescesUpdatesOfSameInstance() throws Exception {
+        final Point point = new Point(1, 10);
+        final Point other = new Point(2, 30);
+        final CompletableFuture<Point> firstFuture = instance.update(manager, point);
+        point.setX(20);
+        final CompletableFuture<Point> secondFuture = instance.update(manager, point);
+        assertFalse(firstFuture.isDone());
+
+        instance.flush().get(5, TimeUnit.SECONDS);
+        assertEquals(Arrays.asList(Arrays.asList(point)), updated);
+        assertSame(point, firstFuture.get());
+        assertSame(point, secondFuture.get());
+
+        instance.update(manager, other);
+        instance.flush().get(5, TimeUnit.SECONDS);
+        assertEquals(Arrays.asList(Arrays.asList(point), Arrays.asList(other)), updated);
+        verify(tx, times(2)).commit();
+
+        final WriteBehindMetrics metrics = instance.getMetrics(TABLE);
+        assertEquals(0, metrics.getQueueDepth());
+        assertEquals(3, metrics.getQueuedWrites());
+        assertEquals(1, metrics.getCoalescedWrites());
+        assertEquals(2, metrics.getFlushedRows());
+        assertEquals(2, metrics.getFlushes());
+        assertEquals(0, metrics.getFailedFlushes());
+    }
+
+    @Test
+    public void testFlushDoesNotCoalesceOtherInstancesWithSameKey() throws Exception {
+        // Dirty tracking instances only write the columns changed through them
+        final Point first = new Point(1, 10);
+        final Point second = new Point(1, 20);
+        final Point third = new Point(2, 30);
+        instance.update(manager, first);
+        instance.update(manager, second);
+        instance.update(manager, first);
+
+        instance.flush().get(5, TimeUnit.SECONDS);
+        assertEquals(Arrays.asList(Arrays.asList(second, first)), updated);
+        assertEquals(1, instance.getMetrics(TABLE).getCoalescedWrites());
+
+        instance.update(manager, third);
+        instance.flush().get(5, TimeUnit.SECONDS);
+        assertEquals(Arrays.asList(Arrays.asList(second, first), Arrays.asList(third)), updated);
+    }
+
+    @Test
+    public void testSizeTriggersFlush() throws Exception {
+        final Point a = new Point(1, 1);
+        final Point b = new Point(2, 2);
+        final Point c = new Point(3, 3);
+        instance.persist(manager, a);
+        instance.update(manager, b);
+        assertEquals(2, instance.getMetrics().getQueueDepth());
+
+        // The third write reaches the batch size of 3
+        assertSame(c, instance.persist(manager, c).get(5, TimeUnit.SECONDS));
+        // The writes are flushed in the order they were queued
+        assertEquals(Arrays.asList(Arrays.asList(a), Arrays.asList(b), Arrays.asList(c)), written);
+        verify(tx).commit();
+    }
+
+    @Test
+    public void testDelayTriggersFlush() throws Exception {
+        inject("maxDelay", 1L);
+        final Point a = new Point(1, 1);
+        assertSame(a, instance.persist(manager, a).get(5, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList(Arrays.asList(a)), persisted);
+    }
+
+    @Test
+    public void testFailedFlush() throws Exception {
+        doAnswer(i -> {
+            throw new SpeedmentException("Deadlock");
+        }).when(tx).commit();
+        final CompletableFuture<Point> future = instance.persist(manager, new Point(1, 1));
+        instance.flush().get(5, TimeUnit.SECONDS);
+
+        try {
+            future.get();
+            fail("Expected the write to fail");
+        } catch (final ExecutionException ex) {
+            assertTrue(ex.getCause() instanceof SpeedmentException);
+        }
+        assertEquals(1, instance.getMetrics().getFailedFlushes());
+        assertEquals(0, instance.getMetrics().getFlushedRows());
+    }
+
+    @Test
+    public void testStopFlushesWaitingWrites() throws Exception {
+        final CompletableFuture<Point> future = instance.persist(manager, new Point(1, 1));
+        instance.stop();
+        assertTrue(future.isDone());
+        assertEquals(1, persisted.size());
+        try {
+            instance.persist(manager, new Point(2, 2));
+            fail("Expected the stopped component to reject writes");
+        } catch (final IllegalStateException ex) {
+            // Expected
+        }
+    }
+
+    @Test(timeout = 10_000)
+    public void testStopFlushesWriteQueuedDuringFinalFlush() throws Exception {
+        final Point queued = new Point(1, 1);
+        final Point racing = new Point(2, 2);
+        instance.persist(manager, queued);
+
+        // The racing write passes the stopped check and then waits
+        final CountDownLatch racingChecked = new CountDownLatch(1);
+        final CountDownLatch proceed = new CountDownLatch(1);
+        when(manager.getTableIdentifier()).thenAnswer(i -> {
+            if ("racing-writer".equals(Thread.currentThread().getName())) {
+                racingChecked.countDown();
+                proceed.await();
+            }
+            return TABLE;
+        });
+        final AtomicReference<CompletableFuture<Point>> racingFuture = new AtomicReference<>();
+        final Thread writer = new Thread(() -> racingFuture.set(instance.persist(manager, racing)), "racing-writer");
+        writer.start();
+        racingChecked.await();
+
+        // The racing write is queued while the final flush commits
+        final AtomicBoolean first = new AtomicBoolean(true);
+        doAnswer(i -> {
+            if (first.getAndSet(false)) {
+                proceed.countDown();
+                writer.join();
+            }
+            return null;
+        }).when(tx).commit();
+
+        instance.stop();
+        assertTrue(racingFuture.get().isDone());
+        assertSame(racing, racingFuture.get().get());
+        assertEquals(Arrays.asList(Arrays.asList(queued), Arrays.asList(racing)), persisted);
+    }
+
+    @Test
+    public void testMetricsOfUnusedTable() {
+        final WriteBehindMetrics metrics = instance.getMetrics(TableIdentifier.of("db", "schema", "other"));
+        assertEquals(0, metrics.getQueuedWrites());
+        assertEquals(0, metrics.getAverageFlushNanos());
+    }
+
+    private long record(List<List<Point>> batches, Stream<Point> entities) {
+        final List<Point> batch = entities.collect(toList());
+        batches.add(batch);
+        written.add(batch);
+        return batch.size();
+    }
+
+    private void inject(String fieldName, Object value) throws ReflectiveOperationException {
+        final java.lang.reflect.Field field = WriteBehindComponentImpl.class.getDeclaredField(fieldName);
+        field.setAccessible(true);
+        field.set(instance, value);
+    }
+
+    private static final class Point {
+
+        private int id, x;
+
+        private Point(int id, int x) {
+            this.id = id;
+            this.x = x;
+        }
+
+        int getId() {
+            return id;
+        }
+
+        void setId(int id) {
+            this.id = id;
+        }
+
+        int getX() {
+            return x;
+        }
+
+        void setX(int x) {
+            this.x = x;
+        }
+    }
+
+}
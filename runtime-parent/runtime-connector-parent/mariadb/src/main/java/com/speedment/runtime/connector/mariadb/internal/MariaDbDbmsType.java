@@ -27,12 +27,15 @@ import com.speedment.runtime.core.internal.db.AbstractDbmsType;
 
 
 import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 import java.util.function.Predicate;
 import java.util.stream.Stream;
 
 import com.speedment.runtime.connector.mysql.internal.MySqlSpeedmentPredicateView;
 import static java.util.stream.Collectors.collectingAndThen;
+import static java.util.stream.Collectors.joining;
 import static java.util.stream.Collectors.toSet;
 
 /**
@@ -117,6 +120,42 @@ public final class MariaDbDbmsType extends AbstractDbmsType {
         return "select version() as `MariaDB version`";
     }
 
+    @Override
+    public MultiRowInsertSupport getMultiRowInsertSupport() {
+        // Generated keys are only consecutive for some innodb_autoinc_lock_mode settings
+        return MultiRowInsertSupport.WITHOUT_GENERATED_KEYS;
+    }
+
+    @Override
+    public int getMaxParametersPerStatement() {
+        return 65_535;
+    }
+
+    @Override
+    public long getMaxStatementSize() {
+        // Stay well below the default max_allowed_packet of 4 MiB
+        return 2L << 20;
+    }
+
+    @Override
+    public Optional<String> renderUpsert(Dbms dbms, String insertStatement, List<String> keyColumns, List<String> updateColumns) {
+        // Assigning a key column to itself leaves an existing row unchanged
+        final Stream<String> assignments = updateColumns.isEmpty()
+            ? keyColumns.stream().limit(1).map(c -> c + " = " + c)
+            : updateColumns.stream().map(c -> c + " = VALUES(" + c + ")");
+        return Optional.of(insertStatement + " ON DUPLICATE KEY UPDATE " + assignments.collect(joining(",")));
+    }
+
+    @Override
+    public UpsertOutcomeReporting getUpsertOutcomeReporting(Dbms dbms) {
+        return operationHandler.upsertOutcomeReporting(dbms);
+    }
+
+    @Override
+    public Set<Integer> getRetryableErrorCodes() {
+        return Collections.singleton(1213); // ER_LOCK_DEADLOCK
+    }
+
     @Override
     public DbmsColumnHandler getColumnHandler() {
         return new DbmsColumnHandler() {
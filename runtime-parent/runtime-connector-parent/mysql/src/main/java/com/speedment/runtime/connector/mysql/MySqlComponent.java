@@ -17,13 +17,82 @@
 package com.speedment.runtime.connector.mysql;
 
 import com.speedment.common.injector.annotation.InjectKey;
+import com.speedment.runtime.core.exception.SpeedmentException;
+import com.speedment.runtime.core.manager.Manager;
+
+import java.util.stream.Stream;
 
 /**
  * A component required to communicate with H2 databases.
  * <p>
+ * It also gives access to the {@code LOAD DATA LOCAL INFILE} statement of
+ * MySQL and MariaDB, which is much faster than batched inserts for loading
+ * large numbers of rows. The data is streamed through the driver, so the
+ * connection must allow local data, for example by setting
+ * {@code allowLoadLocalInfile=true} in the connection URL, and the server
+ * must have {@code local_infile} enabled.
  * 
  * @author  Per Minborg
  * @since   1.0.0
  */
 @InjectKey(MySqlComponent.class)
-public interface MySqlComponent  {};
\ No newline at end of file
+public interface MySqlComponent  {
+
+    /**
+     * The number of entities that are loaded per statement by
+     * {@link #loadData(Manager, Stream)}.
+     *
+     * @since 3.1.2
+     */
+    int DEFAULT_LOAD_DATA_CHUNK_SIZE = 100_000;
+
+    /**
+     * Inserts all the entities of the given Stream into the table of the
+     * given manager using {@code LOAD DATA LOCAL INFILE}, with one statement
+     * for every {@link #DEFAULT_LOAD_DATA_CHUNK_SIZE} entities.
+     *
+     * @param <ENTITY>  the entity type
+     * @param manager   the manager of the table to load into
+     * @param entities  the entities to load
+     * @return          the number of loaded entities
+     *
+     * @throws IllegalArgumentException  if the table is not in a MySQL or a
+     *                                   MariaDB database
+     * @throws SpeedmentException        if the load fails
+     * @see #loadData(Manager, Stream, int)
+     * @since 3.1.2
+     */
+    default <ENTITY> long loadData(Manager<ENTITY> manager, Stream<ENTITY> entities) {
+        return loadData(manager, entities, DEFAULT_LOAD_DATA_CHUNK_SIZE);
+    }
+
+    /**
+     * Inserts all the entities of the given Stream into the table of the
+     * given manager using {@code LOAD DATA LOCAL INFILE}, with one statement
+     * for every {@code chunkSize} entities. The entities are encoded one at a
+     * time as they are sent, so memory use does not depend on the number of
+     * entities. Columns that are excluded from insert statements, like
+     * auto-increment columns, are not loaded and generated values are not
+     * read back.
+     * <p>
+     * Unless the call is part of a transaction, each chunk is committed as
+     * soon as it has been loaded. The server reports rows that can not be
+     * loaded, like rows with duplicate keys, as warnings rather than errors
+     * and such rows are not counted in the returned value. The given Stream
+     * is closed when this method returns.
+     *
+     * @param <ENTITY>   the entity type
+     * @param manager    the manager of the table to load into
+     * @param entities   the entities to load
+     * @param chunkSize  the maximum number of entities per statement
+     * @return           the number of loaded entities
+     *
+     * @throws IllegalArgumentException  if the table is not in a MySQL or a
+     *                                   MariaDB database, or if the chunk
+     *                                   size is not positive
+     * @throws SpeedmentException        if the load fails
+     * @since 3.1.2
+     */
+    <ENTITY> long loadData(Manager<ENTITY> manager, Stream<ENTITY> entities, int chunkSize);
+
+}
\ No newline at end of file
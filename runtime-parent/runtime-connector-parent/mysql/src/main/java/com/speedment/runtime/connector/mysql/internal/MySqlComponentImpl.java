@@ -18,9 +18,12 @@ package com.speedment.runtime.connector.mysql.internal;
 
 import static com.speedment.common.injector.State.INITIALIZED;
 import com.speedment.common.injector.annotation.ExecuteBefore;
+import com.speedment.common.injector.annotation.Inject;
 import com.speedment.common.injector.annotation.WithState;
 import com.speedment.runtime.core.component.DbmsHandlerComponent;
 import com.speedment.runtime.connector.mysql.MySqlComponent;
+import com.speedment.runtime.core.manager.Manager;
+import java.util.stream.Stream;
 
 /**
  *
@@ -30,6 +33,8 @@ import com.speedment.runtime.connector.mysql.MySqlComponent;
  */
 public final class MySqlComponentImpl implements MySqlComponent {
 
+    @Inject private MySqlDbmsOperationHandler operationHandler;
+
     protected MySqlComponentImpl() {}
 
     @ExecuteBefore(INITIALIZED)
@@ -40,4 +45,9 @@ public final class MySqlComponentImpl implements MySqlComponent {
         dbmsHandlerComponent.install(mySqlDbmsType);
     }
 
+    @Override
+    public <ENTITY> long loadData(Manager<ENTITY> manager, Stream<ENTITY> entities, int chunkSize) {
+        return operationHandler.loadData(manager, entities, chunkSize);
+    }
+
 }
@@ -16,9 +16,46 @@
  */
 package com.speedment.runtime.connector.mysql.internal;
 
+import com.speedment.common.injector.annotation.Inject;
+import com.speedment.runtime.config.Column;
+import com.speedment.runtime.config.Dbms;
+import com.speedment.runtime.config.Project;
+import com.speedment.runtime.config.identifier.TableIdentifier;
+import com.speedment.runtime.config.util.DocumentDbUtil;
+import com.speedment.runtime.core.component.DbmsHandlerComponent;
+import com.speedment.runtime.core.component.ProjectComponent;
+import com.speedment.runtime.core.component.connectionpool.ConnectionPoolComponent;
+import com.speedment.runtime.core.component.transaction.TransactionComponent;
+import com.speedment.runtime.core.db.DatabaseNamingConvention;
+import com.speedment.runtime.core.db.DbmsType;
+import com.speedment.runtime.core.db.DbmsType.UpsertOutcomeReporting;
+import com.speedment.runtime.core.exception.SpeedmentException;
 import com.speedment.runtime.core.internal.db.AbstractDbmsOperationHandler;
+import com.speedment.runtime.core.internal.db.ConnectionInfo;
+import com.speedment.runtime.core.manager.Manager;
+import com.speedment.runtime.field.Field;
+import com.speedment.runtime.typemapper.TypeMapper;
+
+import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static com.speedment.common.invariant.NullUtil.requireNonNulls;
+import static com.speedment.runtime.core.util.DatabaseUtil.dbmsTypeOf;
+import static com.speedment.runtime.core.util.DatabaseUtil.findConnectionUrl;
+import static java.util.stream.Collectors.toList;
 
 /**
  *
@@ -27,9 +64,220 @@ import java.sql.SQLException;
  */
 public final class MySqlDbmsOperationHandler extends AbstractDbmsOperationHandler {
 
+    private static final List<String> BINARY_DATABASE_TYPES = Arrays.asList(
+        "byte[]", "[B", "java.sql.Blob"
+    );
+
+    private static final Pattern SERVER_VERSION = Pattern.compile("^(\\d+)\\.(\\d+)\\.(\\d+)");
+
+    @Inject private ProjectComponent projectComponent;
+    @Inject private DbmsHandlerComponent dbmsHandlerComponent;
+    @Inject private ConnectionPoolComponent connectionPoolComponent;
+    @Inject private TransactionComponent transactionComponent;
+
+    private final Map<String, Boolean> rowAliasSupport = new ConcurrentHashMap<>();
+
     @Override
     public void configureSelect(PreparedStatement statement) throws SQLException {
         statement.setFetchSize(Integer.MIN_VALUE); // Enable streaming ResultSet
     }
 
+    /**
+     * Inserts all the entities of the given Stream into the table of the
+     * given manager using {@code LOAD DATA LOCAL INFILE}, with one statement
+     * for every {@code chunkSize} entities. The entities of a chunk are
+     * encoded as tab separated rows one at a time while the driver sends
+     * them, so memory use does not depend on the number of entities. Columns
+     * that are excluded from insert statements, like auto-increment columns,
+     * are not loaded and generated values are not read back.
+     * <p>
+     * Unless the call is part of a transaction, each chunk is committed as
+     * soon as it has been loaded, so chunks that were loaded before a failure
+     * remain in the table. The given Stream is closed when this method
+     * returns.
+     * <p>
+     * The server reports rows that can not be loaded, like rows with
+     * duplicate keys, as warnings rather than errors. Such rows are not
+     * counted in the returned value.
+     *
+     * @param <ENTITY>   the entity type
+     * @param manager    the manager of the table to load into
+     * @param entities   the entities to load
+     * @param chunkSize  the maximum number of entities per statement
+     * @return           the number of loaded entities
+     *
+     * @throws IllegalArgumentException  if the table is not in a MySQL or a
+     *                                   MariaDB database, or if the chunk
+     *                                   size is not positive
+     * @throws SpeedmentException        if the load fails
+     * @since 3.1.2
+     */
+    public <ENTITY> long loadData(Manager<ENTITY> manager, Stream<ENTITY> entities, int chunkSize) {
+        requireNonNulls(manager, entities);
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("The chunk size must be positive, was " + chunkSize);
+        }
+        final Project project = projectComponent.getProject();
+        final TableIdentifier<ENTITY> tableId = manager.getTableIdentifier();
+        final Dbms dbms = DocumentDbUtil.referencedDbms(project, tableId);
+        final DbmsType dbmsType = requireMySql(dbms);
+        final DatabaseNamingConvention naming = dbmsType.getDatabaseNamingConvention();
+        final Predicate<Column> excluded = dbmsType.getColumnHandler().excludedInInsertStatement();
+
+        final List<Field<ENTITY>> fields = new ArrayList<>();
+        final List<Column> columns = new ArrayList<>();
+        manager.fields().forEachOrdered(f -> {
+            final Column column = DocumentDbUtil.referencedColumn(project, f.identifier());
+            if (column.isEnabled() && !excluded.test(column)) {
+                fields.add(f);
+                columns.add(column);
+            }
+        });
+
+        // Binary values are loaded as hex strings into variables and decoded
+        // in the SET clause, so that they are not subject to charset conversion
+        final boolean[] hexColumns = new boolean[columns.size()];
+        final StringBuilder targets = new StringBuilder();
+        final StringBuilder assignments = new StringBuilder();
+        for (int i = 0; i < columns.size(); i++) {
+            final Column column = columns.get(i);
+            final String name = naming.encloseField(column.getName());
+            hexColumns[i] = BINARY_DATABASE_TYPES.contains(column.getDatabaseType());
+            if (i > 0) {
+                targets.append(',');
+            }
+            if (hexColumns[i]) {
+                targets.append("@v").append(i);
+                assignments.append(assignments.length() == 0 ? " SET " : ",")
+                    .append(name).append(" = UNHEX(@v").append(i).append(')');
+            } else {
+                targets.append(name);
+            }
+        }
+
+        final String sql = "LOAD DATA LOCAL INFILE 'speedment' INTO TABLE "
+            + naming.fullNameOf(DocumentDbUtil.referencedTable(project, tableId))
+            + " CHARACTER SET utf8mb4"
+            + " FIELDS TERMINATED BY '\\t' ESCAPED BY '\\\\' LINES TERMINATED BY '\\n'"
+            + " (" + targets + ")" + assignments;
+        LOGGER_PERSIST.debug("%s", sql);
+
+        try (final Stream<ENTITY> closeable = entities;
+            final ConnectionInfo connectionInfo = new ConnectionInfo(dbms, connectionPoolComponent, transactionComponent)) {
+            final Iterator<ENTITY> iterator = closeable.sequential().iterator();
+            final Connection connection = connectionInfo.connection();
+            final boolean commitChunks = !connectionInfo.isInTransaction();
+            if (commitChunks) {
+                connection.setAutoCommit(false);
+            }
+            long loaded = 0;
+            try (final Statement statement = connection.createStatement()) {
+                while (iterator.hasNext()) {
+                    final TsvEntityInputStream<ENTITY> data = new TsvEntityInputStream<>(
+                        iterator, entity -> databaseValues(fields, entity), hexColumns, chunkSize
+                    );
+                    MySqlLocalInfile.setInputStream(statement, data);
+                    final long count = statement.executeUpdate(sql);
+                    if (commitChunks) {
+                        connection.commit();
+                    }
+                    if (count != data.getRows()) {
+                        LOGGER_PERSIST.warn(
+                            "Loaded %d of %d rows into %s. The server reported: %s",
+                            count, data.getRows(), tableId, statement.getWarnings()
+                        );
+                    }
+                    loaded += count;
+                }
+            } catch (final SQLException | RuntimeException ex) {
+                if (commitChunks) {
+                    connection.rollback();
+                }
+                throw ex;
+            }
+            return loaded;
+        } catch (final SQLException ex) {
+            throw new SpeedmentException("Unable to load entities into " + tableId, ex);
+        }
+    }
+
+    private <ENTITY> List<Object> databaseValues(List<Field<ENTITY>> fields, ENTITY entity) {
+        return fields.stream()
+            .map(f -> {
+                @SuppressWarnings("unchecked")
+                final TypeMapper<Object, Object> typeMapper = (TypeMapper<Object, Object>) f.typeMapper();
+                return typeMapper.toDatabaseType(f.getter().apply(entity));
+            })
+            .collect(toList());
+    }
+
+    /**
+     * Returns the way the outcome of an upsert statement is reported by the
+     * given dbms. Unless the connection URL contains
+     * {@code useAffectedRows=true}, MySQL and MariaDB drivers set the
+     * {@code CLIENT_FOUND_ROWS} flag, which makes an existing row that was
+     * left unchanged count as 1 just like an inserted row.
+     *
+     * @param dbms  the dbms
+     * @return      the way the outcome of an upsert statement is reported
+     * @since 3.1.2
+     */
+    public UpsertOutcomeReporting upsertOutcomeReporting(Dbms dbms) {
+        return upsertOutcomeReporting(findConnectionUrl(dbmsHandlerComponent, dbms));
+    }
+
+    static UpsertOutcomeReporting upsertOutcomeReporting(String connectionUrl) {
+        return connectionUrl.toLowerCase(Locale.ROOT).contains("useaffectedrows=true")
+            ? UpsertOutcomeReporting.UPDATE_COUNT
+            : UpsertOutcomeReporting.UPDATE_COUNT_OF_FOUND_ROWS;
+    }
+
+    /**
+     * Returns if the server of the given dbms supports a row alias in
+     * {@code INSERT ... ON DUPLICATE KEY UPDATE} statements, which is the
+     * case for MySQL 8.0.19 and later. The server version is read once per
+     * connection URL.
+     *
+     * @param dbms  the dbms
+     * @return      if the server supports a row alias
+     *
+     * @throws SpeedmentException  if the server version can not be read
+     * @since 3.1.2
+     */
+    public boolean isRowAliasSupported(Dbms dbms) {
+        return rowAliasSupport.computeIfAbsent(findConnectionUrl(dbmsHandlerComponent, dbms), url -> {
+            try (final ConnectionInfo connectionInfo = new ConnectionInfo(dbms, connectionPoolComponent, transactionComponent)) {
+                return isRowAliasSupported(connectionInfo.connection().getMetaData().getDatabaseProductVersion());
+            } catch (final SQLException ex) {
+                throw new SpeedmentException("Unable to read the server version of " + dbms.getName(), ex);
+            }
+        });
+    }
+
+    static boolean isRowAliasSupported(String productVersion) {
+        if (productVersion.contains("MariaDB")) {
+            return false;
+        }
+        final Matcher matcher = SERVER_VERSION.matcher(productVersion);
+        if (!matcher.find()) {
+            return false;
+        }
+        final int major = Integer.parseInt(matcher.group(1));
+        final int minor = Integer.parseInt(matcher.group(2));
+        final int patch = Integer.parseInt(matcher.group(3));
+        return major > 8 || (major == 8 && (minor > 0 || patch >= 19));
+    }
+
+    private DbmsType requireMySql(Dbms dbms) {
+        final DbmsType dbmsType = dbmsTypeOf(dbmsHandlerComponent, dbms);
+        // The MariaDB connector uses this operation handler as well
+        if (!(dbmsType.getOperationHandler() instanceof MySqlDbmsOperationHandler)) {
+            throw new IllegalArgumentException(
+                "LOAD DATA LOCAL INFILE is only supported for MySQL and MariaDB databases, not for "
+                + dbmsType.getName()
+            );
+        }
+        return dbmsType;
+    }
+
 }
@@ -24,6 +24,8 @@ import com.speedment.runtime.core.db.*;
 
 import java.sql.Driver;
 import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 import java.util.function.Predicate;
 import java.util.stream.Stream;
@@ -31,9 +33,9 @@ import java.util.stream.Stream;
 import com.speedment.runtime.core.exception.SpeedmentException;
 import com.speedment.runtime.core.internal.db.AbstractDatabaseNamingConvention;
 import com.speedment.runtime.core.internal.db.AbstractDbmsType;
-import com.sun.corba.se.spi.orb.ORBVersion;
 
 import static java.util.stream.Collectors.collectingAndThen;
+import static java.util.stream.Collectors.joining;
 import static java.util.stream.Collectors.toSet;
 
 /**
@@ -43,6 +45,7 @@ import static java.util.stream.Collectors.toSet;
  */
 public final class MySqlDbmsType extends AbstractDbmsType {
 
+    private static final String UPSERT_ROW_ALIAS = "new_row";
     private static final String OLD_DRIVER = "com.mysql.jdbc.Driver";
     private static final String NEW_DRIVER = "com.mysql.cj.jdbc.Driver";
 
@@ -124,6 +127,51 @@ public final class MySqlDbmsType extends AbstractDbmsType {
         return "select version() as `MySQL version`";
     }
 
+    @Override
+    public MultiRowInsertSupport getMultiRowInsertSupport() {
+        // Generated keys are only consecutive for some innodb_autoinc_lock_mode settings
+        return MultiRowInsertSupport.WITHOUT_GENERATED_KEYS;
+    }
+
+    @Override
+    public int getMaxParametersPerStatement() {
+        return 65_535;
+    }
+
+    @Override
+    public long getMaxStatementSize() {
+        // Stay well below the default max_allowed_packet of 4 MiB
+        return 2L << 20;
+    }
+
+    @Override
+    public Optional<String> renderUpsert(Dbms dbms, String insertStatement, List<String> keyColumns, List<String> updateColumns) {
+        if (updateColumns.isEmpty()) {
+            // Assigning a key column to itself leaves an existing row unchanged
+            return Optional.of(insertStatement + " ON DUPLICATE KEY UPDATE " + keyColumns.get(0) + " = " + keyColumns.get(0));
+        }
+        if (operationHandler.isRowAliasSupported(dbms)) {
+            // The VALUES() function is deprecated as of MySQL 8.0.20
+            final String alias = namingConvention.encloseField(UPSERT_ROW_ALIAS);
+            return Optional.of(insertStatement + " AS " + alias + " ON DUPLICATE KEY UPDATE "
+                + updateColumns.stream().map(c -> c + " = " + alias + "." + c).collect(joining(","))
+            );
+        }
+        return Optional.of(insertStatement + " ON DUPLICATE KEY UPDATE "
+            + updateColumns.stream().map(c -> c + " = VALUES(" + c + ")").collect(joining(","))
+        );
+    }
+
+    @Override
+    public UpsertOutcomeReporting getUpsertOutcomeReporting(Dbms dbms) {
+        return operationHandler.upsertOutcomeReporting(dbms);
+    }
+
+    @Override
+    public Set<Integer> getRetryableErrorCodes() {
+        return Collections.singleton(1213); // ER_LOCK_DEADLOCK
+    }
+
     @Override
     public DbmsColumnHandler getColumnHandler() {
         return new DbmsColumnHandler() {
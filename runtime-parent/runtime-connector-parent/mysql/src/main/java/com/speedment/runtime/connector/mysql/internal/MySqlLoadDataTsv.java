@@ -0,0 +1,135 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.connector.mysql.internal;
+
+import java.math.BigDecimal;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.SQLException;
+
+import static com.speedment.runtime.core.util.StaticClassUtil.instanceNotAllowed;
+
+/**
+ * Encoding of single values in the tab separated format read by
+ * {@code LOAD DATA ... FIELDS TERMINATED BY '\t' ESCAPED BY '\\' LINES
+ * TERMINATED BY '\n'}. {@code NULL} is encoded as {@code \N} and the
+ * delimiter, line break and escape characters are escaped with a backslash.
+ *
+ * @author agent
+ * @since 3.1.2
+ */
+final class MySqlLoadDataTsv {
+
+    private static final char DELIMITER = '\t';
+    private static final char LINE_END = '\n';
+    private static final char ESCAPE = '\\';
+    private static final String NULL = "\\N";
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    /**
+     * Appends the given database value to the given row, escaping it if
+     * needed. Booleans are encoded as {@code 1} and {@code 0}.
+     *
+     * @param row    the row to append the value to
+     * @param value  the database value, may be {@code null}
+     * @throws SQLException  if a {@code Clob} can not be read
+     */
+    static void appendValue(StringBuilder row, Object value) throws SQLException {
+        if (value == null) {
+            row.append(NULL);
+        } else if (value instanceof Boolean) {
+            row.append((Boolean) value ? '1' : '0');
+        } else if (value instanceof BigDecimal) {
+            row.append(((BigDecimal) value).toPlainString());
+        } else if (value instanceof Number) {
+            row.append(value);
+        } else if (value instanceof Clob) {
+            final Clob clob = (Clob) value;
+            appendEscaped(row, clob.getSubString(1, Math.toIntExact(clob.length())));
+        } else {
+            appendEscaped(row, value.toString());
+        }
+    }
+
+    /**
+     * Appends the given binary database value to the given row as a hex
+     * string, to be decoded with {@code UNHEX()} in the {@code SET} clause.
+     * This keeps arbitrary bytes out of the character set conversion of the
+     * text values.
+     *
+     * @param row    the row to append the value to
+     * @param value  a {@code byte[]} or a {@code Blob}, may be {@code null}
+     * @throws SQLException  if a {@code Blob} can not be read
+     * @throws IllegalArgumentException  if the value is not binary
+     */
+    static void appendHex(StringBuilder row, Object value) throws SQLException {
+        if (value == null) {
+            row.append(NULL);
+            return;
+        }
+        final byte[] bytes;
+        if (value instanceof byte[]) {
+            bytes = (byte[]) value;
+        } else if (value instanceof Blob) {
+            final Blob blob = (Blob) value;
+            bytes = blob.getBytes(1, Math.toIntExact(blob.length()));
+        } else {
+            throw new IllegalArgumentException(
+                "Expected a binary value but got a " + value.getClass().getName()
+            );
+        }
+        for (final byte b : bytes) {
+            row.append(HEX[(b >> 4) & 0xf]).append(HEX[b & 0xf]);
+        }
+    }
+
+    /**
+     * Appends the delimiter that separates two values in a row.
+     *
+     * @param row  the row to append the delimiter to
+     */
+    static void appendDelimiter(StringBuilder row) {
+        row.append(DELIMITER);
+    }
+
+    /**
+     * Appends the line break that terminates a row.
+     *
+     * @param row  the row to terminate
+     */
+    static void appendLineEnd(StringBuilder row) {
+        row.append(LINE_END);
+    }
+
+    private static void appendEscaped(StringBuilder row, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            switch (c) {
+                case ESCAPE:    row.append(ESCAPE).append(ESCAPE); break;
+                case DELIMITER: row.append(ESCAPE).append('t');    break;
+                case LINE_END:  row.append(ESCAPE).append('n');    break;
+                case '\r':      row.append(ESCAPE).append('r');    break;
+                case '\0':      row.append(ESCAPE).append('0');    break;
+                default:        row.append(c);
+            }
+        }
+    }
+
+    private MySqlLoadDataTsv() {
+        instanceNotAllowed(getClass());
+    }
+}
@@ -0,0 +1,117 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.connector.mysql.internal;
+
+import com.speedment.runtime.core.exception.SpeedmentException;
+
+import java.io.InputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.speedment.runtime.core.util.StaticClassUtil.instanceNotAllowed;
+
+/**
+ * Access to the driver specific hook that lets a {@code LOAD DATA LOCAL
+ * INFILE} statement read its data from an {@code InputStream} instead of a
+ * file. The drivers are provided by the application, so they are accessed
+ * reflectively rather than being compile time dependencies of the connector.
+ *
+ * @author agent
+ * @since 3.1.2
+ */
+final class MySqlLocalInfile {
+
+    private static final String METHOD_NAME = "setLocalInfileInputStream";
+
+    // Connector/J 8, Connector/J 5.1 and MariaDB Connector/J
+    private static final List<String> STATEMENT_CLASSES = Arrays.asList(
+        "com.mysql.cj.jdbc.JdbcStatement",
+        "com.mysql.jdbc.Statement",
+        "org.mariadb.jdbc.MariaDbStatement"
+    );
+
+    /**
+     * Makes the next {@code LOAD DATA LOCAL INFILE} statement executed by the
+     * given statement read its data from the given stream.
+     *
+     * @param statement  a statement created by the MySQL or MariaDB driver
+     * @param data       the data to load
+     * @throws SQLException  if the statement can not be unwrapped
+     * @throws SpeedmentException  if the driver does not support streaming
+     *                             local data
+     */
+    static void setInputStream(Statement statement, InputStream data) throws SQLException {
+        for (final String className : STATEMENT_CLASSES) {
+            final Class<?> statementClass = loadClass(statement, className);
+            if (statementClass != null && statement.isWrapperFor(statementClass)) {
+                invoke(method(statementClass), statement.unwrap(statementClass), data);
+                return;
+            }
+        }
+        throw new SpeedmentException(
+            "The JDBC driver statement " + statement.getClass().getName()
+            + " does not support streaming LOAD DATA LOCAL INFILE data. "
+            + "Supported drivers are MySQL Connector/J and MariaDB Connector/J."
+        );
+    }
+
+    private static Class<?> loadClass(Statement statement, String className) {
+        try {
+            return Class.forName(className, true, statement.getClass().getClassLoader());
+        } catch (final ClassNotFoundException ex) {
+            try {
+                return Class.forName(className);
+            } catch (final ClassNotFoundException ex2) {
+                return null;
+            }
+        }
+    }
+
+    private static Method method(Class<?> statementClass) {
+        try {
+            return statementClass.getMethod(METHOD_NAME, InputStream.class);
+        } catch (final NoSuchMethodException ex) {
+            throw new SpeedmentException(
+                "The JDBC driver does not provide " + statementClass.getName() + "." + METHOD_NAME, ex
+            );
+        }
+    }
+
+    private static void invoke(Method method, Object target, InputStream data) throws SQLException {
+        try {
+            method.invoke(target, data);
+        } catch (final InvocationTargetException ex) {
+            final Throwable cause = ex.getCause();
+            if (cause instanceof SQLException) {
+                throw (SQLException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new SpeedmentException(cause);
+        } catch (final IllegalAccessException ex) {
+            throw new SpeedmentException(ex);
+        }
+    }
+
+    private MySqlLocalInfile() {
+        instanceNotAllowed(getClass());
+    }
+}
@@ -0,0 +1,141 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.connector.mysql.internal;
+
+import com.speedment.runtime.core.exception.SpeedmentException;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * An {@code InputStream} that encodes entities as UTF-8 encoded tab separated
+ * rows on demand, so that only a single row is held in memory at a time. At
+ * most a given number of rows are read from the iterator, so that the
+ * remaining entities can be encoded by another stream.
+ *
+ * @param <ENTITY> the entity type
+ *
+ * @author agent
+ * @since 3.1.2
+ */
+final class TsvEntityInputStream<ENTITY> extends InputStream {
+
+    private static final byte[] EMPTY = new byte[0];
+
+    private final Iterator<ENTITY> entities;
+    private final Function<ENTITY, List<Object>> databaseValues;
+    private final boolean[] hexColumns;
+    private final long maxRows;
+    private final StringBuilder row;
+    private byte[] bytes;
+    private int position;
+    private long rows;
+
+    /**
+     * Creates a stream that encodes at most {@code maxRows} entities from the
+     * given iterator.
+     *
+     * @param entities        the entities to encode
+     * @param databaseValues  a function that returns the database values of
+     *                        an entity in column order
+     * @param hexColumns      for each column, if its values are binary and
+     *                        should be encoded as hex strings
+     * @param maxRows         the maximum number of rows to encode
+     */
+    TsvEntityInputStream(
+        Iterator<ENTITY> entities,
+        Function<ENTITY, List<Object>> databaseValues,
+        boolean[] hexColumns,
+        long maxRows
+    ) {
+        this.entities = requireNonNull(entities);
+        this.databaseValues = requireNonNull(databaseValues);
+        this.hexColumns = hexColumns.clone();
+        this.maxRows = maxRows;
+        this.row = new StringBuilder();
+        this.bytes = EMPTY;
+    }
+
+    @Override
+    public int read() {
+        if (position == bytes.length && !nextRow()) {
+            return -1;
+        }
+        return bytes[position++] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) {
+        if (length == 0) {
+            return 0;
+        }
+        if (position == bytes.length && !nextRow()) {
+            return -1;
+        }
+        final int count = Math.min(length, bytes.length - position);
+        System.arraycopy(bytes, position, buffer, offset, count);
+        position += count;
+        return count;
+    }
+
+    @Override
+    public void close() {
+        // The iterator is owned by the caller
+    }
+
+    /**
+     * Returns the number of rows that have been encoded so far.
+     *
+     * @return  the number of encoded rows
+     */
+    long getRows() {
+        return rows;
+    }
+
+    private boolean nextRow() {
+        if (rows >= maxRows || !entities.hasNext()) {
+            return false;
+        }
+        row.setLength(0);
+        final List<Object> values = databaseValues.apply(requireNonNull(entities.next()));
+        try {
+            for (int i = 0; i < values.size(); i++) {
+                if (i > 0) {
+                    MySqlLoadDataTsv.appendDelimiter(row);
+                }
+                if (hexColumns[i]) {
+                    MySqlLoadDataTsv.appendHex(row, values.get(i));
+                } else {
+                    MySqlLoadDataTsv.appendValue(row, values.get(i));
+                }
+            }
+        } catch (final SQLException ex) {
+            throw new SpeedmentException(ex);
+        }
+        MySqlLoadDataTsv.appendLineEnd(row);
+        bytes = row.toString().getBytes(StandardCharsets.UTF_8);
+        position = 0;
+        rows++;
+        return true;
+    }
+}
@@ -0,0 +1,31 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.mysql.cj.jdbc;
+
+import java.io.InputStream;
+import java.sql.Statement;
+
+/**
+ * A stand-in for the MySQL Connector/J interface with the same name.
+ *
+ * @author agent
+ */
+public interface JdbcStatement extends Statement {
+
+    void setLocalInfileInputStream(InputStream stream);
+
+}
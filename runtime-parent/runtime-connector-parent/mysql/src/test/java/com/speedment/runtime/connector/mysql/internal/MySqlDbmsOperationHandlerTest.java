@@ -0,0 +1,62 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.connector.mysql.internal;
+
+import com.speedment.runtime.core.db.DbmsType.UpsertOutcomeReporting;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ *
+ * @author agent
+ */
+public class MySqlDbmsOperationHandlerTest {
+
+    @Test
+    public void testUpsertOutcomeReporting() {
+        assertEquals(
+            UpsertOutcomeReporting.UPDATE_COUNT_OF_FOUND_ROWS,
+            MySqlDbmsOperationHandler.upsertOutcomeReporting("jdbc:mysql://localhost:3306?useUnicode=true")
+        );
+        assertEquals(
+            UpsertOutcomeReporting.UPDATE_COUNT_OF_FOUND_ROWS,
+            MySqlDbmsOperationHandler.upsertOutcomeReporting("jdbc:mysql://localhost:3306?useAffectedRows=false")
+        );
+        assertEquals(
+            UpsertOutcomeReporting.UPDATE_COUNT,
+            MySqlDbmsOperationHandler.upsertOutcomeReporting("jdbc:mysql://localhost:3306?useUnicode=true&useAffectedRows=true")
+        );
+        assertEquals(
+            UpsertOutcomeReporting.UPDATE_COUNT,
+            MySqlDbmsOperationHandler.upsertOutcomeReporting("jdbc:mariadb://localhost:3306?useaffectedrows=TRUE")
+        );
+    }
+
+    @Test
+    public void testIsRowAliasSupported() {
+        assertFalse(MySqlDbmsOperationHandler.isRowAliasSupported("5.7.31-log"));
+        assertFalse(MySqlDbmsOperationHandler.isRowAliasSupported("8.0.18"));
+        assertTrue(MySqlDbmsOperationHandler.isRowAliasSupported("8.0.19"));
+        assertTrue(MySqlDbmsOperationHandler.isRowAliasSupported("8.0.33-0ubuntu0.22.04.2"));
+        assertTrue(MySqlDbmsOperationHandler.isRowAliasSupported("8.4.0"));
+        assertTrue(MySqlDbmsOperationHandler.isRowAliasSupported("9.1.0"));
+        assertFalse(MySqlDbmsOperationHandler.isRowAliasSupported("10.5.8-MariaDB"));
+        assertFalse(MySqlDbmsOperationHandler.isRowAliasSupported("5.5.5-10.11.2-MariaDB-log"));
+        assertFalse(MySqlDbmsOperationHandler.isRowAliasSupported("unknown"));
+    }
+
+}
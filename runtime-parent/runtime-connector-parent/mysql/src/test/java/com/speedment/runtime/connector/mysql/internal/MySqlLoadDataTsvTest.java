@@ -0,0 +1,77 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.connector.mysql.internal;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ *
+ * @author agent
+ */
+public class MySqlLoadDataTsvTest {
+
+    @Test
+    public void testAppendNull() throws SQLException {
+        assertEquals("\\N", value(null));
+        assertEquals("\\N", hex(null));
+    }
+
+    @Test
+    public void testAppendEscaped() throws SQLException {
+        assertEquals("", value(""));
+        assertEquals("a\\tb\\nc\\rd\\\\e\\0f", value("a\tb\nc\rd\\e\0f"));
+        assertEquals("\\\\N", value("\\N"));
+        assertEquals("åäö €", value("åäö €"));
+    }
+
+    @Test
+    public void testAppendTypes() throws SQLException {
+        assertEquals("1", value(true));
+        assertEquals("0", value(false));
+        assertEquals("42", value(42L));
+        assertEquals("10000000000", value(new BigDecimal("1E+10")));
+        assertEquals("2018-01-02 03:04:05.678", value(Timestamp.valueOf("2018-01-02 03:04:05.678")));
+    }
+
+    @Test
+    public void testAppendHex() throws SQLException {
+        assertEquals("000aff", hex(new byte[]{0, 10, -1}));
+        assertEquals("", hex(new byte[0]));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testAppendHexNotBinary() throws SQLException {
+        hex("abc");
+    }
+
+    private static String value(Object value) throws SQLException {
+        final StringBuilder row = new StringBuilder();
+        MySqlLoadDataTsv.appendValue(row, value);
+        return row.toString();
+    }
+
+    private static String hex(Object value) throws SQLException {
+        final StringBuilder row = new StringBuilder();
+        MySqlLoadDataTsv.appendHex(row, value);
+        return row.toString();
+    }
+
+}
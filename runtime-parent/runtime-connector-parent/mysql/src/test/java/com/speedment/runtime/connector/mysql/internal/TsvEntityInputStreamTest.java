@@ -0,0 +1,106 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.connector.mysql.internal;
+
+import com.mysql.cj.jdbc.JdbcStatement;
+import com.speedment.runtime.core.exception.SpeedmentException;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Iterator;
+import static org.junit.Assert.*;
+import org.junit.Test;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ *
+ * @author agent
+ */
+public class TsvEntityInputStreamTest {
+
+    private static final boolean[] HEX_COLUMNS = {false, false, true};
+
+    @Test
+    public void testEncodesRowsInChunks() throws IOException {
+        final Iterator<Integer> entities = Arrays.asList(1, 2, 3, 4, 5).iterator();
+
+        final TsvEntityInputStream<Integer> first = stream(entities, 2);
+        assertEquals("1\tname 1\t01\n2\tname 2\t02\n", readAll(first));
+        assertEquals(2, first.getRows());
+
+        assertEquals("3\tname 3\t03\n4\tname 4\t04\n", readAll(stream(entities, 2)));
+        assertEquals("5\tname 5\t05\n", readAll(stream(entities, 2)));
+        assertFalse(entities.hasNext());
+    }
+
+    @Test
+    public void testEncodesNullAndUtf8() throws IOException {
+        final TsvEntityInputStream<String> stream = new TsvEntityInputStream<>(
+            Arrays.asList("€").iterator(),
+            s -> Arrays.asList(null, s, null),
+            HEX_COLUMNS,
+            Long.MAX_VALUE
+        );
+        assertEquals("\\N\t€\t\\N\n", readAll(stream));
+        assertEquals(-1, stream.read());
+    }
+
+    @Test
+    public void testSetInputStream() throws SQLException {
+        final JdbcStatement statement = mock(JdbcStatement.class);
+        when(statement.isWrapperFor(JdbcStatement.class)).thenReturn(true);
+        when(statement.unwrap(JdbcStatement.class)).thenReturn(statement);
+        final InputStream data = stream(Arrays.asList(1).iterator(), 1);
+
+        MySqlLocalInfile.setInputStream(statement, data);
+        verify(statement).setLocalInfileInputStream(data);
+    }
+
+    @Test(expected = SpeedmentException.class)
+    public void testSetInputStreamUnsupportedDriver() throws SQLException {
+        final Statement statement = mock(Statement.class);
+        when(statement.isWrapperFor(any())).thenReturn(false);
+        MySqlLocalInfile.setInputStream(statement, stream(Arrays.asList(1).iterator(), 1));
+    }
+
+    private static TsvEntityInputStream<Integer> stream(Iterator<Integer> entities, long maxRows) {
+        return new TsvEntityInputStream<>(
+            entities,
+            i -> Arrays.asList(i, "name " + i, new byte[]{i.byteValue()}),
+            HEX_COLUMNS,
+            maxRows
+        );
+    }
+
+    private static String readAll(InputStream in) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[5]; // Small to exercise partial reads
+        int count;
+        while ((count = in.read(buffer, 0, buffer.length)) >= 0) {
+            out.write(buffer, 0, count);
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+}
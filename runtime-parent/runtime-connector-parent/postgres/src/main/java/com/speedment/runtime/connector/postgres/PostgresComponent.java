@@ -17,13 +17,70 @@
 package com.speedment.runtime.connector.postgres;
 
 import com.speedment.common.injector.annotation.InjectKey;
+import com.speedment.runtime.core.exception.SpeedmentException;
+import com.speedment.runtime.core.manager.Manager;
+
+import java.util.function.Predicate;
+import java.util.stream.Stream;
 
 /**
  * A component required to communicate with H2 databases.
  * <p>
+ * It also gives access to the PostgreSQL {@code COPY} command, which is
+ * much faster than batched inserts and ordinary queries for loading and
+ * extracting large numbers of rows.
  * 
  * @author  Per Minborg
  * @since   1.0.0
  */
 @InjectKey(PostgresComponent.class)
-public interface PostgresComponent  {};
\ No newline at end of file
+public interface PostgresComponent  {
+
+    /**
+     * Inserts all the entities of the given Stream into the table of the
+     * given manager using {@code COPY ... FROM STDIN}. The entities are
+     * encoded one at a time as they are sent, so the Stream is never held in
+     * memory as a whole. Columns that are excluded from insert statements,
+     * like auto-increment columns, are not copied and generated values are
+     * not read back.
+     * <p>
+     * The entities are committed once all of them have been copied, unless
+     * the call is part of a transaction. The given Stream is closed when this
+     * method returns.
+     *
+     * @param <ENTITY>  the entity type
+     * @param manager   the manager of the table to copy into
+     * @param entities  the entities to copy
+     * @return          the number of copied entities
+     *
+     * @throws IllegalArgumentException  if the table is not in a PostgreSQL
+     *                                   database
+     * @throws SpeedmentException        if the copy fails
+     * @since 3.1.2
+     */
+    <ENTITY> long copyIn(Manager<ENTITY> manager, Stream<ENTITY> entities);
+
+    /**
+     * Returns a Stream over the entities in the table of the given manager
+     * that match the given predicate, read using {@code COPY ... TO STDOUT}.
+     * The rows are decoded one at a time as the Stream is consumed.
+     * <p>
+     * Field predicates, like {@code User.COUNTRY.equal("SE")}, are evaluated
+     * by the database. Other predicates are applied to the entities as they
+     * are read, so prefer field predicates to avoid copying the whole table.
+     * The returned Stream must be closed to release its connection if it is
+     * not consumed completely.
+     *
+     * @param <ENTITY>   the entity type
+     * @param manager    the manager of the table to copy from
+     * @param predicate  the entities to include
+     * @return           a Stream over the matching entities
+     *
+     * @throws IllegalArgumentException  if the table is not in a PostgreSQL
+     *                                   database
+     * @throws SpeedmentException        if the copy fails
+     * @since 3.1.2
+     */
+    <ENTITY> Stream<ENTITY> copyOut(Manager<ENTITY> manager, Predicate<? super ENTITY> predicate);
+
+}
\ No newline at end of file
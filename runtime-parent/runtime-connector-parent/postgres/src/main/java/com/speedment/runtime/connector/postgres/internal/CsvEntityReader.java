@@ -0,0 +1,108 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.connector.postgres.internal;
+
+import com.speedment.runtime.core.exception.SpeedmentException;
+
+import java.io.Reader;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A {@code Reader} that encodes entities as CSV rows on demand, so that only
+ * a single row is held in memory at a time.
+ *
+ * @param <ENTITY> the entity type
+ *
+ * @author agent
+ * @since 3.1.2
+ */
+final class CsvEntityReader<ENTITY> extends Reader {
+
+    private final Iterator<ENTITY> entities;
+    private final Function<ENTITY, List<Object>> databaseValues;
+    private final StringBuilder row;
+    private int position;
+    private long rows;
+
+    /**
+     * Creates a reader that encodes the entities from the given iterator.
+     *
+     * @param entities        the entities to encode
+     * @param databaseValues  a function that returns the database values of
+     *                        an entity in column order
+     */
+    CsvEntityReader(Iterator<ENTITY> entities, Function<ENTITY, List<Object>> databaseValues) {
+        this.entities = requireNonNull(entities);
+        this.databaseValues = requireNonNull(databaseValues);
+        this.row = new StringBuilder();
+    }
+
+    @Override
+    public int read(char[] buffer, int offset, int length) {
+        if (length == 0) {
+            return 0;
+        }
+        if (position == row.length() && !nextRow()) {
+            return -1;
+        }
+        final int count = Math.min(length, row.length() - position);
+        row.getChars(position, position + count, buffer, offset);
+        position += count;
+        return count;
+    }
+
+    @Override
+    public void close() {
+        // The iterator is owned by the caller
+    }
+
+    /**
+     * Returns the number of rows that have been encoded so far.
+     *
+     * @return  the number of encoded rows
+     */
+    long getRows() {
+        return rows;
+    }
+
+    private boolean nextRow() {
+        if (!entities.hasNext()) {
+            return false;
+        }
+        row.setLength(0);
+        position = 0;
+        final List<Object> values = databaseValues.apply(requireNonNull(entities.next()));
+        try {
+            for (int i = 0; i < values.size(); i++) {
+                if (i > 0) {
+                    PostgresCopyCsv.appendDelimiter(row);
+                }
+                PostgresCopyCsv.appendValue(row, values.get(i));
+            }
+        } catch (final SQLException ex) {
+            throw new SpeedmentException(ex);
+        }
+        row.append('\n');
+        rows++;
+        return true;
+    }
+}
@@ -0,0 +1,200 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.connector.postgres.internal;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.temporal.ChronoField;
+import java.util.Arrays;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A read-only view of a single CSV row as a {@code ResultSet}, so that rows
+ * from {@code COPY ... TO STDOUT} can be turned into entities by the same
+ * generated entity mappers as rows from ordinary queries. Only the getters
+ * that take a column index are supported. The text values are parsed the
+ * same way as PostgreSQL formats them in its default ISO date style.
+ *
+ * @author agent
+ * @since 3.1.2
+ */
+final class CsvRowResultSet implements InvocationHandler {
+
+    private static final DateTimeFormatter TIMESTAMP_WITH_OFFSET = new DateTimeFormatterBuilder()
+        .appendPattern("yyyy-MM-dd HH:mm:ss")
+        .optionalStart()
+        .appendFraction(ChronoField.NANO_OF_SECOND, 0, 9, true)
+        .optionalEnd()
+        .appendOffset("+HH:mm", "+00")
+        .toFormatter();
+
+    private final ResultSet resultSet;
+    private String[] row;
+    private boolean wasNull;
+
+    CsvRowResultSet() {
+        this.resultSet = (ResultSet) Proxy.newProxyInstance(
+            ResultSet.class.getClassLoader(),
+            new Class<?>[]{ResultSet.class},
+            this
+        );
+    }
+
+    /**
+     * Returns the {@code ResultSet} view of the current row.
+     *
+     * @return  the {@code ResultSet} view
+     */
+    ResultSet resultSet() {
+        return resultSet;
+    }
+
+    /**
+     * Sets the values of the current row, as returned by
+     * {@link PostgresCopyCsv#parseRow(String)}.
+     *
+     * @param row  the values of the current row
+     */
+    void setRow(String[] row) {
+        this.row = requireNonNull(row);
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws SQLException {
+        final String name = method.getName();
+        switch (name) {
+            case "wasNull":
+                return wasNull;
+            case "isClosed":
+                return false;
+            case "close":
+                return null;
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "equals":
+                return proxy == args[0];
+            case "toString":
+                return "CsvRowResultSet{row=" + Arrays.toString(row) + "}";
+        }
+        if (args == null || args.length == 0 || !(args[0] instanceof Integer)) {
+            throw unsupported(method);
+        }
+
+        final String value = value((Integer) args[0]);
+        wasNull = (value == null);
+        final Class<?> type;
+        if ("getObject".equals(name)) {
+            type = args.length == 2 ? (Class<?>) args[1] : String.class;
+        } else {
+            type = method.getReturnType();
+        }
+
+        if (value == null) {
+            return type.isPrimitive() ? defaultValue(type) : null;
+        }
+        try {
+            return parse(value, type, method);
+        } catch (final IllegalArgumentException | java.time.DateTimeException ex) {
+            throw new SQLException("Can not convert '" + value + "' to " + type.getSimpleName(), ex);
+        }
+    }
+
+    private String value(int columnIndex) throws SQLException {
+        if (row == null || columnIndex < 1 || columnIndex > row.length) {
+            throw new SQLException("Invalid column index: " + columnIndex);
+        }
+        return row[columnIndex - 1];
+    }
+
+    private static Object parse(String value, Class<?> type, Method method) throws SQLException {
+        if (type == String.class || type == Object.class) {
+            return value;
+        } else if (type == boolean.class || type == Boolean.class) {
+            return "t".equals(value) || "true".equalsIgnoreCase(value);
+        } else if (type == byte.class || type == Byte.class) {
+            return Byte.parseByte(value);
+        } else if (type == short.class || type == Short.class) {
+            return Short.parseShort(value);
+        } else if (type == int.class || type == Integer.class) {
+            return Integer.parseInt(value);
+        } else if (type == long.class || type == Long.class) {
+            return Long.parseLong(value);
+        } else if (type == float.class || type == Float.class) {
+            return Float.parseFloat(value);
+        } else if (type == double.class || type == Double.class) {
+            return Double.parseDouble(value);
+        } else if (type == BigDecimal.class) {
+            return new BigDecimal(value);
+        } else if (type == byte[].class) {
+            return PostgresCopyCsv.parseBytes(value);
+        } else if (type == Date.class) {
+            return Date.valueOf(value);
+        } else if (type == Time.class) {
+            return Time.valueOf(LocalTime.parse(value));
+        } else if (type == Timestamp.class) {
+            return parseTimestamp(value);
+        }
+        throw unsupported(method);
+    }
+
+    private static Timestamp parseTimestamp(String value) {
+        try {
+            return Timestamp.valueOf(value);
+        } catch (final IllegalArgumentException ex) {
+            // A timestamp with time zone, like 2018-01-02 03:04:05.678+01
+            return Timestamp.from(OffsetDateTime.parse(value, TIMESTAMP_WITH_OFFSET).toInstant());
+        }
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (type == boolean.class) {
+            return false;
+        } else if (type == byte.class) {
+            return (byte) 0;
+        } else if (type == short.class) {
+            return (short) 0;
+        } else if (type == int.class) {
+            return 0;
+        } else if (type == long.class) {
+            return 0L;
+        } else if (type == float.class) {
+            return 0f;
+        } else if (type == double.class) {
+            return 0d;
+        }
+        return null;
+    }
+
+    private static SQLException unsupported(Method method) {
+        return new SQLFeatureNotSupportedException(
+            "ResultSet." + method.getName() + " is not supported for rows read using COPY"
+        );
+    }
+}
@@ -18,9 +18,14 @@ package com.speedment.runtime.connector.postgres.internal;
 
 import static com.speedment.common.injector.State.INITIALIZED;
 import com.speedment.common.injector.annotation.ExecuteBefore;
+import com.speedment.common.injector.annotation.Inject;
 import com.speedment.common.injector.annotation.WithState;
 import com.speedment.runtime.connector.postgres.PostgresComponent;
 import com.speedment.runtime.core.component.DbmsHandlerComponent;
+import com.speedment.runtime.core.manager.Manager;
+
+import java.util.function.Predicate;
+import java.util.stream.Stream;
 
 /**
  *
@@ -30,6 +35,8 @@ import com.speedment.runtime.core.component.DbmsHandlerComponent;
  */
 public final class PostgresComponentImpl implements PostgresComponent {
 
+    @Inject private PostgresDbmsOperationHandler operationHandler;
+
     protected PostgresComponentImpl() {}
 
     @ExecuteBefore(INITIALIZED)
@@ -40,4 +47,14 @@ public final class PostgresComponentImpl implements PostgresComponent {
         dbmsHandlerComponent.install(postgresDbmsType);
     }
 
+    @Override
+    public <ENTITY> long copyIn(Manager<ENTITY> manager, Stream<ENTITY> entities) {
+        return operationHandler.copyIn(manager, entities);
+    }
+
+    @Override
+    public <ENTITY> Stream<ENTITY> copyOut(Manager<ENTITY> manager, Predicate<? super ENTITY> predicate) {
+        return operationHandler.copyOut(manager, predicate);
+    }
+
 }
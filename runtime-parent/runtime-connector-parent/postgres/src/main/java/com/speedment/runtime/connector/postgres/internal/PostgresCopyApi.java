@@ -0,0 +1,172 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.connector.postgres.internal;
+
+import com.speedment.runtime.core.exception.SpeedmentException;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Access to the {@code CopyManager} of the PostgreSQL JDBC driver. The
+ * driver is provided by the application, so it is accessed reflectively
+ * rather than being a compile time dependency of the connector.
+ *
+ * @author agent
+ * @since 3.1.2
+ */
+final class PostgresCopyApi {
+
+    private static final String PG_CONNECTION = "org.postgresql.PGConnection";
+    private static final String COPY_OUT = "org.postgresql.copy.CopyOut";
+
+    private final Object copyManager;
+
+    private PostgresCopyApi(Object copyManager) {
+        this.copyManager = requireNonNull(copyManager);
+    }
+
+    /**
+     * Returns the COPY API of the given connection.
+     *
+     * @param connection  a connection to a PostgreSQL database
+     * @return            the COPY API of the connection
+     * @throws SQLException  if the connection can not be unwrapped
+     * @throws SpeedmentException  if the PostgreSQL driver is not available
+     */
+    static PostgresCopyApi of(Connection connection) throws SQLException {
+        final Class<?> pgConnectionClass = loadClass(connection, PG_CONNECTION);
+        final Object pgConnection = connection.unwrap(pgConnectionClass);
+        return new PostgresCopyApi(invoke(method(pgConnectionClass, "getCopyAPI"), pgConnection));
+    }
+
+    /**
+     * Executes the given {@code COPY ... FROM STDIN} statement, reading the
+     * data from the given reader until it is exhausted.
+     *
+     * @param sql     the COPY statement
+     * @param reader  the data to copy
+     * @return        the number of copied rows
+     * @throws SQLException  if the copy fails
+     */
+    long copyIn(String sql, Reader reader) throws SQLException {
+        final Method copyIn = method(copyManager.getClass(), "copyIn", String.class, Reader.class);
+        return (Long) invoke(copyIn, copyManager, sql, reader);
+    }
+
+    /**
+     * Starts the given {@code COPY ... TO STDOUT} statement. The rows are
+     * then read one at a time from the returned {@link CopyOut}.
+     *
+     * @param sql  the COPY statement
+     * @return     the started copy operation
+     * @throws SQLException  if the copy can not be started
+     */
+    CopyOut copyOut(String sql) throws SQLException {
+        final Method copyOut = method(copyManager.getClass(), "copyOut", String.class);
+        return new CopyOut(invoke(copyOut, copyManager, sql));
+    }
+
+    /**
+     * An ongoing {@code COPY ... TO STDOUT} operation.
+     */
+    static final class CopyOut {
+
+        private final Object copyOut;
+        private final Method readFromCopy;
+        private final Method isActive;
+        private final Method cancelCopy;
+
+        private CopyOut(Object copyOut) {
+            this.copyOut = requireNonNull(copyOut);
+            final Class<?> copyOutClass = loadClass(copyOut, COPY_OUT);
+            this.readFromCopy = method(copyOutClass, "readFromCopy");
+            this.isActive = method(copyOutClass, "isActive");
+            this.cancelCopy = method(copyOutClass, "cancelCopy");
+        }
+
+        /**
+         * Reads the next row, or returns {@code null} if there are no more
+         * rows.
+         *
+         * @return  the next row or {@code null}
+         * @throws SQLException  if the row can not be read
+         */
+        byte[] readRow() throws SQLException {
+            return (byte[]) invoke(readFromCopy, copyOut);
+        }
+
+        /**
+         * Cancels the operation if it is still active.
+         *
+         * @throws SQLException  if the operation can not be cancelled
+         */
+        void cancelIfActive() throws SQLException {
+            if ((Boolean) invoke(isActive, copyOut)) {
+                invoke(cancelCopy, copyOut);
+            }
+        }
+    }
+
+    private static Class<?> loadClass(Object driverObject, String className) {
+        try {
+            return Class.forName(className, true, driverObject.getClass().getClassLoader());
+        } catch (final ClassNotFoundException ex) {
+            try {
+                return Class.forName(className);
+            } catch (final ClassNotFoundException ex2) {
+                throw new SpeedmentException(
+                    "The PostgreSQL JDBC driver class " + className + " is not available.", ex2
+                );
+            }
+        }
+    }
+
+    private static Method method(Class<?> clazz, String name, Class<?>... parameterTypes) {
+        try {
+            return clazz.getMethod(name, parameterTypes);
+        } catch (final NoSuchMethodException ex) {
+            throw new SpeedmentException(
+                "The PostgreSQL JDBC driver does not provide " + clazz.getName() + "." + name, ex
+            );
+        }
+    }
+
+    private static Object invoke(Method method, Object target, Object... args) throws SQLException {
+        try {
+            return method.invoke(target, args);
+        } catch (final InvocationTargetException ex) {
+            final Throwable cause = ex.getCause();
+            if (cause instanceof SQLException) {
+                throw (SQLException) cause;
+            } else if (cause instanceof IOException) {
+                throw new SQLException(cause);
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new SpeedmentException(cause);
+        } catch (final IllegalAccessException ex) {
+            throw new SpeedmentException(ex);
+        }
+    }
+}
@@ -0,0 +1,176 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.connector.postgres.internal;
+
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.speedment.runtime.core.util.StaticClassUtil.instanceNotAllowed;
+
+/**
+ * Encoding and decoding of single values and rows in the CSV format used by
+ * {@code COPY ... WITH (FORMAT csv)}. Unquoted empty values are
+ * {@code NULL} whereas quoted empty values are empty strings.
+ *
+ * @author agent
+ * @since 3.1.2
+ */
+final class PostgresCopyCsv {
+
+    private static final char DELIMITER = ',';
+    private static final char QUOTE = '"';
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    /**
+     * Appends the given database value to the given row, quoting it if
+     * needed. Binary values are encoded using the bytea hex format.
+     *
+     * @param row    the row to append the value to
+     * @param value  the database value, may be {@code null}
+     * @throws SQLException  if a {@code Blob} or a {@code Clob} can not be
+     *                       read
+     */
+    static void appendValue(StringBuilder row, Object value) throws SQLException {
+        if (value == null) {
+            return;
+        }
+        if (value instanceof Blob) {
+            final Blob blob = (Blob) value;
+            appendBytes(row, blob.getBytes(1, Math.toIntExact(blob.length())));
+        } else if (value instanceof byte[]) {
+            appendBytes(row, (byte[]) value);
+        } else if (value instanceof Clob) {
+            final Clob clob = (Clob) value;
+            appendQuoted(row, clob.getSubString(1, Math.toIntExact(clob.length())));
+        } else if (value instanceof Number || value instanceof Boolean) {
+            row.append(value);
+        } else {
+            // Strings are always quoted so that empty strings are not NULL
+            appendQuoted(row, value.toString());
+        }
+    }
+
+    /**
+     * Appends the delimiter that separates two values in a row.
+     *
+     * @param row  the row to append the delimiter to
+     */
+    static void appendDelimiter(StringBuilder row) {
+        row.append(DELIMITER);
+    }
+
+    /**
+     * Parses a single row, including any trailing line break, into its
+     * values. Unquoted empty values are returned as {@code null}.
+     *
+     * @param row  the row to parse
+     * @return     the values of the row
+     * @throws IllegalArgumentException  if a quoted value is not terminated
+     */
+    static String[] parseRow(String row) {
+        int end = row.length();
+        while (end > 0 && (row.charAt(end - 1) == '\n' || row.charAt(end - 1) == '\r')) {
+            end--;
+        }
+        final List<String> values = new ArrayList<>();
+        final StringBuilder value = new StringBuilder();
+        int i = 0;
+        while (true) {
+            value.setLength(0);
+            boolean quoted = false;
+            if (i < end && row.charAt(i) == QUOTE) {
+                quoted = true;
+                i++;
+                while (true) {
+                    if (i >= end) {
+                        throw new IllegalArgumentException("Unterminated quoted value in row: " + row);
+                    }
+                    final char c = row.charAt(i++);
+                    if (c == QUOTE) {
+                        if (i < end && row.charAt(i) == QUOTE) {
+                            value.append(QUOTE);
+                            i++;
+                        } else {
+                            break;
+                        }
+                    } else {
+                        value.append(c);
+                    }
+                }
+            }
+            while (i < end && row.charAt(i) != DELIMITER) {
+                value.append(row.charAt(i++));
+            }
+            values.add(quoted || value.length() > 0 ? value.toString() : null);
+            if (i >= end) {
+                break;
+            }
+            i++; // Skip the delimiter
+        }
+        return values.toArray(new String[values.size()]);
+    }
+
+    /**
+     * Decodes a value in the bytea hex format, like {@code \x0a1b}.
+     *
+     * @param value  the encoded value
+     * @return       the decoded bytes
+     * @throws IllegalArgumentException  if the value is not in the bytea hex
+     *                                   format
+     */
+    static byte[] parseBytes(String value) {
+        if (!value.startsWith("\\x") || value.length() % 2 != 0) {
+            throw new IllegalArgumentException("Not a bytea value in hex format: " + value);
+        }
+        final byte[] result = new byte[(value.length() - 2) / 2];
+        for (int i = 0; i < result.length; i++) {
+            final int high = Character.digit(value.charAt(2 + 2 * i), 16);
+            final int low = Character.digit(value.charAt(3 + 2 * i), 16);
+            if (high < 0 || low < 0) {
+                throw new IllegalArgumentException("Not a bytea value in hex format: " + value);
+            }
+            result[i] = (byte) ((high << 4) | low);
+        }
+        return result;
+    }
+
+    private static void appendBytes(StringBuilder row, byte[] bytes) {
+        row.append("\\x");
+        for (final byte b : bytes) {
+            row.append(HEX[(b >> 4) & 0xf]).append(HEX[b & 0xf]);
+        }
+    }
+
+    private static void appendQuoted(StringBuilder row, String value) {
+        row.append(QUOTE);
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            if (c == QUOTE) {
+                row.append(QUOTE);
+            }
+            row.append(c);
+        }
+        row.append(QUOTE);
+    }
+
+    private PostgresCopyCsv() {
+        instanceNotAllowed(getClass());
+    }
+}
@@ -0,0 +1,194 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.connector.postgres.internal;
+
+import com.speedment.runtime.core.db.DbmsType;
+import com.speedment.runtime.core.internal.stream.builder.streamterminator.StreamTerminatorUtil.RenderResult;
+import com.speedment.runtime.field.Field;
+import com.speedment.runtime.field.predicate.CombinedPredicate;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import static com.speedment.runtime.core.internal.stream.builder.streamterminator.StreamTerminatorUtil.isContainingOnlyFieldPredicate;
+import static com.speedment.runtime.core.internal.stream.builder.streamterminator.StreamTerminatorUtil.renderSqlWhere;
+import static com.speedment.runtime.core.util.StaticClassUtil.instanceNotAllowed;
+
+/**
+ * Rendering of field predicates as SQL for {@code COPY (SELECT ...) TO
+ * STDOUT}. {@code COPY} does not accept parameters, so the values of the
+ * predicates are rendered as escaped literals.
+ *
+ * @author agent
+ * @since 3.1.2
+ */
+final class PostgresCopySql {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    /**
+     * Splits the given predicate into the AND-combined parts that only
+     * contain field predicates, which can be rendered as SQL, and the
+     * remaining parts, which must be tested on the entities.
+     *
+     * @param <ENTITY>            the entity type
+     * @param predicate           the predicate to split
+     * @param fieldPredicates     the list to add the renderable parts to
+     * @param residualPredicates  the list to add the remaining parts to
+     */
+    @SuppressWarnings("unchecked")
+    static <ENTITY> void split(
+        final Predicate<? super ENTITY> predicate,
+        final List<Predicate<ENTITY>> fieldPredicates,
+        final List<Predicate<? super ENTITY>> residualPredicates
+    ) {
+        if (isContainingOnlyFieldPredicate((Predicate<ENTITY>) predicate)) {
+            fieldPredicates.add((Predicate<ENTITY>) predicate);
+        } else if (predicate instanceof CombinedPredicate
+            && ((CombinedPredicate<?>) predicate).getType() == CombinedPredicate.Type.AND) {
+            ((CombinedPredicate<ENTITY>) predicate).stream()
+                .forEachOrdered(p -> split(p, fieldPredicates, residualPredicates));
+        } else {
+            residualPredicates.add(predicate);
+        }
+    }
+
+    /**
+     * Renders the given field predicates as a {@code WHERE} clause with all
+     * values as literals, or returns an empty string if there are no
+     * predicates.
+     *
+     * @param <ENTITY>              the entity type
+     * @param dbmsType              the PostgreSQL dbms type
+     * @param columnNamer           the enclosed column name of a field
+     * @param columnDbTypeFunction  the database type of a field
+     * @param fieldPredicates       predicates that only contain field
+     *                              predicates
+     * @return                      the {@code WHERE} clause, including a
+     *                              leading space
+     */
+    static <ENTITY> String renderWhere(
+        final DbmsType dbmsType,
+        final Function<Field<ENTITY>, String> columnNamer,
+        final Function<Field<ENTITY>, Class<?>> columnDbTypeFunction,
+        final List<Predicate<ENTITY>> fieldPredicates
+    ) {
+        if (fieldPredicates.isEmpty()) {
+            return "";
+        }
+        final RenderResult rendered = renderSqlWhere(dbmsType, columnNamer, columnDbTypeFunction, fieldPredicates);
+        return " WHERE " + inlineValues(rendered.getSql(), rendered.getValues());
+    }
+
+    /**
+     * Replaces the {@code ?} placeholders of the given SQL with the given
+     * values rendered as literals. Placeholders inside quoted identifiers
+     * and string literals are left as they are.
+     *
+     * @param sql     the SQL with placeholders
+     * @param values  the values, in the order of the placeholders
+     * @return        the SQL without placeholders
+     *
+     * @throws IllegalArgumentException  if the number of placeholders and
+     *                                   values differ
+     */
+    static String inlineValues(String sql, List<Object> values) {
+        final StringBuilder result = new StringBuilder(sql.length());
+        final Iterator<Object> iterator = values.iterator();
+        char quote = 0;
+        for (int i = 0; i < sql.length(); i++) {
+            final char c = sql.charAt(i);
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0; // A doubled quote is simply reopened
+                }
+                result.append(c);
+            } else if (c == '\'' || c == '"') {
+                quote = c;
+                result.append(c);
+            } else if (c == '?') {
+                if (!iterator.hasNext()) {
+                    throw new IllegalArgumentException("There are more placeholders than values in: " + sql);
+                }
+                appendLiteral(result, iterator.next());
+            } else {
+                result.append(c);
+            }
+        }
+        if (iterator.hasNext()) {
+            throw new IllegalArgumentException("There are more values than placeholders in: " + sql);
+        }
+        return result.toString();
+    }
+
+    /**
+     * Appends the given database value as a literal. Numbers and booleans
+     * are appended as they are and binary values as {@code bytea} hex
+     * strings. All other values are appended as escape string constants so
+     * that the result does not depend on
+     * {@code standard_conforming_strings}.
+     *
+     * @param sql    the SQL to append the literal to
+     * @param value  the database value, may be {@code null}
+     */
+    static void appendLiteral(StringBuilder sql, Object value) {
+        if (value == null) {
+            sql.append("NULL");
+        } else if (value instanceof Boolean) {
+            sql.append((Boolean) value ? "TRUE" : "FALSE");
+        } else if (value instanceof Byte
+            || value instanceof Short
+            || value instanceof Integer
+            || value instanceof Long
+            || value instanceof BigInteger) {
+            sql.append(value);
+        } else if (value instanceof BigDecimal) {
+            sql.append(((BigDecimal) value).toPlainString());
+        } else if (value instanceof byte[]) {
+            sql.append("E'\\\\x");
+            for (final byte b : (byte[]) value) {
+                sql.append(HEX[(b >> 4) & 0xf]).append(HEX[b & 0xf]);
+            }
+            sql.append("'::bytea");
+        } else {
+            // Floating point values are quoted as well to support NaN and Infinity
+            appendString(sql, value.toString());
+        }
+    }
+
+    private static void appendString(StringBuilder sql, String value) {
+        sql.append("E'");
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            if (c == '\0') {
+                throw new IllegalArgumentException("PostgreSQL strings can not contain the null character.");
+            } else if (c == '\'' || c == '\\') {
+                sql.append(c);
+            }
+            sql.append(c);
+        }
+        sql.append('\'');
+    }
+
+    private PostgresCopySql() {
+        instanceNotAllowed(getClass());
+    }
+}
@@ -16,15 +16,53 @@
  */
 package com.speedment.runtime.connector.postgres.internal;
 
+import com.speedment.common.injector.Injector;
+import com.speedment.common.injector.annotation.Inject;
+import com.speedment.common.logger.Logger;
+import com.speedment.common.logger.LoggerManager;
+import com.speedment.runtime.config.Column;
+import com.speedment.runtime.config.Dbms;
+import com.speedment.runtime.config.Project;
+import com.speedment.runtime.config.Table;
+import com.speedment.runtime.config.identifier.TableIdentifier;
+import com.speedment.runtime.config.util.DocumentDbUtil;
+import com.speedment.runtime.core.ApplicationBuilder.LogType;
+import com.speedment.runtime.core.component.DbmsHandlerComponent;
+import com.speedment.runtime.core.component.ProjectComponent;
+import com.speedment.runtime.core.component.SqlAdapter;
+import com.speedment.runtime.core.component.connectionpool.ConnectionPoolComponent;
+import com.speedment.runtime.core.component.transaction.TransactionComponent;
+import com.speedment.runtime.core.db.DatabaseNamingConvention;
+import com.speedment.runtime.core.db.DbmsType;
+import com.speedment.runtime.core.db.SqlFunction;
+import com.speedment.runtime.core.exception.SpeedmentException;
 import com.speedment.runtime.core.internal.db.AbstractDbmsOperationHandler;
+import com.speedment.runtime.core.internal.db.ConnectionInfo;
 import com.speedment.runtime.core.internal.manager.sql.SqlInsertStatement;
+import com.speedment.runtime.core.manager.Manager;
+import com.speedment.runtime.field.Field;
+import com.speedment.runtime.typemapper.TypeMapper;
 
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Types;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static com.speedment.common.invariant.NullUtil.requireNonNulls;
+import static com.speedment.runtime.core.util.DatabaseUtil.dbmsTypeOf;
+import static java.util.stream.Collectors.joining;
+import static java.util.stream.Collectors.toList;
 
 /**
  *
@@ -34,6 +72,13 @@ import java.util.List;
  */
 public final class PostgresDbmsOperationHandler extends AbstractDbmsOperationHandler {
 
+    @Inject private Injector injector;
+    @Inject private ProjectComponent projectComponent;
+    @Inject private DbmsHandlerComponent dbmsHandlerComponent;
+    @Inject private ConnectionPoolComponent connectionPoolComponent;
+    @Inject private TransactionComponent transactionComponent;
+
+    private static final Logger LOGGER_STREAM = LoggerManager.getLogger(LogType.STREAM.getLoggerName());
     private static final int FETCH_SIZE = 4096;
     
     // Five elements - list is surely more efficient than hash set
@@ -68,6 +113,212 @@ public final class PostgresDbmsOperationHandler extends AbstractDbmsOperationHan
         }
     }
 
+    /**
+     * Inserts all the entities of the given Stream into the table of the
+     * given manager using {@code COPY ... FROM STDIN}. The entities are
+     * encoded as CSV rows one at a time while the driver sends them, so the
+     * Stream is never held in memory as a whole. Columns that are excluded
+     * from insert statements, like auto-increment columns, are not copied
+     * and generated values are not read back.
+     * <p>
+     * All entities are copied in a single statement that is committed once
+     * all entities have been copied, unless the call is part of a
+     * transaction. The given Stream is closed when this method returns.
+     *
+     * @param <ENTITY>  the entity type
+     * @param manager   the manager of the table to copy into
+     * @param entities  the entities to copy
+     * @return          the number of copied entities
+     *
+     * @throws IllegalArgumentException  if the table is not in a PostgreSQL
+     *                                   database
+     * @throws SpeedmentException        if the copy fails
+     * @since 3.1.2
+     */
+    public <ENTITY> long copyIn(Manager<ENTITY> manager, Stream<ENTITY> entities) {
+        requireNonNulls(manager, entities);
+        final Project project = projectComponent.getProject();
+        final TableIdentifier<ENTITY> tableId = manager.getTableIdentifier();
+        final Dbms dbms = DocumentDbUtil.referencedDbms(project, tableId);
+        final DbmsType dbmsType = requirePostgres(dbms);
+        final DatabaseNamingConvention naming = dbmsType.getDatabaseNamingConvention();
+        final Predicate<Column> excluded = dbmsType.getColumnHandler().excludedInInsertStatement();
+
+        final List<Field<ENTITY>> fields = manager.fields()
+            .filter(f -> {
+                final Column column = DocumentDbUtil.referencedColumn(project, f.identifier());
+                return column.isEnabled() && !excluded.test(column);
+            })
+            .collect(toList());
+
+        final String sql = "COPY " + naming.fullNameOf(DocumentDbUtil.referencedTable(project, tableId)) + " ("
+            + fields.stream()
+                .map(f -> DocumentDbUtil.referencedColumn(project, f.identifier()).getName())
+                .map(naming::encloseField)
+                .collect(joining(","))
+            + ") FROM STDIN WITH (FORMAT csv)";
+        LOGGER_PERSIST.debug("%s", sql);
+
+        try (final Stream<ENTITY> closeable = entities;
+            final ConnectionInfo connectionInfo = new ConnectionInfo(dbms, connectionPoolComponent, transactionComponent)) {
+            final CsvEntityReader<ENTITY> reader = new CsvEntityReader<>(
+                closeable.sequential().iterator(),
+                entity -> databaseValues(fields, entity)
+            );
+            if (connectionInfo.isInTransaction()) {
+                PostgresCopyApi.of(connectionInfo.connection()).copyIn(sql, reader);
+                return reader.getRows();
+            }
+            final Connection connection = connectionInfo.connection();
+            connection.setAutoCommit(false);
+            try {
+                PostgresCopyApi.of(connection).copyIn(sql, reader);
+                connection.commit();
+                return reader.getRows();
+            } catch (final SQLException | RuntimeException ex) {
+                connection.rollback();
+                throw ex;
+            }
+        } catch (final SQLException ex) {
+            throw new SpeedmentException("Unable to copy entities into " + tableId, ex);
+        }
+    }
+
+    /**
+     * Returns a Stream over all the entities in the table of the given manager
+     * that match the given predicate, read using {@code COPY ... TO STDOUT}.
+     * The rows are decoded one at a time as the Stream is consumed, using the
+     * same entity mapper as ordinary streams.
+     * <p>
+     * The parts of the predicate that only contain field predicates are
+     * rendered in the {@code WHERE} clause of the copied query. Since
+     * {@code COPY} does not accept parameters, their values are rendered as
+     * escaped literals. Any other parts of the predicate are applied to the
+     * entities as they are read. The returned Stream must be closed to
+     * release the connection if it is not consumed completely.
+     *
+     * @param <ENTITY>   the entity type
+     * @param manager    the manager of the table to copy from
+     * @param predicate  the entities to include
+     * @return           a Stream over the matching entities
+     *
+     * @throws IllegalArgumentException  if the table is not in a PostgreSQL
+     *                                   database
+     * @throws SpeedmentException        if the copy fails
+     * @since 3.1.2
+     */
+    public <ENTITY> Stream<ENTITY> copyOut(Manager<ENTITY> manager, Predicate<? super ENTITY> predicate) {
+        requireNonNulls(manager, predicate);
+        final Project project = projectComponent.getProject();
+        final TableIdentifier<ENTITY> tableId = manager.getTableIdentifier();
+        final Dbms dbms = DocumentDbUtil.referencedDbms(project, tableId);
+        final Table table = DocumentDbUtil.referencedTable(project, tableId);
+        final DbmsType dbmsType = requirePostgres(dbms);
+        final DatabaseNamingConvention naming = dbmsType.getDatabaseNamingConvention();
+
+        final List<Predicate<ENTITY>> fieldPredicates = new ArrayList<>();
+        final List<Predicate<? super ENTITY>> residualPredicates = new ArrayList<>();
+        PostgresCopySql.split(predicate, fieldPredicates, residualPredicates);
+
+        // The columns must be in the same order as for the entity mapper
+        final String sql = "COPY (SELECT "
+            + table.columns()
+                .filter(Column::isEnabled)
+                .map(Column::getName)
+                .map(naming::encloseField)
+                .collect(joining(","))
+            + " FROM " + naming.fullNameOf(table)
+            + PostgresCopySql.renderWhere(
+                dbmsType,
+                f -> naming.encloseField(DocumentDbUtil.referencedColumn(project, f.identifier()).getName()),
+                f -> DocumentDbUtil.referencedColumn(project, f.identifier()).findDatabaseType(),
+                fieldPredicates
+            )
+            + ") TO STDOUT WITH (FORMAT csv)";
+        LOGGER_STREAM.debug("%s", sql);
+
+        final SqlFunction<ResultSet, ENTITY> entityMapper = sqlAdapter(tableId).entityMapper();
+        final ConnectionInfo connectionInfo = new ConnectionInfo(dbms, connectionPoolComponent, transactionComponent);
+        final PostgresCopyApi.CopyOut copyOut;
+        try {
+            copyOut = PostgresCopyApi.of(connectionInfo.connection()).copyOut(sql);
+        } catch (final SQLException | RuntimeException ex) {
+            try {
+                connectionInfo.close();
+            } catch (final SQLException closeEx) {
+                ex.addSuppressed(closeEx);
+            }
+            throw ex instanceof RuntimeException
+                ? (RuntimeException) ex
+                : new SpeedmentException("Unable to copy entities from " + tableId, ex);
+        }
+
+        final CsvRowResultSet row = new CsvRowResultSet();
+        final Spliterator<ENTITY> spliterator = new Spliterators.AbstractSpliterator<ENTITY>(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super ENTITY> action) {
+                try {
+                    final byte[] bytes = copyOut.readRow();
+                    if (bytes == null) {
+                        return false;
+                    }
+                    row.setRow(PostgresCopyCsv.parseRow(new String(bytes, StandardCharsets.UTF_8)));
+                    action.accept(entityMapper.apply(row.resultSet()));
+                    return true;
+                } catch (final SQLException ex) {
+                    throw new SpeedmentException("Unable to copy entities from " + tableId, ex);
+                }
+            }
+        };
+
+        return StreamSupport.stream(spliterator, false)
+            .filter(entity -> residualPredicates.stream().allMatch(p -> p.test(entity)))
+            .onClose(() -> {
+                try {
+                    copyOut.cancelIfActive();
+                } catch (final SQLException ex) {
+                    throw new SpeedmentException(ex);
+                } finally {
+                    try {
+                        connectionInfo.close();
+                    } catch (final SQLException ex) {
+                        throw new SpeedmentException(ex);
+                    }
+                }
+            });
+    }
+
+    private <ENTITY> List<Object> databaseValues(List<Field<ENTITY>> fields, ENTITY entity) {
+        return fields.stream()
+            .map(f -> {
+                @SuppressWarnings("unchecked")
+                final TypeMapper<Object, Object> typeMapper = (TypeMapper<Object, Object>) f.typeMapper();
+                return typeMapper.toDatabaseType(f.getter().apply(entity));
+            })
+            .collect(toList());
+    }
+
+    private DbmsType requirePostgres(Dbms dbms) {
+        final DbmsType dbmsType = dbmsTypeOf(dbmsHandlerComponent, dbms);
+        if (!(dbmsType instanceof PostgresDbmsType)) {
+            throw new IllegalArgumentException(
+                "COPY is only supported for PostgreSQL databases, not for " + dbmsType.getName()
+            );
+        }
+        return dbmsType;
+    }
+
+    private <ENTITY> SqlAdapter<ENTITY> sqlAdapter(TableIdentifier<ENTITY> tableId) {
+        @SuppressWarnings("unchecked")
+        final SqlAdapter<ENTITY> sqlAdapter = (SqlAdapter<ENTITY>) injector.stream(SqlAdapter.class)
+            .filter(a -> tableId.equals(a.identifier()))
+            .findAny()
+            .orElseThrow(() -> new SpeedmentException(
+                "Could not find any SqlAdapter for table '" + tableId + "'."
+            ));
+        return sqlAdapter;
+    }
+
     @Override
     public void configureSelect(PreparedStatement statement) throws SQLException {
         statement.setFetchSize(FETCH_SIZE);
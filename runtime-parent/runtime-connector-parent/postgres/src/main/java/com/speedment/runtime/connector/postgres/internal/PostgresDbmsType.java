@@ -24,12 +24,15 @@ import com.speedment.runtime.core.internal.db.AbstractDatabaseNamingConvention;
 import com.speedment.runtime.core.internal.db.AbstractDbmsType;
 
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Stream;
 
 import static com.speedment.runtime.core.db.metadata.TypeInfoMetaData.of;
 import static java.util.stream.Collectors.collectingAndThen;
+import static java.util.stream.Collectors.joining;
 import static java.util.stream.Collectors.toSet;
 
 /**
@@ -116,6 +119,48 @@ public final class PostgresDbmsType extends AbstractDbmsType {
         return "select version() as \"PostgreSQL version\"";
     }
 
+    @Override
+    public MultiRowInsertSupport getMultiRowInsertSupport() {
+        // The rows of INSERT ... VALUES ... RETURNING are reported in order
+        return MultiRowInsertSupport.WITH_GENERATED_KEYS;
+    }
+
+    @Override
+    public int getMaxParametersPerStatement() {
+        return Short.MAX_VALUE; // The wire protocol uses a 16-bit parameter count
+    }
+
+    @Override
+    public long getMaxStatementSize() {
+        return 16L << 20;
+    }
+
+    @Override
+    public Optional<String> renderUpsert(Dbms dbms, String insertStatement, List<String> keyColumns, List<String> updateColumns) {
+        final String action = updateColumns.isEmpty()
+            ? "DO NOTHING"
+            : updateColumns.stream()
+                .map(c -> c + " = EXCLUDED." + c)
+                .collect(joining(",", "DO UPDATE SET ", ""));
+        // The system column xmax is zero for a row version that was inserted
+        return Optional.of(insertStatement
+            + " ON CONFLICT (" + String.join(",", keyColumns) + ") "
+            + action + " RETURNING (xmax = 0)"
+        );
+    }
+
+    @Override
+    public UpsertOutcomeReporting getUpsertOutcomeReporting(Dbms dbms) {
+        return UpsertOutcomeReporting.RETURNED_FLAG;
+    }
+
+    @Override
+    public Set<String> getRetryableSqlStates() {
+        final Set<String> sqlStates = new HashSet<>(super.getRetryableSqlStates());
+        sqlStates.add("40P01"); // deadlock_detected
+        return Collections.unmodifiableSet(sqlStates);
+    }
+
     @Override
     public Set<TypeInfoMetaData> getDataTypes() {
         return Stream.concat(
@@ -0,0 +1,85 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.connector.postgres.internal;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collections;
+import static org.junit.Assert.*;
+import org.junit.Test;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+
+/**
+ *
+ * @author agent
+ */
+public class PostgresCopyApiTest {
+
+    private static final String COPY_IN = "COPY \"t\" (\"id\",\"name\") FROM STDIN WITH (FORMAT csv)";
+    private static final String COPY_OUT = "COPY (SELECT \"id\",\"name\" FROM \"t\") TO STDOUT WITH (FORMAT csv)";
+
+    @Test
+    public void testCopyInStreamsEntities() throws SQLException {
+        final CopyManager copyManager = new CopyManager(Collections.emptyList());
+        final CsvEntityReader<Integer> reader = new CsvEntityReader<>(
+            Arrays.asList(1, 2, 3).iterator(),
+            i -> Arrays.asList(i, "name " + i)
+        );
+
+        assertEquals(3, api(copyManager).copyIn(COPY_IN, reader));
+
+        assertEquals(3, reader.getRows());
+        assertEquals(Collections.singletonList(COPY_IN), copyManager.getStatements());
+        assertEquals("1,\"name 1\"\n2,\"name 2\"\n3,\"name 3\"\n", copyManager.getCopiedIn());
+    }
+
+    @Test
+    public void testCopyOutReadsRowByRow() throws SQLException {
+        final CopyManager copyManager = new CopyManager(Arrays.asList("1,\"a\"\n", "2,\"b\"\n", "3,\"c\"\n"));
+        final PostgresCopyApi.CopyOut copyOut = api(copyManager).copyOut(COPY_OUT);
+
+        assertArrayEquals(new String[]{"1", "a"}, PostgresCopyCsv.parseRow(new String(copyOut.readRow())));
+        assertEquals(1, copyManager.getReadCalls());
+
+        copyOut.cancelIfActive();
+        assertTrue(copyManager.isCancelled());
+    }
+
+    @Test
+    public void testCopyOutNotCancelledWhenDone() throws SQLException {
+        final CopyManager copyManager = new CopyManager(Collections.singletonList("1,\"a\"\n"));
+        final PostgresCopyApi.CopyOut copyOut = api(copyManager).copyOut(COPY_OUT);
+
+        assertNotNull(copyOut.readRow());
+        assertNull(copyOut.readRow());
+        copyOut.cancelIfActive();
+        assertFalse(copyManager.isCancelled());
+    }
+
+    private static PostgresCopyApi api(CopyManager copyManager) throws SQLException {
+        final PGConnection pgConnection = mock(PGConnection.class);
+        when(pgConnection.getCopyAPI()).thenReturn(copyManager);
+        final Connection connection = mock(Connection.class);
+        when(connection.unwrap(PGConnection.class)).thenReturn(pgConnection);
+        return PostgresCopyApi.of(connection);
+    }
+
+}
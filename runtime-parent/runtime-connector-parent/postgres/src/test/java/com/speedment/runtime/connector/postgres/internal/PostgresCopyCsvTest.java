@@ -0,0 +1,121 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.connector.postgres.internal;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ *
+ * @author agent
+ */
+public class PostgresCopyCsvTest {
+
+    @Test
+    public void testAppendValues() throws SQLException {
+        assertEquals(",\"\",\"a,\"\"b\"\"\",42,true,\\x00ff", row(null, "", "a,\"b\"", 42, true, new byte[]{0, -1}));
+    }
+
+    @Test
+    public void testParseRow() {
+        assertArrayEquals(
+            new String[]{null, "", "a,\"b\"", "42", "multi\nline"},
+            PostgresCopyCsv.parseRow(",\"\",\"a,\"\"b\"\"\",42,\"multi\nline\"\n")
+        );
+    }
+
+    @Test
+    public void testRoundTrip() throws SQLException {
+        final List<Object> values = Arrays.asList("x", null, "", "\"", "1,2", 3L);
+        assertArrayEquals(
+            new String[]{"x", null, "", "\"", "1,2", "3"},
+            PostgresCopyCsv.parseRow(row(values.toArray()) + "\n")
+        );
+    }
+
+    @Test
+    public void testParseBytes() {
+        assertArrayEquals(new byte[]{0x0a, (byte) 0xff}, PostgresCopyCsv.parseBytes("\\x0aFF"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParseIllegalBytes() {
+        PostgresCopyCsv.parseBytes("0a");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParseUnterminatedQuote() {
+        PostgresCopyCsv.parseRow("\"abc\n");
+    }
+
+    @Test
+    public void testRowResultSet() throws SQLException {
+        final CsvRowResultSet row = new CsvRowResultSet();
+        row.setRow(PostgresCopyCsv.parseRow(
+            "7,,t,12.50,2018-01-02,2018-01-02 03:04:05.678,2018-01-02 03:04:05+01,\\x0102,text\n"
+        ));
+        final ResultSet rs = row.resultSet();
+
+        assertEquals(7, rs.getInt(1));
+        assertFalse(rs.wasNull());
+        assertEquals(0L, rs.getLong(2));
+        assertTrue(rs.wasNull());
+        assertNull(rs.getObject(2, Integer.class));
+        assertTrue(rs.getBoolean(3));
+        assertEquals(new BigDecimal("12.50"), rs.getBigDecimal(4));
+        assertEquals(Date.valueOf("2018-01-02"), rs.getDate(5));
+        assertEquals(Timestamp.valueOf("2018-01-02 03:04:05.678"), rs.getTimestamp(6));
+        assertEquals(Instant.parse("2018-01-02T02:04:05Z"), rs.getTimestamp(7).toInstant());
+        assertArrayEquals(new byte[]{1, 2}, rs.getBytes(8));
+        assertEquals("text", rs.getString(9));
+        assertEquals("text", rs.getObject(9));
+    }
+
+    @Test(expected = SQLException.class)
+    public void testRowResultSetInvalidIndex() throws SQLException {
+        final CsvRowResultSet row = new CsvRowResultSet();
+        row.setRow(new String[]{"1"});
+        row.resultSet().getString(2);
+    }
+
+    @Test(expected = SQLException.class)
+    public void testRowResultSetUnsupported() throws SQLException {
+        final CsvRowResultSet row = new CsvRowResultSet();
+        row.setRow(new String[]{"1"});
+        row.resultSet().getString("id");
+    }
+
+    private static String row(Object... values) throws SQLException {
+        final StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                PostgresCopyCsv.appendDelimiter(sb);
+            }
+            PostgresCopyCsv.appendValue(sb, values[i]);
+        }
+        return sb.toString();
+    }
+
+}
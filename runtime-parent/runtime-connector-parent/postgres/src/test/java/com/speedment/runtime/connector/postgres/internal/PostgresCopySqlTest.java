@@ -0,0 +1,165 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.connector.postgres.internal;
+
+import com.speedment.runtime.config.identifier.ColumnIdentifier;
+import com.speedment.runtime.core.db.DbmsType;
+import com.speedment.runtime.field.Field;
+import com.speedment.runtime.field.IntField;
+import com.speedment.runtime.field.StringField;
+import com.speedment.runtime.typemapper.TypeMapper;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ *
+ * @author agent
+ */
+public class PostgresCopySqlTest {
+
+    private static final IntField<User, Integer> ID = IntField.create(
+        identifier("id"), User::getId, User::setId, TypeMapper.primitive(), true
+    );
+
+    private static final StringField<User, String> NAME = StringField.create(
+        identifier("name"), User::getName, User::setName, TypeMapper.identity(), false
+    );
+
+    @Test
+    public void testAppendLiterals() {
+        assertEquals("NULL", literal(null));
+        assertEquals("TRUE", literal(true));
+        assertEquals("-42", literal(-42L));
+        assertEquals("1000", literal(new BigDecimal("1E+3")));
+        assertEquals("E'1.5'", literal(1.5d));
+        assertEquals("E'NaN'", literal(Double.NaN));
+        assertEquals("E'2018-01-31'", literal(Date.valueOf("2018-01-31")));
+        assertEquals("E'\\\\x00ff'::bytea", literal(new byte[]{0, -1}));
+    }
+
+    @Test
+    public void testAppendEscapedStrings() {
+        assertEquals("E'O''Brien'", literal("O'Brien"));
+        assertEquals("E'a\\\\'' OR 1=1 --'", literal("a\\' OR 1=1 --"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullCharacter() {
+        literal("a\0b");
+    }
+
+    @Test
+    public void testInlineValues() {
+        assertEquals(
+            "(\"what?\" LIKE '%?' || E'x''y') AND (\"id\" = 3)",
+            PostgresCopySql.inlineValues("(\"what?\" LIKE '%?' || ?) AND (\"id\" = ?)", Arrays.asList("x'y", 3))
+        );
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInlineTooFewValues() {
+        PostgresCopySql.inlineValues("(\"id\" = ?)", Collections.emptyList());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInlineTooManyValues() {
+        PostgresCopySql.inlineValues("(\"id\" = ?)", Arrays.asList(1, 2));
+    }
+
+    @Test
+    public void testSplitAndRenderWhere() {
+        final Predicate<User> opaque = u -> u.getName().length() > 3;
+        final List<Predicate<User>> fieldPredicates = new ArrayList<>();
+        final List<Predicate<? super User>> residualPredicates = new ArrayList<>();
+        PostgresCopySql.split(
+            ID.greaterThan(10).and(opaque).and(NAME.equal("O'Brien").or(NAME.isNull())),
+            fieldPredicates,
+            residualPredicates
+        );
+
+        assertEquals(2, fieldPredicates.size());
+        assertEquals(1, residualPredicates.size());
+        assertSame(opaque, residualPredicates.get(0));
+        assertEquals(
+            " WHERE (\"id\" > 10) AND ((\"name\" = E'O''Brien') OR (\"name\" IS NULL))",
+            renderWhere(fieldPredicates)
+        );
+    }
+
+    @Test
+    public void testRenderWhereWithoutPredicates() {
+        assertEquals("", renderWhere(Collections.emptyList()));
+    }
+
+    private static String literal(Object value) {
+        final StringBuilder sql = new StringBuilder();
+        PostgresCopySql.appendLiteral(sql, value);
+        return sql.toString();
+    }
+
+    private static String renderWhere(List<Predicate<User>> fieldPredicates) {
+        final DbmsType dbmsType = mock(DbmsType.class);
+        when(dbmsType.getFieldPredicateView()).thenReturn(new PostgresSpeedmentPredicateView());
+        final Function<Field<User>, String> columnNamer = f -> "\"" + f.identifier().getColumnId() + "\"";
+        final Function<Field<User>, Class<?>> columnDbType = f -> f == ID ? Integer.class : String.class;
+        return PostgresCopySql.renderWhere(dbmsType, columnNamer, columnDbType, fieldPredicates);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ColumnIdentifier<User> identifier(String columnId) {
+        final ColumnIdentifier<User> identifier = mock(ColumnIdentifier.class);
+        when(identifier.getColumnId()).thenReturn(columnId);
+        return identifier;
+    }
+
+    private static final class User {
+
+        private int id;
+        private String name;
+
+        int getId() {
+            return id;
+        }
+
+        User setId(int id) {
+            this.id = id;
+            return this;
+        }
+
+        String getName() {
+            return name;
+        }
+
+        User setName(String name) {
+            this.name = name;
+            return this;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.postgresql.copy;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * A stand-in for the PostgreSQL JDBC driver class with the same name. Rows
+ * that are copied in are recorded and rows that are copied out are taken
+ * from a given list.
+ *
+ * @author agent
+ */
+public class CopyManager {
+
+    private final List<String> rowsToCopyOut;
+    private final List<String> statements = new ArrayList<>();
+    private final StringBuilder copiedIn = new StringBuilder();
+    private int readCalls;
+    private boolean cancelled;
+
+    public CopyManager(List<String> rowsToCopyOut) {
+        this.rowsToCopyOut = rowsToCopyOut;
+    }
+
+    public long copyIn(String sql, Reader from) throws SQLException, IOException {
+        statements.add(sql);
+        final char[] buffer = new char[7]; // Small to exercise partial reads
+        int count;
+        while ((count = from.read(buffer, 0, buffer.length)) >= 0) {
+            copiedIn.append(buffer, 0, count);
+        }
+        return copiedIn.chars().filter(c -> c == '\n').count();
+    }
+
+    public CopyOut copyOut(String sql) throws SQLException {
+        statements.add(sql);
+        final Iterator<String> rows = rowsToCopyOut.iterator();
+        return new CopyOut() {
+            @Override
+            public byte[] readFromCopy() {
+                readCalls++;
+                return rows.hasNext() ? rows.next().getBytes(StandardCharsets.UTF_8) : null;
+            }
+
+            @Override
+            public boolean isActive() {
+                return rows.hasNext();
+            }
+
+            @Override
+            public void cancelCopy() {
+                cancelled = true;
+            }
+        };
+    }
+
+    public List<String> getStatements() {
+        return statements;
+    }
+
+    public String getCopiedIn() {
+        return copiedIn.toString();
+    }
+
+    public int getReadCalls() {
+        return readCalls;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+}
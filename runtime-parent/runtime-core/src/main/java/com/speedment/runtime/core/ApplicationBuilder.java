@@ -32,6 +32,8 @@ import com.speedment.runtime.config.identifier.trait.HasSchemaId;
 import com.speedment.runtime.config.identifier.trait.HasTableId;
 import com.speedment.runtime.config.trait.HasEnabled;
 import com.speedment.runtime.core.manager.Manager;
+
+import java.time.Duration;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 
@@ -604,6 +606,32 @@ public interface ApplicationBuilder<
      */
     BUILDER withAllowStreamIteratorAndSpliterator();
 
+    /**
+     * Caches up to {@code maxSize} entities of the given table, so that
+     * streams that only look up an entity by its primary key, for example
+     * {@code users.stream().filter(User.ID.equal(42)).findAny()}, can be
+     * served without querying the database. Entities are cached for at most
+     * the given time to live after they were read, and are evicted when they
+     * are persisted, updated or removed using their manager.
+     * <p>
+     * The table must have exactly one primary key column. Cached entities
+     * are shared between all the callers that look them up and must thus
+     * not be modified unless they are also updated using their manager.
+     *
+     * @param <I>      identifier type
+     * @param id       the identifier of the table
+     * @param maxSize  the maximum number of cached entities
+     * @param ttl      the time an entity may be cached after it was read
+     * @return         this instance
+     *
+     * @throws IllegalArgumentException if the {@code maxSize} is not
+     *                                  positive or the {@code ttl} is not
+     *                                  positive
+     * @see com.speedment.runtime.core.manager.EntityCache
+     * @since 3.1.2
+     */
+    <I extends HasDbmsId & HasSchemaId & HasTableId> BUILDER withEntityCache(I id, long maxSize, Duration ttl);
+
     /**
      * Builds this application. This is expected to be the last method called on
      * this object.
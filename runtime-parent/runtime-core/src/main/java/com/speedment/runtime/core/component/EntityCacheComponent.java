@@ -0,0 +1,66 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.component;
+
+import com.speedment.common.injector.annotation.InjectKey;
+import com.speedment.runtime.config.identifier.TableIdentifier;
+import com.speedment.runtime.core.manager.EntityCache;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * This Component interface holds the {@link EntityCache} of each table that
+ * has been configured to cache its entities. Tables have no entity cache
+ * unless one has been configured, either using
+ * {@link com.speedment.runtime.core.ApplicationBuilder#withEntityCache} or
+ * {@link #putEntityCache(TableIdentifier, long, Duration)}.
+ * <p>
+ * Entity caches can only be used for tables that have exactly one primary
+ * key column.
+ *
+ * @author agent
+ * @since  3.1.2
+ */
+@InjectKey(EntityCacheComponent.class)
+public interface EntityCacheComponent {
+
+    /**
+     * Returns the entity cache of the given table, or an empty
+     * {@code Optional} if the table does not cache its entities.
+     *
+     * @param <ENTITY>  the entity type
+     * @param tableId   the identifier of the table
+     * @return          the entity cache of the table, if any
+     */
+    <ENTITY> Optional<EntityCache<ENTITY>> getEntityCache(TableIdentifier<ENTITY> tableId);
+
+    /**
+     * Creates a new entity cache for the given table, replacing any existing
+     * cache of the table.
+     *
+     * @param tableId  the identifier of the table
+     * @param maxSize  the maximum number of cached entities
+     * @param ttl      the time an entity may be cached after it was read
+     *
+     * @throws IllegalArgumentException if the {@code maxSize} is not
+     *                                  positive or the {@code ttl} is not
+     *                                  positive
+     */
+    void putEntityCache(TableIdentifier<?> tableId, long maxSize, Duration ttl);
+
+}
@@ -19,9 +19,11 @@ package com.speedment.runtime.core.component;
 import com.speedment.common.injector.annotation.InjectKey;
 import com.speedment.runtime.config.identifier.TableIdentifier;
 import com.speedment.runtime.core.exception.SpeedmentException;
+import com.speedment.runtime.core.internal.manager.UnsupportedUpserter;
 import com.speedment.runtime.core.manager.Persister;
 import com.speedment.runtime.core.manager.Remover;
 import com.speedment.runtime.core.manager.Updater;
+import com.speedment.runtime.core.manager.Upserter;
 
 /**
  * The {@code PersistanceComponent} handles persisting, updating and deleting 
@@ -74,4 +76,23 @@ public interface PersistenceComponent {
      */
     <ENTITY> Remover<ENTITY> remover(TableIdentifier<ENTITY> tableIdentifier) throws SpeedmentException;
     
+    /**
+     * Creates and returns an {@link Upserter} that describes how entities are
+     * upserted in the specified table. The returned {@code Upserter} can then
+     * be applied by supplying an entity.
+     * <p>
+     * By default, this method returns an {@code Upserter} that throws an
+     * {@code UnsupportedOperationException} when it is applied.
+     *
+     * @param <ENTITY>         the entity type
+     * @param tableIdentifier  identifier for the table to upsert into
+     * @return                 the created {@link Upserter}
+     *
+     * @throws SpeedmentException  if it could not be created
+     * @since 3.1.2
+     */
+    default <ENTITY> Upserter<ENTITY> upserter(TableIdentifier<ENTITY> tableIdentifier) throws SpeedmentException {
+        return new UnsupportedUpserter<>(getClass().getSimpleName() + " does not support upserts.");
+    }
+
 }
\ No newline at end of file
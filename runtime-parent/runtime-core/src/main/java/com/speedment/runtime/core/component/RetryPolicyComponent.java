@@ -0,0 +1,58 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.component;
+
+import com.speedment.common.injector.annotation.InjectKey;
+import com.speedment.runtime.config.Dbms;
+import com.speedment.runtime.config.identifier.DbmsIdentifier;
+import com.speedment.runtime.core.db.RetryPolicy;
+
+/**
+ * This Component interface holds the {@link RetryPolicy} of each
+ * {@link Dbms}. The policy decides if statements that are executed outside
+ * an explicit transaction are retried when they fail.
+ * <p>
+ * Unless a policy has been set for a Dbms, the default policy retries the
+ * exceptions that its {@link com.speedment.runtime.core.db.DbmsType}
+ * considers transient, with limits that are configured using the
+ * parameters {@code retry.maxAttempts}, {@code retry.initialBackoff},
+ * {@code retry.maxBackoff} and {@code retry.timeBudget} (in milliseconds).
+ *
+ * @author agent
+ * @since  3.1.2
+ */
+@InjectKey(RetryPolicyComponent.class)
+public interface RetryPolicyComponent {
+
+    /**
+     * Returns the retry policy of the given Dbms.
+     *
+     * @param dbms  the dbms
+     * @return      the retry policy of the given Dbms
+     */
+    RetryPolicy getRetryPolicy(Dbms dbms);
+
+    /**
+     * Sets the retry policy of the Dbms with the given identifier, replacing
+     * the default policy.
+     *
+     * @param dbmsId       the identifier of the dbms
+     * @param retryPolicy  the new retry policy
+     */
+    void putRetryPolicy(DbmsIdentifier<?> dbmsId, RetryPolicy retryPolicy);
+
+}
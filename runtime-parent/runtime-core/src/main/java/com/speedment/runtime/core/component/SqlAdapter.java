@@ -20,7 +20,7 @@ import com.speedment.common.injector.annotation.InjectKey;
 import com.speedment.runtime.config.identifier.TableIdentifier;
 import com.speedment.runtime.core.db.SqlFunction;
 import java.sql.ResultSet;
-import static javafx.scene.input.KeyCode.T;
+import java.util.Optional;
 
 /**
  * An SqlAdapter provides a means to read entities from a RsultSet.
@@ -60,4 +60,17 @@ public interface SqlAdapter<ENTITY> {
      */
     SqlFunction<ResultSet, ENTITY> entityMapper(int offset);
 
+    /**
+     * Returns a binder that sets statement parameters directly from entities
+     * handled by this SqlAdapter, or an empty {@code Optional} if the values
+     * shall be collected using the fields of the entity. The default
+     * implementation returns an empty {@code Optional}.
+     *
+     * @return a binder for this SqlAdapter, if any
+     * @since 3.1.2
+     */
+    default Optional<SqlBinder<ENTITY>> binder() {
+        return Optional.empty();
+    }
+
 }
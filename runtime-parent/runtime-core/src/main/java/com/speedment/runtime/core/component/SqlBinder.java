@@ -0,0 +1,75 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.component;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * A SqlBinder sets the parameters of the statements used to persist, update
+ * and remove entities directly from the entity, without first collecting the
+ * values into a list. Binders are typically generated so that primitive
+ * columns can be set using the primitive setters of the
+ * {@code PreparedStatement} without boxing.
+ * <p>
+ * The parameters are bound in the same order as the columns appear in the
+ * statements rendered by the default persistence implementation. That is,
+ * enabled columns ordered by their ordinal position, skipping columns that
+ * are excluded by the {@link com.speedment.runtime.core.db.DbmsColumnHandler}
+ * of the database type. Primary key columns are ordered by their ordinal
+ * position in the primary key.
+ *
+ * @author agent
+ * @param <ENTITY> type of the entities to bind
+ * @since 3.1.2
+ */
+public interface SqlBinder<ENTITY> {
+
+    /**
+     * Binds the columns of the given entity to the parameters of an insert
+     * statement, starting with the first parameter.
+     *
+     * @param ps      the statement to bind parameters of
+     * @param entity  the entity to read values from
+     * @throws SQLException if a parameter could not be set
+     */
+    void bindInsert(PreparedStatement ps, ENTITY entity) throws SQLException;
+
+    /**
+     * Binds the columns of the given entity to the parameters of an update
+     * statement that sets all updatable columns, starting with the first
+     * parameter. The primary key columns of the where clause are bound after
+     * the updated columns.
+     *
+     * @param ps      the statement to bind parameters of
+     * @param entity  the entity to read values from
+     * @throws SQLException if a parameter could not be set
+     */
+    void bindUpdate(PreparedStatement ps, ENTITY entity) throws SQLException;
+
+    /**
+     * Binds the primary key columns of the given entity to the parameters of
+     * a statement that only uses the primary key in its where clause,
+     * starting with the first parameter.
+     *
+     * @param ps      the statement to bind parameters of
+     * @param entity  the entity to read values from
+     * @throws SQLException if a parameter could not be set
+     */
+    void bindPk(PreparedStatement ps, ENTITY entity) throws SQLException;
+
+}
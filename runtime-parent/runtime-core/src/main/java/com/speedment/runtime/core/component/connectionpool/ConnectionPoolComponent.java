@@ -118,5 +118,97 @@ public interface ConnectionPoolComponent {
      */
     long getMaxAge();
 
+    /**
+     * Returns the maximum number of connections that can be open at the same
+     * time for each unique uri/user/password combination, counting both
+     * leased and idle connections. If the limit is reached, callers will wait
+     * in a fair queue until a connection is returned or the
+     * {@link #getAcquireTimeout() acquire timeout} expires. Idle connections,
+     * including the ones opened to keep {@link #getMinIdle()} connections
+     * warm, are never opened beyond this limit. A value of zero or less means
+     * that the number of connections is unbounded.
+     *
+     * @return the maximum number of open connections per pool, or zero or
+     * less if unbounded
+     * @since 3.1.2
+     */
+    int getMaxTotal();
+
+    /**
+     * Returns the maximum number of milliseconds a caller will wait for a
+     * connection when the pool is exhausted before a
+     * {@link com.speedment.runtime.core.exception.SpeedmentException} is
+     * thrown.
+     *
+     * @return the maximum number of milliseconds to wait for a connection
+     * @since 3.1.2
+     */
+    long getAcquireTimeout();
+
+    /**
+     * Returns the current number of callers that are waiting for a connection
+     * because the pool is exhausted.
+     *
+     * @return the current number of waiting callers
+     * @since 3.1.2
+     */
+    int waitSize();
+
+    /**
+     * Returns the total number of times a caller has failed to acquire a
+     * connection within the acquire timeout.
+     *
+     * @return the total number of rejected connection requests
+     * @since 3.1.2
+     */
+    long rejectCount();
+
+    /**
+     * Returns the minimum number of idle connections that are kept open in
+     * the pool of each dbms in the project. The pools are filled up when the
+     * application is started and are then maintained by a background thread.
+     *
+     * @return the minimum number of idle connections per dbms
+     * @since 3.1.2
+     */
+    int getMinIdle();
+
+    /**
+     * Returns the number of milliseconds a connection may stay idle in the
+     * pool before it is closed, as long as at least {@link #getMinIdle()}
+     * other idle connections remain.
+     *
+     * @return the maximum idle time in milliseconds
+     * @since 3.1.2
+     */
+    long getIdleTimeout();
+
+    /**
+     * Returns the maximum number of prepared statements that each connection
+     * in the pool will cache for reuse. A value of zero or less means that
+     * statements are not cached.
+     *
+     * @return the maximum number of cached statements per connection
+     * @since 3.1.2
+     */
+    int getStatementCacheSize();
+
+    /**
+     * Returns the total number of times a prepared statement was served from
+     * the statement cache of a pooled connection.
+     *
+     * @return the total number of statement cache hits
+     * @since 3.1.2
+     */
+    long statementCacheHits();
+
+    /**
+     * Returns the total number of times a prepared statement could not be
+     * served from the statement cache of a pooled connection.
+     *
+     * @return the total number of statement cache misses
+     * @since 3.1.2
+     */
+    long statementCacheMisses();
 
 }
@@ -50,4 +50,27 @@ public interface PoolableConnection extends Connection {
 
     void setOnClose(Runnable onClose);
 
+    /**
+     * Returns the number of times a prepared statement was served from the
+     * statement cache of this connection.
+     *
+     * @return the number of statement cache hits
+     * @since 3.1.2
+     */
+    default long getStatementCacheHits() {
+        return 0;
+    }
+
+    /**
+     * Returns the number of times a prepared statement had to be prepared by
+     * the driver because it was not found in the statement cache of this
+     * connection.
+     *
+     * @return the number of statement cache misses
+     * @since 3.1.2
+     */
+    default long getStatementCacheMisses() {
+        return 0;
+    }
+
 }
\ No newline at end of file
@@ -29,4 +29,27 @@ public interface SqlStreamOptimizerComponent {
 
     <ENTITY> void install(SqlStreamOptimizer<ENTITY> sqlStreamOptimizer);
 
+    /**
+     * Returns the number of times the optimizer for a pipeline could be taken
+     * from the plan cache because a pipeline of the same shape had already
+     * been evaluated.
+     *
+     * @return the number of plan cache hits
+     * @since 3.1.2
+     */
+    default long planCacheHits() {
+        return 0;
+    }
+
+    /**
+     * Returns the number of times all installed optimizers had to be
+     * evaluated for a pipeline.
+     *
+     * @return the number of plan cache misses
+     * @since 3.1.2
+     */
+    default long planCacheMisses() {
+        return 0;
+    }
+
 }
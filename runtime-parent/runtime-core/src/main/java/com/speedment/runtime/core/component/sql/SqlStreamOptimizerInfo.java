@@ -25,10 +25,13 @@ import com.speedment.runtime.core.db.DbmsType;
 import com.speedment.runtime.core.internal.component.sql.SqlStreamOptimizerInfoImpl;
 import com.speedment.runtime.field.Field;
 import java.util.List;
+import java.util.Optional;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.function.ToLongBiFunction;
 
+import static java.util.Objects.requireNonNull;
+
 /**
  *
  * @author Per Minborg
@@ -87,6 +90,16 @@ public interface SqlStreamOptimizerInfo<ENTITY> {
      */
     Function<Field<ENTITY>, Class<?>> getSqlDatabaseTypeFunction();
 
+    /**
+     * Returns the fully qualified and quoted SQL table reference that is used
+     * in the select statements, if known. Optimizers that render their own
+     * column list (e.g. for projections) need this reference.
+     *
+     * @return the SQL table reference, if known
+     * @since 3.1.2
+     */
+    Optional<String> getSqlTableReference();
+
     static <ENTITY> SqlStreamOptimizerInfo<ENTITY> of(
         final DbmsType dbmsType,
         final String sqlSelect,
@@ -101,7 +114,28 @@ public interface SqlStreamOptimizerInfo<ENTITY> {
             sqlSelectCount,
             counter,
             sqlColumnNamer,
-            sqlDatabaseTypeFunction
+            sqlDatabaseTypeFunction,
+            null
+        );
+    }
+
+    static <ENTITY> SqlStreamOptimizerInfo<ENTITY> of(
+        final DbmsType dbmsType,
+        final String sqlSelect,
+        final String sqlSelectCount,
+        final ToLongBiFunction<String, List<Object>> counter,
+        final Function<Field<ENTITY>, String> sqlColumnNamer,
+        final Function<Field<ENTITY>, Class<?>> sqlDatabaseTypeFunction,
+        final String sqlTableReference
+    ) {
+        return new SqlStreamOptimizerInfoImpl<>(
+            dbmsType,
+            sqlSelect,
+            sqlSelectCount,
+            counter,
+            sqlColumnNamer,
+            sqlDatabaseTypeFunction,
+            requireNonNull(sqlTableReference)
         );
     }
 
@@ -118,4 +118,31 @@ public interface TransactionComponent {
      */
     Stream<Thread> threads(Object txObject);
 
+    /**
+     * Registers an action that shall be run after the transaction that the
+     * given thread is associated with has been committed. Registered actions
+     * are run once, after the next commit, and are discarded if the
+     * transaction ends without being committed.
+     *
+     * @param thread the thread that is associated with the transaction
+     * @param action to run after the next commit
+     * @return {@code true} if the action was registered, or {@code false} if
+     * the thread is not associated with a transaction aware object
+     * @throws NullPointerException if thread or action is null
+     * @since 3.1.2
+     */
+    boolean afterCommit(Thread thread, Runnable action);
+
+    /**
+     * Runs and removes the actions that were registered using
+     * {@link #afterCommit(Thread, Runnable)} for the given transaction aware
+     * object. This method is invoked by a {@link Transaction} once its
+     * changes have been committed.
+     *
+     * @param txObject transaction aware object that was committed
+     * @throws NullPointerException if txObject is null
+     * @since 3.1.2
+     */
+    void committed(Object txObject);
+
 }
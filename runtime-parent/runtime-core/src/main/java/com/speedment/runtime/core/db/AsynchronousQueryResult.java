@@ -16,8 +16,11 @@
  */
 package com.speedment.runtime.core.db;
 
+import com.speedment.runtime.config.identifier.ColumnIdentifier;
+
 import java.sql.ResultSet;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Stream;
 
 /**
@@ -44,4 +47,59 @@ public interface AsynchronousQueryResult<T> extends AutoCloseable {
 
     void setRsMapper(SqlFunction<ResultSet, T> rsMapper);
 
+    /**
+     * Returns the column that is the only column selected by the SQL query,
+     * if the query has been rewritten by a projecting optimizer. An empty
+     * Optional means that the query selects whole entities.
+     * <p>
+     * Implementations that do not keep track of projections will always
+     * return an empty Optional.
+     *
+     * @return the projected column, if any
+     * @since 3.1.2
+     */
+    default Optional<ColumnIdentifier<?>> getProjection() {
+        return Optional.empty();
+    }
+
+    /**
+     * Records that the SQL query has been rewritten so that it only selects
+     * the given column. The default implementation ignores the projection.
+     *
+     * @param projection the projected column, or {@code null} if the query
+     *                   selects whole entities
+     * @since 3.1.2
+     */
+    default void setProjection(ColumnIdentifier<?> projection) {
+        // Projections are not tracked by default
+    }
+
+    /**
+     * Returns if the SQL query has been rewritten so that the database skips
+     * rows or limits the number of rows, for example using
+     * {@code LIMIT ? OFFSET ?}. Such a query can not be split into separate
+     * queries without changing its result.
+     * <p>
+     * Implementations that do not keep track of this will always return
+     * {@code false}.
+     *
+     * @return if skip or limit is applied by the SQL query
+     * @since 3.1.2
+     */
+    default boolean hasSkipOrLimit() {
+        return false;
+    }
+
+    /**
+     * Records if the SQL query has been rewritten so that the database skips
+     * rows or limits the number of rows. The default implementation ignores
+     * this information.
+     *
+     * @param skipOrLimit if skip or limit is applied by the SQL query
+     * @since 3.1.2
+     */
+    default void setSkipOrLimit(boolean skipOrLimit) {
+        // Skip and limit are not tracked by default
+    }
+
 }
\ No newline at end of file
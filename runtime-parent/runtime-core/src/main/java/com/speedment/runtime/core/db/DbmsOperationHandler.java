@@ -24,9 +24,12 @@ import java.sql.*;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.function.Consumer;
 import java.util.stream.Stream;
 
+import static java.util.stream.Collectors.toList;
+
 /**
  * A DbmsOperationHandler provides the interface between Speedment and an
  * underlying {@link Dbms} for when running queries.
@@ -38,12 +41,11 @@ import java.util.stream.Stream;
 public interface DbmsOperationHandler {
 
     /**
-     * Eagerly executes a SQL query and subsequently maps each row in the
-     * ResultSet using a provided mapper and return a Stream of the mapped
-     * objects. The ResultSet is eagerly consumed so that all elements in the
-     * ResultSet are read before the Stream produces any objects. If no objects
-     * are present or if an SQLException is thrown internally, an {@code empty}
-     * stream is returned.
+     * Executes a SQL query and subsequently maps each row in the ResultSet
+     * using a provided mapper and return a Stream of the mapped objects. The
+     * ResultSet is lazily consumed as the objects are pulled from the stream.
+     * The underlying connection is not released until the returned stream is
+     * closed, so it should be used in a try-with-resources block.
      *
      * @param <T> the type of the objects in the stream to return
      * @param dbms the dbms to send it to
@@ -60,11 +62,16 @@ public interface DbmsOperationHandler {
     }
 
     /**
-     * Eagerly executes a SQL query and subsequently maps each row in the
+     * Executes a SQL query and subsequently maps each row in the
      * {@link ResultSet} using a provided mapper and return a stream of the
-     * mapped objects. The {@code ResultSet} is eagerly consumed. If no objects
-     * are present or if an {@link SQLException} is thrown internally, an
-     * {@code empty} stream is returned.
+     * mapped objects. The {@code ResultSet} is lazily consumed as the objects
+     * are pulled from the stream, so only the rows currently being processed
+     * are held in memory.
+     * <p>
+     * The underlying statement and connection are released when the returned
+     * stream is closed, so it should be used in a try-with-resources block.
+     * Use {@link #executeQueryEagerly(Dbms, String, List, SqlFunction)} if
+     * the result must be detached from the database.
      *
      * @param <T> the type of the objects in the stream to return
      * @param dbms the dbms to send it to
@@ -73,7 +80,7 @@ public interface DbmsOperationHandler {
      * command
      * @param rsMapper the non-null mapper to use when iterating over the
      * {@link ResultSet}
-     * @return a stream of the mapped objects
+     * @return a stream of the mapped objects that must be closed after use
      */
     <T> Stream<T> executeQuery(
         Dbms dbms,
@@ -82,6 +89,34 @@ public interface DbmsOperationHandler {
         SqlFunction<ResultSet, T> rsMapper
     );
 
+    /**
+     * Eagerly executes a SQL query and subsequently maps each row in the
+     * {@link ResultSet} using a provided mapper and return a stream of the
+     * mapped objects. The {@code ResultSet} is completely consumed and the
+     * underlying connection is released before this method returns, so the
+     * returned stream does not need to be closed.
+     *
+     * @param <T> the type of the objects in the stream to return
+     * @param dbms the dbms to send it to
+     * @param sql the non-null SQL command to execute
+     * @param values non-null values to use for "?" parameters in the sql
+     * command
+     * @param rsMapper the non-null mapper to use when iterating over the
+     * {@link ResultSet}
+     * @return a stream of the mapped objects
+     * @since 3.1.2
+     */
+    default <T> Stream<T> executeQueryEagerly(
+        Dbms dbms,
+        String sql,
+        List<?> values,
+        SqlFunction<ResultSet, T> rsMapper
+    ) {
+        try (final Stream<T> stream = executeQuery(dbms, sql, values, rsMapper)) {
+            return stream.collect(toList()).stream();
+        }
+    }
+
     /**
      * Lazily Executes a SQL query and subsequently maps each row in the
      * {@link ResultSet} using a provided mapper and return a stream of the
@@ -151,6 +186,239 @@ public interface DbmsOperationHandler {
      */
     void executeDelete(Dbms dbms, String sql, List<?> values) throws SQLException;
 
+    /**
+     * Executes an SQL update command that may affect any number of rows and
+     * returns the number of affected rows.
+     * <p>
+     * The default implementation delegates to
+     * {@link #executeUpdate(Dbms, String, List)} and returns {@code -1}.
+     *
+     * @param dbms the dbms to send it to
+     * @param sql the non-null SQL command to execute
+     * @param values a non-null list
+     * @return the number of affected rows or {@code -1} if the number is
+     * not known
+     * @throws SQLException if an error occurs
+     * @since 3.1.2
+     */
+    default long executeUpdateAndCount(Dbms dbms, String sql, List<?> values) throws SQLException {
+        executeUpdate(dbms, sql, values);
+        return -1;
+    }
+
+    /**
+     * Executes an SQL delete command that may affect any number of rows and
+     * returns the number of affected rows.
+     * <p>
+     * The default implementation delegates to
+     * {@link #executeDelete(Dbms, String, List)} and returns {@code -1}.
+     *
+     * @param dbms the dbms to send it to
+     * @param sql the non-null SQL command to execute
+     * @param values a non-null list
+     * @return the number of affected rows or {@code -1} if the number is
+     * not known
+     * @throws SQLException if an error occurs
+     * @since 3.1.2
+     */
+    default long executeDeleteAndCount(Dbms dbms, String sql, List<?> values) throws SQLException {
+        executeDelete(dbms, sql, values);
+        return -1;
+    }
+
+    /**
+     * Executes an SQL insert command once for each of the provided value
+     * lists using a single batch. Generated key(s) for the n:th row (if any)
+     * will be fed to the n:th Consumer, provided that the database driver is
+     * able to report generated keys for batches.
+     * <p>
+     * The default implementation executes the rows one at a time using
+     * {@link #executeInsert(Dbms, String, List, Collection, Consumer)}.
+     *
+     * @param <ENTITY> the type of the entity from which the fields come
+     *
+     * @param dbms the dbms to send it to
+     * @param sql the non-null SQL command to execute
+     * @param valuesList a non-null list with the values for each row
+     * @param generatedKeyFields list of the generated fields
+     * @param generatedKeyConsumers a non-null list with a consumer of the
+     * generated keys for each row
+     * @throws SQLException if an error occurs
+     * @since 3.1.2
+     */
+    default <ENTITY> void executeInsertBatch(
+        Dbms dbms,
+        String sql,
+        List<? extends List<?>> valuesList,
+        Collection<Field<ENTITY>> generatedKeyFields,
+        List<? extends Consumer<List<Long>>> generatedKeyConsumers
+    ) throws SQLException {
+        if (valuesList.size() != generatedKeyConsumers.size()) {
+            throw new IllegalArgumentException(
+                "There must be one generated key consumer per row: "
+                + valuesList.size() + " != " + generatedKeyConsumers.size()
+            );
+        }
+        for (int i = 0; i < valuesList.size(); i++) {
+            executeInsert(dbms, sql, valuesList.get(i), generatedKeyFields, generatedKeyConsumers.get(i));
+        }
+    }
+
+    /**
+     * Executes an SQL update command once for each of the provided value
+     * lists using a single batch.
+     * <p>
+     * The default implementation executes the rows one at a time using
+     * {@link #executeUpdate(Dbms, String, List)}.
+     *
+     * @param dbms the dbms to send it to
+     * @param sql the non-null SQL command to execute
+     * @param valuesList a non-null list with the values for each row
+     * @throws SQLException if an error occurs
+     * @since 3.1.2
+     */
+    default void executeUpdateBatch(Dbms dbms, String sql, List<? extends List<?>> valuesList) throws SQLException {
+        for (final List<?> values : valuesList) {
+            executeUpdate(dbms, sql, values);
+        }
+    }
+
+    /**
+     * Executes an SQL delete command once for each of the provided value
+     * lists using a single batch.
+     * <p>
+     * The default implementation executes the rows one at a time using
+     * {@link #executeDelete(Dbms, String, List)}.
+     *
+     * @param dbms the dbms to send it to
+     * @param sql the non-null SQL command to execute
+     * @param valuesList a non-null list with the values for each row
+     * @throws SQLException if an error occurs
+     * @since 3.1.2
+     */
+    default void executeDeleteBatch(Dbms dbms, String sql, List<? extends List<?>> valuesList) throws SQLException {
+        for (final List<?> values : valuesList) {
+            executeDelete(dbms, sql, values);
+        }
+    }
+
+    /**
+     * Executes an SQL upsert command, as rendered by
+     * {@link DbmsType#renderUpsert(Dbms, String, List, List)}, once for each of the
+     * provided value lists and returns the outcome for each row: 1 if the row
+     * was inserted, 2 if an existing row was updated, 0 if an existing row
+     * was left unchanged and a negative value if the outcome is not known.
+     * <p>
+     * The default implementation executes the rows one at a time using
+     * {@link #executeUpdateAndCount(Dbms, String, List)} and can therefore
+     * only be used with database types that report the outcome as an update
+     * count.
+     *
+     * @param dbms the dbms to send it to
+     * @param sql the non-null SQL command to execute
+     * @param valuesList a non-null list with the values for each row
+     * @return the outcome for each row
+     * @throws SQLException if an error occurs
+     * @see DbmsType#getUpsertOutcomeReporting(Dbms)
+     * @since 3.1.2
+     */
+    default long[] executeUpsertBatch(Dbms dbms, String sql, List<? extends List<?>> valuesList) throws SQLException {
+        final long[] outcomes = new long[valuesList.size()];
+        for (int i = 0; i < outcomes.length; i++) {
+            outcomes[i] = executeUpdateAndCount(dbms, sql, valuesList.get(i));
+        }
+        return outcomes;
+    }
+
+    /**
+     * Returns if this handler can execute statements that set their
+     * parameters using binders, as done by
+     * {@link #executeBoundInsertBatch(Dbms, String, List, Collection, List)},
+     * {@link #executeBoundUpdateBatch(Dbms, String, List)} and
+     * {@link #executeBoundDeleteBatch(Dbms, String, List)}. The default
+     * implementation returns {@code false}.
+     *
+     * @return {@code true} if binders are supported
+     * @since 3.1.2
+     */
+    default boolean isBindingSupported() {
+        return false;
+    }
+
+    /**
+     * Executes an SQL insert command once for each of the provided binders
+     * using a single batch. Each binder sets the parameters of one row.
+     * Generated key(s) for the n:th row (if any) will be fed to the n:th
+     * Consumer, provided that the database driver is able to report
+     * generated keys for batches.
+     * <p>
+     * The default implementation throws an
+     * {@code UnsupportedOperationException}.
+     *
+     * @param <ENTITY> the type of the entity from which the fields come
+     *
+     * @param dbms the dbms to send it to
+     * @param sql the non-null SQL command to execute
+     * @param binders a non-null list with the binder for each row
+     * @param generatedKeyFields list of the generated fields
+     * @param generatedKeyConsumers a non-null list with a consumer of the
+     * generated keys for each row
+     * @throws SQLException if an error occurs
+     * @see #isBindingSupported()
+     * @since 3.1.2
+     */
+    default <ENTITY> void executeBoundInsertBatch(
+        Dbms dbms,
+        String sql,
+        List<? extends SqlConsumer<PreparedStatement>> binders,
+        Collection<Field<ENTITY>> generatedKeyFields,
+        List<? extends Consumer<List<Long>>> generatedKeyConsumers
+    ) throws SQLException {
+        throw new UnsupportedOperationException(
+            getClass().getSimpleName() + " does not support binders."
+        );
+    }
+
+    /**
+     * Executes an SQL update command once for each of the provided binders
+     * using a single batch. Each binder sets the parameters of one row.
+     * <p>
+     * The default implementation throws an
+     * {@code UnsupportedOperationException}.
+     *
+     * @param dbms the dbms to send it to
+     * @param sql the non-null SQL command to execute
+     * @param binders a non-null list with the binder for each row
+     * @throws SQLException if an error occurs
+     * @see #isBindingSupported()
+     * @since 3.1.2
+     */
+    default void executeBoundUpdateBatch(Dbms dbms, String sql, List<? extends SqlConsumer<PreparedStatement>> binders) throws SQLException {
+        throw new UnsupportedOperationException(
+            getClass().getSimpleName() + " does not support binders."
+        );
+    }
+
+    /**
+     * Executes an SQL delete command once for each of the provided binders
+     * using a single batch. Each binder sets the parameters of one row.
+     * <p>
+     * The default implementation throws an
+     * {@code UnsupportedOperationException}.
+     *
+     * @param dbms the dbms to send it to
+     * @param sql the non-null SQL command to execute
+     * @param binders a non-null list with the binder for each row
+     * @throws SQLException if an error occurs
+     * @see #isBindingSupported()
+     * @since 3.1.2
+     */
+    default void executeBoundDeleteBatch(Dbms dbms, String sql, List<? extends SqlConsumer<PreparedStatement>> binders) throws SQLException {
+        throw new UnsupportedOperationException(
+            getClass().getSimpleName() + " does not support binders."
+        );
+    }
+
     /**
      * Constructs an object that implements the <code>Clob</code> interface. The
      * object returned initially contains no data. The
@@ -302,6 +570,59 @@ public interface DbmsOperationHandler {
     default void configureSelect(ResultSet resultSet) throws SQLException {
         // Do nothing by default
     }
+
+    /**
+     * Cancels a select statement that is still executing because its stream
+     * was closed before all rows were read. This prevents drivers that
+     * drain the remaining rows upon close (notably MySQL with a streaming
+     * ResultSet) from blocking the calling thread and the connection.
+     * <p>
+     * By default, {@link Statement#cancel()} is invoked. Database types may
+     * override this method to use another mechanism.
+     *
+     * @param statement to cancel
+     * @throws java.sql.SQLException if the cancellation fails
+     * @since 3.1.2
+     */
+    default void cancelSelect(PreparedStatement statement) throws SQLException {
+        statement.cancel();
+    }
+
+    /**
+     * Returns the number of select statements that have been cancelled
+     * because their streams were closed before all rows were read.
+     *
+     * @return the number of cancelled select statements
+     * @since 3.1.2
+     */
+    default long getCancelledSelectCount() {
+        return 0;
+    }
+
+    /**
+     * Returns the number of times a failed transaction has been retried
+     * according to the {@link RetryPolicy} of its Dbms.
+     *
+     * @return the number of retries
+     * @since 3.1.2
+     */
+    default long getRetryCount() {
+        return 0;
+    }
+
+    /**
+     * Returns the number of retries per SQL statement, where the statement is
+     * the one that failed. Statements that are retried often point out
+     * tables with high contention. Implementations may limit the number of
+     * statements that are tracked, in which case retries of statements that
+     * are not tracked are only included in {@link #getRetryCount()}.
+     *
+     * @return the number of retries per SQL statement
+     * @since 3.1.2
+     */
+    default Map<String, Long> getRetryCountBySql() {
+        return Collections.emptyMap();
+    }
        
     <ENTITY> void handleGeneratedKeys(PreparedStatement ps, SqlInsertStatement<ENTITY> sqlStatement) throws SQLException;
 
@@ -20,7 +20,11 @@ import com.speedment.runtime.core.db.metadata.TypeInfoMetaData;
 import com.speedment.runtime.config.Dbms;
 import com.speedment.runtime.config.Schema;
 
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -294,4 +298,235 @@ public interface DbmsType {
      */
     SortByNullOrderInsertion getSortByNullOrderInsertion();
 
+    /**
+     * The support for inserting several rows using a single
+     * {@code INSERT INTO t (a, b) VALUES (?, ?), (?, ?), ...} statement.
+     *
+     * @since 3.1.2
+     */
+    enum MultiRowInsertSupport {
+        /**
+         * Multi-row inserts are not used. Rows are inserted using JDBC batches
+         * of single-row inserts.
+         */
+        NONE,
+        /**
+         * Multi-row inserts are supported but the generated keys can not be
+         * reliably mapped back to the rows. Multi-row inserts are therefore
+         * only used for tables without generated columns.
+         */
+        WITHOUT_GENERATED_KEYS,
+        /**
+         * Multi-row inserts are supported and the generated keys are reported
+         * in the same order as the rows in the statement.
+         */
+        WITH_GENERATED_KEYS
+    }
+
+    /**
+     * Returns the support for multi-row inserts for this database type.
+     * <p>
+     * By default, this method returns {@link MultiRowInsertSupport#NONE}.
+     *
+     * @return the support for multi-row inserts for this database type
+     * @since 3.1.2
+     */
+    default MultiRowInsertSupport getMultiRowInsertSupport() {
+        return MultiRowInsertSupport.NONE;
+    }
+
+    /**
+     * Returns the maximum number of parameters (i.e. "?") that can be used in
+     * a single statement for this database type.
+     * <p>
+     * By default, this method returns 2000.
+     *
+     * @return the maximum number of parameters in a single statement
+     * @since 3.1.2
+     */
+    default int getMaxParametersPerStatement() {
+        return 2_000;
+    }
+
+    /**
+     * Returns the maximum (approximate) size in bytes of a single statement
+     * including its parameters that is sent to the database. For some
+     * database types, this is limited by the maximum packet size.
+     * <p>
+     * By default, this method returns 1 MiB.
+     *
+     * @return the maximum size in bytes of a single statement
+     * @since 3.1.2
+     */
+    default long getMaxStatementSize() {
+        return 1L << 20;
+    }
+
+    /**
+     * Renders a statement that inserts the given number of rows from the given
+     * single-row insert statement. The single-row insert statement must end
+     * with its {@code VALUES (...)} clause.
+     * <p>
+     * By default, the values tuple is repeated, separated by commas, like
+     * {@code INSERT INTO t (a, b) VALUES (?,?),(?,?)}.
+     *
+     * @param singleRowInsert  the insert statement for a single row
+     * @param rows             the number of rows to insert
+     * @return a statement that inserts the given number of rows
+     *
+     * @throws IllegalArgumentException  if the statement does not end with a
+     *                                   {@code VALUES (...)} clause or if
+     *                                   rows is not positive
+     * @since 3.1.2
+     */
+    default String renderMultiRowInsert(String singleRowInsert, int rows) {
+        if (rows < 1) {
+            throw new IllegalArgumentException("The number of rows must be positive: " + rows);
+        }
+        final String values = " VALUES ";
+        final int index = singleRowInsert.lastIndexOf(values);
+        if (index < 0 || !singleRowInsert.endsWith(")")) {
+            throw new IllegalArgumentException(
+                "The statement does not end with a VALUES clause: " + singleRowInsert
+            );
+        }
+        final String tuple = singleRowInsert.substring(index + values.length());
+        final StringBuilder sb = new StringBuilder(index + values.length() + rows * (tuple.length() + 1))
+            .append(singleRowInsert, 0, index + values.length())
+            .append(tuple);
+        for (int i = 1; i < rows; i++) {
+            sb.append(',').append(tuple);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * The way the outcome of an upsert statement, as rendered by
+     * {@link #renderUpsert(Dbms, String, List, List)}, is reported by the
+     * database.
+     *
+     * @since 3.1.2
+     */
+    enum UpsertOutcomeReporting {
+        /**
+         * The update count of the statement tells the outcome: 1 if a new row
+         * was inserted, 2 if an existing row was updated and 0 if an existing
+         * row was left unchanged. Statements are sent using JDBC batches.
+         */
+        UPDATE_COUNT,
+        /**
+         * The update count of the statement counts the rows that were found
+         * rather than the rows that were changed: 1 if a new row was
+         * inserted or if an existing row was left unchanged and 2 if an
+         * existing row was updated. Since a count of 1 is ambiguous, only
+         * updated rows can be told apart and the outcome of the other rows is
+         * unknown. This is how MySQL reports the outcome unless the
+         * connection uses {@code useAffectedRows=true}. Statements are sent
+         * using JDBC batches.
+         */
+        UPDATE_COUNT_OF_FOUND_ROWS,
+        /**
+         * The statement returns a single row with a single boolean column
+         * that is {@code true} if a new row was inserted and {@code false}
+         * if an existing row was updated. No row is returned if an existing
+         * row was left unchanged. Statements are sent one at a time, but
+         * within the same transaction.
+         */
+        RETURNED_FLAG
+    }
+
+    /**
+     * Renders a statement that inserts a row or, if a row with the same
+     * primary key already exists, updates the given columns of the existing
+     * row. If no update columns are given, an existing row is left
+     * unchanged. The column names must already be enclosed using the
+     * {@link #getDatabaseNamingConvention() naming convention}.
+     * <p>
+     * By default, this method returns {@code Optional.empty()}, indicating
+     * that upserts are not supported by this database type.
+     *
+     * @param dbms             the dbms that the statement is for
+     * @param insertStatement  the single-row insert statement
+     * @param keyColumns       the enclosed primary key columns
+     * @param updateColumns    the enclosed columns to update if the row
+     *                         already exists
+     * @return the upsert statement, or {@code Optional.empty()} if upserts
+     *         are not supported
+     * @see #getUpsertOutcomeReporting(Dbms)
+     * @since 3.1.2
+     */
+    default Optional<String> renderUpsert(Dbms dbms, String insertStatement, List<String> keyColumns, List<String> updateColumns) {
+        return Optional.empty();
+    }
+
+    /**
+     * Returns the way the outcome of an upsert statement is reported by the
+     * given dbms of this database type. The outcome may depend on how the
+     * connection to the database is configured.
+     * <p>
+     * By default, this method returns
+     * {@link UpsertOutcomeReporting#UPDATE_COUNT}.
+     *
+     * @param dbms  the dbms that executes the upsert statements
+     * @return the way the outcome of an upsert statement is reported
+     * @see #renderUpsert(Dbms, String, List, List)
+     * @since 3.1.2
+     */
+    default UpsertOutcomeReporting getUpsertOutcomeReporting(Dbms dbms) {
+        return UpsertOutcomeReporting.UPDATE_COUNT;
+    }
+
+    /**
+     * Returns the SQLStates of exceptions that are transient, so that a
+     * transaction that failed with such an exception may succeed if it is
+     * retried.
+     * <p>
+     * By default, this method returns {@code 08S01} (communication link
+     * failure) and {@code 40001} (serialization failure).
+     *
+     * @return the retryable SQLStates
+     * @see #isRetryable(SQLException)
+     * @since 3.1.2
+     */
+    default Set<String> getRetryableSqlStates() {
+        return Collections.unmodifiableSet(new HashSet<>(Arrays.asList("08S01", "40001")));
+    }
+
+    /**
+     * Returns the vendor error codes of exceptions that are transient, so that
+     * a transaction that failed with such an exception may succeed if it is
+     * retried.
+     * <p>
+     * By default, this method returns an empty set.
+     *
+     * @return the retryable vendor error codes
+     * @see #isRetryable(SQLException)
+     * @since 3.1.2
+     */
+    default Set<Integer> getRetryableErrorCodes() {
+        return Collections.emptySet();
+    }
+
+    /**
+     * Returns if the given exception, or any exception chained to it using
+     * {@link SQLException#getNextException()}, has one of the
+     * {@link #getRetryableSqlStates() retryable SQLStates} or
+     * {@link #getRetryableErrorCodes() retryable error codes}.
+     *
+     * @param ex  the exception to check
+     * @return    {@code true} if the exception is transient
+     * @since 3.1.2
+     */
+    default boolean isRetryable(SQLException ex) {
+        final Set<String> sqlStates = getRetryableSqlStates();
+        final Set<Integer> errorCodes = getRetryableErrorCodes();
+        for (SQLException e = ex; e != null; e = e.getNextException()) {
+            if ((e.getSQLState() != null && sqlStates.contains(e.getSQLState()))
+                || errorCodes.contains(e.getErrorCode())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
 }
@@ -0,0 +1,154 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.db;
+
+import com.speedment.runtime.core.internal.db.RetryPolicyImpl;
+
+import java.sql.SQLException;
+import java.util.function.Predicate;
+
+/**
+ * Decides if and when a database transaction that failed should be retried.
+ * A policy is used for statements that are executed outside an explicit
+ * transaction, in which case the whole unit of work is rolled back and
+ * executed again on a new connection.
+ *
+ * @author agent
+ * @since  3.1.2
+ */
+public interface RetryPolicy {
+
+    /**
+     * The maximum number of attempts used by default, including the first
+     * attempt.
+     */
+    int DEFAULT_MAX_ATTEMPTS = 5;
+
+    /**
+     * The backoff before the first retry used by default, in milliseconds.
+     */
+    long DEFAULT_INITIAL_BACKOFF_MILLIS = 10;
+
+    /**
+     * The maximum backoff before a retry used by default, in milliseconds.
+     */
+    long DEFAULT_MAX_BACKOFF_MILLIS = 1_000;
+
+    /**
+     * The time budget used by default, in milliseconds.
+     */
+    long DEFAULT_TIME_BUDGET_MILLIS = 30_000;
+
+    /**
+     * Returns the maximum number of attempts, including the first attempt.
+     * A value of {@code 1} means that failures are never retried.
+     *
+     * @return the maximum number of attempts
+     */
+    int getMaxAttempts();
+
+    /**
+     * Returns the maximum time in milliseconds from the start of the first
+     * attempt during which a retry may be started, including the backoff
+     * before it.
+     *
+     * @return the time budget in milliseconds
+     */
+    long getTimeBudgetMillis();
+
+    /**
+     * Returns the number of milliseconds to wait before the given retry.
+     *
+     * @param retry  the retry, where {@code 1} is the first retry
+     * @return       the number of milliseconds to wait
+     */
+    long getBackoffMillis(int retry);
+
+    /**
+     * Returns if the given exception is transient, so that the failed
+     * transaction may succeed if it is retried.
+     *
+     * @param ex  the exception that made the transaction fail
+     * @return    {@code true} if the transaction may be retried
+     */
+    boolean isRetryable(SQLException ex);
+
+    /**
+     * Returns a policy that never retries.
+     *
+     * @return a policy that never retries
+     */
+    static RetryPolicy none() {
+        return RetryPolicyImpl.NONE;
+    }
+
+    /**
+     * Returns a policy that retries exceptions that match the given predicate
+     * after an exponentially growing backoff with full jitter. The backoff
+     * before retry {@code n} is a random number of milliseconds between
+     * {@code 0} and {@code min(maxBackoffMillis, initialBackoffMillis * 2^(n -
+     * 1))}, so that transactions that failed at the same time are spread out
+     * when they are retried.
+     *
+     * @param maxAttempts           the maximum number of attempts, including
+     *                              the first attempt
+     * @param initialBackoffMillis  the upper bound of the backoff before the
+     *                              first retry
+     * @param maxBackoffMillis      the upper bound of any backoff
+     * @param timeBudgetMillis      the maximum time from the start of the first
+     *                              attempt during which a retry may be started
+     * @param retryable             decides if an exception may be retried
+     * @return                      the new policy
+     *
+     * @throws IllegalArgumentException  if {@code maxAttempts} is less than 1
+     *                                   or if any of the times is negative
+     */
+    static RetryPolicy exponentialBackoff(
+        int maxAttempts,
+        long initialBackoffMillis,
+        long maxBackoffMillis,
+        long timeBudgetMillis,
+        Predicate<? super SQLException> retryable
+    ) {
+        return new RetryPolicyImpl(
+            maxAttempts,
+            initialBackoffMillis,
+            maxBackoffMillis,
+            timeBudgetMillis,
+            retryable
+        );
+    }
+
+    /**
+     * Returns a policy with the default limits that retries the exceptions
+     * that the given DbmsType considers transient.
+     *
+     * @param dbmsType  the database type
+     * @return          the default policy for the given database type
+     * @see DbmsType#isRetryable(SQLException)
+     */
+    static RetryPolicy defaultFor(DbmsType dbmsType) {
+        return exponentialBackoff(
+            DEFAULT_MAX_ATTEMPTS,
+            DEFAULT_INITIAL_BACKOFF_MILLIS,
+            DEFAULT_MAX_BACKOFF_MILLIS,
+            DEFAULT_TIME_BUDGET_MILLIS,
+            dbmsType::isRetryable
+        );
+    }
+
+}
@@ -16,14 +16,18 @@
  */
 package com.speedment.runtime.core.internal.component;
 
+import com.speedment.common.injector.State;
 import com.speedment.common.injector.annotation.Config;
+import com.speedment.common.injector.annotation.ExecuteBefore;
 import com.speedment.common.injector.annotation.Inject;
+import com.speedment.common.injector.annotation.WithState;
 import com.speedment.common.logger.Logger;
 import com.speedment.common.logger.LoggerManager;
 import com.speedment.runtime.config.Dbms;
 import com.speedment.runtime.core.ApplicationBuilder;
 import com.speedment.runtime.core.component.DbmsHandlerComponent;
 import com.speedment.runtime.core.component.PasswordComponent;
+import com.speedment.runtime.core.component.ProjectComponent;
 import com.speedment.runtime.core.component.connectionpool.ConnectionPoolComponent;
 import com.speedment.runtime.core.component.connectionpool.PoolableConnection;
 import com.speedment.runtime.core.exception.SpeedmentException;
@@ -33,6 +37,8 @@ import static com.speedment.runtime.core.util.OptionalUtil.unwrap;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Deque;
 import java.util.Map;
@@ -40,9 +46,30 @@ import java.util.Objects;
 import static java.util.Objects.requireNonNull;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
 
 /**
  * A fully concurrent implementation of a connection pool.
+ * <p>
+ * If {@code connectionpool.maxTotal} is set to a positive value, the number of
+ * open connections (leased and idle) for each unique uri/user/password
+ * combination is bounded by that value. Callers that arrive when the pool is
+ * exhausted are queued in a fair FIFO order and will fail with a
+ * {@link SpeedmentException} if no connection becomes available within
+ * {@code connectionpool.acquireTimeout} milliseconds.
+ * <p>
+ * Unless {@code connectionpool.housekeepingInterval} is zero, a background
+ * thread periodically validates idle connections using
+ * {@link Connection#isValid(int)}, evicts connections that have been idle for
+ * longer than {@code connectionpool.idleTimeout} and replaces connections that
+ * are about to expire, so that this work is not done on the thread requesting
+ * a connection. The pools of the project's dbmses are also kept filled with at
+ * least {@code connectionpool.minIdle} idle connections.
  *
  * @author Per Minborg
  */
@@ -56,9 +83,26 @@ public class ConnectionPoolComponentImpl implements ConnectionPoolComponent {
     private long maxAge;
     @Config(name = "connectionpool.maxRetainSize", value = "32")
     private int maxRetainSize;
+    @Config(name = "connectionpool.maxTotal", value = "0")
+    private int maxTotal;
+    @Config(name = "connectionpool.acquireTimeout", value = "30000")
+    private long acquireTimeout;
+    @Config(name = "connectionpool.minIdle", value = "0")
+    private int minIdle;
+    @Config(name = "connectionpool.idleTimeout", value = "600000")
+    private long idleTimeout;
+    @Config(name = "connectionpool.housekeepingInterval", value = "5000")
+    private long housekeepingInterval;
+    @Config(name = "connectionpool.validationTimeout", value = "5")
+    private int validationTimeout;
+    @Config(name = "connectionpool.statementCacheSize", value = "0")
+    private int statementCacheSize;
 
     private final Map<Long, PoolableConnection> leasedConnections;
-    private final Map<String, Deque<PoolableConnection>> pools;
+    private final Map<String, Pool> pools;
+    private final AtomicLong retiredStatementCacheHits;
+    private final AtomicLong retiredStatementCacheMisses;
+    private ScheduledExecutorService housekeeper;
 
     @Inject
     private DbmsHandlerComponent dbmsHandlerComponent;
@@ -68,6 +112,53 @@ public class ConnectionPoolComponentImpl implements ConnectionPoolComponent {
     public ConnectionPoolComponentImpl() {
         pools = new ConcurrentHashMap<>();
         leasedConnections = new ConcurrentHashMap<>();
+        retiredStatementCacheHits = new AtomicLong();
+        retiredStatementCacheMisses = new AtomicLong();
+    }
+
+    @ExecuteBefore(State.STARTED)
+    void startHousekeeping(@WithState(State.RESOLVED) ProjectComponent projectComponent) {
+        if (housekeepingInterval <= 0) {
+            return;
+        }
+        housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            final Thread t = new Thread(r, "speedment-connectionpool-housekeeper");
+            t.setDaemon(true);
+            return t;
+        });
+        if (getMinIdle() > 0) {
+            housekeeper.execute(() -> projectComponent.getProject().dbmses().forEach(dbms -> {
+                try {
+                    keepWarm(
+                        DatabaseUtil.findConnectionUrl(dbmsHandlerComponent, dbms),
+                        unwrap(dbms.getUsername()),
+                        unwrap(passwordComponent.get(dbms))
+                    );
+                } catch (final RuntimeException ex) {
+                    LOGGER_CONNECTION.error(ex, "Unable to warm up the connection pool for " + dbms.getId());
+                }
+            }));
+        }
+        housekeeper.scheduleWithFixedDelay(
+            this::housekeep,
+            housekeepingInterval,
+            housekeepingInterval,
+            TimeUnit.MILLISECONDS
+        );
+    }
+
+    @ExecuteBefore(State.STOPPED)
+    void stopHousekeeping() {
+        if (housekeeper != null) {
+            housekeeper.shutdownNow();
+            housekeeper = null;
+        }
+        pools.values().forEach(pool -> {
+            PoolableConnection pc;
+            while ((pc = pool.poll()) != null) {
+                discard(pool, pc);
+            }
+        });
     }
 
     @Override
@@ -89,18 +180,28 @@ public class ConnectionPoolComponentImpl implements ConnectionPoolComponent {
         // user nullable
         // password nullable
         LOGGER_CONNECTION.debug("getConnection(%s, %s, *****)", uri, user);
-        final String key = makeKey(uri, user, password);
-        final Deque<PoolableConnection> q = acquireDeque(key);
-        final PoolableConnection reusedConnection = pollValidOrNull(q);
-        if (reusedConnection != null) {
-            LOGGER_CONNECTION.debug("Reuse Connection: %s", reusedConnection);
-            return lease(reusedConnection);
-        } else {
-            final Connection newRawConnection = newConnection(uri, user, password);
-            final PoolableConnection newConnection = new PoolableConnectionImpl(uri, user, password, newRawConnection, System.currentTimeMillis() + getMaxAge());
-            newConnection.setOnClose(() -> returnConnection(newConnection));
-            LOGGER_CONNECTION.debug("New Connection: %s", newConnection);
-            return lease(newConnection);
+        final Pool pool = acquirePool(uri, user, password);
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(getAcquireTimeout());
+        pool.acquirePermit(uri, user);
+        try {
+            while (true) {
+                final PoolableConnection reusedConnection = pollValidOrNull(pool);
+                if (reusedConnection != null) {
+                    LOGGER_CONNECTION.debug("Reuse Connection: %s", reusedConnection);
+                    return lease(reusedConnection);
+                }
+                if (pool.tryReserve()) {
+                    final PoolableConnection newConnection = newPoolableConnection(pool);
+                    LOGGER_CONNECTION.debug("New Connection: %s", newConnection);
+                    return lease(newConnection);
+                }
+                // All open connections are idle but temporarily held by the
+                // housekeeper or being warmed up
+                pool.awaitConnection(deadline);
+            }
+        } catch (final RuntimeException ex) {
+            pool.releasePermit();
+            throw ex;
         }
     }
 
@@ -136,32 +237,134 @@ public class ConnectionPoolComponentImpl implements ConnectionPoolComponent {
     @Override
     public void returnConnection(PoolableConnection connection) {
         requireNonNull(connection);
-        leaseReturn(connection);
-        if (!isValidOrNull(connection)) {
-            discard(connection);
-        } else {
-            final String key = makeKey(connection);
-            final Deque<PoolableConnection> q = acquireDeque(key);
-            if (q.size() >= getMaxRetainSize()) {
-                discard(connection);
+        if (!leaseReturn(connection)) {
+            // Already returned (e.g. closed twice), it must not be counted again
+            LOGGER_CONNECTION.debug("Ignoring return of a connection that is not leased: %s", connection);
+            return;
+        }
+        final Pool pool = acquirePool(connection.getUri(), connection.getUser(), connection.getPassword());
+        try {
+            if (!isValidOrNull(connection)) {
+                discard(pool, connection);
+            } else {
+                if (pool.idle.size() >= getMaxRetainSize()) {
+                    discard(pool, connection);
+                } else {
+                    LOGGER_CONNECTION.debug("Recycled: %s", connection);
+                    pool.offer(connection);
+                }
+            }
+        } finally {
+            pool.releasePermit();
+        }
+    }
+
+    /**
+     * Marks the pool for the given parameters as one that should be kept
+     * filled with at least {@link #getMinIdle()} idle connections and fills it
+     * up immediately.
+     *
+     * @param uri the connection URI for the connector
+     * @param user the user for the connector
+     * @param password the password for the connector
+     */
+    void keepWarm(String uri, String user, char[] password) {
+        final Pool pool = acquirePool(uri, user, password);
+        pool.warm = true;
+        fillUp(pool);
+    }
+
+    /**
+     * Validates, evicts and replaces the idle connections of all pools. This
+     * method is normally invoked periodically by the housekeeping thread.
+     */
+    void housekeep() {
+        pools.values().forEach(pool -> {
+            try {
+                housekeep(pool);
+                fillUp(pool);
+            } catch (final RuntimeException ex) {
+                LOGGER_CONNECTION.error(ex, "Error during connection pool housekeeping.");
+            }
+        });
+    }
+
+    private void housekeep(Pool pool) {
+        final long now = System.currentTimeMillis();
+        for (final PoolableConnection pc : new ArrayList<>(pool.idle)) {
+            final long since = pool.idleSince(pc);
+            if (!pool.remove(pc)) {
+                continue; // It has been leased since the snapshot was taken
+            }
+            if (pc.getExpires() - now <= housekeepingInterval) {
+                LOGGER_CONNECTION.debug("Expiring: %s", pc);
+                discard(pool, pc);
+            } else if (now - since > getIdleTimeout() && pool.idle.size() >= getMinIdle()) {
+                LOGGER_CONNECTION.debug("Evicting idle: %s", pc);
+                discard(pool, pc);
+            } else if (!isAlive(pc)) {
+                discard(pool, pc);
             } else {
-                LOGGER_CONNECTION.debug("Recycled: %s", connection);
-                q.addFirst(connection);
+                pool.offer(pc, since);
             }
         }
     }
 
+    private void fillUp(Pool pool) {
+        if (!pool.warm) {
+            return;
+        }
+        final int target = Math.min(getMinIdle(), getMaxRetainSize());
+        while (pool.idle.size() < target && pool.tryReserve()) {
+            final PoolableConnection pc = newPoolableConnection(pool);
+            LOGGER_CONNECTION.debug("Warm-up Connection: %s", pc);
+            pool.offer(pc);
+        }
+    }
+
+    private boolean isAlive(PoolableConnection connection) {
+        try {
+            return connection.isValid(validationTimeout);
+        } catch (SQLFeatureNotSupportedException unsupported) {
+            return isValidOrNull(connection);
+        } catch (SQLException sqle) {
+            LOGGER_CONNECTION.debug("Validation of %s failed: %s", connection, sqle.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Opens a new connection for the given pool. The caller must have
+     * {@link Pool#tryReserve() reserved} room for it in the pool.
+     */
+    private PoolableConnection newPoolableConnection(Pool pool) {
+        final Connection newRawConnection;
+        try {
+            newRawConnection = newConnection(pool.uri, pool.user, pool.password);
+        } catch (final RuntimeException ex) {
+            pool.unreserve();
+            throw ex;
+        }
+        final PoolableConnection newConnection = new PoolableConnectionImpl(pool.uri, pool.user, pool.password, newRawConnection, System.currentTimeMillis() + getMaxAge(), getStatementCacheSize());
+        newConnection.setOnClose(() -> returnConnection(newConnection));
+        return newConnection;
+    }
+
     private String charsToString(char[] chars) {
         return chars == null ? null : new String(chars);
     }
 
-    private void discard(PoolableConnection connection) {
+    private void discard(Pool pool, PoolableConnection connection) {
         requireNonNull(connection);
         LOGGER_CONNECTION.debug("Discard: %s", connection);
+        retiredStatementCacheHits.addAndGet(connection.getStatementCacheHits());
+        retiredStatementCacheMisses.addAndGet(connection.getStatementCacheMisses());
         try {
             connection.rawClose();
         } catch (SQLException sqle) {
             LOGGER_CONNECTION.error(sqle, "Error closing a connection.");
+        } finally {
+            pool.unreserve();
         }
     }
 
@@ -170,9 +373,8 @@ public class ConnectionPoolComponentImpl implements ConnectionPoolComponent {
         return poolableConnection;
     }
 
-    private PoolableConnection leaseReturn(PoolableConnection poolableConnection) {
-        leasedConnections.remove(poolableConnection.getId());
-        return poolableConnection;
+    private boolean leaseReturn(PoolableConnection poolableConnection) {
+        return leasedConnections.remove(poolableConnection.getId()) != null;
     }
 
     private boolean isValidOrNull(PoolableConnection connection) {
@@ -185,21 +387,16 @@ public class ConnectionPoolComponentImpl implements ConnectionPoolComponent {
         }
     }
 
-    private PoolableConnection pollValidOrNull(Deque<PoolableConnection> q) {
-        requireNonNull(q);
-        PoolableConnection pc = q.pollLast();
+    private PoolableConnection pollValidOrNull(Pool pool) {
+        requireNonNull(pool);
+        PoolableConnection pc = pool.poll();
         while (!isValidOrNull(pc)) {
-            discard(pc); // If we discover an old connection, we discard it from the queue. Otherwise it will not be closed
-            pc = q.pollLast();
+            discard(pool, pc); // If we discover an old connection, we discard it from the queue. Otherwise it will not be closed
+            pc = pool.poll();
         }
         return pc;
     }
 
-    private String makeKey(PoolableConnection connection) {
-        requireNonNull(connection);
-        return makeKey(connection.getUri(), connection.getUser(), connection.getPassword());
-    }
-
     private String makeKey(String uri, String user, char[] password) {
         requireNonNull(uri);
         // user nullable
@@ -207,9 +404,9 @@ public class ConnectionPoolComponentImpl implements ConnectionPoolComponent {
         return uri + Objects.toString(user) + ((password == null) ? "null" : new String(password));
     }
 
-    private Deque<PoolableConnection> acquireDeque(String key) {
-        requireNonNull(key);
-        return pools.computeIfAbsent(key, $ -> new ConcurrentLinkedDeque<>());
+    private Pool acquirePool(String uri, String user, char[] password) {
+        final String key = makeKey(uri, user, password);
+        return pools.computeIfAbsent(key, $ -> new Pool(uri, user, password, getMaxTotal()));
     }
 
     @Override
@@ -217,15 +414,55 @@ public class ConnectionPoolComponentImpl implements ConnectionPoolComponent {
         return pools
             .values()
             .stream()
+            .map(p -> p.idle)
             .mapToInt(Collection::size)
             .sum();
     }
 
+    @Override
+    public int waitSize() {
+        return pools
+            .values()
+            .stream()
+            .mapToInt(Pool::waitSize)
+            .sum();
+    }
+
+    @Override
+    public long rejectCount() {
+        return pools
+            .values()
+            .stream()
+            .mapToLong(p -> p.rejections.get())
+            .sum();
+    }
+
     @Override
     public int leaseSize() {
         return leasedConnections.size();
     }
 
+    @Override
+    public long statementCacheHits() {
+        return retiredStatementCacheHits.get() + connections()
+            .mapToLong(PoolableConnection::getStatementCacheHits)
+            .sum();
+    }
+
+    @Override
+    public long statementCacheMisses() {
+        return retiredStatementCacheMisses.get() + connections()
+            .mapToLong(PoolableConnection::getStatementCacheMisses)
+            .sum();
+    }
+
+    private Stream<PoolableConnection> connections() {
+        return Stream.concat(
+            leasedConnections.values().stream(),
+            pools.values().stream().flatMap(p -> p.idle.stream())
+        );
+    }
+
     @Override
     public long getMaxAge() {
         return maxAge;
@@ -246,4 +483,201 @@ public class ConnectionPoolComponentImpl implements ConnectionPoolComponent {
         LOGGER_CONNECTION.warn("Unsafe method called. Use configuration parameters to set this value instead");
         this.maxRetainSize = maxRetainSize;
     }
+
+    @Override
+    public int getMaxTotal() {
+        return maxTotal;
+    }
+
+    void setMaxTotal(int maxTotal) {
+        LOGGER_CONNECTION.warn("Unsafe method called. Use configuration parameters to set this value instead");
+        this.maxTotal = maxTotal;
+    }
+
+    @Override
+    public long getAcquireTimeout() {
+        return acquireTimeout;
+    }
+
+    void setAcquireTimeout(long acquireTimeout) {
+        LOGGER_CONNECTION.warn("Unsafe method called. Use configuration parameters to set this value instead");
+        this.acquireTimeout = acquireTimeout;
+    }
+
+    @Override
+    public int getStatementCacheSize() {
+        return statementCacheSize;
+    }
+
+    void setStatementCacheSize(int statementCacheSize) {
+        LOGGER_CONNECTION.warn("Unsafe method called. Use configuration parameters to set this value instead");
+        this.statementCacheSize = statementCacheSize;
+    }
+
+    @Override
+    public int getMinIdle() {
+        return minIdle;
+    }
+
+    void setMinIdle(int minIdle) {
+        LOGGER_CONNECTION.warn("Unsafe method called. Use configuration parameters to set this value instead");
+        this.minIdle = minIdle;
+    }
+
+    @Override
+    public long getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    void setIdleTimeout(long idleTimeout) {
+        LOGGER_CONNECTION.warn("Unsafe method called. Use configuration parameters to set this value instead");
+        this.idleTimeout = idleTimeout;
+    }
+
+    /**
+     * The idle connections, the lease permits and the number of open
+     * connections for a single uri/user/password combination.
+     */
+    private final class Pool {
+
+        private final String uri;
+        private final String user;     // nullable
+        private final char[] password; // nullable
+        private final Deque<PoolableConnection> idle;
+        private final Map<Long, Long> idleSince;
+        private final Semaphore permits; // null if unbounded
+        private final AtomicLong rejections;
+        private final int maxOpen; // zero or less if unbounded
+        private int open;          // guarded by this
+        private volatile boolean warm;
+
+        private Pool(String uri, String user, char[] password, int maxTotal) {
+            this.uri = requireNonNull(uri);
+            this.user = user;
+            this.password = password;
+            this.idle = new ConcurrentLinkedDeque<>();
+            this.idleSince = new ConcurrentHashMap<>();
+            this.permits = maxTotal > 0 ? new Semaphore(maxTotal, true) : null;
+            this.rejections = new AtomicLong();
+            this.maxOpen = maxTotal;
+        }
+
+        private void offer(PoolableConnection connection) {
+            offer(connection, System.currentTimeMillis());
+        }
+
+        private void offer(PoolableConnection connection, long since) {
+            idleSince.put(connection.getId(), since);
+            idle.addFirst(connection);
+            if (maxOpen > 0) {
+                synchronized (this) {
+                    notifyAll();
+                }
+            }
+        }
+
+        /**
+         * Reserves room for a new connection in this pool, unless the maximum
+         * number of connections are already open.
+         *
+         * @return {@code true} if room was reserved
+         */
+        private synchronized boolean tryReserve() {
+            if (maxOpen > 0 && open >= maxOpen) {
+                return false;
+            }
+            open++;
+            return true;
+        }
+
+        /**
+         * Releases the room of a connection that has been closed or could not
+         * be opened.
+         */
+        private synchronized void unreserve() {
+            open--;
+            notifyAll();
+        }
+
+        /**
+         * Waits until a connection is offered to this pool or room for a new
+         * connection becomes available.
+         */
+        private synchronized void awaitConnection(long deadline) {
+            try {
+                while (idle.isEmpty() && maxOpen > 0 && open >= maxOpen) {
+                    final long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                    if (remaining <= 0) {
+                        rejections.incrementAndGet();
+                        throw new SpeedmentException(
+                            "Unable to acquire a connection for url \""
+                            + uri + "\" within " + getAcquireTimeout()
+                            + " ms. All " + maxOpen + " connections are open."
+                        );
+                    }
+                    wait(remaining);
+                }
+            } catch (final InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                throw new SpeedmentException(
+                    "Interrupted while waiting for a connection for url \""
+                    + uri + "\".", ie
+                );
+            }
+        }
+
+        private PoolableConnection poll() {
+            final PoolableConnection connection = idle.pollLast();
+            if (connection != null) {
+                idleSince.remove(connection.getId());
+            }
+            return connection;
+        }
+
+        private boolean remove(PoolableConnection connection) {
+            if (idle.remove(connection)) {
+                idleSince.remove(connection.getId());
+                return true;
+            }
+            return false;
+        }
+
+        private long idleSince(PoolableConnection connection) {
+            return idleSince.getOrDefault(connection.getId(), System.currentTimeMillis());
+        }
+
+        private void acquirePermit(String uri, String user) {
+            if (permits == null) {
+                return;
+            }
+            try {
+                if (!permits.tryAcquire(getAcquireTimeout(), TimeUnit.MILLISECONDS)) {
+                    rejections.incrementAndGet();
+                    final String msg = "Unable to acquire a connection for url \""
+                        + uri + "\", user = \"" + user + "\" within "
+                        + getAcquireTimeout() + " ms. All " + getMaxTotal()
+                        + " connections are leased and " + waitSize()
+                        + " other callers are waiting.";
+                    LOGGER_CONNECTION.warn(msg);
+                    throw new SpeedmentException(msg);
+                }
+            } catch (final InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                throw new SpeedmentException(
+                    "Interrupted while waiting for a connection for url \""
+                    + uri + "\".", ie
+                );
+            }
+        }
+
+        private void releasePermit() {
+            if (permits != null) {
+                permits.release();
+            }
+        }
+
+        private int waitSize() {
+            return permits == null ? 0 : permits.getQueueLength();
+        }
+    }
 }
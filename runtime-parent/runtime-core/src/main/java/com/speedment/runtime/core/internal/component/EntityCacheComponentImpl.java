@@ -0,0 +1,65 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.component;
+
+import com.speedment.runtime.config.identifier.TableIdentifier;
+import com.speedment.runtime.core.component.EntityCacheComponent;
+import com.speedment.runtime.core.internal.manager.EntityCacheImpl;
+import com.speedment.runtime.core.manager.EntityCache;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ *
+ * @author agent
+ * @since  3.1.2
+ */
+public class EntityCacheComponentImpl implements EntityCacheComponent {
+
+    private final Map<TableIdentifier<?>, EntityCache<?>> entityCaches = new ConcurrentHashMap<>();
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <ENTITY> Optional<EntityCache<ENTITY>> getEntityCache(TableIdentifier<ENTITY> tableId) {
+        if (entityCaches.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(
+            (EntityCache<ENTITY>) entityCaches.get(keyOf(tableId))
+        );
+    }
+
+    @Override
+    public void putEntityCache(TableIdentifier<?> tableId, long maxSize, Duration ttl) {
+        entityCaches.put(keyOf(tableId), new EntityCacheImpl<>(maxSize, ttl));
+    }
+
+    private static TableIdentifier<?> keyOf(TableIdentifier<?> tableId) {
+        requireNonNull(tableId);
+        return TableIdentifier.of(
+            tableId.getDbmsId(),
+            tableId.getSchemaId(),
+            tableId.getTableId()
+        );
+    }
+
+}
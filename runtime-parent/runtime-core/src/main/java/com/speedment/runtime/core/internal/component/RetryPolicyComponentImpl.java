@@ -0,0 +1,75 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.component;
+
+import com.speedment.common.injector.annotation.Config;
+import com.speedment.common.injector.annotation.Inject;
+import com.speedment.runtime.config.Dbms;
+import com.speedment.runtime.config.identifier.DbmsIdentifier;
+import com.speedment.runtime.core.component.DbmsHandlerComponent;
+import com.speedment.runtime.core.component.RetryPolicyComponent;
+import com.speedment.runtime.core.db.DbmsType;
+import com.speedment.runtime.core.db.RetryPolicy;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.speedment.runtime.core.util.DatabaseUtil.dbmsTypeOf;
+import static java.util.Objects.requireNonNull;
+
+/**
+ *
+ * @author agent
+ * @since  3.1.2
+ */
+public class RetryPolicyComponentImpl implements RetryPolicyComponent {
+
+    @Config(name = "retry.maxAttempts", value = "5")
+    private int maxAttempts;
+    @Config(name = "retry.initialBackoff", value = "10")
+    private long initialBackoff;
+    @Config(name = "retry.maxBackoff", value = "1000")
+    private long maxBackoff;
+    @Config(name = "retry.timeBudget", value = "30000")
+    private long timeBudget;
+
+    @Inject
+    private DbmsHandlerComponent dbmsHandlerComponent;
+
+    private final Map<String, RetryPolicy> retryPolicies = new ConcurrentHashMap<>();
+
+    @Override
+    public RetryPolicy getRetryPolicy(Dbms dbms) {
+        requireNonNull(dbms);
+        return retryPolicies.computeIfAbsent(dbms.getId(), id -> {
+            final DbmsType dbmsType = dbmsTypeOf(dbmsHandlerComponent, dbms);
+            return RetryPolicy.exponentialBackoff(
+                maxAttempts,
+                initialBackoff,
+                maxBackoff,
+                timeBudget,
+                dbmsType::isRetryable
+            );
+        });
+    }
+
+    @Override
+    public void putRetryPolicy(DbmsIdentifier<?> dbmsId, RetryPolicy retryPolicy) {
+        retryPolicies.put(dbmsId.getDbmsId(), requireNonNull(retryPolicy));
+    }
+
+}
@@ -0,0 +1,278 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.component.sql;
+
+import com.speedment.common.logger.Logger;
+import com.speedment.common.logger.LoggerManager;
+import com.speedment.runtime.config.Dbms;
+import com.speedment.runtime.core.ApplicationBuilder;
+import com.speedment.runtime.core.db.AsynchronousQueryResult;
+import com.speedment.runtime.core.db.DbmsOperationHandler;
+import com.speedment.runtime.core.db.DbmsType;
+import com.speedment.runtime.core.db.DbmsType.SubSelectAlias;
+import com.speedment.runtime.core.db.SqlFunction;
+import com.speedment.runtime.core.stream.parallel.ParallelStrategy;
+
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Reads the rows of a query using a number of concurrent queries, each
+ * covering a range of an integral primary key column.
+ * <p>
+ * The smallest and largest key of the query are first determined, using any
+ * WHERE clause that was pushed down to the query. The key range is then split
+ * into a number of partitions that are read using separate queries on
+ * separate connections, as the partitions are consumed by the fork/join
+ * workers of a parallel stream.
+ * <p>
+ * Only queries that select whole entities in no particular order can be
+ * partitioned. Queries that have been rewritten to select a projection, to
+ * sort the rows or to skip or limit the rows are read using the single
+ * original query.
+ *
+ * @param <ENTITY> the entity type
+ *
+ * @author agent
+ * @since 3.1.2
+ */
+final class PartitionedScan<ENTITY> {
+
+    private static final Logger LOGGER_SELECT = LoggerManager.getLogger(ApplicationBuilder.LogType.STREAM.getLoggerName());
+
+    private final DbmsOperationHandler operationHandler;
+    private final Dbms dbms;
+    private final DbmsType dbmsType;
+    private final AsynchronousQueryResult<ENTITY> query;
+    private final String sqlSelect;
+    private final SqlFunction<ResultSet, ENTITY> entityMapper;
+    private final String keyColumn;
+    private final int partitions;
+    private final List<AsynchronousQueryResult<ENTITY>> partitionResults;
+
+    PartitionedScan(
+        final Dbms dbms,
+        final DbmsType dbmsType,
+        final AsynchronousQueryResult<ENTITY> query,
+        final String sqlSelect,
+        final SqlFunction<ResultSet, ENTITY> entityMapper,
+        final String keyColumn,
+        final int partitions
+    ) {
+        this.dbms = requireNonNull(dbms);
+        this.dbmsType = requireNonNull(dbmsType);
+        this.operationHandler = requireNonNull(dbmsType.getOperationHandler());
+        this.query = requireNonNull(query);
+        this.sqlSelect = requireNonNull(sqlSelect);
+        this.entityMapper = requireNonNull(entityMapper);
+        this.keyColumn = requireNonNull(keyColumn);
+        this.partitions = partitions;
+        this.partitionResults = new ArrayList<>();
+    }
+
+    /**
+     * Returns a parallel stream of the rows of the query, or the single
+     * query stream if the query cannot be partitioned.
+     *
+     * @return a stream of the rows of the query
+     */
+    Stream<ENTITY> stream() {
+        final String sql = query.getSql();
+        if (partitions < 2 || !isPartitionable(sql)) {
+            return query.stream();
+        }
+
+        final Optional<long[]> range = keyRange(sql);
+        if (!range.isPresent()) {
+            return query.stream();
+        }
+        final long min = range.get()[0];
+        final long max = range.get()[1];
+
+        final long span = max - min;
+        if (span < 0) {
+            // The range is too large to be represented as a long
+            return query.stream();
+        }
+        final long step = span / partitions + 1;
+
+        final SqlFunction<ResultSet, ENTITY> rsMapper = query.getRsMapper();
+        final String partitionSql = partitionSql(sql);
+        final List<AsynchronousQueryResult<ENTITY>> results = new ArrayList<>();
+        long from = min;
+        while (true) {
+            final long to = max - from < step ? max : from + step - 1;
+            final List<Object> values = new ArrayList<>(query.getValues());
+            values.add(from);
+            values.add(to);
+            results.add(operationHandler.executeQueryAsync(
+                dbms,
+                partitionSql,
+                values,
+                rsMapper,
+                ParallelStrategy.computeIntensityDefault()
+            ));
+            if (to == max) {
+                break;
+            }
+            from = to + 1;
+        }
+        synchronized (partitionResults) {
+            partitionResults.addAll(results);
+        }
+        LOGGER_SELECT.debug("Partitioned %s into %d ranges of %s", sql, results.size(), keyColumn);
+
+        return StreamSupport.stream(new PartitionSpliterator<>(results, 0, results.size()), true);
+    }
+
+    /**
+     * Returns if the given SQL of the query can be split into key ranges
+     * without changing the rows or the way they are mapped.
+     */
+    private boolean isPartitionable(String sql) {
+        return sql.startsWith(sqlSelect)
+            // The select list must be the whole entity as the key column
+            // must be selected and the rows are mapped to entities
+            && !query.getProjection().isPresent()
+            && query.getRsMapper() == entityMapper
+            // Skip and limit apply to the whole query, not to each partition
+            && !query.hasSkipOrLimit()
+            // Partitions are read in key order which would violate a pushed down order
+            && !sql.contains(" ORDER BY ");
+    }
+
+    /**
+     * Closes all the partition queries that have been created by this
+     * PartitionedScan.
+     */
+    void close() {
+        synchronized (partitionResults) {
+            partitionResults.forEach(AsynchronousQueryResult::close);
+            partitionResults.clear();
+        }
+    }
+
+    private Optional<long[]> keyRange(String sql) {
+        final String rangeSql = "SELECT MIN(" + keyColumn + "), MAX(" + keyColumn + ") FROM (" + sql + ")" + alias();
+        try (final Stream<long[]> result = operationHandler.executeQuery(
+            dbms,
+            rangeSql,
+            query.getValues(),
+            rs -> {
+                final long min = rs.getLong(1);
+                final long max = rs.getLong(2);
+                return rs.wasNull() ? null : new long[]{min, max};
+            }
+        )) {
+            return result.filter(r -> r != null).findAny();
+        }
+    }
+
+    private String partitionSql(String sql) {
+        return "SELECT * FROM (" + sql + ")" + alias() + " WHERE " + keyColumn + " >= ? AND " + keyColumn + " <= ?";
+    }
+
+    private String alias() {
+        return dbmsType.getSubSelectAlias() == SubSelectAlias.REQUIRED ? " AS A" : "";
+    }
+
+    /**
+     * A Spliterator over a range of partitions. Splitting divides the
+     * partitions, and each partition query is opened when it is first read
+     * and closed when it has been fully consumed.
+     *
+     * @param <T> the element type
+     */
+    static final class PartitionSpliterator<T> implements Spliterator<T> {
+
+        private final List<AsynchronousQueryResult<T>> results;
+        private int index;
+        private int fence;
+        private Iterator<T> current;
+
+        PartitionSpliterator(List<AsynchronousQueryResult<T>> results, int index, int fence) {
+            this.results = requireNonNull(results);
+            this.index = index;
+            this.fence = fence;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            requireNonNull(action);
+            while (index < fence) {
+                if (current == null) {
+                    current = results.get(index).stream().iterator();
+                }
+                if (current.hasNext()) {
+                    action.accept(current.next());
+                    return true;
+                }
+                results.get(index).close();
+                current = null;
+                index++;
+            }
+            return false;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super T> action) {
+            requireNonNull(action);
+            while (index < fence) {
+                if (current == null) {
+                    current = results.get(index).stream().iterator();
+                }
+                current.forEachRemaining(action);
+                results.get(index).close();
+                current = null;
+                index++;
+            }
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            // Only partitions that have not been opened yet are handed over
+            final int lo = current == null ? index : index + 1;
+            final int mid = (lo + fence) >>> 1;
+            if (mid <= lo) {
+                return null;
+            }
+            final Spliterator<T> upper = new PartitionSpliterator<>(results, mid, fence);
+            fence = mid;
+            return upper;
+        }
+
+        @Override
+        public long estimateSize() {
+            return Long.MAX_VALUE;
+        }
+
+        @Override
+        public int characteristics() {
+            return Spliterator.IMMUTABLE | Spliterator.NONNULL;
+        }
+    }
+
+}
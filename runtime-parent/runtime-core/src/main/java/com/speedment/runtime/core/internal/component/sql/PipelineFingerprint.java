@@ -0,0 +1,153 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.component.sql;
+
+import com.speedment.runtime.core.db.DbmsType;
+import com.speedment.runtime.core.internal.stream.builder.action.reference.FilterAction;
+import com.speedment.runtime.core.internal.stream.builder.action.reference.SortedComparatorAction;
+import com.speedment.runtime.core.internal.stream.builder.action.trait.HasMapper;
+import com.speedment.runtime.core.stream.Pipeline;
+import com.speedment.runtime.core.stream.action.Action;
+import com.speedment.runtime.field.Field;
+import com.speedment.runtime.field.comparator.CombinedComparator;
+import com.speedment.runtime.field.comparator.FieldComparator;
+import com.speedment.runtime.field.expression.FieldMapper;
+import com.speedment.runtime.field.predicate.CombinedPredicate;
+import com.speedment.runtime.field.predicate.FieldPredicate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Predicate;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A structural fingerprint of a {@link Pipeline}. Two pipelines that only
+ * differ in the values given to their field predicates (and in the values of
+ * skip and limit operations) have equal fingerprints. This makes it possible to
+ * cache decisions that only depend on the shape of a pipeline, such as which
+ * {@link com.speedment.runtime.core.component.sql.SqlStreamOptimizer} to use.
+ * <p>
+ * Actions and predicates that are not derived from fields are represented by
+ * their class, so that for example lambdas from different call sites will
+ * give different fingerprints. Mappers that are fields (or expressions derived
+ * from a field) are also represented by the column they read.
+ *
+ * @author agent
+ * @since 3.1.2
+ */
+public final class PipelineFingerprint {
+
+    private final List<Object> tokens;
+    private final int hashCode;
+
+    private PipelineFingerprint(List<Object> tokens) {
+        this.tokens = tokens;
+        this.hashCode = tokens.hashCode();
+    }
+
+    /**
+     * Creates and returns a new fingerprint of the given pipeline when used
+     * with the given database type.
+     *
+     * @param pipeline the pipeline
+     * @param dbmsType the database type
+     * @return a new fingerprint
+     */
+    public static PipelineFingerprint of(Pipeline pipeline, DbmsType dbmsType) {
+        requireNonNull(pipeline);
+        requireNonNull(dbmsType);
+        final List<Object> tokens = new ArrayList<>();
+        tokens.add(dbmsType.getName());
+        tokens.add(pipeline.isParallel());
+        for (final Action<?, ?> action : pipeline) {
+            tokens.add(action.getClass());
+            if (action instanceof FilterAction) {
+                addPredicate(tokens, ((FilterAction<?>) action).getPredicate());
+            } else if (action instanceof SortedComparatorAction) {
+                addComparator(tokens, ((SortedComparatorAction<?>) action).getComparator());
+            } else if (action instanceof HasMapper) {
+                addMapper(tokens, ((HasMapper<?>) action).getMapper());
+            }
+        }
+        return new PipelineFingerprint(tokens);
+    }
+
+    /**
+     * Adds tokens describing the shape of the given comparator.
+     *
+     * @param tokens the tokens to add to
+     * @param comparator the comparator
+     */
+    public static void addComparator(List<Object> tokens, Comparator<?> comparator) {
+        tokens.add(comparator.getClass());
+        if (comparator instanceof FieldComparator) {
+            final FieldComparator<?> fieldComparator = (FieldComparator<?>) comparator;
+            tokens.add(fieldComparator.getField().identifier());
+            tokens.add(fieldComparator.isReversed());
+            tokens.add(fieldComparator.getNullOrder());
+        } else if (comparator instanceof CombinedComparator) {
+            ((CombinedComparator<?>) comparator).stream()
+                .forEachOrdered(c -> addComparator(tokens, c));
+        }
+    }
+
+    private static void addMapper(List<Object> tokens, Object mapper) {
+        tokens.add(mapper.getClass());
+        if (mapper instanceof Field) {
+            tokens.add(((Field<?>) mapper).identifier());
+        } else if (mapper instanceof FieldMapper) {
+            tokens.add(((FieldMapper<?, ?, ?, ?, ?>) mapper).getField().identifier());
+        }
+    }
+
+    private static void addPredicate(List<Object> tokens, Predicate<?> predicate) {
+        tokens.add(predicate.getClass());
+        if (predicate instanceof FieldPredicate) {
+            final FieldPredicate<?> fieldPredicate = (FieldPredicate<?>) predicate;
+            tokens.add(fieldPredicate.getField().identifier());
+            tokens.add(fieldPredicate.getPredicateType());
+        } else if (predicate instanceof CombinedPredicate) {
+            final CombinedPredicate<?> combinedPredicate = (CombinedPredicate<?>) predicate;
+            tokens.add(combinedPredicate.getType());
+            combinedPredicate.stream().forEachOrdered(p -> addPredicate(tokens, p));
+        }
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof PipelineFingerprint)) {
+            return false;
+        }
+        final PipelineFingerprint that = (PipelineFingerprint) obj;
+        return hashCode == that.hashCode && tokens.equals(that.tokens);
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
+    @Override
+    public String toString() {
+        return tokens.toString();
+    }
+}
@@ -22,20 +22,30 @@ import com.speedment.common.injector.annotation.ExecuteBefore;
 import com.speedment.common.injector.annotation.Inject;
 import com.speedment.runtime.config.identifier.TableIdentifier;
 import com.speedment.runtime.core.component.DbmsHandlerComponent;
+import com.speedment.runtime.core.component.EntityCacheComponent;
 import com.speedment.runtime.core.component.ManagerComponent;
 import com.speedment.runtime.core.component.ProjectComponent;
 import com.speedment.runtime.core.component.SqlAdapter;
 import com.speedment.runtime.core.component.resultset.ResultSetMapperComponent;
 import com.speedment.runtime.core.component.sql.SqlPersistenceComponent;
+import com.speedment.runtime.core.component.transaction.TransactionComponent;
 import com.speedment.runtime.core.exception.SpeedmentException;
+import com.speedment.runtime.core.manager.BatchOperation;
 import com.speedment.runtime.core.manager.Persister;
 import com.speedment.runtime.core.manager.Remover;
 import com.speedment.runtime.core.manager.Updater;
+import com.speedment.runtime.core.manager.UpsertResult;
+import com.speedment.runtime.core.manager.Upserter;
+import com.speedment.runtime.field.Field;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
+import java.util.stream.Stream;
 
+import static java.util.Collections.unmodifiableList;
 import static java.util.Objects.requireNonNull;
-import java.util.function.Function;
 import static java.util.stream.Collectors.toMap;
 
 /**
@@ -55,38 +65,87 @@ public final class SqlPersistanceComponentImpl implements SqlPersistenceComponen
     private ManagerComponent managerComponent;
     @Inject
     private ResultSetMapperComponent resultSetMapperComponent;
+    @Inject
+    private EntityCacheComponent entityCacheComponent;
+    @Inject
+    private TransactionComponent transactionComponent;
 
     @ExecuteBefore(STARTED)
     void startStreamSuppliers(final Injector injector) {
         supportMap = injector.stream(SqlAdapter.class)
-            .map(SqlAdapter<?>::identifier)
+            .map(adapter -> (SqlAdapter<?>) adapter)
             .collect(
                 toMap(
-                    Function.identity(),
-                    id -> new SqlPersistenceImpl<>(
-                        id,
-                        projectComponent,
-                        dbmsHandlerComponent,
-                        managerComponent,
-                        resultSetMapperComponent
-                    )
+                    SqlAdapter::identifier,
+                    this::newPersistence
                 )
             );
     }
 
+    private <ENTITY> SqlPersistence<ENTITY> newPersistence(SqlAdapter<ENTITY> adapter) {
+        return new SqlPersistenceImpl<>(
+            adapter.identifier(),
+            projectComponent,
+            dbmsHandlerComponent,
+            managerComponent,
+            resultSetMapperComponent,
+            adapter.binder().orElse(null),
+            entityCacheComponent,
+            transactionComponent
+        );
+    }
+
     @Override
     public <ENTITY> Persister<ENTITY> persister(TableIdentifier<ENTITY> tableIdentifier) throws SpeedmentException {
-        return entity -> getPersistence(tableIdentifier).persist(entity);
+        return new Persister<ENTITY>() {
+            @Override
+            public ENTITY apply(ENTITY entity) {
+                return getPersistence(tableIdentifier).persist(entity);
+            }
+
+            @Override
+            public BatchOperation<ENTITY> batch(int batchSize) {
+                BatchOperation.requirePositiveBatchSize(batchSize);
+                return entities -> getPersistence(tableIdentifier).persist(entities, batchSize);
+            }
+        };
     }
 
     @Override
     public <ENTITY> Updater<ENTITY> updater(TableIdentifier<ENTITY> tableIdentifier) throws SpeedmentException {
-        return entity -> getPersistence(tableIdentifier).update(entity);
+        return new Updater<ENTITY>() {
+            @Override
+            public ENTITY apply(ENTITY entity) {
+                return getPersistence(tableIdentifier).update(entity);
+            }
+
+            @Override
+            public BatchOperation<ENTITY> batch(int batchSize) {
+                BatchOperation.requirePositiveBatchSize(batchSize);
+                return entities -> getPersistence(tableIdentifier).update(entities, batchSize);
+            }
+        };
     }
 
     @Override
     public <ENTITY> Remover<ENTITY> remover(TableIdentifier<ENTITY> tableIdentifier) throws SpeedmentException {
-        return entity -> getPersistence(tableIdentifier).remove(entity);
+        return new Remover<ENTITY>() {
+            @Override
+            public ENTITY apply(ENTITY entity) {
+                return getPersistence(tableIdentifier).remove(entity);
+            }
+
+            @Override
+            public BatchOperation<ENTITY> batch(int batchSize) {
+                BatchOperation.requirePositiveBatchSize(batchSize);
+                return entities -> getPersistence(tableIdentifier).remove(entities, batchSize);
+            }
+        };
+    }
+
+    @Override
+    public <ENTITY> Upserter<ENTITY> upserter(TableIdentifier<ENTITY> tableIdentifier) throws SpeedmentException {
+        return new SqlUpserter<>(requireNonNull(tableIdentifier), null);
     }
 
     private <ENTITY> SqlPersistence<ENTITY> getPersistence(TableIdentifier<ENTITY> tableIdentifier) {
@@ -97,4 +156,40 @@ public final class SqlPersistanceComponentImpl implements SqlPersistenceComponen
             + tableIdentifier
         );
     }
+
+    private final class SqlUpserter<ENTITY> implements Upserter<ENTITY> {
+
+        private final TableIdentifier<ENTITY> tableIdentifier;
+        private final List<Field<ENTITY>> updateFields; // Nullable
+
+        private SqlUpserter(TableIdentifier<ENTITY> tableIdentifier, List<Field<ENTITY>> updateFields) {
+            this.tableIdentifier = tableIdentifier;
+            this.updateFields = updateFields;
+        }
+
+        @Override
+        public ENTITY apply(ENTITY entity) {
+            return getPersistence(tableIdentifier).upsert(entity, updateFields);
+        }
+
+        @Override
+        public UpsertResult upsert(Stream<ENTITY> entities, int batchSize) {
+            BatchOperation.requirePositiveBatchSize(batchSize);
+            return getPersistence(tableIdentifier).upsert(entities, batchSize, updateFields);
+        }
+
+        @Override
+        public Upserter<ENTITY> updating(Collection<? extends Field<ENTITY>> fields) {
+            final List<Field<ENTITY>> fieldList = new ArrayList<>(fields);
+            fieldList.forEach(f -> {
+                if (!tableIdentifier.equals(f.identifier().asTableIdentifier())) {
+                    throw new IllegalArgumentException(
+                        "The field " + f.identifier().getColumnId()
+                        + " does not belong to the table " + tableIdentifier
+                    );
+                }
+            });
+            return new SqlUpserter<>(tableIdentifier, unmodifiableList(fieldList));
+        }
+    }
 }
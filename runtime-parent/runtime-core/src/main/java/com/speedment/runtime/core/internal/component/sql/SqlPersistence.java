@@ -18,6 +18,11 @@ package com.speedment.runtime.core.internal.component.sql;
 
 import com.speedment.runtime.core.component.sql.SqlPersistenceComponent;
 import com.speedment.runtime.core.exception.SpeedmentException;
+import com.speedment.runtime.core.manager.UpsertResult;
+import com.speedment.runtime.field.Field;
+
+import java.util.Collection;
+import java.util.stream.Stream;
 
 /**
  * The common interface for table specific persisting handlers that is managed 
@@ -59,5 +64,74 @@ interface SqlPersistence<ENTITY> {
      * @throws SpeedmentException  if the entity could not be removed
      */
     ENTITY remove(ENTITY entity) throws SpeedmentException;
+
+    /**
+     * Persists all the entities in the specified stream in the table managed
+     * by this handler, using one batch and commit per chunk of entities.
+     *
+     * @param entities   the entities to persist
+     * @param batchSize  the maximum number of entities per batch
+     * @return           the number of persisted entities
+     *
+     * @throws SpeedmentException  if the entities could not be persisted
+     * @since 3.1.2
+     */
+    long persist(Stream<ENTITY> entities, int batchSize) throws SpeedmentException;
+
+    /**
+     * Updates all the entities in the specified stream in the table managed
+     * by this handler, using one batch and commit per chunk of entities.
+     *
+     * @param entities   the entities to update
+     * @param batchSize  the maximum number of entities per batch
+     * @return           the number of updated entities
+     *
+     * @throws SpeedmentException  if the entities could not be updated
+     * @since 3.1.2
+     */
+    long update(Stream<ENTITY> entities, int batchSize) throws SpeedmentException;
+
+    /**
+     * Removes all the entities in the specified stream from the table managed
+     * by this handler, using one batch and commit per chunk of entities.
+     *
+     * @param entities   the entities to remove
+     * @param batchSize  the maximum number of entities per batch
+     * @return           the number of entities the removal was applied on
+     *
+     * @throws SpeedmentException  if the entities could not be removed
+     * @since 3.1.2
+     */
+    long remove(Stream<ENTITY> entities, int batchSize) throws SpeedmentException;
+
+    /**
+     * Inserts the specified entity in the table managed by this handler or,
+     * if a row with the same primary key already exists, updates the given
+     * fields of that row.
+     *
+     * @param entity        the entity to upsert
+     * @param updateFields  the fields to update if the row already exists,
+     *                      or {@code null} to update all non-key fields
+     * @return              the upserted entity
+     *
+     * @throws SpeedmentException  if the entity could not be upserted
+     * @since 3.1.2
+     */
+    ENTITY upsert(ENTITY entity, Collection<? extends Field<ENTITY>> updateFields) throws SpeedmentException;
+
+    /**
+     * Upserts all the entities in the specified stream in the table managed
+     * by this handler, using one batch and commit per chunk of entities.
+     *
+     * @param entities      the entities to upsert
+     * @param batchSize     the maximum number of entities per batch
+     * @param updateFields  the fields to update if the row already exists,
+     *                      or {@code null} to update all non-key fields
+     * @return              the number of inserted and updated entities
+     *
+     * @throws SpeedmentException  if the entities could not be upserted
+     * @since 3.1.2
+     */
+    UpsertResult upsert(Stream<ENTITY> entities, int batchSize, Collection<? extends Field<ENTITY>> updateFields) throws SpeedmentException;
     
 }
\ No newline at end of file
@@ -22,38 +22,53 @@ import com.speedment.runtime.config.identifier.TableIdentifier;
 import com.speedment.runtime.config.util.DocumentDbUtil;
 import com.speedment.runtime.config.util.DocumentUtil;
 import com.speedment.runtime.core.component.DbmsHandlerComponent;
+import com.speedment.runtime.core.component.EntityCacheComponent;
 import com.speedment.runtime.core.component.ManagerComponent;
 import com.speedment.runtime.core.component.ProjectComponent;
+import com.speedment.runtime.core.component.SqlBinder;
 import com.speedment.runtime.core.component.resultset.ResultSetMapperComponent;
 import com.speedment.runtime.core.component.resultset.ResultSetMapping;
+import com.speedment.runtime.core.component.transaction.TransactionComponent;
 import com.speedment.runtime.core.db.DatabaseNamingConvention;
 import com.speedment.runtime.core.db.DbmsColumnHandler;
 import com.speedment.runtime.core.db.DbmsOperationHandler;
 import com.speedment.runtime.core.db.DbmsType;
+import com.speedment.runtime.core.db.SqlConsumer;
 import com.speedment.runtime.core.exception.SpeedmentException;
+import com.speedment.runtime.core.internal.db.MultiRowInsertUtil;
+import com.speedment.runtime.core.internal.manager.UpsertResultImpl;
+import com.speedment.runtime.core.manager.DirtyTracking;
 import com.speedment.runtime.core.manager.Manager;
+import com.speedment.runtime.core.manager.UpsertResult;
 import com.speedment.runtime.core.util.DatabaseUtil;
 import com.speedment.runtime.field.Field;
 import com.speedment.runtime.typemapper.TypeMapper;
 
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
-import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static com.speedment.common.invariant.NullUtil.requireNonNulls;
 import static com.speedment.runtime.config.util.DocumentUtil.Name.DATABASE_NAME;
+import static java.util.Collections.singletonList;
 import static java.util.Comparator.comparing;
 import static java.util.Objects.requireNonNull;
 import static java.util.function.Function.identity;
 import static java.util.stream.Collectors.joining;
 import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toSet;
 
 /**
  * Default implementation of the {@link SqlPersistence}-interface.
@@ -65,6 +80,8 @@ import static java.util.stream.Collectors.toList;
  */
 final class SqlPersistenceImpl<ENTITY> implements SqlPersistence<ENTITY> {
 
+    private static final int INITIAL_BATCH_CAPACITY = 1024;
+
     private final Supplier<Stream<Field<ENTITY>>> primaryKeyFields;
     private final Supplier<Stream<Field<ENTITY>>> fields;
     
@@ -85,6 +102,18 @@ final class SqlPersistenceImpl<ENTITY> implements SqlPersistence<ENTITY> {
     private final List<GeneratedFieldSupport<ENTITY, ?>> generatedFieldSupports;
     private final List<Field<ENTITY>> generatedFields;
     private final Map<Field<ENTITY>, Column> columnsByFields;
+    private final List<Field<ENTITY>> fieldList;
+    private final BitSet updatableFields;
+    private final Map<BitSet, String> partialUpdateStatements;
+    private final BitSet upsertedFields;
+    private final BitSet defaultUpsertUpdateFields;
+    private final String upsertInsertStatement;
+    private final Map<BitSet, String> upsertStatements;
+    private final SqlBinder<ENTITY> binder; // Nullable
+    private final TableIdentifier<ENTITY> tableId;
+    private final EntityCacheComponent entityCacheComponent; // Nullable
+    private final TransactionComponent transactionComponent; // Nullable
+    private final Field<ENTITY> primaryKeyField; // Nullable
 
 
     public SqlPersistenceImpl(
@@ -93,6 +122,57 @@ final class SqlPersistenceImpl<ENTITY> implements SqlPersistence<ENTITY> {
             DbmsHandlerComponent dbmsHandlerComponent,
             ManagerComponent managerComponent,
             ResultSetMapperComponent resultSetMapperComponent) {
+
+        this(tableId,
+            projectComponent,
+            dbmsHandlerComponent,
+            managerComponent,
+            resultSetMapperComponent,
+            null
+        );
+    }
+
+    /**
+     * Creates a persistence that sets the parameters of inserts, complete
+     * updates and deletes using the given binder, provided that the
+     * operation handler of the database type supports binders. Otherwise, the
+     * values are collected using the fields of the manager.
+     */
+    public SqlPersistenceImpl(
+            TableIdentifier<ENTITY> tableId,
+            ProjectComponent projectComponent,
+            DbmsHandlerComponent dbmsHandlerComponent,
+            ManagerComponent managerComponent,
+            ResultSetMapperComponent resultSetMapperComponent,
+            SqlBinder<ENTITY> binder) {
+
+        this(tableId,
+            projectComponent,
+            dbmsHandlerComponent,
+            managerComponent,
+            resultSetMapperComponent,
+            binder,
+            null,
+            null
+        );
+    }
+
+    /**
+     * Creates a persistence that also evicts every entity that is persisted,
+     * updated, removed or upserted from the entity cache of the table, if
+     * the given (nullable) {@code entityCacheComponent} holds one. Entities
+     * written in a transaction of the given (nullable)
+     * {@code transactionComponent} are evicted again once it is committed.
+     */
+    public SqlPersistenceImpl(
+            TableIdentifier<ENTITY> tableId,
+            ProjectComponent projectComponent,
+            DbmsHandlerComponent dbmsHandlerComponent,
+            ManagerComponent managerComponent,
+            ResultSetMapperComponent resultSetMapperComponent,
+            SqlBinder<ENTITY> binder,
+            EntityCacheComponent entityCacheComponent,
+            TransactionComponent transactionComponent) {
         
         requireNonNulls(tableId, 
             projectComponent, 
@@ -148,20 +228,66 @@ final class SqlPersistenceImpl<ENTITY> implements SqlPersistence<ENTITY> {
         
         this.generatedFields = generatedFieldSupports.stream()
             .map(GeneratedFieldSupport::getField).collect(toList());
+
+        this.fieldList = fields.get().collect(toList());
+        this.updatableFields = new BitSet(fieldList.size());
+        for (int i = 0; i < fieldList.size(); i++) {
+            if (includedInUpdate.test(columnsByFields.get(fieldList.get(i)))) {
+                updatableFields.set(i);
+            }
+        }
+        this.partialUpdateStatements = new ConcurrentHashMap<>();
+
+        // Upserts must include the primary key even if it is auto-generated
+        final Set<String> primaryKeyColumnNames = table.primaryKeyColumns()
+            .map(PrimaryKeyColumn::getName)
+            .collect(toSet());
+        final Predicate<Column> isPrimaryKey = c -> primaryKeyColumnNames.contains(c.getName());
+        final Predicate<Column> includedInUpsert = includedInInsert.or(isPrimaryKey);
+        this.upsertInsertStatement = "INSERT INTO " + sqlTableReference + " (" +
+            sqlColumnList(includedInUpsert, identity()) + ") VALUES (" +
+            sqlColumnList(includedInUpsert, c -> "?") + ")";
+        this.upsertedFields = new BitSet(fieldList.size());
+        this.defaultUpsertUpdateFields = new BitSet(fieldList.size());
+        for (int i = 0; i < fieldList.size(); i++) {
+            final Column column = columnsByFields.get(fieldList.get(i));
+            if (includedInUpsert.test(column)) {
+                upsertedFields.set(i);
+                if (includedInUpdate.test(column) && !isPrimaryKey.test(column)) {
+                    defaultUpsertUpdateFields.set(i);
+                }
+            }
+        }
+        this.upsertStatements = new ConcurrentHashMap<>();
+        this.binder = operationHandler.isBindingSupported() ? binder : null;
+
+        this.tableId = tableId;
+        this.entityCacheComponent = entityCacheComponent;
+        this.transactionComponent = transactionComponent;
+        final List<Field<ENTITY>> primaryKeyFieldList = manager.primaryKeyFields().collect(toList());
+        this.primaryKeyField = primaryKeyFieldList.size() == 1 ? primaryKeyFieldList.get(0) : null;
     }
     
     @Override
     public ENTITY persist(ENTITY entity) throws SpeedmentException {
-        final List<Object> values = fields.get()
-            .filter(f -> !columnHandler.excludedInInsertStatement().test(columnsByFields.get(f)))
-            .map(f -> toDatabaseType(f, entity))
-            .collect(toList());
-
         try {
-            operationHandler.executeInsert(dbms, insertStatement, values, generatedFields, newGeneratedKeyConsumer(entity));
+            if (binder != null) {
+                operationHandler.executeBoundInsertBatch(
+                    dbms,
+                    insertStatement,
+                    singletonList(insertBinder(entity)),
+                    generatedFields,
+                    singletonList(newGeneratedKeyConsumer(entity))
+                );
+            } else {
+                operationHandler.executeInsert(dbms, insertStatement, insertValues(entity), generatedFields, newGeneratedKeyConsumer(entity));
+            }
+            clearDirty(entity);
             return entity;
         } catch (final SQLException ex) {
             throw new SpeedmentException(ex);
+        } finally {
+            invalidate(singletonList(entity));
         }
     }
     
@@ -169,18 +295,23 @@ final class SqlPersistenceImpl<ENTITY> implements SqlPersistence<ENTITY> {
     public ENTITY update(ENTITY entity) throws SpeedmentException {
         assertHasPrimaryKeyColumns();
 
-        final List<Object> values = Stream.concat(
-            fields.get().filter(f -> !columnHandler.excludedInUpdateStatement().test(columnsByFields.get(f))), 
-            primaryKeyFields.get()
-        )
-            .map(f -> toDatabaseType(f, entity))
-            .collect(Collectors.toList());
+        final BitSet updated = updatedFields(entity);
+        if (updated.isEmpty()) {
+            return entity; // Nothing has changed
+        }
 
         try {
-            operationHandler.executeUpdate(dbms, updateStatement, values);
+            if (isBound(updated)) {
+                operationHandler.executeBoundUpdateBatch(dbms, updateStatement, singletonList(updateBinder(entity)));
+            } else {
+                operationHandler.executeUpdate(dbms, updateStatement(updated), updateValues(entity, updated));
+            }
+            clearDirty(entity);
             return entity;
         } catch (final SQLException ex) {
             throw new SpeedmentException(ex);
+        } finally {
+            invalidate(singletonList(entity));
         }
     }
 
@@ -188,17 +319,335 @@ final class SqlPersistenceImpl<ENTITY> implements SqlPersistence<ENTITY> {
     public ENTITY remove(ENTITY entity) throws SpeedmentException {
         assertHasPrimaryKeyColumns();
         
-        final List<Object> values = primaryKeyFields.get()
-            .map(f -> toDatabaseType(f, entity))
-            .collect(toList());
-
         try {
-            operationHandler.executeDelete(dbms, deleteStatement, values);
+            if (binder != null) {
+                operationHandler.executeBoundDeleteBatch(dbms, deleteStatement, singletonList(primaryKeyBinder(entity)));
+            } else {
+                operationHandler.executeDelete(dbms, deleteStatement, primaryKeyValues(entity));
+            }
             return entity;
         } catch (final SQLException ex) {
             throw new SpeedmentException(ex);
+        } finally {
+            invalidate(singletonList(entity));
         }
     }
+
+    @Override
+    public long persist(Stream<ENTITY> entities, int batchSize) throws SpeedmentException {
+        return inBatches(entities, batchSize, batch -> {
+            // Multi-row inserts are rendered from value lists only
+            if (binder != null && !MultiRowInsertUtil.isApplicable(dbmsType, batch.size(), generatedFields)) {
+                operationHandler.executeBoundInsertBatch(
+                    dbms,
+                    insertStatement,
+                    batch.stream().map(this::insertBinder).collect(toList()),
+                    generatedFields,
+                    batch.stream().map(this::newGeneratedKeyConsumer).collect(toList())
+                );
+            } else {
+                operationHandler.executeInsertBatch(
+                    dbms,
+                    insertStatement,
+                    batch.stream().map(this::insertValues).collect(toList()),
+                    generatedFields,
+                    batch.stream().map(this::newGeneratedKeyConsumer).collect(toList())
+                );
+            }
+            batch.forEach(this::clearDirty);
+        });
+    }
+
+    @Override
+    public long update(Stream<ENTITY> entities, int batchSize) throws SpeedmentException {
+        assertHasPrimaryKeyColumns();
+        return inBatches(entities, batchSize, batch -> {
+            // Consecutive entities with the same updated fields share a batch
+            BitSet current = null;
+            final List<ENTITY> group = new ArrayList<>();
+            for (final ENTITY entity : batch) {
+                final BitSet updated = updatedFields(entity);
+                if (updated.isEmpty()) {
+                    continue; // Nothing has changed
+                }
+                if (current != null && !current.equals(updated)) {
+                    executeUpdateBatch(current, group);
+                    group.clear();
+                }
+                current = updated;
+                group.add(entity);
+            }
+            if (current != null) {
+                executeUpdateBatch(current, group);
+            }
+            batch.forEach(this::clearDirty);
+        });
+    }
+
+    @Override
+    public long remove(Stream<ENTITY> entities, int batchSize) throws SpeedmentException {
+        assertHasPrimaryKeyColumns();
+        return inBatches(entities, batchSize, batch -> {
+            if (binder != null) {
+                operationHandler.executeBoundDeleteBatch(
+                    dbms,
+                    deleteStatement,
+                    batch.stream().map(this::primaryKeyBinder).collect(toList())
+                );
+            } else {
+                operationHandler.executeDeleteBatch(
+                    dbms,
+                    deleteStatement,
+                    batch.stream().map(this::primaryKeyValues).collect(toList())
+                );
+            }
+        });
+    }
+
+    @Override
+    public ENTITY upsert(ENTITY entity, Collection<? extends Field<ENTITY>> updateFields) throws SpeedmentException {
+        upsert(Stream.of(requireNonNull(entity)), 1, updateFields);
+        return entity;
+    }
+
+    @Override
+    public UpsertResult upsert(Stream<ENTITY> entities, int batchSize, Collection<? extends Field<ENTITY>> updateFields) throws SpeedmentException {
+        assertHasPrimaryKeyColumns();
+        final String upsertStatement = upsertStatement(updateFields);
+        final long[] inserted = {0};
+        final long[] updated = {0};
+        final long count = inBatches(entities, batchSize, batch -> {
+            final long[] outcomes = operationHandler.executeUpsertBatch(
+                dbms,
+                upsertStatement,
+                batch.stream().map(this::upsertValues).collect(toList())
+            );
+            for (final long outcome : outcomes) {
+                if (outcome == 1) {
+                    inserted[0]++;
+                } else if (outcome == 0 || outcome == 2) {
+                    updated[0]++;
+                } // Negative outcomes are unknown
+            }
+            batch.forEach(this::clearDirty);
+        });
+        return new UpsertResultImpl(count, inserted[0], updated[0]);
+    }
+
+    /**
+     * Consumes the given stream sequentially and hands over the entities to
+     * the given batch handler in chunks of at most {@code batchSize}
+     * entities. Using a terminal operation (rather than an iterator) makes
+     * sure that the stream is closed if it is backed by a database.
+     */
+    private long inBatches(Stream<ENTITY> entities, int batchSize, SqlConsumer<List<ENTITY>> batchHandler) {
+        requireNonNull(entities);
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("The batch size must be positive: " + batchSize);
+        }
+
+        final List<ENTITY> batch = new ArrayList<>(Math.min(batchSize, INITIAL_BATCH_CAPACITY));
+        final long[] count = {0};
+        entities.sequential().forEach(entity -> {
+            batch.add(requireNonNull(entity));
+            if (batch.size() >= batchSize) {
+                count[0] += flush(batchHandler, batch);
+            }
+        });
+        count[0] += flush(batchHandler, batch);
+        return count[0];
+    }
+
+    private int flush(SqlConsumer<List<ENTITY>> batchHandler, List<ENTITY> batch) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        try {
+            batchHandler.accept(batch);
+        } catch (final SQLException ex) {
+            throw new SpeedmentException(ex);
+        } finally {
+            invalidate(batch); // Some of the entities may have been written
+        }
+        final int size = batch.size();
+        batch.clear();
+        return size;
+    }
+
+    private void executeUpdateBatch(BitSet updated, List<ENTITY> group) throws SQLException {
+        if (isBound(updated)) {
+            operationHandler.executeBoundUpdateBatch(
+                dbms,
+                updateStatement,
+                group.stream().map(this::updateBinder).collect(toList())
+            );
+        } else {
+            operationHandler.executeUpdateBatch(
+                dbms,
+                updateStatement(updated),
+                group.stream().map(e -> updateValues(e, updated)).collect(toList())
+            );
+        }
+    }
+
+    /**
+     * Evicts the given entities from the entity cache of the table, if any.
+     * This is done after they have been written, also if the write failed,
+     * so that readers that read the old values concurrently can not cache
+     * them. Readers outside of a transaction see the old values until the
+     * transaction is committed, so the entities are then evicted again.
+     */
+    private void invalidate(List<ENTITY> entities) {
+        if (entityCacheComponent == null || primaryKeyField == null) {
+            return;
+        }
+        entityCacheComponent.getEntityCache(tableId).ifPresent(entityCache -> {
+            final List<Object> keys = new ArrayList<>(entities.size());
+            for (final ENTITY entity : entities) {
+                final Object key = primaryKeyField.getter().apply(entity);
+                if (key != null) {
+                    keys.add(key);
+                }
+            }
+            keys.forEach(entityCache::invalidate);
+            if (transactionComponent != null && !keys.isEmpty()) {
+                transactionComponent.afterCommit(
+                    Thread.currentThread(),
+                    () -> keys.forEach(entityCache::invalidate)
+                );
+            }
+        });
+    }
+
+    /**
+     * Returns if the binder shall be used to update entities with the given
+     * updated fields. The binder always writes all the updatable fields, so
+     * partial updates of dirty tracking entities use the field values.
+     */
+    private boolean isBound(BitSet updated) {
+        return binder != null && updated.equals(updatableFields);
+    }
+
+    private SqlConsumer<PreparedStatement> insertBinder(ENTITY entity) {
+        return ps -> binder.bindInsert(ps, entity);
+    }
+
+    private SqlConsumer<PreparedStatement> updateBinder(ENTITY entity) {
+        return ps -> binder.bindUpdate(ps, entity);
+    }
+
+    private SqlConsumer<PreparedStatement> primaryKeyBinder(ENTITY entity) {
+        return ps -> binder.bindPk(ps, entity);
+    }
+
+    private List<Object> insertValues(ENTITY entity) {
+        return fields.get()
+            .filter(f -> !columnHandler.excludedInInsertStatement().test(columnsByFields.get(f)))
+            .map(f -> toDatabaseType(f, entity))
+            .collect(toList());
+    }
+
+    /**
+     * Returns the indexes of the fields that shall be written when updating
+     * the given entity. Entities that keep track of their modified fields
+     * only need to write those fields. All other entities write all the
+     * fields that are not excluded in update statements.
+     */
+    private BitSet updatedFields(ENTITY entity) {
+        if (!(entity instanceof DirtyTracking)) {
+            return updatableFields;
+        }
+        final DirtyTracking tracking = (DirtyTracking) entity;
+        if (!tracking.isDirty()) {
+            return new BitSet();
+        }
+        final BitSet result = new BitSet(fieldList.size());
+        for (int i = updatableFields.nextSetBit(0); i >= 0; i = updatableFields.nextSetBit(i + 1)) {
+            if (tracking.isDirty(i)) {
+                result.set(i);
+            }
+        }
+        return result;
+    }
+
+    private String updateStatement(BitSet updated) {
+        if (updated.equals(updatableFields)) {
+            return updateStatement;
+        }
+        return partialUpdateStatements.computeIfAbsent(updated, u ->
+            "UPDATE " + sqlTableReference + " SET " +
+            u.stream()
+                .mapToObj(fieldList::get)
+                .map(columnsByFields::get)
+                .map(Column::getName)
+                .map(naming::encloseField)
+                .map(n -> n + " = ?")
+                .collect(joining(",")) + " WHERE " +
+            sqlPrimaryKeyColumnList(pk -> pk + " = ?")
+        );
+    }
+
+    private List<Object> updateValues(ENTITY entity, BitSet updated) {
+        return Stream.concat(
+            updated.stream().mapToObj(fieldList::get),
+            primaryKeyFields.get()
+        )
+            .map(f -> toDatabaseType(f, entity))
+            .collect(toList());
+    }
+
+    private String upsertStatement(Collection<? extends Field<ENTITY>> updateFields) {
+        final BitSet updated;
+        if (updateFields == null) {
+            updated = defaultUpsertUpdateFields;
+        } else {
+            updated = new BitSet(fieldList.size());
+            for (final Field<ENTITY> field : updateFields) {
+                final int index = fieldList.indexOf(requireNonNull(field));
+                if (index < 0) {
+                    throw new IllegalArgumentException(
+                        "The field " + field.identifier().getColumnId()
+                        + " does not belong to the table " + sqlTableReference
+                    );
+                }
+                updated.set(index);
+            }
+        }
+        return upsertStatements.computeIfAbsent(updated, u ->
+            dbmsType.renderUpsert(
+                dbms,
+                upsertInsertStatement,
+                sqlPrimaryKeyColumnNames(),
+                u.stream()
+                    .mapToObj(fieldList::get)
+                    .map(columnsByFields::get)
+                    .map(Column::getName)
+                    .map(naming::encloseField)
+                    .collect(toList())
+            ).orElseThrow(() -> new UnsupportedOperationException(
+                "The database type " + dbmsType.getName() + " does not support upserts."
+            ))
+        );
+    }
+
+    private List<Object> upsertValues(ENTITY entity) {
+        return upsertedFields.stream()
+            .mapToObj(fieldList::get)
+            .map(f -> toDatabaseType(f, entity))
+            .collect(toList());
+    }
+
+    private void clearDirty(ENTITY entity) {
+        if (entity instanceof DirtyTracking) {
+            ((DirtyTracking) entity).clearDirty();
+        }
+    }
+
+    private List<Object> primaryKeyValues(ENTITY entity) {
+        return primaryKeyFields.get()
+            .map(f -> toDatabaseType(f, entity))
+            .collect(toList());
+    }
     
     private Consumer<List<Long>> newGeneratedKeyConsumer(ENTITY entity) {
         return l -> {
@@ -243,6 +692,15 @@ final class SqlPersistenceImpl<ENTITY> implements SqlPersistence<ENTITY> {
             .collect(joining(" AND "));
     }
 
+    private List<String> sqlPrimaryKeyColumnNames() {
+        return table.primaryKeyColumns()
+            .sorted(comparing(PrimaryKeyColumn::getOrdinalPosition))
+            .map(this::findColumn)
+            .map(Column::getName)
+            .map(naming::encloseField)
+            .collect(toList());
+    }
+
     private String sqlColumnList(Predicate<Column> preFilter, Function<String, String> postMapper) {
         return table.columns()
             .sorted(comparing(Column::getOrdinalPosition))
@@ -25,14 +25,23 @@ import com.speedment.runtime.core.db.AsynchronousQueryResult;
 import com.speedment.runtime.core.db.DbmsType;
 import com.speedment.runtime.core.internal.component.sql.optimizer.FilterSortedSkipOptimizer;
 import com.speedment.runtime.core.internal.component.sql.optimizer.InitialFilterOptimizer;
+import com.speedment.runtime.core.internal.component.sql.optimizer.ProjectionOptimizer;
+import com.speedment.runtime.core.internal.util.ClockCache;
 import com.speedment.runtime.core.stream.Pipeline;
 import java.util.Comparator;
 import static java.util.Comparator.comparingInt;
 import java.util.List;
 import static java.util.Objects.requireNonNull;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
+ * Default implementation of the {@link SqlStreamOptimizerComponent}.
+ * <p>
+ * The optimizer selected for a pipeline is cached using the
+ * {@link PipelineFingerprint} of the pipeline, so that pipelines with the same
+ * shape do not have to be re-evaluated by all installed optimizers. The cache
+ * is bounded and evicts the least recently used shapes first.
  *
  * @author Per Minborg
  */
@@ -41,13 +50,21 @@ public final class SqlStreamOptimizerComponentImpl implements SqlStreamOptimizer
     private static final Logger LOGGER_STREAM_OPTIMIZER = LoggerManager.getLogger(ApplicationBuilder.LogType.STREAM_OPTIMIZER.getLoggerName());
 
     private static final SqlStreamOptimizer<?> FALL_BACK = new FallbackStreamOptimizer<>();
+    private static final int MAX_PLAN_CACHE_SIZE = 4096;
 
     private final List<SqlStreamOptimizer<?>> optimizers;
+    private final ClockCache<PipelineFingerprint, SqlStreamOptimizer<?>> planCache;
+    private final AtomicLong planCacheHits;
+    private final AtomicLong planCacheMisses;
 
     public SqlStreamOptimizerComponentImpl() {
         this.optimizers = new CopyOnWriteArrayList<>();
+        this.planCache = new ClockCache<>(MAX_PLAN_CACHE_SIZE);
+        this.planCacheHits = new AtomicLong();
+        this.planCacheMisses = new AtomicLong();
         install(new InitialFilterOptimizer<>());
         install(new FilterSortedSkipOptimizer<>());
+        install(new ProjectionOptimizer<>());
     }
 
     @Override
@@ -55,7 +72,7 @@ public final class SqlStreamOptimizerComponentImpl implements SqlStreamOptimizer
         if (DEBUG.isEqualOrHigherThan(LOGGER_STREAM_OPTIMIZER.getLevel())) {
             LOGGER_STREAM_OPTIMIZER.debug("Evaluating %s pipeline: %s", initialPipeline.isParallel() ? "parallel" : "sequential", initialPipeline.toString());
         }
-        final SqlStreamOptimizer<ENTITY> result = getHelper(initialPipeline, dbmsType);
+        final SqlStreamOptimizer<ENTITY> result = getCached(initialPipeline, dbmsType);
         if (DEBUG.isEqualOrHigherThan(LOGGER_STREAM_OPTIMIZER.getLevel())) {
             LOGGER_STREAM_OPTIMIZER.debug("Selected: %s", result.getClass().getSimpleName());
         }
@@ -66,6 +83,23 @@ public final class SqlStreamOptimizerComponentImpl implements SqlStreamOptimizer
         = comparingInt(Metrics::getPipelineReductions)
             .thenComparing(comparingInt(Metrics::getSqlCount).reversed());
 
+    private <ENTITY> SqlStreamOptimizer<ENTITY> getCached(Pipeline initialPipeline, DbmsType dbmsType) {
+        if (initialPipeline.isEmpty()) {
+            return getHelper(initialPipeline, dbmsType);
+        }
+        final PipelineFingerprint fingerprint = PipelineFingerprint.of(initialPipeline, dbmsType);
+        @SuppressWarnings("unchecked")
+        final SqlStreamOptimizer<ENTITY> cached = (SqlStreamOptimizer<ENTITY>) planCache.get(fingerprint);
+        if (cached != null) {
+            planCacheHits.incrementAndGet();
+            return cached;
+        }
+        planCacheMisses.incrementAndGet();
+        final SqlStreamOptimizer<ENTITY> result = getHelper(initialPipeline, dbmsType);
+        planCache.put(fingerprint, result);
+        return result;
+    }
+
     private <ENTITY> SqlStreamOptimizer<ENTITY> getHelper(Pipeline initialPipeline, DbmsType dbmsType) {
         @SuppressWarnings("unchecked")
         SqlStreamOptimizer<ENTITY> result = (SqlStreamOptimizer<ENTITY>) FALL_BACK;
@@ -97,6 +131,17 @@ public final class SqlStreamOptimizerComponentImpl implements SqlStreamOptimizer
     public <ENTITY> void install(SqlStreamOptimizer<ENTITY> sqlStreamOptimizer) {
         requireNonNull(sqlStreamOptimizer);
         optimizers.add(sqlStreamOptimizer);
+        planCache.clear();
+    }
+
+    @Override
+    public long planCacheHits() {
+        return planCacheHits.get();
+    }
+
+    @Override
+    public long planCacheMisses() {
+        return planCacheMisses.get();
     }
 
     private static class FallbackStreamOptimizer<ENTITY> implements SqlStreamOptimizer<ENTITY> {
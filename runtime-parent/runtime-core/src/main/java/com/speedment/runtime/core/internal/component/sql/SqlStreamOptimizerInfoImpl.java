@@ -20,6 +20,7 @@ import com.speedment.runtime.core.component.sql.SqlStreamOptimizerInfo;
 import com.speedment.runtime.core.db.DbmsType;
 import com.speedment.runtime.field.Field;
 import java.util.List;
+import java.util.Optional;
 import static java.util.Objects.requireNonNull;
 import java.util.function.Function;
 import java.util.function.ToLongBiFunction;
@@ -36,6 +37,7 @@ public final class SqlStreamOptimizerInfoImpl<ENTITY> implements SqlStreamOptimi
     private final ToLongBiFunction<String, List<Object>> counter;
     private final Function<Field<ENTITY>, String> sqlColumnNamer;
     private final Function<Field<ENTITY>, Class<?>> sqlDatabaseTypeFunction;
+    private final String sqlTableReference; // Nullable
 
     public SqlStreamOptimizerInfoImpl(
         final DbmsType dbmsType,
@@ -43,7 +45,8 @@ public final class SqlStreamOptimizerInfoImpl<ENTITY> implements SqlStreamOptimi
         final String sqlSelectCount,
         final ToLongBiFunction<String, List<Object>> counter,
         final Function<Field<ENTITY>, String> sqlColumnNamer,
-        final Function<Field<ENTITY>, Class<?>> sqlDatabaseTypeFunction
+        final Function<Field<ENTITY>, Class<?>> sqlDatabaseTypeFunction,
+        final String sqlTableReference
     ) {
         this.dbmsType = requireNonNull(dbmsType);
         this.sqlSelect = requireNonNull(sqlSelect);
@@ -51,6 +54,7 @@ public final class SqlStreamOptimizerInfoImpl<ENTITY> implements SqlStreamOptimi
         this.counter = requireNonNull(counter);
         this.sqlColumnNamer = requireNonNull(sqlColumnNamer);
         this.sqlDatabaseTypeFunction = requireNonNull(sqlDatabaseTypeFunction);
+        this.sqlTableReference = sqlTableReference;
     }
 
     @Override
@@ -83,4 +87,9 @@ public final class SqlStreamOptimizerInfoImpl<ENTITY> implements SqlStreamOptimi
         return sqlDatabaseTypeFunction;
     }
 
+    @Override
+    public Optional<String> getSqlTableReference() {
+        return Optional.ofNullable(sqlTableReference);
+    }
+
 }
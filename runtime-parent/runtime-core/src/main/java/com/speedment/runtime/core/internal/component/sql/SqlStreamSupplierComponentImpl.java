@@ -20,14 +20,17 @@ import com.speedment.common.injector.Injector;
 import static com.speedment.common.injector.State.STARTED;
 import com.speedment.common.injector.annotation.Config;
 import com.speedment.common.injector.annotation.ExecuteBefore;
+import com.speedment.common.injector.annotation.Inject;
 import com.speedment.runtime.config.identifier.TableIdentifier;
 import com.speedment.runtime.core.component.DbmsHandlerComponent;
+import com.speedment.runtime.core.component.EntityCacheComponent;
 import com.speedment.runtime.core.component.ManagerComponent;
 import com.speedment.runtime.core.component.ProjectComponent;
 import com.speedment.runtime.core.component.SqlAdapter;
 import com.speedment.runtime.core.component.sql.SqlStreamOptimizerComponent;
 import com.speedment.runtime.core.component.sql.SqlStreamSupplierComponent;
 import com.speedment.runtime.core.component.sql.override.SqlStreamTerminatorComponent;
+import com.speedment.runtime.core.component.transaction.TransactionComponent;
 import com.speedment.runtime.core.db.SqlFunction;
 import com.speedment.runtime.core.stream.parallel.ParallelStrategy;
 import java.sql.ResultSet;
@@ -48,6 +51,8 @@ public final class SqlStreamSupplierComponentImpl implements SqlStreamSupplierCo
     private final Map<TableIdentifier<?>, SqlStreamSupplier<?>> supportMap;
     @Config(name = "allowStreamIteratorAndSpliterator", value = "false")
     private boolean allowStreamIteratorAndSpliterator;
+    @Inject
+    private EntityCacheComponent entityCacheComponent;
 
     public SqlStreamSupplierComponentImpl() {
         this.supportMap = new ConcurrentHashMap<>();
@@ -61,7 +66,8 @@ public final class SqlStreamSupplierComponentImpl implements SqlStreamSupplierCo
         final DbmsHandlerComponent dbmsHandlerComponent,
         final ManagerComponent managerComponent,
         final SqlStreamOptimizerComponent sqlStreamOptimizerComponent,
-        final SqlStreamTerminatorComponent sqlStreamTerminatorComponent
+        final SqlStreamTerminatorComponent sqlStreamTerminatorComponent,
+        final TransactionComponent transactionComponent
     ) {
 
         injector.stream(SqlAdapter.class)
@@ -74,6 +80,8 @@ public final class SqlStreamSupplierComponentImpl implements SqlStreamSupplierCo
                     managerComponent,
                     sqlStreamOptimizerComponent,
                     sqlStreamTerminatorComponent,
+                    transactionComponent,
+                    entityCacheComponent,
                     allowStreamIteratorAndSpliterator
                 );
                 supportMap.put(sa.identifier(), supplier);
@@ -28,11 +28,13 @@ import com.speedment.runtime.config.trait.HasParent;
 import com.speedment.runtime.config.util.DocumentDbUtil;
 import com.speedment.runtime.core.ApplicationBuilder;
 import com.speedment.runtime.core.component.DbmsHandlerComponent;
+import com.speedment.runtime.core.component.EntityCacheComponent;
 import com.speedment.runtime.core.component.ManagerComponent;
 import com.speedment.runtime.core.component.ProjectComponent;
 import com.speedment.runtime.core.component.sql.SqlStreamOptimizerComponent;
 import com.speedment.runtime.core.component.sql.SqlStreamOptimizerInfo;
 import com.speedment.runtime.core.component.sql.override.SqlStreamTerminatorComponent;
+import com.speedment.runtime.core.component.transaction.TransactionComponent;
 import com.speedment.runtime.core.db.AsynchronousQueryResult;
 import com.speedment.runtime.core.db.DatabaseNamingConvention;
 import com.speedment.runtime.core.db.DbmsType;
@@ -41,16 +43,16 @@ import com.speedment.runtime.core.exception.SpeedmentException;
 import com.speedment.runtime.core.internal.manager.sql.SqlStreamTerminator;
 import com.speedment.runtime.core.internal.stream.builder.ReferenceStreamBuilder;
 import com.speedment.runtime.core.internal.stream.builder.pipeline.PipelineImpl;
+import com.speedment.runtime.core.manager.EntityCache;
 import com.speedment.runtime.core.manager.Manager;
 import com.speedment.runtime.core.stream.parallel.ParallelStrategy;
+import com.speedment.runtime.core.stream.parallel.PartitionedParallelStrategy;
 import com.speedment.runtime.core.util.DatabaseUtil;
 import com.speedment.runtime.field.Field;
 import com.speedment.runtime.field.trait.HasComparableOperators;
 
 import java.sql.ResultSet;
 import java.util.*;
-import java.util.function.Supplier;
-import java.util.stream.BaseStream;
 import java.util.stream.Stream;
 
 import static com.speedment.runtime.config.util.DocumentDbUtil.isSame;
@@ -58,6 +60,7 @@ import static java.lang.String.format;
 import static java.util.Objects.requireNonNull;
 import static java.util.function.Function.identity;
 import static java.util.stream.Collectors.joining;
+import static java.util.stream.Collectors.toList;
 import static java.util.stream.Collectors.toMap;
 
 /**
@@ -68,6 +71,10 @@ import static java.util.stream.Collectors.toMap;
  */
 final class SqlStreamSupplierImpl<ENTITY> implements SqlStreamSupplier<ENTITY> {
 
+    private static final Set<Class<?>> INTEGRAL_TYPES = Collections.unmodifiableSet(
+        new HashSet<>(Arrays.asList(Byte.class, Short.class, Integer.class, Long.class))
+    );
+
     private static final Logger LOGGER_SELECT = LoggerManager.getLogger(ApplicationBuilder.LogType.STREAM.getLoggerName()); // Hold an extra reference to this logger
 
     private final SqlFunction<ResultSet, ENTITY> entityMapper;
@@ -81,6 +88,11 @@ final class SqlStreamSupplierImpl<ENTITY> implements SqlStreamSupplier<ENTITY> {
     private final SqlStreamOptimizerComponent sqlStreamOptimizerComponent;
     private final SqlStreamTerminatorComponent sqlStreamTerminatorComponent;
     private final boolean allowIteratorAndSpliterator;
+    private final TransactionComponent transactionComponent; // Nullable
+    private final String partitionKeyColumn; // Nullable
+    private final TableIdentifier<ENTITY> tableId;
+    private final EntityCacheComponent entityCacheComponent; // Nullable
+    private final Field<ENTITY> primaryKeyField; // Nullable
 
     SqlStreamSupplierImpl(
         final TableIdentifier<ENTITY> tableId,
@@ -90,6 +102,8 @@ final class SqlStreamSupplierImpl<ENTITY> implements SqlStreamSupplier<ENTITY> {
         final ManagerComponent managerComponent,
         final SqlStreamOptimizerComponent sqlStreamOptimizerComponent,
         final SqlStreamTerminatorComponent sqlStreamTerminatorComponent,
+        final TransactionComponent transactionComponent,
+        final EntityCacheComponent entityCacheComponent,
         final boolean allowIteratorAndSpliterator
     ) {
         requireNonNull(tableId);
@@ -101,6 +115,9 @@ final class SqlStreamSupplierImpl<ENTITY> implements SqlStreamSupplier<ENTITY> {
         this.sqlStreamOptimizerComponent = requireNonNull(sqlStreamOptimizerComponent);
         this.sqlStreamTerminatorComponent = requireNonNull(sqlStreamTerminatorComponent);
         this.allowIteratorAndSpliterator = allowIteratorAndSpliterator;
+        this.transactionComponent = transactionComponent;
+        this.tableId = tableId;
+        this.entityCacheComponent = entityCacheComponent;
 
         final Project project = projectComponent.getProject();
         final Table table = DocumentDbUtil.referencedTable(project, tableId);
@@ -150,6 +167,15 @@ final class SqlStreamSupplierImpl<ENTITY> implements SqlStreamSupplier<ENTITY> {
                 ).findDatabaseType();
                 columnDatabaseTypeMap.put(f.identifier(), javaClass);
             });
+
+        final List<Field<ENTITY>> primaryKeyFields = manager.primaryKeyFields().collect(toList());
+        if (primaryKeyFields.size() == 1
+            && INTEGRAL_TYPES.contains(columnDatabaseTypeMap.get(primaryKeyFields.get(0).identifier()))) {
+            this.partitionKeyColumn = columnNameMap.get(primaryKeyFields.get(0).identifier());
+        } else {
+            this.partitionKeyColumn = null;
+        }
+        this.primaryKeyField = primaryKeyFields.size() == 1 ? primaryKeyFields.get(0) : null;
     }
 
     @Override
@@ -169,7 +195,8 @@ final class SqlStreamSupplierImpl<ENTITY> implements SqlStreamSupplier<ENTITY> {
             sqlSelectCount,
             this::executeAndGetLong,
             this::sqlColumnNamer,
-            this::sqlDatabaseTypeFunction
+            this::sqlDatabaseTypeFunction,
+            sqlTableReference
         );
 
         final SqlStreamTerminator<ENTITY> terminator = new SqlStreamTerminator<>(
@@ -177,20 +204,37 @@ final class SqlStreamSupplierImpl<ENTITY> implements SqlStreamSupplier<ENTITY> {
             asynchronousQueryResult,
             sqlStreamOptimizerComponent,
             sqlStreamTerminatorComponent,
-            allowIteratorAndSpliterator
+            allowIteratorAndSpliterator,
+            entityCache(),
+            primaryKeyField
         );
 
-        final Supplier<BaseStream<?, ?>> initialSupplier
-            = () -> asynchronousQueryResult.stream();
-
-        final Stream<ENTITY> result = new ReferenceStreamBuilder<>(
-            new PipelineImpl<>(initialSupplier),
-            terminator
-        );
+        final PipelineImpl<ENTITY> pipeline = new PipelineImpl<>(asynchronousQueryResult::stream);
+        final Stream<ENTITY> result = new ReferenceStreamBuilder<>(pipeline, terminator);
 
         // Make sure we are closing the ResultSet, Statement and Connection later
         result.onClose(asynchronousQueryResult::close);
 
+        if (parallelStrategy instanceof PartitionedParallelStrategy
+            && partitionKeyColumn != null
+            && !isInTransaction()) {
+
+            final PartitionedScan<ENTITY> partitionedScan = new PartitionedScan<>(
+                dbms,
+                dbmsType,
+                asynchronousQueryResult,
+                sqlSelect,
+                entityMapper,
+                partitionKeyColumn,
+                ((PartitionedParallelStrategy) parallelStrategy).getPartitions()
+            );
+            pipeline.setInitialSupplier(() -> pipeline.isParallel()
+                ? partitionedScan.stream()
+                : asynchronousQueryResult.stream()
+            );
+            result.onClose(partitionedScan::close);
+        }
+
         return result;
     }
 
@@ -207,11 +251,38 @@ final class SqlStreamSupplierImpl<ENTITY> implements SqlStreamSupplier<ENTITY> {
 
     public long executeAndGetLong(String sql, List<Object> values) {
         LOGGER_SELECT.debug("%s, values:%s", sql, values);
-        return dbmsType.getOperationHandler().executeQuery(dbms,
+        try (final Stream<Long> result = dbmsType.getOperationHandler().executeQuery(dbms,
             sql,
             values,
             rs -> rs.getLong(1)
-        ).findAny().get();
+        )) {
+            return result.findAny().get();
+        }
+    }
+
+    /**
+     * Returns the entity cache of the table, or {@code null} if the table has
+     * no entity cache or if the current thread is in a transaction. Entities
+     * read within a transaction may not have been committed and are
+     * therefore never cached.
+     */
+    private EntityCache<ENTITY> entityCache() {
+        if (entityCacheComponent == null || isInTransaction()) {
+            return null;
+        }
+        final EntityCache<ENTITY> entityCache = entityCacheComponent.getEntityCache(tableId).orElse(null);
+        if (entityCache != null && primaryKeyField == null) {
+            throw new SpeedmentException(
+                "The table '" + tableId + "' has an entity cache but does not "
+                + "have exactly one primary key column."
+            );
+        }
+        return entityCache;
+    }
+
+    private boolean isInTransaction() {
+        return transactionComponent != null
+            && transactionComponent.get(Thread.currentThread()).isPresent();
     }
 
     private String sqlColumnNamer(Field<ENTITY> field) {
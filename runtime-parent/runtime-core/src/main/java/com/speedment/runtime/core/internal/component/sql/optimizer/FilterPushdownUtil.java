@@ -0,0 +1,147 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.component.sql.optimizer;
+
+import com.speedment.runtime.core.internal.stream.builder.action.reference.FilterAction;
+import com.speedment.runtime.core.internal.stream.builder.action.reference.PeekAction;
+import com.speedment.runtime.core.internal.stream.builder.action.reference.SortedAction;
+import com.speedment.runtime.core.internal.stream.builder.action.reference.SortedComparatorAction;
+import static com.speedment.runtime.core.internal.stream.builder.streamterminator.StreamTerminatorUtil.isContainingOnlyFieldPredicate;
+import com.speedment.runtime.core.stream.Pipeline;
+import com.speedment.runtime.core.stream.action.Action;
+import com.speedment.runtime.field.predicate.CombinedPredicate;
+import java.util.ArrayList;
+import java.util.List;
+import static java.util.Objects.requireNonNull;
+import java.util.function.Predicate;
+
+/**
+ * Rewrites the beginning of a pipeline so that as many field predicates as
+ * possible can be rendered as SQL by the optimizers.
+ * <p>
+ * AND-combined predicates that mix field predicates and other predicates are
+ * split into separate filters. Filters that only contain field predicates are
+ * then moved in front of filters with other predicates, peek operations and
+ * sort operations, since neither of these affect the result of a filter. For
+ * example, the pipeline
+ * {@code filter(User.COUNTRY.equal("SE").and(u -> expensiveCheck(u)))} is
+ * rewritten to
+ * {@code filter(User.COUNTRY.equal("SE")).filter(u -> expensiveCheck(u))}.
+ *
+ * @author agent
+ * @since 3.1.2
+ */
+public final class FilterPushdownUtil {
+
+    /**
+     * Rewrites the given pipeline so that all filters with only field
+     * predicates in the leading sequence of filter, peek and sort operations
+     * come first. The pipeline is left untouched if no such rewrite is
+     * possible.
+     *
+     * @param pipeline to rewrite
+     * @return if the pipeline was modified
+     */
+    public static boolean hoistFieldPredicates(Pipeline pipeline) {
+        requireNonNull(pipeline);
+
+        int prefixSize = 0;
+        boolean residualSeen = false;
+        boolean modified = false;
+        final List<Action<?, ?>> fieldFilters = new ArrayList<>();
+        final List<Action<?, ?>> rest = new ArrayList<>();
+
+        for (final Action<?, ?> action : pipeline) {
+            if (action instanceof FilterAction) {
+                final List<Predicate<?>> fieldPredicates = new ArrayList<>();
+                final List<Predicate<?>> residualPredicates = new ArrayList<>();
+                split(((FilterAction<?>) action).getPredicate(), fieldPredicates, residualPredicates);
+
+                if (residualPredicates.isEmpty()) {
+                    // Only field predicates. Keep the action as it is.
+                    modified |= residualSeen;
+                    fieldFilters.add(action);
+                } else {
+                    modified |= !fieldPredicates.isEmpty();
+                    fieldPredicates.forEach(p -> fieldFilters.add(filterOf(p)));
+                    rest.add(fieldPredicates.isEmpty() ? action : filterOf(and(residualPredicates)));
+                    residualSeen = true;
+                }
+            } else if (action instanceof PeekAction
+                || action instanceof SortedAction
+                || action instanceof SortedComparatorAction) {
+                rest.add(action);
+                residualSeen = true;
+            } else {
+                break;
+            }
+            prefixSize++;
+        }
+
+        if (!modified) {
+            return false;
+        }
+
+        for (int i = 0; i < prefixSize; i++) {
+            pipeline.removeFirst();
+        }
+        for (int i = rest.size() - 1; i >= 0; i--) {
+            pipeline.addFirst(rest.get(i));
+        }
+        for (int i = fieldFilters.size() - 1; i >= 0; i--) {
+            pipeline.addFirst(fieldFilters.get(i));
+        }
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void split(
+        final Predicate<?> predicate,
+        final List<Predicate<?>> fieldPredicates,
+        final List<Predicate<?>> residualPredicates
+    ) {
+        if (isContainingOnlyFieldPredicate((Predicate<Object>) predicate)) {
+            fieldPredicates.add(predicate);
+        } else if (predicate instanceof CombinedPredicate
+            && ((CombinedPredicate<?>) predicate).getType() == CombinedPredicate.Type.AND) {
+            ((CombinedPredicate<?>) predicate).stream()
+                .forEachOrdered(p -> split(p, fieldPredicates, residualPredicates));
+        } else {
+            residualPredicates.add(predicate);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Predicate<?> and(List<Predicate<?>> predicates) {
+        if (predicates.size() == 1) {
+            return predicates.get(0);
+        }
+        final List<Predicate<? super Object>> casted = new ArrayList<>();
+        predicates.forEach(p -> casted.add((Predicate<Object>) p));
+        return CombinedPredicate.and(casted);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Action<?, ?> filterOf(Predicate<?> predicate) {
+        return new FilterAction<>((Predicate<Object>) predicate);
+    }
+
+    private FilterPushdownUtil() {
+        throw new UnsupportedOperationException();
+    }
+
+}
@@ -22,20 +22,27 @@ import com.speedment.runtime.core.component.sql.SqlStreamOptimizer;
 import com.speedment.runtime.core.component.sql.SqlStreamOptimizerInfo;
 import com.speedment.runtime.core.db.AsynchronousQueryResult;
 import com.speedment.runtime.core.db.DbmsType;
+import com.speedment.runtime.core.internal.component.sql.PipelineFingerprint;
 import com.speedment.runtime.core.internal.stream.builder.action.reference.FilterAction;
 import com.speedment.runtime.core.internal.stream.builder.action.reference.LimitAction;
 import com.speedment.runtime.core.internal.stream.builder.action.reference.SkipAction;
 import com.speedment.runtime.core.internal.stream.builder.action.reference.SortedComparatorAction;
 import com.speedment.runtime.core.internal.stream.builder.streamterminator.StreamTerminatorUtil;
 import com.speedment.runtime.core.internal.stream.builder.streamterminator.StreamTerminatorUtil.RenderResult;
+import com.speedment.runtime.core.internal.util.ClockCache;
 import com.speedment.runtime.core.stream.Pipeline;
 import com.speedment.runtime.core.stream.action.Action;
 import com.speedment.runtime.field.comparator.CombinedComparator;
 import com.speedment.runtime.field.comparator.FieldComparator;
 import com.speedment.runtime.field.comparator.NullOrder;
+import com.speedment.runtime.field.predicate.CombinedPredicate;
+import com.speedment.runtime.field.predicate.FieldPredicate;
+import com.speedment.runtime.field.predicate.PredicateType;
+import com.speedment.runtime.typemapper.TypeMapper;
 
 import java.util.*;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 
@@ -43,6 +50,10 @@ import static com.speedment.runtime.core.db.DbmsType.SkipLimitSupport.NONE;
 import static com.speedment.runtime.core.db.DbmsType.SkipLimitSupport.ONLY_AFTER_SORTED;
 import static com.speedment.runtime.core.internal.stream.builder.streamterminator.StreamTerminatorUtil.isContainingOnlyFieldPredicate;
 import static com.speedment.runtime.core.internal.stream.builder.streamterminator.StreamTerminatorUtil.isSortedActionWithFieldPredicate;
+import static com.speedment.runtime.field.util.PredicateOperandUtil.getFirstOperandAsRaw;
+import static com.speedment.runtime.field.util.PredicateOperandUtil.getFirstOperandAsRawSet;
+import static com.speedment.runtime.field.util.PredicateOperandUtil.getInclusionOperand;
+import static com.speedment.runtime.field.util.PredicateOperandUtil.getSecondOperand;
 import static java.util.Objects.requireNonNull;
 import static java.util.stream.Collectors.toList;
 
@@ -63,12 +74,27 @@ import static java.util.stream.Collectors.toList;
  * Thus, this optimizer can handle a (FILTER*, SORTED*, SKIP*, LIMIT*) or
  * (SORTED*, LIMIT*, SKIP*, LIMIT*) pattern where all non-primitive parameters
  * are all Field derived
+ * <p>
+ * The rendered SQL is cached by the shape of the pipeline (the fields, the
+ * predicate types and the comparators but not the predicate values). When a
+ * pipeline with a known shape is optimized again, only the values are
+ * extracted from the predicates and bound to the cached SQL.
  *
  * @author Per Minborg
  * @param <ENTITY> entity type
  */
 public final class FilterSortedSkipOptimizer<ENTITY> implements SqlStreamOptimizer<ENTITY> {
 
+    private static final int MAX_ORDER_BY_CACHE_SIZE = 1024;
+    private static final int MAX_SQL_CACHE_SIZE = 4096;
+
+    // The rendered ORDER BY clause only depends on the shape of the comparators
+    private final ClockCache<List<Object>, String> orderByCache = new ClockCache<>(MAX_ORDER_BY_CACHE_SIZE);
+    // The final SQL and how to extract its parameters, by pipeline shape
+    private final ClockCache<List<Object>, SqlPlan> sqlCache = new ClockCache<>(MAX_SQL_CACHE_SIZE);
+    private final AtomicLong sqlCacheHits = new AtomicLong();
+    private final AtomicLong sqlCacheMisses = new AtomicLong();
+
     private final FilterOperation FILTER_OPERATION = new FilterOperation();
     private final SortedOperation SORTED_OPERATION = new SortedOperation();
     private final SkipOperation SKIP_OPERATION = new SkipOperation();
@@ -142,6 +168,25 @@ public final class FilterSortedSkipOptimizer<ENTITY> implements SqlStreamOptimiz
 
         traverse(initialPipeline, filters::add, sorteds::add, skips::add, limits::add);
 
+        final long sumSkip = skips.stream().mapToLong(SkipAction::getSkip).sum();
+        final long minLimit = limits.stream().mapToLong(LimitAction::getLimit).min().orElse(Long.MAX_VALUE);
+
+        final List<Object> planKey = sqlPlanKey(info, dbmsType, filters, sorteds, sumSkip, minLimit);
+        if (planKey != null) {
+            final SqlPlan plan = sqlCache.get(planKey);
+            if (plan != null && plan != SqlPlan.UNCACHEABLE) {
+                sqlCacheHits.incrementAndGet();
+                query.setSql(plan.sql);
+                query.setValues(plan.values(filters, sumSkip, minLimit));
+                query.setSkipOrLimit(isSkipOrLimitApplied(skipLimitSupport, sumSkip, minLimit));
+                removeOptimized(initialPipeline, skipLimitSupport, filters, sorteds, skips, limits);
+                return initialPipeline;
+            }
+            if (plan == null) {
+                sqlCacheMisses.incrementAndGet();
+            }
+        }
+
         final List<Object> values = new ArrayList<>();
         final StringBuilder sql = new StringBuilder();
 
@@ -187,72 +232,347 @@ public final class FilterSortedSkipOptimizer<ENTITY> implements SqlStreamOptimiz
             }
 
             if (!fieldComparators.isEmpty()) {
-
-                sql.append(" ORDER BY ");
-                // Iterate backwards
-                final Set<ColumnIdentifier<ENTITY>> columns = new HashSet<>();
-                int cnt = 0;
-                for (FieldComparator<ENTITY> fieldComparator : fieldComparators) {
-                    final ColumnIdentifier<ENTITY> columnIdentifier = fieldComparator.getField().identifier();
-
-                    // Some databases (e.g. SQL Server) only allows distinct columns in ORDER BY 
-                    if (columns.add(columnIdentifier)) {
-                        if (cnt++ != 0) {
-                            sql.append(", ");
-                        }
-
-                        boolean isReversed = fieldComparator.isReversed();
-                        String fieldName = info.getSqlColumnNamer().apply(fieldComparator.getField());
-
-                        final NullOrder effectiveNullOrder = isReversed
-                            ? fieldComparator.getNullOrder().reversed()
-                            : fieldComparator.getNullOrder();
-
-                        // Specify NullOrder pre column if nulls are first
-                        if (effectiveNullOrder == NullOrder.FIRST) {
-                            if (dbmsType.getSortByNullOrderInsertion() == DbmsType.SortByNullOrderInsertion.PRE) {
-                                sql.append(fieldName).append("IS NOT NULL, ");
-                            }
-                            if (dbmsType.getSortByNullOrderInsertion() == DbmsType.SortByNullOrderInsertion.PRE_WITH_CASE) {
-                                sql.append("CASE WHEN ").append(fieldName).append(" IS NULL THEN 0 ELSE 1 END, ");
-                            }
-                        }
-
-                        sql.append(fieldName);
-                        if (isReversed) {
-                            sql.append(" DESC");
-                        } else {
-                            sql.append(" ASC");
-                        }
-
-                        // Specify NullOrder post column
-                        if (effectiveNullOrder == NullOrder.FIRST && dbmsType.getSortByNullOrderInsertion() == DbmsType.SortByNullOrderInsertion.POST) {
-                            sql.append(" NULLS FIRST");
-                        }
-
-                    }
-                }
+                sql.append(orderBy(fieldComparators, info, dbmsType));
             }
         }
 
+        final int whereValueCount = values.size();
         final String finalSql;
         if (skipLimitSupport == NONE) {
             finalSql = sql.toString();
-            initialPipeline.removeIf(a -> filters.contains(a) || sorteds.contains(a));
         } else {
-            final long sumSkip = skips.stream().mapToLong(SkipAction::getSkip).sum();
-            final long minLimit = limits.stream().mapToLong(LimitAction::getLimit).min().orElse(Long.MAX_VALUE);
             finalSql = dbmsType
                 .applySkipLimit(sql.toString(), values, sumSkip, minLimit);
-            initialPipeline.removeIf(a -> filters.contains(a) || sorteds.contains(a) || skips.contains(a) || limits.contains(a));
+        }
+        removeOptimized(initialPipeline, skipLimitSupport, filters, sorteds, skips, limits);
+
+        if (planKey != null && sqlCache.get(planKey) == null) {
+            final SqlPlan plan = SqlPlan.of(finalSql, values, whereValueCount, filters, sumSkip, minLimit);
+            if (plan != null) {
+                sqlCache.put(planKey, plan);
+            }
         }
 
         query.setSql(finalSql);
         query.setValues(values);
+        query.setSkipOrLimit(isSkipOrLimitApplied(skipLimitSupport, sumSkip, minLimit));
 
         return initialPipeline;
     }
 
+    private static boolean isSkipOrLimitApplied(
+        final DbmsType.SkipLimitSupport skipLimitSupport,
+        final long skip,
+        final long limit
+    ) {
+        return skipLimitSupport != NONE && (skip > 0 || limit < Long.MAX_VALUE);
+    }
+
+    /**
+     * Returns the number of times the SQL of a pipeline could be taken from
+     * the cache.
+     *
+     * @return the number of SQL cache hits
+     */
+    public long sqlCacheHits() {
+        return sqlCacheHits.get();
+    }
+
+    /**
+     * Returns the number of times the SQL of a pipeline had to be rendered
+     * because its shape was not in the cache.
+     *
+     * @return the number of SQL cache misses
+     */
+    public long sqlCacheMisses() {
+        return sqlCacheMisses.get();
+    }
+
+    private void removeOptimized(
+        final Pipeline pipeline,
+        final DbmsType.SkipLimitSupport skipLimitSupport,
+        final List<FilterAction<ENTITY>> filters,
+        final List<SortedComparatorAction<ENTITY>> sorteds,
+        final List<SkipAction<ENTITY>> skips,
+        final List<LimitAction<ENTITY>> limits
+    ) {
+        if (skipLimitSupport == NONE) {
+            pipeline.removeIf(a -> filters.contains(a) || sorteds.contains(a));
+        } else {
+            pipeline.removeIf(a -> filters.contains(a) || sorteds.contains(a) || skips.contains(a) || limits.contains(a));
+        }
+    }
+
+    /**
+     * Returns a key that identifies the rendered SQL for the given actions, or
+     * {@code null} if the SQL may depend on the predicate values in a way that
+     * is not captured by the key.
+     */
+    private List<Object> sqlPlanKey(
+        final SqlStreamOptimizerInfo<ENTITY> info,
+        final DbmsType dbmsType,
+        final List<FilterAction<ENTITY>> filters,
+        final List<SortedComparatorAction<ENTITY>> sorteds,
+        final long sumSkip,
+        final long minLimit
+    ) {
+        final List<Object> key = new ArrayList<>();
+        key.add(dbmsType.getName());
+        key.add(info.getSqlSelect());
+        for (final FilterAction<ENTITY> filter : filters) {
+            if (!addPredicateShape(key, filter.getPredicate())) {
+                return null;
+            }
+        }
+        key.add(sorteds.size());
+        for (final SortedComparatorAction<ENTITY> sorted : sorteds) {
+            PipelineFingerprint.addComparator(key, sorted.getComparator());
+        }
+        key.add(sumSkip > 0);
+        key.add(minLimit < Long.MAX_VALUE);
+        return key;
+    }
+
+    private static boolean addPredicateShape(List<Object> key, Predicate<?> predicate) {
+        if (predicate instanceof FieldPredicate) {
+            final FieldPredicate<?> fieldPredicate = (FieldPredicate<?>) predicate;
+            final PredicateType type = fieldPredicate.getPredicateType();
+            key.add(fieldPredicate.getField().identifier());
+            key.add(type);
+            switch (ParameterKind.of(type)) {
+                case NONE:
+                    return true;
+                case FIRST:
+                    key.add(getFirstOperandAsRaw(fieldPredicate) == null);
+                    return true;
+                case FIRST_AND_SECOND:
+                    key.add(getInclusionOperand(fieldPredicate));
+                    key.add(getFirstOperandAsRaw(fieldPredicate) == null);
+                    key.add(getSecondOperand(fieldPredicate) == null);
+                    return true;
+                case SET:
+                    key.add(getFirstOperandAsRawSet(fieldPredicate).size());
+                    return true;
+                default:
+                    return false;
+            }
+        } else if (predicate instanceof CombinedPredicate) {
+            final CombinedPredicate<?> combinedPredicate = (CombinedPredicate<?>) predicate;
+            key.add(combinedPredicate.getType());
+            key.add(combinedPredicate.size());
+            return combinedPredicate.stream().allMatch(p -> addPredicateShape(key, p));
+        }
+        return false;
+    }
+
+    /**
+     * How the parameters of a field predicate are bound in its rendered SQL.
+     */
+    private enum ParameterKind {
+        NONE, FIRST, FIRST_AND_SECOND, SET, UNKNOWN;
+
+        static ParameterKind of(PredicateType type) {
+            switch (type) {
+                case ALWAYS_TRUE:
+                case ALWAYS_FALSE:
+                case IS_NULL:
+                case IS_NOT_NULL:
+                case IS_EMPTY:
+                case IS_NOT_EMPTY:
+                    return NONE;
+                case EQUAL:
+                case NOT_EQUAL:
+                case GREATER_THAN:
+                case GREATER_OR_EQUAL:
+                case LESS_THAN:
+                case LESS_OR_EQUAL:
+                case EQUAL_IGNORE_CASE:
+                case NOT_EQUAL_IGNORE_CASE:
+                case STARTS_WITH:
+                case NOT_STARTS_WITH:
+                case STARTS_WITH_IGNORE_CASE:
+                case NOT_STARTS_WITH_IGNORE_CASE:
+                case ENDS_WITH:
+                case NOT_ENDS_WITH:
+                case ENDS_WITH_IGNORE_CASE:
+                case NOT_ENDS_WITH_IGNORE_CASE:
+                case CONTAINS:
+                case NOT_CONTAINS:
+                case CONTAINS_IGNORE_CASE:
+                case NOT_CONTAINS_IGNORE_CASE:
+                    return FIRST;
+                case BETWEEN:
+                case NOT_BETWEEN:
+                    return FIRST_AND_SECOND;
+                case IN:
+                case NOT_IN:
+                    return SET;
+                default:
+                    return UNKNOWN;
+            }
+        }
+    }
+
+    /**
+     * The final SQL of a pipeline shape together with a plan for extracting
+     * its parameters directly from the predicates and the skip and limit
+     * values, without rendering the SQL again.
+     */
+    private static final class SqlPlan {
+
+        private static final SqlPlan UNCACHEABLE = new SqlPlan(null, null);
+
+        private final String sql;
+        private final List<SkipOrLimit> tail; // The parameters after the WHERE clause
+
+        private SqlPlan(String sql, List<SkipOrLimit> tail) {
+            this.sql = sql;
+            this.tail = tail;
+        }
+
+        /**
+         * Creates a plan from a rendered query. The plan is verified by
+         * extracting the parameters and comparing them with the parameters
+         * of the rendered query. If the dialect transforms the values (for
+         * example by escaping patterns), {@link #UNCACHEABLE} is returned.
+         * If the skip and limit parameters can not be told apart this time,
+         * {@code null} is returned so that a later query can create the plan.
+         */
+        private static SqlPlan of(
+            final String sql,
+            final List<Object> values,
+            final int whereValueCount,
+            final List<? extends FilterAction<?>> filters,
+            final long skip,
+            final long limit
+        ) {
+            final List<Object> extracted = new ArrayList<>(whereValueCount);
+            filters.forEach(f -> extractValues(f.getPredicate(), extracted));
+            if (!extracted.equals(values.subList(0, whereValueCount))) {
+                return UNCACHEABLE;
+            }
+            final List<SkipOrLimit> tail = new ArrayList<>();
+            for (final Object value : values.subList(whereValueCount, values.size())) {
+                final boolean isSkip = Objects.equals(value, skip);
+                final boolean isLimit = Objects.equals(value, limit);
+                if (isSkip && isLimit) {
+                    return null;
+                } else if (isSkip) {
+                    tail.add(SkipOrLimit.SKIP);
+                } else if (isLimit) {
+                    tail.add(SkipOrLimit.LIMIT);
+                } else {
+                    return UNCACHEABLE;
+                }
+            }
+            return new SqlPlan(sql, tail);
+        }
+
+        private List<Object> values(
+            final List<? extends FilterAction<?>> filters,
+            final long skip,
+            final long limit
+        ) {
+            final List<Object> values = new ArrayList<>();
+            filters.forEach(f -> extractValues(f.getPredicate(), values));
+            tail.forEach(t -> values.add(t == SkipOrLimit.SKIP ? skip : limit));
+            return values;
+        }
+
+        private static void extractValues(Predicate<?> predicate, List<Object> values) {
+            if (predicate instanceof FieldPredicate) {
+                final FieldPredicate<?> fieldPredicate = (FieldPredicate<?>) predicate;
+                @SuppressWarnings("unchecked")
+                final TypeMapper<Object, Object> tm = (TypeMapper<Object, Object>) fieldPredicate.getField().typeMapper();
+                switch (ParameterKind.of(fieldPredicate.getPredicateType())) {
+                    case FIRST:
+                        values.add(tm.toDatabaseType(getFirstOperandAsRaw(fieldPredicate)));
+                        break;
+                    case FIRST_AND_SECOND:
+                        values.add(tm.toDatabaseType(getFirstOperandAsRaw(fieldPredicate)));
+                        values.add(tm.toDatabaseType(getSecondOperand(fieldPredicate)));
+                        break;
+                    case SET:
+                        getFirstOperandAsRawSet(fieldPredicate).forEach(v -> values.add(tm.toDatabaseType(v)));
+                        break;
+                    default:
+                        break;
+                }
+            } else if (predicate instanceof CombinedPredicate) {
+                ((CombinedPredicate<?>) predicate).stream()
+                    .forEachOrdered(p -> extractValues(p, values));
+            }
+        }
+
+        private enum SkipOrLimit {
+            SKIP, LIMIT
+        }
+    }
+
+    private String orderBy(
+        final List<FieldComparator<ENTITY>> fieldComparators,
+        final SqlStreamOptimizerInfo<ENTITY> info,
+        final DbmsType dbmsType
+    ) {
+        final List<Object> key = new ArrayList<>();
+        key.add(dbmsType.getName());
+        fieldComparators.forEach(fc -> PipelineFingerprint.addComparator(key, fc));
+        final String cached = orderByCache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        final StringBuilder sb = new StringBuilder();
+        sb.append(" ORDER BY ");
+        // Iterate backwards
+        final Set<ColumnIdentifier<ENTITY>> columns = new HashSet<>();
+        int cnt = 0;
+        for (FieldComparator<ENTITY> fieldComparator : fieldComparators) {
+            final ColumnIdentifier<ENTITY> columnIdentifier = fieldComparator.getField().identifier();
+
+            // Some databases (e.g. SQL Server) only allows distinct columns in ORDER BY 
+            if (columns.add(columnIdentifier)) {
+                if (cnt++ != 0) {
+                    sb.append(", ");
+                }
+
+                boolean isReversed = fieldComparator.isReversed();
+                String fieldName = info.getSqlColumnNamer().apply(fieldComparator.getField());
+
+                final NullOrder effectiveNullOrder = isReversed
+                    ? fieldComparator.getNullOrder().reversed()
+                    : fieldComparator.getNullOrder();
+
+                // Specify NullOrder pre column if nulls are first
+                if (effectiveNullOrder == NullOrder.FIRST) {
+                    if (dbmsType.getSortByNullOrderInsertion() == DbmsType.SortByNullOrderInsertion.PRE) {
+                        sb.append(fieldName).append("IS NOT NULL, ");
+                    }
+                    if (dbmsType.getSortByNullOrderInsertion() == DbmsType.SortByNullOrderInsertion.PRE_WITH_CASE) {
+                        sb.append("CASE WHEN ").append(fieldName).append(" IS NULL THEN 0 ELSE 1 END, ");
+                    }
+                }
+
+                sb.append(fieldName);
+                if (isReversed) {
+                    sb.append(" DESC");
+                } else {
+                    sb.append(" ASC");
+                }
+
+                // Specify NullOrder post column
+                if (effectiveNullOrder == NullOrder.FIRST && dbmsType.getSortByNullOrderInsertion() == DbmsType.SortByNullOrderInsertion.POST) {
+                    sb.append(" NULLS FIRST");
+                }
+
+            }
+        }
+
+        final String result = sb.toString();
+        orderByCache.put(key, result);
+        return result;
+    }
+
     private void traverse(Pipeline pipeline,
         final Consumer<? super FilterAction<ENTITY>> filterConsumer,
         final Consumer<? super SortedComparatorAction<ENTITY>> sortedConsumer,
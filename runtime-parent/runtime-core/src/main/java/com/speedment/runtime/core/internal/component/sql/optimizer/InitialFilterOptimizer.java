@@ -44,8 +44,8 @@ import static java.util.stream.Collectors.toList;
  */
 public final class InitialFilterOptimizer<ENTITY> implements SqlStreamOptimizer<ENTITY> {
 
-    // Todo: A more general expression would be better. Eg. stream().peek().filter() would still be possible...
-    // Todo: Allow CombinedPredicates
+    // Mixed AND predicates and field predicates after peek() are moved to the
+    // front by FilterPushdownUtil before this optimizer is invoked
     @Override
     public Metrics metrics(Pipeline initialPipeline, DbmsType dbmsType) {
         requireNonNull(initialPipeline);
@@ -0,0 +1,336 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.component.sql.optimizer;
+
+import com.speedment.runtime.core.component.sql.Metrics;
+import com.speedment.runtime.core.component.sql.SqlStreamOptimizer;
+import com.speedment.runtime.core.component.sql.SqlStreamOptimizerInfo;
+import com.speedment.runtime.core.db.AsynchronousQueryResult;
+import com.speedment.runtime.core.db.DbmsType;
+import com.speedment.runtime.core.db.SqlFunction;
+import com.speedment.runtime.core.internal.stream.builder.action.reference.FilterAction;
+import com.speedment.runtime.core.internal.stream.builder.action.reference.LimitAction;
+import com.speedment.runtime.core.internal.stream.builder.action.reference.MapAction;
+import com.speedment.runtime.core.internal.stream.builder.action.reference.MapToDoubleAction;
+import com.speedment.runtime.core.internal.stream.builder.action.reference.MapToIntAction;
+import com.speedment.runtime.core.internal.stream.builder.action.reference.MapToLongAction;
+import com.speedment.runtime.core.internal.stream.builder.action.reference.SkipAction;
+import com.speedment.runtime.core.internal.stream.builder.action.reference.SortedComparatorAction;
+import com.speedment.runtime.core.internal.util.sql.ResultSetUtil;
+import com.speedment.runtime.core.stream.Pipeline;
+import com.speedment.runtime.core.stream.action.Action;
+import com.speedment.runtime.field.DoubleField;
+import com.speedment.runtime.field.Field;
+import com.speedment.runtime.field.IntField;
+import com.speedment.runtime.field.LongField;
+import com.speedment.runtime.field.ReferenceField;
+import com.speedment.runtime.field.expression.FieldToDouble;
+import com.speedment.runtime.field.expression.FieldToInt;
+import com.speedment.runtime.field.expression.FieldToLong;
+import com.speedment.runtime.typemapper.TypeMapper;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * This Optimizer takes care of the case where a pipeline that can be handled
+ * by the {@link FilterSortedSkipOptimizer} (or the
+ * {@link InitialFilterOptimizer}) is followed by a projection onto a single
+ * column:
+ * <ul>
+ *   <li> a) {@code map(field)}
+ *   <li> b) {@code mapToInt(intField)}, {@code mapToLong(longField)} or
+ *           {@code mapToDouble(doubleField)}
+ *   <li> c) {@code mapToInt(field.mapToInt(...))} and the corresponding long
+ *           and double expressions
+ * </ul>
+ *
+ * Only the projected column is selected from the database and it is read
+ * directly from the {@code ResultSet} without creating any entities. The
+ * field must use either the identity or the primitive type mapper, otherwise
+ * the Optimizer will reject optimization.
+ *
+ * @author agent
+ * @param <ENTITY> entity type
+ * @since 3.1.2
+ */
+public final class ProjectionOptimizer<ENTITY> implements SqlStreamOptimizer<ENTITY> {
+
+    private static final Class<?> IDENTITY_TYPE_MAPPER_CLASS = TypeMapper.identity().getClass();
+    private static final Class<?> PRIMITIVE_TYPE_MAPPER_CLASS = TypeMapper.primitive().getClass();
+
+    // Readers for nullable columns, keyed on the database type of the column
+    private static final Map<Class<?>, SqlFunction<ResultSet, Object>> READERS = new HashMap<>();
+
+    static {
+        READERS.put(Boolean.class, rs -> ResultSetUtil.getBoolean(rs, 1));
+        READERS.put(Byte.class, rs -> ResultSetUtil.getByte(rs, 1));
+        READERS.put(Short.class, rs -> ResultSetUtil.getShort(rs, 1));
+        READERS.put(Integer.class, rs -> ResultSetUtil.getInt(rs, 1));
+        READERS.put(Long.class, rs -> ResultSetUtil.getLong(rs, 1));
+        READERS.put(Float.class, rs -> ResultSetUtil.getFloat(rs, 1));
+        READERS.put(Double.class, rs -> ResultSetUtil.getDouble(rs, 1));
+        READERS.put(String.class, rs -> rs.getString(1));
+        READERS.put(BigDecimal.class, rs -> rs.getBigDecimal(1));
+        READERS.put(Date.class, rs -> rs.getDate(1));
+        READERS.put(Time.class, rs -> rs.getTime(1));
+        READERS.put(Timestamp.class, rs -> rs.getTimestamp(1));
+    }
+
+    private final FilterSortedSkipOptimizer<ENTITY> filterSortedSkipOptimizer = new FilterSortedSkipOptimizer<>();
+    private final InitialFilterOptimizer<ENTITY> initialFilterOptimizer = new InitialFilterOptimizer<>();
+
+    @Override
+    public Metrics metrics(Pipeline initialPipeline, DbmsType dbmsType) {
+        requireNonNull(initialPipeline);
+        requireNonNull(dbmsType);
+        final SqlStreamOptimizer<ENTITY> prefixOptimizer = prefixOptimizer(initialPipeline, dbmsType, projectionIndex(initialPipeline));
+        if (prefixOptimizer == null) {
+            return Metrics.empty();
+        }
+        final Metrics m = prefixOptimizer.metrics(initialPipeline, dbmsType);
+        // The projection eliminates the materialization of entities
+        return Metrics.of(
+            m.getPipelineReductions() + 1,
+            m.getSqlWhileCount(),
+            m.getSqlOrderCount(),
+            m.getSqlSkipCount(),
+            m.getSqlLimitCount()
+        );
+    }
+
+    @Override
+    public <P extends Pipeline> P optimize(
+        final P initialPipeline,
+        final SqlStreamOptimizerInfo<ENTITY> info,
+        final AsynchronousQueryResult<ENTITY> query
+    ) {
+        requireNonNull(initialPipeline);
+        requireNonNull(info);
+        requireNonNull(query);
+        final DbmsType dbmsType = info.getDbmsType();
+        final int index = projectionIndex(initialPipeline);
+        final SqlStreamOptimizer<ENTITY> prefixOptimizer = prefixOptimizer(initialPipeline, dbmsType, index);
+        if (prefixOptimizer == null) {
+            return initialPipeline;
+        }
+
+        final Action<?, ?> mapAction = initialPipeline.get(index);
+        final Projection<ENTITY> projection = projectionOf(mapAction, info);
+        final Optional<String> tableReference = info.getSqlTableReference();
+        if (projection == null || !tableReference.isPresent()) {
+            // We can still optimize the prefix
+            return prefixOptimizer.optimize(initialPipeline, info, query);
+        }
+
+        final SqlStreamOptimizerInfo<ENTITY> projectedInfo = SqlStreamOptimizerInfo.of(
+            dbmsType,
+            "SELECT " + projection.column + " FROM " + tableReference.get(),
+            info.getSqlSelectCount(),
+            info.getCounter(),
+            info.getSqlColumnNamer(),
+            info.getSqlDatabaseTypeFunction(),
+            tableReference.get()
+        );
+
+        final P result = prefixOptimizer.optimize(initialPipeline, projectedInfo, query);
+
+        // The stream will now contain column values rather than entities
+        @SuppressWarnings("unchecked")
+        final SqlFunction<ResultSet, ENTITY> rsMapper = (SqlFunction<ResultSet, ENTITY>) projection.reader;
+        query.setRsMapper(rsMapper);
+        query.setProjection(projection.field.identifier());
+
+        for (int i = 0; i < result.size(); i++) {
+            if (result.get(i) == mapAction) {
+                result.remove(i);
+                if (projection.replacement != null) {
+                    result.add(i, projection.replacement);
+                }
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the index of the projecting action, or -1 if the pipeline does
+     * not contain a projection that this optimizer can handle.
+     */
+    private int projectionIndex(Pipeline pipeline) {
+        int index = 0;
+        for (final Action<?, ?> action : pipeline) {
+            if (!isPrefixAction(action)) {
+                return isProjection(action) ? index : -1;
+            }
+            index++;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the optimizer that is able to take care of all the actions
+     * before the projecting action, or null if there is no such optimizer.
+     */
+    private SqlStreamOptimizer<ENTITY> prefixOptimizer(Pipeline pipeline, DbmsType dbmsType, int index) {
+        if (index < 0) {
+            return null;
+        }
+        final int filtersAndSorteds = filtersAndSorteds(pipeline, index);
+        final Metrics fss = filterSortedSkipOptimizer.metrics(pipeline, dbmsType);
+        if (fss.getSqlWhileCount() + fss.getSqlOrderCount() == filtersAndSorteds && fss.getSqlCount() > 0) {
+            return filterSortedSkipOptimizer;
+        }
+        final Metrics initial = initialFilterOptimizer.metrics(pipeline, dbmsType);
+        if (initial.getSqlWhileCount() == filtersAndSorteds) {
+            return initialFilterOptimizer;
+        }
+        return null;
+    }
+
+    private int filtersAndSorteds(Pipeline pipeline, int index) {
+        int result = 0;
+        for (int i = 0; i < index; i++) {
+            final Action<?, ?> action = pipeline.get(i);
+            if (action instanceof FilterAction || action instanceof SortedComparatorAction) {
+                result++;
+            }
+        }
+        return result;
+    }
+
+    private boolean isPrefixAction(Action<?, ?> action) {
+        return action instanceof FilterAction
+            || action instanceof SortedComparatorAction
+            || action instanceof SkipAction
+            || action instanceof LimitAction;
+    }
+
+    private boolean isProjection(Action<?, ?> action) {
+        if (action instanceof MapAction) {
+            final Object mapper = ((MapAction<?, ?>) action).getMapper();
+            return mapper instanceof ReferenceField && isDirectlyMapped((Field<?>) mapper);
+        }
+        if (action instanceof MapToIntAction) {
+            final Object mapper = ((MapToIntAction<?>) action).getMapper();
+            return (mapper instanceof IntField && isDirectlyMapped((Field<?>) mapper))
+                || (mapper instanceof FieldToInt && isDirectlyMapped(((FieldToInt<?, ?>) mapper).getField()));
+        }
+        if (action instanceof MapToLongAction) {
+            final Object mapper = ((MapToLongAction<?>) action).getMapper();
+            return (mapper instanceof LongField && isDirectlyMapped((Field<?>) mapper))
+                || (mapper instanceof FieldToLong && isDirectlyMapped(((FieldToLong<?, ?>) mapper).getField()));
+        }
+        if (action instanceof MapToDoubleAction) {
+            final Object mapper = ((MapToDoubleAction<?>) action).getMapper();
+            return (mapper instanceof DoubleField && isDirectlyMapped((Field<?>) mapper))
+                || (mapper instanceof FieldToDouble && isDirectlyMapped(((FieldToDouble<?, ?>) mapper).getField()));
+        }
+        return false;
+    }
+
+    /**
+     * Returns if the value of the given field is the same as the value read
+     * from the database, i.e. if no (custom) type mapper is involved.
+     */
+    private static boolean isDirectlyMapped(Field<?> field) {
+        final Class<?> typeMapperClass = field.typeMapper().getClass();
+        return IDENTITY_TYPE_MAPPER_CLASS.isAssignableFrom(typeMapperClass)
+            || PRIMITIVE_TYPE_MAPPER_CLASS.isAssignableFrom(typeMapperClass);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Projection<ENTITY> projectionOf(Action<?, ?> action, SqlStreamOptimizerInfo<ENTITY> info) {
+        if (action instanceof MapAction) {
+            final Field<ENTITY> field = (Field<ENTITY>) ((MapAction<?, ?>) action).getMapper();
+            return Projection.of(info, field, nullableReader(info, field), null);
+        }
+        if (action instanceof MapToIntAction) {
+            final ToIntFunction<?> mapper = ((MapToIntAction<?>) action).getMapper();
+            if (mapper instanceof IntField) {
+                return Projection.of(info, (Field<ENTITY>) mapper, rs -> rs.getInt(1), new MapToIntAction<Integer>(Integer::intValue));
+            }
+            final FieldToInt<ENTITY, Object> expression = (FieldToInt<ENTITY, Object>) mapper;
+            final ToIntFunction<Object> inner = expression.getMapper();
+            return Projection.of(info, expression.getField(), nullableReader(info, expression.getField()), new MapToIntAction<>(inner));
+        }
+        if (action instanceof MapToLongAction) {
+            final ToLongFunction<?> mapper = ((MapToLongAction<?>) action).getMapper();
+            if (mapper instanceof LongField) {
+                return Projection.of(info, (Field<ENTITY>) mapper, rs -> rs.getLong(1), new MapToLongAction<Long>(Long::longValue));
+            }
+            final FieldToLong<ENTITY, Object> expression = (FieldToLong<ENTITY, Object>) mapper;
+            final ToLongFunction<Object> inner = expression.getMapper();
+            return Projection.of(info, expression.getField(), nullableReader(info, expression.getField()), new MapToLongAction<>(inner));
+        }
+        if (action instanceof MapToDoubleAction) {
+            final ToDoubleFunction<?> mapper = ((MapToDoubleAction<?>) action).getMapper();
+            if (mapper instanceof DoubleField) {
+                return Projection.of(info, (Field<ENTITY>) mapper, rs -> rs.getDouble(1), new MapToDoubleAction<Double>(Double::doubleValue));
+            }
+            final FieldToDouble<ENTITY, Object> expression = (FieldToDouble<ENTITY, Object>) mapper;
+            final ToDoubleFunction<Object> inner = expression.getMapper();
+            return Projection.of(info, expression.getField(), nullableReader(info, expression.getField()), new MapToDoubleAction<>(inner));
+        }
+        return null;
+    }
+
+    private SqlFunction<ResultSet, Object> nullableReader(SqlStreamOptimizerInfo<ENTITY> info, Field<ENTITY> field) {
+        final Class<?> databaseType = info.getSqlDatabaseTypeFunction().apply(field);
+        return databaseType == null ? null : READERS.get(databaseType);
+    }
+
+    private static final class Projection<ENTITY> {
+
+        private final Field<ENTITY> field;
+        private final String column;
+        private final SqlFunction<ResultSet, Object> reader;
+        private final Action<?, ?> replacement; // Nullable
+
+        private Projection(Field<ENTITY> field, String column, SqlFunction<ResultSet, Object> reader, Action<?, ?> replacement) {
+            this.field = field;
+            this.column = column;
+            this.reader = reader;
+            this.replacement = replacement;
+        }
+
+        private static <ENTITY> Projection<ENTITY> of(
+            final SqlStreamOptimizerInfo<ENTITY> info,
+            final Field<ENTITY> field,
+            final SqlFunction<ResultSet, Object> reader,
+            final Action<?, ?> replacement
+        ) {
+            final String column = info.getSqlColumnNamer().apply(field);
+            if (column == null || reader == null) {
+                return null;
+            }
+            return new Projection<>(field, column, reader, replacement);
+        }
+    }
+
+}
@@ -0,0 +1,50 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.component.sql.override.def.ints;
+
+import com.speedment.runtime.core.component.sql.SqlStreamOptimizerInfo;
+import com.speedment.runtime.core.component.sql.override.ints.IntAverageTerminator;
+import com.speedment.runtime.core.internal.manager.sql.SqlStreamTerminator;
+import com.speedment.runtime.core.internal.stream.builder.pipeline.IntPipeline;
+import java.util.OptionalDouble;
+import static java.util.Objects.requireNonNull;
+
+/**
+ *
+ * @author agent
+ * @param <ENTITY> the original stream entity source type 
+ */
+public final class DefaultIntAverageTerminator<ENTITY> implements IntAverageTerminator<ENTITY> {
+
+    private DefaultIntAverageTerminator() {
+    }
+
+    @Override
+    public <T> OptionalDouble apply(
+        final SqlStreamOptimizerInfo<ENTITY> info,
+        final SqlStreamTerminator<ENTITY> sqlStreamTerminator,
+        final IntPipeline pipeline
+    ) {
+        requireNonNull(info);
+        requireNonNull(sqlStreamTerminator);
+        requireNonNull(pipeline);
+        return sqlStreamTerminator.optimize(pipeline).getAsIntStream().average();
+    }
+
+    public static final IntAverageTerminator<?> DEFAULT = new DefaultIntAverageTerminator<>();
+
+}
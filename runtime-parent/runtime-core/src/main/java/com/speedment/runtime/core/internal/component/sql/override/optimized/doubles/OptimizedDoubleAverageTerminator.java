@@ -0,0 +1,67 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.component.sql.override.optimized.doubles;
+
+import com.speedment.runtime.core.component.sql.SqlStreamOptimizerInfo;
+import com.speedment.runtime.core.component.sql.override.doubles.DoubleAverageTerminator;
+import static com.speedment.runtime.core.internal.component.sql.override.optimized.util.AggregateUtil.aggregateHelper;
+import com.speedment.runtime.core.internal.manager.sql.SqlStreamTerminator;
+import com.speedment.runtime.core.internal.stream.builder.pipeline.DoublePipeline;
+import java.util.OptionalDouble;
+import static java.util.Objects.requireNonNull;
+
+/**
+ *
+ * @author agent
+ * @param <ENTITY> the original stream entity source type 
+ * @since 3.1.2
+ */
+public final class OptimizedDoubleAverageTerminator<ENTITY> implements DoubleAverageTerminator<ENTITY> {
+
+    private OptimizedDoubleAverageTerminator() {
+    }
+
+    @Override
+    public <T> OptionalDouble apply(
+        final SqlStreamOptimizerInfo<ENTITY> info,
+        final SqlStreamTerminator<ENTITY> sqlStreamTerminator,
+        final DoublePipeline pipeline
+    ) {
+        requireNonNull(info);
+        requireNonNull(sqlStreamTerminator);
+        requireNonNull(pipeline);
+        return aggregateHelper(
+            info,
+            sqlStreamTerminator,
+            pipeline,
+            column -> "COUNT(*), SUM(" + column + ")",
+            rs -> {
+                final long count = rs.getLong(1);
+                return count == 0 ? OptionalDouble.empty() : OptionalDouble.of(rs.getDouble(2) / count);
+            },
+            p -> p.getAsDoubleStream().average()
+        );
+    }
+
+    public static final DoubleAverageTerminator<?> INSTANCE = new OptimizedDoubleAverageTerminator<>();
+
+    @SuppressWarnings("unchecked")
+    public static <ENTITY> DoubleAverageTerminator<ENTITY> create() {
+        return (DoubleAverageTerminator<ENTITY>) INSTANCE;
+    }
+
+}
@@ -0,0 +1,67 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.component.sql.override.optimized.doubles;
+
+import com.speedment.runtime.core.component.sql.SqlStreamOptimizerInfo;
+import com.speedment.runtime.core.component.sql.override.doubles.DoubleMaxTerminator;
+import static com.speedment.runtime.core.internal.component.sql.override.optimized.util.AggregateUtil.aggregateHelper;
+import com.speedment.runtime.core.internal.manager.sql.SqlStreamTerminator;
+import com.speedment.runtime.core.internal.stream.builder.pipeline.DoublePipeline;
+import java.util.OptionalDouble;
+import static java.util.Objects.requireNonNull;
+
+/**
+ *
+ * @author agent
+ * @param <ENTITY> the original stream entity source type 
+ * @since 3.1.2
+ */
+public final class OptimizedDoubleMaxTerminator<ENTITY> implements DoubleMaxTerminator<ENTITY> {
+
+    private OptimizedDoubleMaxTerminator() {
+    }
+
+    @Override
+    public <T> OptionalDouble apply(
+        final SqlStreamOptimizerInfo<ENTITY> info,
+        final SqlStreamTerminator<ENTITY> sqlStreamTerminator,
+        final DoublePipeline pipeline
+    ) {
+        requireNonNull(info);
+        requireNonNull(sqlStreamTerminator);
+        requireNonNull(pipeline);
+        return aggregateHelper(
+            info,
+            sqlStreamTerminator,
+            pipeline,
+            column -> "MAX(" + column + ")",
+            rs -> {
+                final double result = rs.getDouble(1);
+                return rs.wasNull() ? OptionalDouble.empty() : OptionalDouble.of(result);
+            },
+            p -> p.getAsDoubleStream().max()
+        );
+    }
+
+    public static final DoubleMaxTerminator<?> INSTANCE = new OptimizedDoubleMaxTerminator<>();
+
+    @SuppressWarnings("unchecked")
+    public static <ENTITY> DoubleMaxTerminator<ENTITY> create() {
+        return (DoubleMaxTerminator<ENTITY>) INSTANCE;
+    }
+
+}
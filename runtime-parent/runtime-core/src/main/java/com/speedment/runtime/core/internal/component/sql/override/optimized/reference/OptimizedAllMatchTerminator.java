@@ -0,0 +1,144 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.component.sql.override.optimized.reference;
+
+import com.speedment.runtime.core.component.sql.SqlStreamOptimizerInfo;
+import com.speedment.runtime.core.component.sql.override.reference.AllMatchTerminator;
+import static com.speedment.runtime.core.internal.component.sql.override.optimized.util.ExistsUtil.existsHelper;
+import com.speedment.runtime.core.internal.manager.sql.SqlStreamTerminator;
+import com.speedment.runtime.core.internal.stream.builder.pipeline.ReferencePipeline;
+import com.speedment.runtime.field.ReferenceField;
+import com.speedment.runtime.field.predicate.CombinedPredicate;
+import com.speedment.runtime.field.predicate.FieldPredicate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+import static com.speedment.runtime.field.util.PredicateOperandUtil.getFirstOperandAsRaw;
+import static com.speedment.runtime.field.util.PredicateOperandUtil.getFirstOperandAsRawSet;
+import static com.speedment.runtime.field.util.PredicateOperandUtil.getSecondOperand;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * An {@link AllMatchTerminator} that lets the database check that no
+ * row falsifies the predicate when a field predicate is used.
+ * <p>
+ * A row falsifies a predicate on a nullable (reference) field if the negated
+ * predicate holds or if the field is {@code null}, since neither the
+ * predicate nor its negation hold for {@code null} values. Predicates where
+ * this can not be expressed (for example predicates with {@code null}
+ * operands) are evaluated in the JVM.
+ *
+ * @author agent
+ * @param <ENTITY> the original stream entity source type 
+ * @since 3.1.2
+ */
+public final class OptimizedAllMatchTerminator<ENTITY> implements AllMatchTerminator<ENTITY> {
+
+    private OptimizedAllMatchTerminator() {
+    }
+
+    @Override
+    public <T> boolean apply(
+        final SqlStreamOptimizerInfo<ENTITY> info,
+        final SqlStreamTerminator<ENTITY> sqlStreamTerminator,
+        final ReferencePipeline<T> pipeline,
+        final Predicate<? super T> predicate
+    ) {
+        requireNonNull(info);
+        requireNonNull(sqlStreamTerminator);
+        requireNonNull(pipeline);
+        requireNonNull(predicate);
+        @SuppressWarnings("unchecked")
+        final Predicate<T> falsifier = falsifier((Predicate<T>) predicate);
+        if (falsifier != null) {
+            return !existsHelper(info, sqlStreamTerminator, pipeline, falsifier);
+        }
+        return sqlStreamTerminator.optimize(pipeline).getAsReferenceStream().allMatch(predicate);
+    }
+
+    /**
+     * Returns a field predicate that holds for exactly the elements for which
+     * the given predicate does not hold, or {@code null} if there is no such
+     * field predicate.
+     */
+    @SuppressWarnings("unchecked")
+    static <T> Predicate<T> falsifier(Predicate<T> predicate) {
+        if (predicate instanceof FieldPredicate) {
+            final FieldPredicate<T> fieldPredicate = (FieldPredicate<T>) predicate;
+            if (!(fieldPredicate.getField() instanceof ReferenceField)) {
+                return fieldPredicate.negate(); // Can not be null
+            }
+            switch (fieldPredicate.getPredicateType()) {
+                case ALWAYS_TRUE:
+                case ALWAYS_FALSE:
+                case IS_NULL:
+                case IS_NOT_NULL:
+                    return fieldPredicate.negate(); // Exact also for null
+                case IS_EMPTY:
+                case IS_NOT_EMPTY:
+                    return null; // Null is regarded as empty in the JVM only
+                default:
+                    if (hasNullOperand(fieldPredicate)) {
+                        return null;
+                    }
+                    final ReferenceField<T, ?, ?> field = (ReferenceField<T, ?, ?>) fieldPredicate.getField();
+                    return CombinedPredicate.or(fieldPredicate.negate(), field.isNull());
+            }
+        }
+        if (predicate instanceof CombinedPredicate) {
+            final CombinedPredicate<T> combinedPredicate = (CombinedPredicate<T>) predicate;
+            final List<Predicate<? super T>> falsifiers = new ArrayList<>();
+            for (final Predicate<? super T> p : (Iterable<Predicate<? super T>>) combinedPredicate.stream()::iterator) {
+                final Predicate<T> falsifier = falsifier((Predicate<T>) p);
+                if (falsifier == null) {
+                    return null;
+                }
+                falsifiers.add(falsifier);
+            }
+            // De Morgan: not (a and b) = not a or not b and vice versa
+            return combinedPredicate.getType() == CombinedPredicate.Type.AND
+                ? CombinedPredicate.or(falsifiers)
+                : CombinedPredicate.and(falsifiers);
+        }
+        return null;
+    }
+
+    private static boolean hasNullOperand(FieldPredicate<?> predicate) {
+        switch (predicate.getPredicateType()) {
+            case IN:
+            case NOT_IN: {
+                final Set<?> set = getFirstOperandAsRawSet(predicate);
+                return set.stream().anyMatch(v -> v == null);
+            }
+            case BETWEEN:
+            case NOT_BETWEEN:
+                return getFirstOperandAsRaw(predicate) == null
+                    || getSecondOperand(predicate) == null;
+            default:
+                return getFirstOperandAsRaw(predicate) == null;
+        }
+    }
+
+    public static final AllMatchTerminator<?> INSTANCE = new OptimizedAllMatchTerminator<>();
+
+    @SuppressWarnings("unchecked")
+    public static <ENTITY> AllMatchTerminator<ENTITY> create() {
+        return (AllMatchTerminator<ENTITY>) INSTANCE;
+    }
+
+}
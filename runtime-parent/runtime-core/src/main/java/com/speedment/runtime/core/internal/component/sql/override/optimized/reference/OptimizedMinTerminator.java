@@ -0,0 +1,67 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.component.sql.override.optimized.reference;
+
+import com.speedment.runtime.core.component.sql.SqlStreamOptimizerInfo;
+import com.speedment.runtime.core.component.sql.override.reference.MinTerminator;
+import static com.speedment.runtime.core.internal.component.sql.override.optimized.util.AggregateUtil.firstHelper;
+import com.speedment.runtime.core.internal.manager.sql.SqlStreamTerminator;
+import com.speedment.runtime.core.internal.stream.builder.pipeline.ReferencePipeline;
+import java.util.Comparator;
+import java.util.Optional;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A {@link MinTerminator} that lets the database find the minimum element
+ * when a field comparator is used.
+ *
+ * @author agent
+ * @param <ENTITY> the original stream entity source type 
+ * @since 3.1.2
+ */
+public final class OptimizedMinTerminator<ENTITY> implements MinTerminator<ENTITY> {
+
+    private OptimizedMinTerminator() {
+    }
+
+    @Override
+    public <T> Optional<T> apply(
+        final SqlStreamOptimizerInfo<ENTITY> info,
+        final SqlStreamTerminator<ENTITY> sqlStreamTerminator,
+        final ReferencePipeline<T> pipeline,
+        final Comparator<? super T> comparator
+    ) {
+        requireNonNull(info);
+        requireNonNull(sqlStreamTerminator);
+        requireNonNull(pipeline);
+        requireNonNull(comparator);
+        return firstHelper(
+            sqlStreamTerminator,
+            pipeline,
+            comparator,
+            p -> p.getAsReferenceStream().min(comparator)
+        );
+    }
+
+    public static final MinTerminator<?> INSTANCE = new OptimizedMinTerminator<>();
+
+    @SuppressWarnings("unchecked")
+    public static <ENTITY> MinTerminator<ENTITY> create() {
+        return (MinTerminator<ENTITY>) INSTANCE;
+    }
+
+}
@@ -0,0 +1,61 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.component.sql.override.optimized.reference;
+
+import com.speedment.runtime.core.component.sql.SqlStreamOptimizerInfo;
+import com.speedment.runtime.core.component.sql.override.reference.NoneMatchTerminator;
+import static com.speedment.runtime.core.internal.component.sql.override.optimized.util.ExistsUtil.existsHelper;
+import com.speedment.runtime.core.internal.manager.sql.SqlStreamTerminator;
+import com.speedment.runtime.core.internal.stream.builder.pipeline.ReferencePipeline;
+import java.util.function.Predicate;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A {@link NoneMatchTerminator} that lets the database check if a
+ * matching row exists when a field predicate is used.
+ *
+ * @author agent
+ * @param <ENTITY> the original stream entity source type 
+ * @since 3.1.2
+ */
+public final class OptimizedNoneMatchTerminator<ENTITY> implements NoneMatchTerminator<ENTITY> {
+
+    private OptimizedNoneMatchTerminator() {
+    }
+
+    @Override
+    public <T> boolean apply(
+        final SqlStreamOptimizerInfo<ENTITY> info,
+        final SqlStreamTerminator<ENTITY> sqlStreamTerminator,
+        final ReferencePipeline<T> pipeline,
+        final Predicate<? super T> predicate
+    ) {
+        requireNonNull(info);
+        requireNonNull(sqlStreamTerminator);
+        requireNonNull(pipeline);
+        requireNonNull(predicate);
+        return !existsHelper(info, sqlStreamTerminator, pipeline, predicate);
+    }
+
+    public static final NoneMatchTerminator<?> INSTANCE = new OptimizedNoneMatchTerminator<>();
+
+    @SuppressWarnings("unchecked")
+    public static <ENTITY> NoneMatchTerminator<ENTITY> create() {
+        return (NoneMatchTerminator<ENTITY>) INSTANCE;
+    }
+
+}
@@ -0,0 +1,213 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.component.sql.override.optimized.util;
+
+import com.speedment.runtime.core.component.sql.SqlStreamOptimizerInfo;
+import com.speedment.runtime.core.db.AsynchronousQueryResult;
+import com.speedment.runtime.core.db.DbmsType.SubSelectAlias;
+import com.speedment.runtime.core.db.SqlFunction;
+import com.speedment.runtime.core.exception.SpeedmentException;
+import com.speedment.runtime.core.internal.manager.sql.SqlStreamTerminator;
+import com.speedment.runtime.core.internal.stream.builder.action.reference.LimitAction;
+import com.speedment.runtime.core.internal.stream.builder.action.reference.MapToDoubleAction;
+import com.speedment.runtime.core.internal.stream.builder.action.reference.MapToIntAction;
+import com.speedment.runtime.core.internal.stream.builder.action.reference.MapToLongAction;
+import com.speedment.runtime.core.internal.stream.builder.action.reference.SkipAction;
+import com.speedment.runtime.core.internal.stream.builder.action.reference.SortedComparatorAction;
+import com.speedment.runtime.core.internal.stream.builder.action.trait.HasMapper;
+import com.speedment.runtime.core.internal.stream.builder.pipeline.ReferencePipeline;
+import com.speedment.runtime.core.stream.Pipeline;
+import com.speedment.runtime.core.stream.action.Action;
+import static com.speedment.runtime.core.util.StaticClassUtil.instanceNotAllowed;
+import com.speedment.runtime.field.DoubleField;
+import com.speedment.runtime.field.Field;
+import com.speedment.runtime.field.IntField;
+import com.speedment.runtime.field.LongField;
+import com.speedment.runtime.field.comparator.FieldComparator;
+import java.sql.ResultSet;
+import java.util.Comparator;
+import static java.util.Objects.requireNonNull;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/**
+ *
+ * @author agent
+ * @since 3.1.2
+ */
+public final class AggregateUtil {
+
+    /**
+     * Optimizer for aggregate operations on a primitive stream that is the
+     * projection of a single field, for example
+     * {@code users.stream().filter(User.AGE.greaterThan(18)).mapToLong(User.BALANCE).sum()}.
+     * <p>
+     * If all the operations before the projection can be expressed in SQL,
+     * the aggregate is computed by the database. Otherwise, the fallback
+     * function is applied on the optimized pipeline.
+     *
+     * @param <ENTITY> the entity type
+     * @param <P> the pipeline type
+     * @param <R> the result type
+     * @param info about the stream optimizer
+     * @param sqlStreamTerminator that called us
+     * @param pipeline the pipeline
+     * @param aggregateRenderer that renders the select list from a column
+     * name, e.g. {@code col -> "SUM(" + col + ")"}
+     * @param resultReader that reads the result from the single result row
+     * @param fallback that computes the result from an optimized pipeline
+     * @return the aggregated result
+     */
+    public static <ENTITY, P extends Pipeline, R> R aggregateHelper(
+        final SqlStreamOptimizerInfo<ENTITY> info,
+        final SqlStreamTerminator<ENTITY> sqlStreamTerminator,
+        final P pipeline,
+        final UnaryOperator<String> aggregateRenderer,
+        final SqlFunction<ResultSet, R> resultReader,
+        final Function<P, R> fallback
+    ) {
+        requireNonNull(info);
+        requireNonNull(sqlStreamTerminator);
+        requireNonNull(pipeline);
+        requireNonNull(aggregateRenderer);
+        requireNonNull(resultReader);
+        requireNonNull(fallback);
+
+        final Field<ENTITY> field = projectedField(pipeline);
+        final String column = field == null ? null : info.getSqlColumnNamer().apply(field);
+        if (column == null) {
+            return fallback.apply(sqlStreamTerminator.optimize(pipeline));
+        }
+
+        final boolean skipOrLimit = pipeline.stream()
+            .anyMatch(a -> a instanceof SkipAction || a instanceof LimitAction);
+
+        if (!skipOrLimit) {
+            // The order of the elements does not affect the aggregate
+            pipeline.removeIf(SortedComparatorAction.class::isInstance);
+        }
+
+        final P optimizedPipeline = sqlStreamTerminator.optimize(pipeline);
+        final AsynchronousQueryResult<ENTITY> query = sqlStreamTerminator.getAsynchronousQueryResult();
+
+        // Only the (unboxing) projection of the field may remain in the pipeline
+        final boolean projected = query.getProjection()
+            .filter(field.identifier()::equals)
+            .isPresent();
+        if (optimizedPipeline.size() != 1 || !projected) {
+            return fallback.apply(optimizedPipeline);
+        }
+
+        final StringBuilder sql = new StringBuilder()
+            .append("SELECT ")
+            .append(aggregateRenderer.apply(column));
+
+        final String projection = "SELECT " + column;
+        if (skipOrLimit || !query.getSql().startsWith(projection + " FROM ")) {
+            sql.append(" FROM (").append(query.getSql()).append(")");
+            if (info.getDbmsType().getSubSelectAlias() == SubSelectAlias.REQUIRED) {
+                sql.append(" AS A");
+            }
+        } else {
+            sql.append(query.getSql().substring(projection.length()));
+        }
+
+        query.setSql(sql.toString());
+        @SuppressWarnings("unchecked")
+        final SqlFunction<ResultSet, ENTITY> rsMapper = (SqlFunction<ResultSet, ENTITY>) resultReader;
+        query.setRsMapper(rsMapper);
+        try {
+            @SuppressWarnings("unchecked")
+            final R result = (R) query.stream()
+                .findFirst()
+                .orElseThrow(() -> new SpeedmentException(
+                    "The aggregate query '" + sql + "' did not return any row."
+                ));
+            return result;
+        } finally {
+            query.close();
+        }
+    }
+
+    /**
+     * Optimizer for the first element of a stream of entities given a field
+     * comparator, as used by {@code max} and {@code min}. If the pipeline only
+     * contains filter, sorted, skip and limit operations, the comparator is
+     * appended as a sorted operation followed by {@code limit(1)} so that the
+     * database can return the element directly.
+     *
+     * @param <ENTITY> the entity type
+     * @param <T> the element type
+     * @param sqlStreamTerminator that called us
+     * @param pipeline the pipeline
+     * @param comparator that sorts the wanted element first
+     * @param fallback that computes the result from an optimized pipeline
+     * @return the first element, if any
+     */
+    public static <ENTITY, T> Optional<T> firstHelper(
+        final SqlStreamTerminator<ENTITY> sqlStreamTerminator,
+        final ReferencePipeline<T> pipeline,
+        final Comparator<? super T> comparator,
+        final Function<ReferencePipeline<T>, Optional<T>> fallback
+    ) {
+        requireNonNull(sqlStreamTerminator);
+        requireNonNull(pipeline);
+        requireNonNull(comparator);
+        requireNonNull(fallback);
+
+        if (!(comparator instanceof FieldComparator) || !pipeline.stream().allMatch(PushdownUtil::isPushable)) {
+            return fallback.apply(sqlStreamTerminator.optimize(pipeline));
+        }
+
+        if (pipeline.stream().noneMatch(a -> a instanceof SkipAction || a instanceof LimitAction)) {
+            // Any previous order is irrelevant
+            pipeline.removeIf(SortedComparatorAction.class::isInstance);
+        }
+        pipeline.add(new SortedComparatorAction<>(comparator));
+        pipeline.add(new LimitAction<>(1));
+
+        return sqlStreamTerminator.optimize(pipeline)
+            .getAsReferenceStream()
+            .findFirst();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <ENTITY> Field<ENTITY> projectedField(Pipeline pipeline) {
+        if (pipeline.isEmpty()) {
+            return null;
+        }
+        for (int i = 0; i < pipeline.size() - 1; i++) {
+            if (!PushdownUtil.isPushable(pipeline.get(i))) {
+                return null;
+            }
+        }
+        final Action<?, ?> last = pipeline.getLast();
+        if (last instanceof MapToIntAction || last instanceof MapToLongAction || last instanceof MapToDoubleAction) {
+            final Object mapper = ((HasMapper<?>) last).getMapper();
+            if (mapper instanceof IntField || mapper instanceof LongField || mapper instanceof DoubleField) {
+                return (Field<ENTITY>) mapper;
+            }
+        }
+        return null;
+    }
+
+    private AggregateUtil() {
+        instanceNotAllowed(getClass());
+    }
+
+}
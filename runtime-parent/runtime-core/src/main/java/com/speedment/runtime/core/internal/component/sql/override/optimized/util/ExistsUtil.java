@@ -0,0 +1,142 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.component.sql.override.optimized.util;
+
+import com.speedment.runtime.core.component.sql.SqlStreamOptimizerInfo;
+import com.speedment.runtime.core.db.AsynchronousQueryResult;
+import com.speedment.runtime.core.db.SqlFunction;
+import com.speedment.runtime.core.internal.manager.sql.SqlStreamTerminator;
+import com.speedment.runtime.core.internal.stream.builder.action.reference.FilterAction;
+import com.speedment.runtime.core.internal.stream.builder.action.reference.LimitAction;
+import com.speedment.runtime.core.internal.stream.builder.action.reference.SkipAction;
+import com.speedment.runtime.core.internal.stream.builder.action.reference.SortedComparatorAction;
+import com.speedment.runtime.core.internal.stream.builder.pipeline.ReferencePipeline;
+import static com.speedment.runtime.core.internal.stream.builder.streamterminator.StreamTerminatorUtil.isContainingOnlyFieldPredicate;
+import static com.speedment.runtime.core.util.StaticClassUtil.instanceNotAllowed;
+import java.sql.ResultSet;
+import static java.util.Objects.requireNonNull;
+import java.util.Optional;
+import java.util.function.Predicate;
+
+/**
+ *
+ * @author agent
+ * @since 3.1.2
+ */
+public final class ExistsUtil {
+
+    // Maps the row to a non-null marker without reading any column
+    private static final SqlFunction<ResultSet, Object> EXISTS_READER = rs -> Boolean.TRUE;
+
+    /**
+     * Optimizer for existence checks, as used by {@code anyMatch},
+     * {@code noneMatch} and {@code allMatch}.
+     * <p>
+     * If the pipeline only contains filter, sorted, skip and limit operations
+     * and the predicate is a field predicate, the predicate is appended as a
+     * filter followed by {@code limit(1)} and the database is asked for the
+     * (at most one) matching row using {@code SELECT 1 FROM table WHERE ...
+     * LIMIT 1}, so that no columns are read. Otherwise, the predicate is
+     * applied on the optimized pipeline.
+     *
+     * @param <ENTITY> the entity type
+     * @param <T> the element type
+     * @param info about the stream optimizer
+     * @param sqlStreamTerminator that called us
+     * @param pipeline the pipeline
+     * @param predicate to test
+     * @return if any element matches the predicate
+     */
+    public static <ENTITY, T> boolean existsHelper(
+        final SqlStreamOptimizerInfo<ENTITY> info,
+        final SqlStreamTerminator<ENTITY> sqlStreamTerminator,
+        final ReferencePipeline<T> pipeline,
+        final Predicate<? super T> predicate
+    ) {
+        requireNonNull(info);
+        requireNonNull(sqlStreamTerminator);
+        requireNonNull(pipeline);
+        requireNonNull(predicate);
+
+        if (!isContainingOnlyFieldPredicate(predicate) || !pipeline.stream().allMatch(PushdownUtil::isPushable)) {
+            return sqlStreamTerminator.optimize(pipeline)
+                .getAsReferenceStream()
+                .anyMatch(predicate);
+        }
+
+        if (pipeline.stream().noneMatch(a -> a instanceof SkipAction || a instanceof LimitAction)) {
+            // The order of the elements does not affect existence
+            pipeline.removeIf(SortedComparatorAction.class::isInstance);
+        }
+        pipeline.add(new FilterAction<>(predicate));
+        pipeline.add(new LimitAction<>(1));
+
+        final ReferencePipeline<T> optimizedPipeline = sqlStreamTerminator.optimize(pipeline);
+        if (!optimizedPipeline.isEmpty()) {
+            // Some operations could not be expressed in SQL
+            return optimizedPipeline.getAsReferenceStream().findAny().isPresent();
+        }
+
+        // The limit is now part of the SQL so only the select list remains
+        final AsynchronousQueryResult<ENTITY> query = sqlStreamTerminator.getAsynchronousQueryResult();
+        final String select = info.getSqlSelect();
+        final Optional<String> tableReference = info.getSqlTableReference();
+        if (tableReference.isPresent()
+            && select.startsWith("SELECT ")
+            && select.endsWith(" FROM " + tableReference.get())
+            && query.getSql().startsWith(select)) {
+            query.setSql("SELECT 1 FROM " + tableReference.get() + query.getSql().substring(select.length()));
+        }
+        @SuppressWarnings("unchecked")
+        final SqlFunction<ResultSet, ENTITY> rsMapper = (SqlFunction<ResultSet, ENTITY>) EXISTS_READER;
+        query.setRsMapper(rsMapper);
+        try {
+            return query.stream().findAny().isPresent();
+        } finally {
+            query.close();
+        }
+    }
+
+    /**
+     * Optimizer for {@code findFirst} and {@code findAny}. A {@code limit(1)}
+     * operation is appended to the pipeline so that the database only returns
+     * the first row, should the preceding operations be expressible in SQL.
+     *
+     * @param <ENTITY> the entity type
+     * @param <T> the element type
+     * @param sqlStreamTerminator that called us
+     * @param pipeline the pipeline
+     * @return the first element, if any
+     */
+    public static <ENTITY, T> Optional<T> findFirstHelper(
+        final SqlStreamTerminator<ENTITY> sqlStreamTerminator,
+        final ReferencePipeline<T> pipeline
+    ) {
+        requireNonNull(sqlStreamTerminator);
+        requireNonNull(pipeline);
+
+        pipeline.add(new LimitAction<>(1));
+        return sqlStreamTerminator.optimize(pipeline)
+            .getAsReferenceStream()
+            .findFirst();
+    }
+
+    private ExistsUtil() {
+        instanceNotAllowed(getClass());
+    }
+
+}
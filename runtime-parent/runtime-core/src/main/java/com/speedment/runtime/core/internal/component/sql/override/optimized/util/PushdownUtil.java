@@ -0,0 +1,54 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.component.sql.override.optimized.util;
+
+import com.speedment.runtime.core.internal.stream.builder.action.reference.FilterAction;
+import com.speedment.runtime.core.internal.stream.builder.action.reference.LimitAction;
+import com.speedment.runtime.core.internal.stream.builder.action.reference.SkipAction;
+import com.speedment.runtime.core.internal.stream.builder.action.reference.SortedComparatorAction;
+import com.speedment.runtime.core.stream.action.Action;
+
+import static com.speedment.runtime.core.util.StaticClassUtil.instanceNotAllowed;
+
+/**
+ * Utility methods shared by the optimized terminators.
+ *
+ * @author agent
+ * @since 3.1.2
+ */
+final class PushdownUtil {
+
+    /**
+     * Returns if the given action is of a kind that the stream optimizers
+     * may be able to express in SQL. Whether the action is actually
+     * rendered as SQL also depends on, for example, its predicate.
+     *
+     * @param action to check
+     * @return if the action may be expressed in SQL
+     */
+    static boolean isPushable(Action<?, ?> action) {
+        return action instanceof FilterAction
+            || action instanceof SortedComparatorAction
+            || action instanceof SkipAction
+            || action instanceof LimitAction;
+    }
+
+    private PushdownUtil() {
+        instanceNotAllowed(getClass());
+    }
+
+}
@@ -31,7 +31,9 @@ import com.speedment.runtime.core.component.transaction.TransactionComponent;
 import com.speedment.runtime.core.component.transaction.TransactionHandler;
 import com.speedment.runtime.core.exception.TransactionException;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import static java.util.Objects.requireNonNull;
 import java.util.Optional;
@@ -53,6 +55,7 @@ public class TransactionComponentImpl implements TransactionComponent {
     private final Map<Class<?>, DataSourceHandler<Object, Object>> dataSourceHandlers;
     private final Map<Thread, Object> txObjects;
     private final Map<Object, Set<Thread>> threadSets;
+    private final Map<Object, List<Runnable>> commitActions;
     private Dbms singleDbms;
 
     @ExecuteBefore(STARTED)
@@ -90,6 +93,7 @@ public class TransactionComponentImpl implements TransactionComponent {
         this.dataSourceHandlers = new ConcurrentHashMap<>();
         this.txObjects = new ConcurrentHashMap<>();
         this.threadSets = new ConcurrentHashMap<>();
+        this.commitActions = new ConcurrentHashMap<>();
     }
 
     @Override
@@ -138,6 +142,7 @@ public class TransactionComponentImpl implements TransactionComponent {
             if (threadSet.isEmpty()) {
                 // Clean up 
                 threadSets.remove(removedTxObject);
+                commitActions.remove(removedTxObject);
             }
         }
     }
@@ -149,6 +154,29 @@ public class TransactionComponentImpl implements TransactionComponent {
             .orElse(Stream.empty());
     }
 
+    @Override
+    public boolean afterCommit(Thread thread, Runnable action) {
+        requireNonNull(action);
+        final Object txObject = txObjects.get(requireNonNull(thread));
+        if (txObject == null) {
+            return false;
+        }
+        commitActions.compute(txObject, (Object k, List<Runnable> actions) -> {
+            final List<Runnable> result = actions == null ? new ArrayList<>() : actions;
+            result.add(action);
+            return result;
+        });
+        return true;
+    }
+
+    @Override
+    public void committed(Object txObject) {
+        final List<Runnable> actions = commitActions.remove(requireNonNull(txObject));
+        if (actions != null) {
+            actions.forEach(Runnable::run);
+        }
+    }
+
     private DataSourceHandler<Object, Object> findMapping(Object dataSource) {
         final Class<?> originalClass = dataSource.getClass();
         {
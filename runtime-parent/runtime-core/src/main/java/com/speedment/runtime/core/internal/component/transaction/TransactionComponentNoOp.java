@@ -67,6 +67,15 @@ public class TransactionComponentNoOp implements TransactionComponent {
         return Stream.empty();
     }
 
+    @Override
+    public boolean afterCommit(Thread thread, Runnable action) {
+        return false;
+    }
+
+    @Override
+    public void committed(Object txObject) {
+    }
+
     private UnsupportedOperationException createException() {
         return new UnsupportedOperationException("Transactions are not supported. Make sure you use the " + TransactionBundle.class + " in your project to support transactions");
     }
@@ -45,6 +45,7 @@ public class TransactionImpl implements Transaction {
     @Override
     public void commit() throws TransactionException {
         dataSourceHandler.committer().accept(txObject);
+        txComponent.committed(txObject);
     }
 
     @Override
@@ -22,21 +22,29 @@ import com.speedment.common.logger.LoggerManager;
 import com.speedment.runtime.config.Dbms;
 import com.speedment.runtime.core.ApplicationBuilder.LogType;
 import com.speedment.runtime.core.component.DbmsHandlerComponent;
+import com.speedment.runtime.core.component.RetryPolicyComponent;
 import com.speedment.runtime.core.component.connectionpool.ConnectionPoolComponent;
 import com.speedment.runtime.core.db.AsynchronousQueryResult;
 import com.speedment.runtime.core.db.DbmsOperationHandler;
+import com.speedment.runtime.core.db.DbmsType;
+import com.speedment.runtime.core.db.RetryPolicy;
+import com.speedment.runtime.core.db.SqlConsumer;
 import com.speedment.runtime.core.db.SqlFunction;
 import com.speedment.runtime.core.exception.SpeedmentException;
 import com.speedment.runtime.core.internal.manager.sql.SqlDeleteStatement;
 import com.speedment.runtime.core.internal.manager.sql.SqlInsertStatement;
 import com.speedment.runtime.core.internal.manager.sql.SqlStatement;
 import com.speedment.runtime.core.internal.manager.sql.SqlUpdateStatement;
+import com.speedment.runtime.core.internal.manager.sql.SqlUpsertStatement;
 import com.speedment.runtime.core.stream.parallel.ParallelStrategy;
 import com.speedment.runtime.field.Field;
 
 import java.sql.*;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.function.Consumer;
 import java.util.stream.Stream;
@@ -44,9 +52,14 @@ import java.util.stream.Stream;
 import static com.speedment.common.invariant.NullUtil.requireNonNulls;
 import static com.speedment.runtime.core.util.DatabaseUtil.dbmsTypeOf;
 import com.speedment.runtime.core.component.transaction.TransactionComponent;
+import static java.util.Collections.emptyList;
 import static java.util.Collections.singletonList;
 import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.toList;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  *
@@ -68,6 +81,19 @@ public abstract class AbstractDbmsOperationHandler implements DbmsOperationHandl
     private DbmsHandlerComponent dbmsHandlerComponent;
     @Inject
     private TransactionComponent transactionComponent;
+    @Inject
+    private RetryPolicyComponent retryPolicyComponent;
+
+    /**
+     * The maximum number of distinct statements that retries are counted
+     * for. Statements like multi-row inserts have a different SQL text for
+     * every number of rows, so the counts must be bounded.
+     */
+    static final int MAX_RETRY_COUNT_STATEMENTS = 256;
+
+    private final LongAdder cancelledSelectCount = new LongAdder();
+    private final LongAdder retryCount = new LongAdder();
+    private final Map<String, LongAdder> retryCountBySql = new ConcurrentHashMap<>();
 
     protected AbstractDbmsOperationHandler() {
     }
@@ -76,32 +102,15 @@ public abstract class AbstractDbmsOperationHandler implements DbmsOperationHandl
     public <T> Stream<T> executeQuery(Dbms dbms, String sql, List<?> values, SqlFunction<ResultSet, T> rsMapper) {
         requireNonNulls(sql, values, rsMapper);
 
-        try (
-            final ConnectionInfo connectionInfo = new ConnectionInfo(dbms, connectionPoolComponent, transactionComponent);
-            final PreparedStatement ps = connectionInfo.connection().prepareStatement(sql, java.sql.ResultSet.TYPE_FORWARD_ONLY, java.sql.ResultSet.CONCUR_READ_ONLY)) {
-            configureSelect(ps);
-            connectionInfo.ifNotInTransaction(c -> c.setAutoCommit(false));
-            try {
-                int i = 1;
-                for (final Object o : values) {
-                    ps.setObject(i++, o);
-                }
-                try (final ResultSet rs = ps.executeQuery()) {
-                    configureSelect(rs);
+        final AsynchronousQueryResult<T> asyncResult = executeQueryAsync(
+            dbms, sql, values, rsMapper, ParallelStrategy.computeIntensityDefault()
+        );
 
-                    // Todo: Make a transparent stream with closeHandler added.
-                    final Stream.Builder<T> streamBuilder = Stream.builder();
-                    while (rs.next()) {
-                        streamBuilder.add(rsMapper.apply(rs));
-                    }
-                    return streamBuilder.build();
-                }
-            } finally {
-                connectionInfo.ifNotInTransaction(Connection::commit);
-            }
-        } catch (final SQLException sqle) {
-            LOGGER.error(sqle, "Error querying " + sql);
-            throw new SpeedmentException(sqle);
+        try {
+            return asyncResult.stream().onClose(asyncResult::close);
+        } catch (final RuntimeException ex) {
+            asyncResult.close();
+            throw ex;
         }
     }
 
@@ -120,10 +129,33 @@ public abstract class AbstractDbmsOperationHandler implements DbmsOperationHandl
             () -> new ConnectionInfo(dbms, connectionPoolComponent, transactionComponent), 
             parallelStrategy,
             this::configureSelect,
-            this::configureSelect
+            this::configureSelect,
+            this::cancelSelectAndCount
         );
     }
 
+    @Override
+    public long getCancelledSelectCount() {
+        return cancelledSelectCount.sum();
+    }
+
+    @Override
+    public long getRetryCount() {
+        return retryCount.sum();
+    }
+
+    @Override
+    public Map<String, Long> getRetryCountBySql() {
+        final Map<String, Long> result = new HashMap<>();
+        retryCountBySql.forEach((sql, count) -> result.put(sql, count.sum()));
+        return result;
+    }
+
+    private void cancelSelectAndCount(PreparedStatement statement) throws SQLException {
+        cancelSelect(statement);
+        cancelledSelectCount.increment();
+    }
+
     @Override
     public <ENTITY> void executeInsert(Dbms dbms, String sql, List<?> values, Collection<Field<ENTITY>> generatedKeyFields, Consumer<List<Long>> generatedKeyConsumer) throws SQLException {
         logOperation(LOGGER_PERSIST, sql, values);
@@ -145,6 +177,128 @@ public abstract class AbstractDbmsOperationHandler implements DbmsOperationHandl
         execute(dbms, singletonList(sqlDeleteStatement));
     }
 
+    @Override
+    public long executeUpdateAndCount(Dbms dbms, String sql, List<?> values) throws SQLException {
+        logOperation(LOGGER_UPDATE, sql, values);
+        final SqlUpdateStatement sqlUpdateStatement = new SqlUpdateStatement(sql, values);
+        execute(dbms, singletonList(sqlUpdateStatement));
+        return sqlUpdateStatement.getUpdateCount();
+    }
+
+    @Override
+    public long executeDeleteAndCount(Dbms dbms, String sql, List<?> values) throws SQLException {
+        logOperation(LOGGER_REMOVE, sql, values);
+        final SqlDeleteStatement sqlDeleteStatement = new SqlDeleteStatement(sql, values);
+        execute(dbms, singletonList(sqlDeleteStatement));
+        return sqlDeleteStatement.getUpdateCount();
+    }
+
+    @Override
+    public <ENTITY> void executeInsertBatch(Dbms dbms, String sql, List<? extends List<?>> valuesList, Collection<Field<ENTITY>> generatedKeyFields, List<? extends Consumer<List<Long>>> generatedKeyConsumers) throws SQLException {
+        if (valuesList.size() != generatedKeyConsumers.size()) {
+            throw new IllegalArgumentException(
+                "There must be one generated key consumer per row: "
+                + valuesList.size() + " != " + generatedKeyConsumers.size()
+            );
+        }
+        logBatchOperation(LOGGER_PERSIST, sql, valuesList);
+        final DbmsType dbmsType = dbmsTypeOf(dbmsHandlerComponent, dbms);
+        if (MultiRowInsertUtil.isApplicable(dbmsType, valuesList, generatedKeyFields)) {
+            execute(dbms, MultiRowInsertUtil.statements(dbmsType, sql, valuesList, generatedKeyFields, generatedKeyConsumers));
+            return;
+        }
+        final List<SqlInsertStatement<ENTITY>> sqlStatementList = new ArrayList<>(valuesList.size());
+        for (int i = 0; i < valuesList.size(); i++) {
+            sqlStatementList.add(new SqlInsertStatement<>(sql, valuesList.get(i), generatedKeyFields, generatedKeyConsumers.get(i)));
+        }
+        execute(dbms, sqlStatementList);
+    }
+
+    @Override
+    public void executeUpdateBatch(Dbms dbms, String sql, List<? extends List<?>> valuesList) throws SQLException {
+        logBatchOperation(LOGGER_UPDATE, sql, valuesList);
+        execute(dbms, valuesList.stream()
+            .map(values -> new SqlUpdateStatement(sql, values))
+            .collect(toList())
+        );
+    }
+
+    @Override
+    public void executeDeleteBatch(Dbms dbms, String sql, List<? extends List<?>> valuesList) throws SQLException {
+        logBatchOperation(LOGGER_REMOVE, sql, valuesList);
+        execute(dbms, valuesList.stream()
+            .map(values -> new SqlDeleteStatement(sql, values))
+            .collect(toList())
+        );
+    }
+
+    @Override
+    public long[] executeUpsertBatch(Dbms dbms, String sql, List<? extends List<?>> valuesList) throws SQLException {
+        logBatchOperation(LOGGER_PERSIST, sql, valuesList);
+        final DbmsType.UpsertOutcomeReporting reporting = dbmsTypeOf(dbmsHandlerComponent, dbms)
+            .getUpsertOutcomeReporting(dbms);
+        final boolean returningInsertedFlag = reporting == DbmsType.UpsertOutcomeReporting.RETURNED_FLAG;
+        final List<SqlUpsertStatement> sqlStatementList = valuesList.stream()
+            .map(values -> new SqlUpsertStatement(sql, values, returningInsertedFlag))
+            .collect(toList());
+        execute(dbms, sqlStatementList);
+        final boolean foundRows = reporting == DbmsType.UpsertOutcomeReporting.UPDATE_COUNT_OF_FOUND_ROWS;
+        return sqlStatementList.stream()
+            .mapToLong(SqlStatement::getUpdateCount)
+            // A found row is either inserted or left unchanged
+            .map(count -> foundRows && count == 1 ? Statement.SUCCESS_NO_INFO : count)
+            .toArray();
+    }
+
+    @Override
+    public boolean isBindingSupported() {
+        return true;
+    }
+
+    @Override
+    public <ENTITY> void executeBoundInsertBatch(Dbms dbms, String sql, List<? extends SqlConsumer<PreparedStatement>> binders, Collection<Field<ENTITY>> generatedKeyFields, List<? extends Consumer<List<Long>>> generatedKeyConsumers) throws SQLException {
+        if (binders.size() != generatedKeyConsumers.size()) {
+            throw new IllegalArgumentException(
+                "There must be one generated key consumer per row: "
+                + binders.size() + " != " + generatedKeyConsumers.size()
+            );
+        }
+        logBoundBatchOperation(LOGGER_PERSIST, sql, binders.size());
+        final List<SqlInsertStatement<ENTITY>> sqlStatementList = new ArrayList<>(binders.size());
+        for (int i = 0; i < binders.size(); i++) {
+            sqlStatementList.add(new SqlInsertStatement<>(sql, binders.get(i), generatedKeyFields, generatedKeyConsumers.get(i)));
+        }
+        execute(dbms, sqlStatementList);
+    }
+
+    @Override
+    public void executeBoundUpdateBatch(Dbms dbms, String sql, List<? extends SqlConsumer<PreparedStatement>> binders) throws SQLException {
+        logBoundBatchOperation(LOGGER_UPDATE, sql, binders.size());
+        final List<SqlUpdateStatement> sqlStatementList = new ArrayList<>(binders.size());
+        for (final SqlConsumer<PreparedStatement> binder : binders) {
+            sqlStatementList.add(new SqlUpdateStatement(sql, binder));
+        }
+        execute(dbms, sqlStatementList);
+    }
+
+    @Override
+    public void executeBoundDeleteBatch(Dbms dbms, String sql, List<? extends SqlConsumer<PreparedStatement>> binders) throws SQLException {
+        logBoundBatchOperation(LOGGER_REMOVE, sql, binders.size());
+        final List<SqlDeleteStatement> sqlStatementList = new ArrayList<>(binders.size());
+        for (final SqlConsumer<PreparedStatement> binder : binders) {
+            sqlStatementList.add(new SqlDeleteStatement(sql, binder));
+        }
+        execute(dbms, sqlStatementList);
+    }
+
+    protected void logBatchOperation(Logger logger, final String sql, final List<? extends List<?>> valuesList) {
+        logger.debug("%s, batch of %d rows, values:%s", sql, valuesList.size(), valuesList);
+    }
+
+    protected void logBoundBatchOperation(Logger logger, final String sql, final int rows) {
+        logger.debug("%s, batch of %d bound rows", sql, rows);
+    }
+
     protected void logOperation(Logger logger, final String sql, final List<?> values) {
         logger.debug("%s, values:%s", sql, values);
     }
@@ -167,11 +321,15 @@ public abstract class AbstractDbmsOperationHandler implements DbmsOperationHandl
         requireNonNull(conn);
         requireNonNull(sqlStatementList);
 
-        int retryCount = 5;
+        final RetryPolicy retryPolicy = retryPolicy(dbms);
+        final long startNanos = System.nanoTime();
+        int attempt = 1;
         boolean transactionCompleted = false;
 
         do {
             final AtomicReference<SqlStatement> lastSqlStatement = new AtomicReference<>();
+            long backoffMillis = 0;
+            SQLException retryCause = null;
             try {
                 conn.setAutoCommit(false);
                 executeSqlStatementList(sqlStatementList, lastSqlStatement, dbms, conn);
@@ -180,17 +338,23 @@ public abstract class AbstractDbmsOperationHandler implements DbmsOperationHandl
                 transactionCompleted = true;
                 conn = null;
             } catch (SQLException sqlEx) {
-                LOGGER.error("SqlStatementList: " + sqlStatementList);
-                LOGGER.error("SQL: " + lastSqlStatement.get());
-                LOGGER.error(sqlEx, sqlEx.getMessage());
-                final String sqlState = sqlEx.getSQLState();
-
-                if ("08S01".equals(sqlState) || "40001".equals(sqlState)) {
-                    retryCount--;
-                } else {
-                    retryCount = 0;
+                backoffMillis = attempt < retryPolicy.getMaxAttempts() && retryPolicy.isRetryable(sqlEx)
+                    ? retryPolicy.getBackoffMillis(attempt)
+                    : -1;
+                final long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+                if (backoffMillis < 0 || elapsedMillis + backoffMillis > retryPolicy.getTimeBudgetMillis()) {
+                    LOGGER.error("SqlStatementList: " + sqlStatementList);
+                    LOGGER.error("SQL: " + lastSqlStatement.get());
+                    LOGGER.error(sqlEx, sqlEx.getMessage());
                     throw sqlEx; // Finally will be executed...
                 }
+                LOGGER.warn(
+                    "Retrying in %d ms after attempt %d of %d failed with SQLState %s: %s. SQL: %s",
+                    backoffMillis, attempt, retryPolicy.getMaxAttempts(),
+                    sqlEx.getSQLState(), sqlEx.getMessage(), lastSqlStatement.get()
+                );
+                countRetry(lastSqlStatement.get());
+                retryCause = sqlEx;
             } finally {
 
                 if (!transactionCompleted) {
@@ -216,10 +380,51 @@ public abstract class AbstractDbmsOperationHandler implements DbmsOperationHandl
                     }
                 }
             }
-        } while (!transactionCompleted && (retryCount > 0));
 
-        if (transactionCompleted) {
-            postSuccessfulTransaction(sqlStatementList);
+            if (!transactionCompleted) {
+                // The failed connection has been closed, so the retry waits
+                // without holding it and then uses a new one
+                backoff(backoffMillis, retryCause);
+                sqlStatementList.stream()
+                    .filter(SqlInsertStatement.class::isInstance)
+                    .map(SqlInsertStatement.class::cast)
+                    .forEach(SqlInsertStatement<?>::clearGeneratedKeys);
+                conn = connectionPoolComponent.getConnection(dbms);
+                attempt++;
+            }
+        } while (!transactionCompleted);
+
+        postSuccessfulTransaction(sqlStatementList);
+    }
+
+    private RetryPolicy retryPolicy(Dbms dbms) {
+        return retryPolicyComponent == null
+            ? RetryPolicy.defaultFor(dbmsTypeOf(dbmsHandlerComponent, dbms))
+            : retryPolicyComponent.getRetryPolicy(dbms);
+    }
+
+    private void countRetry(SqlStatement failedStatement) {
+        retryCount.increment();
+        if (failedStatement != null) {
+            // New statements are no longer counted once the limit is reached
+            final LongAdder count = retryCountBySql.size() < MAX_RETRY_COUNT_STATEMENTS
+                ? retryCountBySql.computeIfAbsent(failedStatement.getSql(), sql -> new LongAdder())
+                : retryCountBySql.get(failedStatement.getSql());
+            if (count != null) {
+                count.increment();
+            }
+        }
+    }
+
+    private static void backoff(long millis, SQLException cause) throws SQLException {
+        if (millis > 0) {
+            try {
+                Thread.sleep(millis);
+            } catch (final InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                cause.addSuppressed(ex);
+                throw cause;
+            }
         }
     }
 
@@ -245,8 +450,23 @@ public abstract class AbstractDbmsOperationHandler implements DbmsOperationHandl
     }
 
     private void executeSqlStatementList(List<? extends SqlStatement> sqlStatementList, AtomicReference<SqlStatement> lastSqlStatement, Dbms dbms, Connection conn) throws SQLException {
-        for (final SqlStatement sqlStatement : sqlStatementList) {
+        int from = 0;
+        while (from < sqlStatementList.size()) {
+            final SqlStatement sqlStatement = sqlStatementList.get(from);
             lastSqlStatement.set(sqlStatement);
+
+            // Consecutive statements with the same SQL are sent as one batch
+            int to = from + 1;
+            while (to < sqlStatementList.size() && isSameBatch(sqlStatement, sqlStatementList.get(to))) {
+                to++;
+            }
+            if (to - from > 1) {
+                handleSqlStatementBatch(dbms, conn, sqlStatementList.subList(from, to));
+                from = to;
+                continue;
+            }
+            from = to;
+
             switch (sqlStatement.getType()) {
                 case INSERT: {
                     final SqlInsertStatement<?> s = (SqlInsertStatement<?>) sqlStatement;
@@ -263,18 +483,87 @@ public abstract class AbstractDbmsOperationHandler implements DbmsOperationHandl
                     handleSqlStatement(dbms, conn, s);
                     break;
                 }
+                case UPSERT: {
+                    final SqlUpsertStatement s = (SqlUpsertStatement) sqlStatement;
+                    handleSqlStatement(dbms, conn, s);
+                    break;
+                }
+            }
+
+        }
+    }
+
+    private boolean isSameBatch(SqlStatement first, SqlStatement other) {
+        if (first instanceof SqlUpsertStatement && ((SqlUpsertStatement) first).isReturningInsertedFlag()) {
+            return false; // Statements that return rows can not be batched
+        }
+        return first.getType() == other.getType() && first.getSql().equals(other.getSql());
+    }
+
+    /**
+     * Executes the given statements, that all have the same type and SQL, as
+     * a single JDBC batch. If the statements are inserts, the generated keys
+     * are handed out to the statements in order, provided that the driver
+     * reports the same number of generated keys for each statement.
+     *
+     * @param dbms              the dbms
+     * @param conn              the connection to use
+     * @param sqlStatementList  the statements to execute
+     * @throws SQLException     if an error occurs
+     * @since 3.1.2
+     */
+    protected void handleSqlStatementBatch(Dbms dbms, Connection conn, List<? extends SqlStatement> sqlStatementList) throws SQLException {
+        final SqlStatement first = sqlStatementList.get(0);
+        final boolean generatedKeys = first.getType() == SqlStatement.Type.INSERT
+            && !((SqlInsertStatement<?>) first).getGeneratedColumnFields().isEmpty();
+
+        try (final PreparedStatement ps = conn.prepareStatement(first.getSql(), generatedKeys ? Statement.RETURN_GENERATED_KEYS : Statement.NO_GENERATED_KEYS)) {
+            for (final SqlStatement sqlStatement : sqlStatementList) {
+                sqlStatement.bind(ps);
+                ps.addBatch();
+            }
+            final int[] updateCounts = ps.executeBatch();
+            for (int i = 0; i < sqlStatementList.size(); i++) {
+                sqlStatementList.get(i).setUpdateCount(i < updateCounts.length ? updateCounts[i] : Statement.SUCCESS_NO_INFO);
             }
 
+            if (generatedKeys) {
+                @SuppressWarnings("unchecked")
+                final List<SqlInsertStatement<?>> insertStatements = (List<SqlInsertStatement<?>>) sqlStatementList;
+                handleGeneratedKeysBatch(ps, insertStatements);
+            }
+        }
+    }
+
+    private void handleGeneratedKeysBatch(PreparedStatement ps, List<SqlInsertStatement<?>> sqlStatementList) throws SQLException {
+        // Let the dbms specific handleGeneratedKeys() collect all the keys
+        final SqlInsertStatement<?> collector = new SqlInsertStatement<>(
+            sqlStatementList.get(0).getSql(),
+            emptyList(),
+            emptyList(),
+            keys -> {}
+        );
+        handleGeneratedKeys(ps, collector);
+
+        // All statements have the same SQL and thus insert the same number of rows
+        final List<Long> keys = collector.getGeneratedKeys();
+        final int keysPerStatement = keys.size() / sqlStatementList.size();
+        if (!keys.isEmpty() && keys.size() % sqlStatementList.size() == 0) {
+            for (int i = 0; i < keys.size(); i++) {
+                sqlStatementList.get(i / keysPerStatement).addGeneratedKey(keys.get(i));
+            }
+        } else if (!keys.isEmpty()) {
+            LOGGER.warn(
+                "Unable to map %d generated keys to %d inserted rows for %s",
+                keys.size(), sqlStatementList.size(), collector.getSql()
+            );
         }
     }
 
     protected <ENTITY> void handleSqlStatement(Dbms dbms, Connection conn, SqlInsertStatement<ENTITY> sqlStatement) throws SQLException {
         try (final PreparedStatement ps = conn.prepareStatement(sqlStatement.getSql(), Statement.RETURN_GENERATED_KEYS)) {
-            int i = 1;
-            for (Object o : sqlStatement.getValues()) {
-                ps.setObject(i++, o);
-            }
-            ps.executeUpdate();
+            sqlStatement.bind(ps);
+            sqlStatement.setUpdateCount(ps.executeUpdate());
 
             handleGeneratedKeys(ps, sqlStatement);
         }
@@ -297,13 +586,24 @@ public abstract class AbstractDbmsOperationHandler implements DbmsOperationHandl
         handleSqlStatementHelper(conn, sqlStatement);
     }
 
-    private void handleSqlStatementHelper(Connection conn, SqlStatement sqlStatement) throws SQLException {
+    protected void handleSqlStatement(Dbms dbms, Connection conn, SqlUpsertStatement sqlStatement) throws SQLException {
+        if (!sqlStatement.isReturningInsertedFlag()) {
+            handleSqlStatementHelper(conn, sqlStatement);
+            return;
+        }
         try (final PreparedStatement ps = conn.prepareStatement(sqlStatement.getSql(), Statement.NO_GENERATED_KEYS)) {
-            int i = 1;
-            for (Object o : sqlStatement.getValues()) {
-                ps.setObject(i++, o);
+            sqlStatement.bind(ps);
+            try (final ResultSet rs = ps.executeQuery()) {
+                // No row is returned if an existing row was left unchanged
+                sqlStatement.setUpdateCount(rs.next() ? (rs.getBoolean(1) ? 1 : 2) : 0);
             }
-            ps.executeUpdate();
+        }
+    }
+
+    private void handleSqlStatementHelper(Connection conn, SqlStatement sqlStatement) throws SQLException {
+        try (final PreparedStatement ps = conn.prepareStatement(sqlStatement.getSql(), Statement.NO_GENERATED_KEYS)) {
+            sqlStatement.bind(ps);
+            sqlStatement.setUpdateCount(ps.executeUpdate());
         }
     }
 
@@ -18,6 +18,7 @@ package com.speedment.runtime.core.internal.db;
 
 import com.speedment.common.logger.Logger;
 import com.speedment.common.logger.LoggerManager;
+import com.speedment.runtime.config.identifier.ColumnIdentifier;
 import com.speedment.runtime.core.ApplicationBuilder;
 import com.speedment.runtime.core.db.AsynchronousQueryResult;
 import com.speedment.runtime.core.db.SqlConsumer;
@@ -25,12 +26,15 @@ import com.speedment.runtime.core.db.SqlFunction;
 import com.speedment.runtime.core.exception.SpeedmentException;
 import com.speedment.runtime.core.internal.stream.StreamUtil;
 import com.speedment.runtime.core.stream.parallel.ParallelStrategy;
+import com.speedment.runtime.core.stream.parallel.PrefetchingParallelStrategy;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.List;
 import static java.util.Objects.requireNonNull;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Supplier;
 import java.util.stream.Stream;
 
@@ -44,17 +48,30 @@ public final class AsynchronousQueryResultImpl<T> implements AsynchronousQueryRe
     private static final Logger LOGGER = LoggerManager.getLogger(AsynchronousQueryResultImpl.class);
     private static final Logger LOGGER_STREAM = LoggerManager.getLogger(ApplicationBuilder.LogType.STREAM.getLoggerName());
 
+    /**
+     * The maximum number of remaining rows that are skipped upon an early
+     * close before the statement is cancelled instead. Reading a few rows is
+     * much cheaper than a cancellation for small results such as counts.
+     */
+    static final int MAX_SKIPPED_ROWS_BEFORE_CANCEL = 16;
+
     private String sql;
     private List<?> values;
     private SqlFunction<ResultSet, T> rsMapper;
+    private ColumnIdentifier<?> projection; // null allowed if whole entities are selected
+    private boolean skipOrLimit;
     private final Supplier<ConnectionInfo> connectionInfoSupplier;
     private final ParallelStrategy parallelStrategy;
     private final SqlConsumer<PreparedStatement> statementConfigurator;
     private final SqlConsumer<ResultSet> resultSetConfigurator;
+    private final SqlConsumer<PreparedStatement> statementCanceller;
     private ConnectionInfo connectionInfo;  // null allowed if the stream() method is not run
     private PreparedStatement ps;
     private ResultSet rs;
+    private Stream<T> stream; // null allowed if the stream() method is not run
     private State state;
+    private final AtomicBoolean exhausted;
+    private boolean cancelled;
 
     public enum State {
         INIT, ESTABLISH, OPEN, CLOSED
@@ -68,6 +85,44 @@ public final class AsynchronousQueryResultImpl<T> implements AsynchronousQueryRe
         final ParallelStrategy parallelStrategy,
         final SqlConsumer<PreparedStatement> statementConfigurator,
         final SqlConsumer<ResultSet> resultSetConfigurator
+    ) {
+        this(
+            sql,
+            values,
+            rsMapper,
+            connectionSupplier,
+            parallelStrategy,
+            statementConfigurator,
+            resultSetConfigurator,
+            null
+        );
+    }
+
+    /**
+     * Creates a new AsynchronousQueryResultImpl that cancels its statement if
+     * the result is closed before all rows have been read.
+     *
+     * @param sql                    to execute
+     * @param values                 to bind to the statement
+     * @param rsMapper               that maps a row to an element
+     * @param connectionSupplier     to obtain a connection from
+     * @param parallelStrategy       to use for parallel streams
+     * @param statementConfigurator  to apply on the statement
+     * @param resultSetConfigurator  to apply on the ResultSet
+     * @param statementCanceller     that cancels an ongoing statement, or
+     *                               {@code null} if statements shall never
+     *                               be cancelled
+     * @since 3.1.2
+     */
+    public AsynchronousQueryResultImpl(
+        final String sql,
+        final List<?> values,
+        final SqlFunction<ResultSet, T> rsMapper,
+        final Supplier<ConnectionInfo> connectionSupplier,
+        final ParallelStrategy parallelStrategy,
+        final SqlConsumer<PreparedStatement> statementConfigurator,
+        final SqlConsumer<ResultSet> resultSetConfigurator,
+        final SqlConsumer<PreparedStatement> statementCanceller
     ) {
         setSql(sql); // requireNonNull in setter
         setValues(values); // requireNonNull in setter
@@ -77,11 +132,15 @@ public final class AsynchronousQueryResultImpl<T> implements AsynchronousQueryRe
         setState(State.INIT);
         this.statementConfigurator = requireNonNull(statementConfigurator);
         this.resultSetConfigurator = requireNonNull(resultSetConfigurator);
+        this.statementCanceller = statementCanceller; // Nullable
+        this.exhausted = new AtomicBoolean();
     }
 
     @Override
     public Stream<T> stream() {
         setState(State.ESTABLISH);
+        exhausted.set(false);
+        cancelled = false;
         try {
             LOGGER_STREAM.debug("%s, values:%s", getSql(), getValues());
 
@@ -106,11 +165,28 @@ public final class AsynchronousQueryResultImpl<T> implements AsynchronousQueryRe
             throw new SpeedmentException(sqle);
         }
         setState(State.OPEN);
-        return StreamUtil.asStream(rs, getRsMapper(), parallelStrategy);
+        // Must not capture this since it is used by the prefetching reader thread
+        final AtomicBoolean exhaustedFlag = exhausted;
+        final Runnable onExhausted = () -> exhaustedFlag.set(true);
+        if (parallelStrategy instanceof PrefetchingParallelStrategy && !connectionInfo.isInTransaction()) {
+            // The reader thread must not use a connection shared with others
+            final int bufferSize = ((PrefetchingParallelStrategy) parallelStrategy).getBufferSize();
+            stream = StreamUtil.asPrefetchingStream(rs, getRsMapper(), parallelStrategy, bufferSize, onExhausted, this::abortRead);
+        } else {
+            stream = StreamUtil.asStream(rs, getRsMapper(), parallelStrategy, onExhausted);
+        }
+        return stream;
     }
 
     @Override
     public void close() {
+        if (getState() == State.CLOSED) {
+            return;
+        }
+        closeSilently(stream); // Stops any reader thread before the ResultSet is touched
+        if (getState() == State.OPEN && !exhausted.get() && !cancelled) {
+            cancelIfNotExhausted();
+        }
         closeSilently(rs);
         closeSilently(ps);
         commitSilently(connectionInfo);
@@ -118,6 +194,59 @@ public final class AsynchronousQueryResultImpl<T> implements AsynchronousQueryRe
         setState(State.CLOSED);
     }
 
+    /**
+     * Cancels the statement if there are more than a few rows left in the
+     * ResultSet. Some drivers (notably MySQL with a streaming ResultSet) read
+     * and discard all the remaining rows when the ResultSet is closed, which
+     * can take a long time for large tables.
+     * <p>
+     * Statements within a transaction are never cancelled since some
+     * databases (notably PostgreSQL) will then abort the entire transaction.
+     */
+    private void cancelIfNotExhausted() {
+        if (statementCanceller == null || connectionInfo == null || connectionInfo.isInTransaction()) {
+            return;
+        }
+        try {
+            for (int i = 0; i < MAX_SKIPPED_ROWS_BEFORE_CANCEL; i++) {
+                if (!rs.next()) {
+                    exhausted.set(true);
+                    return;
+                }
+            }
+        } catch (SQLException sqle) {
+            LOGGER.debug(sqle, "Unable to skip remaining rows of " + getSql());
+        }
+        try {
+            LOGGER_STREAM.debug("Cancelling %s", getSql());
+            statementCanceller.accept(ps);
+            cancelled = true;
+        } catch (SQLException sqle) {
+            LOGGER.debug(sqle, "Unable to cancel " + getSql());
+        }
+    }
+
+    /**
+     * Cancels the statement when the stream is closed while the prefetching
+     * reader thread is still running. The reader might be blocked waiting
+     * for the next row and would otherwise delay the close until the
+     * database responds. The remaining rows cannot be skipped as in
+     * {@link #cancelIfNotExhausted()} since the ResultSet is owned by the
+     * reader until it has stopped.
+     */
+    private void abortRead() {
+        if (statementCanceller == null || exhausted.get()) {
+            return;
+        }
+        try {
+            LOGGER_STREAM.debug("Cancelling %s", getSql());
+            statementCanceller.accept(ps);
+            cancelled = true;
+        } catch (SQLException sqle) {
+            LOGGER.debug(sqle, "Unable to cancel " + getSql());
+        }
+    }
+
     private void commitSilently(ConnectionInfo connectionInfo) {
         try {
             if (connectionInfo != null) {
@@ -134,6 +263,11 @@ public final class AsynchronousQueryResultImpl<T> implements AsynchronousQueryRe
                 closeable.close();
             }
         } catch (Exception e) {
+            if (cancelled) {
+                // The driver may report the cancellation upon close
+                LOGGER.debug(e, "Error closing cancelled " + closeable);
+                return;
+            }
             LOGGER.error(e, "Error closing " + closeable);
             // Just log the error. No re-throw
         }
@@ -174,6 +308,26 @@ public final class AsynchronousQueryResultImpl<T> implements AsynchronousQueryRe
         this.rsMapper = requireNonNull(rsMapper);
     }
 
+    @Override
+    public Optional<ColumnIdentifier<?>> getProjection() {
+        return Optional.ofNullable(projection);
+    }
+
+    @Override
+    public void setProjection(ColumnIdentifier<?> projection) {
+        this.projection = projection;
+    }
+
+    @Override
+    public boolean hasSkipOrLimit() {
+        return skipOrLimit;
+    }
+
+    @Override
+    public void setSkipOrLimit(boolean skipOrLimit) {
+        this.skipOrLimit = skipOrLimit;
+    }
+
     private State getState() {
         return state;
     }
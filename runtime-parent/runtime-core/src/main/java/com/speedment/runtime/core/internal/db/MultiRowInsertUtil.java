@@ -0,0 +1,197 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.db;
+
+import com.speedment.runtime.core.db.DbmsType;
+import com.speedment.runtime.core.internal.manager.sql.SqlInsertStatement;
+import com.speedment.runtime.field.Field;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static com.speedment.runtime.core.util.StaticClassUtil.instanceNotAllowed;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+
+/**
+ * Utility methods for grouping a batch of single-row inserts into multi-row
+ * {@code INSERT INTO t (a, b) VALUES (?, ?), (?, ?), ...} statements. Some
+ * drivers send one packet per row in a JDBC batch whereas a multi-row
+ * statement is sent as a single packet.
+ *
+ * @author agent
+ * @since 3.1.2
+ */
+public final class MultiRowInsertUtil {
+
+    /**
+     * The estimated size in bytes of a parameter with an unknown size.
+     */
+    private static final int DEFAULT_VALUE_SIZE = 16;
+
+    /**
+     * Returns if the rows with the given values should be inserted using
+     * multi-row inserts for the given database type.
+     *
+     * @param dbmsType            the database type
+     * @param valuesList          the values for each row
+     * @param generatedKeyFields  the generated fields of the table
+     * @return if multi-row inserts should be used
+     */
+    static boolean isApplicable(
+        DbmsType dbmsType,
+        List<? extends List<?>> valuesList,
+        Collection<? extends Field<?>> generatedKeyFields
+    ) {
+        return !valuesList.isEmpty()
+            && !valuesList.get(0).isEmpty()
+            && isApplicable(dbmsType, valuesList.size(), generatedKeyFields);
+    }
+
+    /**
+     * Returns if the given number of rows should be inserted using multi-row
+     * inserts for the given database type. Callers that bind parameters
+     * directly to a statement should check this first, since multi-row
+     * inserts are only rendered for rows given as value lists.
+     *
+     * @param dbmsType            the database type
+     * @param rows                the number of rows to insert
+     * @param generatedKeyFields  the generated fields of the table
+     * @return if multi-row inserts should be used
+     */
+    public static boolean isApplicable(
+        DbmsType dbmsType,
+        int rows,
+        Collection<? extends Field<?>> generatedKeyFields
+    ) {
+        if (rows < 2) {
+            return false;
+        }
+        switch (dbmsType.getMultiRowInsertSupport()) {
+            case WITH_GENERATED_KEYS:
+                return true;
+            case WITHOUT_GENERATED_KEYS:
+                return generatedKeyFields.isEmpty();
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Creates a list of insert statements for the given rows. Consecutive
+     * rows are grouped into multi-row statements as long as the number of
+     * parameters and the estimated size of a statement are within the limits
+     * of the given database type. Generated keys are handed out to the
+     * consumers in the order of the rows.
+     *
+     * @param <ENTITY>               the entity type
+     * @param dbmsType               the database type
+     * @param sql                    the single-row insert statement
+     * @param valuesList             the values for each row
+     * @param generatedKeyFields     the generated fields of the table
+     * @param generatedKeyConsumers  the generated key consumer for each row
+     * @return a list of insert statements
+     */
+    static <ENTITY> List<SqlInsertStatement<ENTITY>> statements(
+        DbmsType dbmsType,
+        String sql,
+        List<? extends List<?>> valuesList,
+        Collection<Field<ENTITY>> generatedKeyFields,
+        List<? extends Consumer<List<Long>>> generatedKeyConsumers
+    ) {
+        final int columns = valuesList.get(0).size();
+        final int maxRows = Math.max(1, dbmsType.getMaxParametersPerStatement() / columns);
+        final long maxSize = dbmsType.getMaxStatementSize();
+        final int placeholdersSize = 2 * columns + 2; // "(?,?)," for each row
+
+        final List<SqlInsertStatement<ENTITY>> result = new ArrayList<>();
+        int from = 0;
+        while (from < valuesList.size()) {
+            long size = sql.length();
+            int to = from;
+            while (to < valuesList.size() && to - from < maxRows) {
+                final long rowSize = placeholdersSize + estimateSize(valuesList.get(to));
+                if (to > from && size + rowSize > maxSize) {
+                    break;
+                }
+                size += rowSize;
+                to++;
+            }
+
+            if (to - from == 1) {
+                result.add(new SqlInsertStatement<>(
+                    sql, valuesList.get(from), generatedKeyFields, generatedKeyConsumers.get(from)
+                ));
+            } else {
+                final List<Object> values = new ArrayList<>((to - from) * columns);
+                for (int i = from; i < to; i++) {
+                    values.addAll(valuesList.get(i));
+                }
+                result.add(new SqlInsertStatement<>(
+                    dbmsType.renderMultiRowInsert(sql, to - from),
+                    values,
+                    generatedKeyFields,
+                    distributor(generatedKeyConsumers.subList(from, to))
+                ));
+            }
+            from = to;
+        }
+        return result;
+    }
+
+    /**
+     * Creates a consumer that hands out the keys generated by a multi-row
+     * insert to the consumers of the individual rows. If the number of keys
+     * does not match the number of rows, the keys can not be mapped and all
+     * rows receive an empty list.
+     */
+    private static Consumer<List<Long>> distributor(List<? extends Consumer<List<Long>>> consumers) {
+        return keys -> {
+            final boolean mappable = keys.size() == consumers.size();
+            for (int i = 0; i < consumers.size(); i++) {
+                consumers.get(i).accept(mappable ? singletonList(keys.get(i)) : emptyList());
+            }
+        };
+    }
+
+    private static long estimateSize(List<?> values) {
+        long size = 0;
+        for (final Object value : values) {
+            size += estimateSize(value);
+        }
+        return size;
+    }
+
+    private static long estimateSize(Object value) {
+        if (value instanceof CharSequence) {
+            return 3L * ((CharSequence) value).length() + 2; // Worst case UTF-8
+        } else if (value instanceof byte[]) {
+            return ((byte[]) value).length;
+        } else {
+            return DEFAULT_VALUE_SIZE;
+        }
+    }
+
+    /**
+     * Utility classes should not be instantiated.
+     */
+    private MultiRowInsertUtil() {
+        instanceNotAllowed(getClass());
+    }
+}
@@ -0,0 +1,103 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.db;
+
+import com.speedment.runtime.core.db.RetryPolicy;
+
+import java.sql.SQLException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Predicate;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A {@link RetryPolicy} with exponential backoff and full jitter.
+ *
+ * @author agent
+ * @since  3.1.2
+ */
+public final class RetryPolicyImpl implements RetryPolicy {
+
+    public static final RetryPolicy NONE = new RetryPolicyImpl(1, 0, 0, 0, ex -> false);
+
+    private final int maxAttempts;
+    private final long initialBackoffMillis;
+    private final long maxBackoffMillis;
+    private final long timeBudgetMillis;
+    private final Predicate<? super SQLException> retryable;
+
+    public RetryPolicyImpl(
+        final int maxAttempts,
+        final long initialBackoffMillis,
+        final long maxBackoffMillis,
+        final long timeBudgetMillis,
+        final Predicate<? super SQLException> retryable
+    ) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("The maximum number of attempts must be positive: " + maxAttempts);
+        }
+        if (initialBackoffMillis < 0 || maxBackoffMillis < 0 || timeBudgetMillis < 0) {
+            throw new IllegalArgumentException(
+                "Backoffs and time budget must not be negative: "
+                + initialBackoffMillis + ", " + maxBackoffMillis + ", " + timeBudgetMillis
+            );
+        }
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMillis = initialBackoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+        this.timeBudgetMillis = timeBudgetMillis;
+        this.retryable = requireNonNull(retryable);
+    }
+
+    @Override
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    @Override
+    public long getTimeBudgetMillis() {
+        return timeBudgetMillis;
+    }
+
+    @Override
+    public long getBackoffMillis(int retry) {
+        if (retry < 1) {
+            throw new IllegalArgumentException("The retry must be positive: " + retry);
+        }
+        long ceiling = initialBackoffMillis;
+        for (int i = 1; i < retry && ceiling < maxBackoffMillis; i++) {
+            ceiling <<= 1;
+        }
+        ceiling = Math.min(ceiling, maxBackoffMillis);
+        return ceiling == 0 ? 0 : ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    @Override
+    public boolean isRetryable(SQLException ex) {
+        return retryable.test(ex);
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "{"
+            + "maxAttempts=" + maxAttempts
+            + ", initialBackoffMillis=" + initialBackoffMillis
+            + ", maxBackoffMillis=" + maxBackoffMillis
+            + ", timeBudgetMillis=" + timeBudgetMillis
+            + "}";
+    }
+}
@@ -22,6 +22,7 @@ import com.speedment.runtime.core.manager.Manager;
 import com.speedment.runtime.core.manager.Persister;
 import com.speedment.runtime.core.manager.Remover;
 import com.speedment.runtime.core.manager.Updater;
+import com.speedment.runtime.core.manager.Upserter;
 import com.speedment.runtime.core.stream.parallel.ParallelStrategy;
 import com.speedment.runtime.field.Field;
 
@@ -96,6 +97,11 @@ public final class ConfiguredManager<ENTITY> implements Manager<ENTITY> {
         return manager.remover();
     }
 
+    @Override
+    public Upserter<ENTITY> upserter() {
+        return manager.upserter();
+    }
+
     @Override
     public String toString() {
         return "ConfiguredManager{" +
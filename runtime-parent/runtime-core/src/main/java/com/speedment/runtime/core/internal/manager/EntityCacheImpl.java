@@ -0,0 +1,267 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.manager;
+
+import com.speedment.runtime.core.manager.EntityCache;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Default implementation of the {@link EntityCache} interface.
+ * <p>
+ * Lookups are lock free. Entities are evicted using the CLOCK algorithm
+ * where entities that have been looked up since the clock hand last passed
+ * them are given a second chance. When the cache is full, a new entity is
+ * only admitted if its key has been looked up more frequently than the key
+ * of the entity it would replace (TinyLFU admission), so that a scan over
+ * many keys that are only read once can not flush the cache.
+ * <p>
+ * Invalidations are tracked using a fixed number of versions, each shared
+ * by the keys that hash to it, so that an invalidation only rejects the
+ * concurrent puts of keys that share its version.
+ *
+ * @param <ENTITY>  the entity type
+ *
+ * @author  agent
+ * @since   3.1.2
+ */
+public final class EntityCacheImpl<ENTITY> implements EntityCache<ENTITY> {
+
+    private static final int STRIPES = 64; // Must be a power of two
+
+    private final long maxSize;
+    private final long ttlNanos;
+    private final LongSupplier nanoTime;
+    private final ConcurrentHashMap<Object, Entry<ENTITY>> entries;
+    private final FrequencySketch sketch;
+    private final AtomicLongArray versions;
+    private final LongAdder hits;
+    private final LongAdder misses;
+    private final LongAdder evictions;
+
+    private final Object lock;
+    private final Deque<Entry<ENTITY>> clock; // Guarded by lock
+
+    public EntityCacheImpl(long maxSize, Duration ttl) {
+        this(maxSize, ttl, System::nanoTime);
+    }
+
+    EntityCacheImpl(long maxSize, Duration ttl, LongSupplier nanoTime) {
+        requireNonNull(ttl);
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException(
+                "The maximum size must be positive: " + maxSize
+            );
+        }
+        if (ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException(
+                "The time to live must be positive: " + ttl
+            );
+        }
+        this.maxSize   = maxSize;
+        this.ttlNanos  = ttl.compareTo(Duration.ofNanos(Long.MAX_VALUE)) >= 0
+            ? Long.MAX_VALUE
+            : ttl.toNanos();
+        this.nanoTime  = requireNonNull(nanoTime);
+        this.entries   = new ConcurrentHashMap<>();
+        this.sketch    = new FrequencySketch(maxSize);
+        this.versions  = new AtomicLongArray(STRIPES);
+        this.hits      = new LongAdder();
+        this.misses    = new LongAdder();
+        this.evictions = new LongAdder();
+        this.lock      = new Object();
+        this.clock     = new ArrayDeque<>();
+    }
+
+    @Override
+    public Optional<ENTITY> get(Object key) {
+        requireNonNull(key);
+        sketch.increment(key);
+        final Entry<ENTITY> entry = entries.get(key);
+        if (entry == null) {
+            misses.increment();
+            return Optional.empty();
+        }
+        if (entry.isExpired(nanoTime.getAsLong(), ttlNanos)) {
+            if (entries.remove(key, entry)) {
+                evictions.increment();
+            }
+            misses.increment();
+            return Optional.empty();
+        }
+        entry.referenced = true;
+        hits.increment();
+        return Optional.of(entry.snapshot.get());
+    }
+
+    @Override
+    public long stamp(Object key) {
+        return versions.get(stripe(requireNonNull(key)));
+    }
+
+    @Override
+    public void put(Object key, Supplier<? extends ENTITY> snapshot, long stamp) {
+        requireNonNull(key);
+        requireNonNull(snapshot);
+        synchronized (lock) {
+            if (stamp != versions.get(stripe(key))) {
+                return; // The entity might have been read before an update
+            }
+            final long now = nanoTime.getAsLong();
+            if (!entries.containsKey(key)
+                && entries.size() >= maxSize
+                && !evictFor(key, now)) {
+                return;
+            }
+            final Entry<ENTITY> entry = new Entry<>(key, snapshot, now);
+            entries.put(key, entry);
+            clock.addLast(entry);
+            if (clock.size() > 2 * entries.size() + 16) {
+                clock.removeIf(e -> entries.get(e.key) != e);
+            }
+        }
+    }
+
+    @Override
+    public void invalidate(Object key) {
+        requireNonNull(key);
+        synchronized (lock) {
+            versions.incrementAndGet(stripe(key));
+            entries.remove(key);
+        }
+    }
+
+    @Override
+    public void invalidateAll() {
+        synchronized (lock) {
+            for (int i = 0; i < STRIPES; i++) {
+                versions.incrementAndGet(i);
+            }
+            entries.clear();
+            clock.clear();
+        }
+    }
+
+    @Override
+    public long size() {
+        return entries.size();
+    }
+
+    @Override
+    public long getMaxSize() {
+        return maxSize;
+    }
+
+    @Override
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    @Override
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    @Override
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName()
+            + "{size=" + size()
+            + ", maxSize=" + maxSize
+            + ", hits=" + getHitCount()
+            + ", misses=" + getMissCount()
+            + ", evictions=" + getEvictionCount()
+            + "}";
+    }
+
+    /**
+     * Advances the clock hand until an entity that can be evicted is found
+     * and evicts it, unless the candidate key is looked up less frequently
+     * than the key of that entity. Must be called holding the lock.
+     *
+     * @param candidate  the key of the entity to be cached
+     * @param now        the current time in nanoseconds
+     * @return           {@code true} if room was made for the candidate
+     */
+    private boolean evictFor(Object candidate, long now) {
+        Entry<ENTITY> entry;
+        while ((entry = clock.pollFirst()) != null) {
+            if (entries.get(entry.key) != entry) {
+                continue; // Already invalidated, replaced or expired
+            }
+            if (entry.isExpired(now, ttlNanos)) {
+                evict(entry);
+                return true;
+            }
+            if (entry.referenced) {
+                entry.referenced = false;
+                clock.addLast(entry);
+                continue;
+            }
+            if (sketch.frequency(candidate) > sketch.frequency(entry.key)) {
+                evict(entry);
+                return true;
+            }
+            clock.addFirst(entry);
+            return false;
+        }
+        return true;
+    }
+
+    private static int stripe(Object key) {
+        final int h = key.hashCode();
+        return (h ^ (h >>> 16)) & (STRIPES - 1);
+    }
+
+    private void evict(Entry<ENTITY> entry) {
+        if (entries.remove(entry.key, entry)) {
+            evictions.increment();
+        }
+    }
+
+    private static final class Entry<ENTITY> {
+
+        private final Object key;
+        private final Supplier<? extends ENTITY> snapshot;
+        private final long createdNanos;
+        private volatile boolean referenced;
+
+        private Entry(Object key, Supplier<? extends ENTITY> snapshot, long createdNanos) {
+            this.key          = key;
+            this.snapshot     = snapshot;
+            this.createdNanos = createdNanos;
+        }
+
+        private boolean isExpired(long now, long ttlNanos) {
+            return now - createdNanos >= ttlNanos;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.manager;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A probabilistic count of how often keys are accessed, used to decide if a
+ * key shall be admitted to an {@link EntityCacheImpl} in the same way as the
+ * TinyLFU admission policy. The counts are kept in a count-min sketch of
+ * 4-bit counters, four of which are used for each key. All counters are
+ * halved once the number of increments reaches ten times the capacity, so
+ * that keys that are no longer accessed lose their frequency over time.
+ * <p>
+ * This class is thread safe. Concurrent increments may occasionally be lost
+ * when the counters are halved, which only makes the counts less accurate.
+ *
+ * @author  agent
+ * @since   3.1.2
+ */
+final class FrequencySketch {
+
+    private static final long[] SEEDS = {
+        0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L,
+        0x9ae16a3b2f90404fL, 0xcbf29ce484222325L
+    };
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final int MAX_FREQUENCY = 15;
+    private static final int MAX_TABLE_LENGTH = 1 << 30;
+
+    private final AtomicLongArray table;
+    private final int tableMask;
+    private final int sampleSize;
+    private final AtomicInteger additions;
+
+    FrequencySketch(long capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("The capacity must be positive: " + capacity);
+        }
+        final int length = capacity >= MAX_TABLE_LENGTH
+            ? MAX_TABLE_LENGTH
+            : Math.max(1, Integer.highestOneBit((int) capacity - 1) << 1);
+        this.table = new AtomicLongArray(length);
+        this.tableMask = length - 1;
+        this.sampleSize = (int) Math.min(10L * capacity, Integer.MAX_VALUE);
+        this.additions = new AtomicInteger();
+    }
+
+    /**
+     * Returns the estimated number of times the given key has been
+     * incremented, at most 15.
+     *
+     * @param key  the key
+     * @return     the estimated frequency
+     */
+    int frequency(Object key) {
+        final int hash = spread(key.hashCode());
+        final int start = (hash & 3) << 2;
+        int frequency = MAX_FREQUENCY;
+        for (int i = 0; i < 4; i++) {
+            final long slot = table.get(indexOf(hash, i));
+            final int count = (int) ((slot >>> ((start + i) << 2)) & 0xfL);
+            frequency = Math.min(frequency, count);
+        }
+        return frequency;
+    }
+
+    /**
+     * Increments the frequency of the given key, unless it has reached the
+     * maximum frequency.
+     *
+     * @param key  the key
+     */
+    void increment(Object key) {
+        final int hash = spread(key.hashCode());
+        final int start = (hash & 3) << 2;
+        boolean added = false;
+        for (int i = 0; i < 4; i++) {
+            added |= incrementAt(indexOf(hash, i), start + i);
+        }
+        if (added && additions.incrementAndGet() >= sampleSize) {
+            reset();
+        }
+    }
+
+    private boolean incrementAt(int index, int counter) {
+        final int offset = counter << 2;
+        final long mask = 0xfL << offset;
+        long slot;
+        do {
+            slot = table.get(index);
+            if ((slot & mask) == mask) {
+                return false;
+            }
+        } while (!table.compareAndSet(index, slot, slot + (1L << offset)));
+        return true;
+    }
+
+    private void reset() {
+        final int current = additions.get();
+        if (current < sampleSize || !additions.compareAndSet(current, current / 2)) {
+            return; // Another thread is resetting the counters
+        }
+        for (int i = 0; i < table.length(); i++) {
+            long slot;
+            do {
+                slot = table.get(i);
+            } while (!table.compareAndSet(i, slot, (slot >>> 1) & RESET_MASK));
+        }
+    }
+
+    private int indexOf(int hash, int i) {
+        long h = (hash + SEEDS[i]) * SEEDS[i];
+        h += h >>> 32;
+        return ((int) h) & tableMask;
+    }
+
+    private static int spread(int x) {
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        return (x >>> 16) ^ x;
+    }
+}
@@ -0,0 +1,60 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.manager;
+
+import com.speedment.runtime.core.manager.UpsertResult;
+import com.speedment.runtime.core.manager.Upserter;
+import com.speedment.runtime.field.Field;
+
+import java.util.Collection;
+import java.util.stream.Stream;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * An {@link Upserter} that throws an {@code UnsupportedOperationException}
+ * when it is applied.
+ *
+ * @param <ENTITY> the entity type
+ *
+ * @author agent
+ * @since 3.1.2
+ */
+public final class UnsupportedUpserter<ENTITY> implements Upserter<ENTITY> {
+
+    private final String message;
+
+    public UnsupportedUpserter(String message) {
+        this.message = requireNonNull(message);
+    }
+
+    @Override
+    public ENTITY apply(ENTITY entity) {
+        throw new UnsupportedOperationException(message);
+    }
+
+    @Override
+    public UpsertResult upsert(Stream<ENTITY> entities, int batchSize) {
+        throw new UnsupportedOperationException(message);
+    }
+
+    @Override
+    public Upserter<ENTITY> updating(Collection<? extends Field<ENTITY>> fields) {
+        return this;
+    }
+
+}
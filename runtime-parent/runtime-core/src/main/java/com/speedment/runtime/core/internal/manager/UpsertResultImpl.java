@@ -0,0 +1,64 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.manager;
+
+import com.speedment.runtime.core.manager.UpsertResult;
+
+/**
+ *
+ * @author agent
+ * @since 3.1.2
+ */
+public final class UpsertResultImpl implements UpsertResult {
+
+    private final long count;
+    private final long inserted;
+    private final long updated;
+
+    public UpsertResultImpl(long count, long inserted, long updated) {
+        if (inserted < 0 || updated < 0 || inserted + updated > count) {
+            throw new IllegalArgumentException(
+                "Illegal upsert result: count=" + count
+                + ", inserted=" + inserted + ", updated=" + updated
+            );
+        }
+        this.count = count;
+        this.inserted = inserted;
+        this.updated = updated;
+    }
+
+    @Override
+    public long getCount() {
+        return count;
+    }
+
+    @Override
+    public long getInserted() {
+        return inserted;
+    }
+
+    @Override
+    public long getUpdated() {
+        return updated;
+    }
+
+    @Override
+    public String toString() {
+        return "UpsertResultImpl{" + "count=" + count + ", inserted=" + inserted + ", updated=" + updated + '}';
+    }
+
+}
@@ -0,0 +1,258 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.manager.sql;
+
+import com.speedment.runtime.core.db.SqlFunction;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * The values of a single row of a {@link ResultSet} as they were read by an
+ * entity mapper. A snapshot can be replayed to the same mapper any number of
+ * times to create new entities that are equal to the entity that was read,
+ * without querying the database again. Mutable values, such as
+ * {@code byte[]} and {@code java.sql.Timestamp}, are copied each time they
+ * are replayed.
+ * <p>
+ * Only mappers that read columns by index, using the getters of the
+ * {@code ResultSet} and {@link ResultSet#wasNull()}, can be recorded.
+ *
+ * @author agent
+ * @since  3.1.2
+ */
+final class ResultSetSnapshot {
+
+    private final Map<Integer, Value> values;
+
+    private ResultSetSnapshot(Map<Integer, Value> values) {
+        this.values = values;
+    }
+
+    /**
+     * Applies the given mapper to the current row of the given result set
+     * and records the values that it reads.
+     *
+     * @param <T>        the entity type
+     * @param resultSet  the result set positioned at the row to map
+     * @param mapper     the entity mapper
+     * @return           the mapped entity and its snapshot
+     *
+     * @throws SQLException  if the mapper throws an exception
+     */
+    static <T> Recording<T> record(ResultSet resultSet, SqlFunction<ResultSet, T> mapper) throws SQLException {
+        final Recorder recorder = new Recorder(requireNonNull(resultSet));
+        final T entity = mapper.apply(proxy(recorder));
+        return new Recording<>(
+            entity,
+            recorder.replayable ? new ResultSetSnapshot(recorder.values) : null
+        );
+    }
+
+    /**
+     * Applies the given mapper to the recorded values. The mapper must read
+     * the same columns using the same getters as when the values were
+     * recorded.
+     *
+     * @param <T>     the entity type
+     * @param mapper  the entity mapper that the snapshot was recorded with
+     * @return        a new entity
+     *
+     * @throws SQLException  if the mapper reads a value that was not
+     *                       recorded or throws an exception
+     */
+    <T> T replay(SqlFunction<ResultSet, T> mapper) throws SQLException {
+        return mapper.apply(proxy(new Replayer(values)));
+    }
+
+    /**
+     * An entity together with the snapshot of the values it was mapped from.
+     *
+     * @param <T>  the entity type
+     */
+    static final class Recording<T> {
+
+        private final T entity;
+        private final ResultSetSnapshot snapshot; // Nullable
+
+        private Recording(T entity, ResultSetSnapshot snapshot) {
+            this.entity = entity;
+            this.snapshot = snapshot;
+        }
+
+        T getEntity() {
+            return entity;
+        }
+
+        /**
+         * Returns the snapshot, or an empty {@code Optional} if the mapper
+         * read values in a way that can not be replayed.
+         *
+         * @return  the snapshot, if any
+         */
+        Optional<ResultSetSnapshot> getSnapshot() {
+            return Optional.ofNullable(snapshot);
+        }
+    }
+
+    private static ResultSet proxy(ResultSetHandler handler) {
+        return (ResultSet) Proxy.newProxyInstance(
+            ResultSet.class.getClassLoader(),
+            new Class<?>[]{ResultSet.class},
+            (proxy, method, args) -> {
+                if (method.getDeclaringClass() == Object.class) {
+                    return method.invoke(handler, args);
+                }
+                return handler.invoke(method, args);
+            }
+        );
+    }
+
+    private static boolean isIndexedGetter(Method method, Object[] args) {
+        return method.getName().startsWith("get")
+            && args != null
+            && args.length >= 1
+            && args[0] instanceof Integer;
+    }
+
+    private static boolean isImmutable(Object value) {
+        return value == null
+            || value instanceof String
+            || value instanceof Boolean
+            || value instanceof Character
+            || value instanceof Byte
+            || value instanceof Short
+            || value instanceof Integer
+            || value instanceof Long
+            || value instanceof Float
+            || value instanceof Double
+            || value instanceof BigDecimal
+            || value instanceof BigInteger
+            || value instanceof UUID
+            || value.getClass().getName().startsWith("java.time.");
+    }
+
+    private static boolean isCopyable(Object value) {
+        return value instanceof byte[] || value instanceof Date;
+    }
+
+    private static Object copyOf(Object value) {
+        if (value instanceof byte[]) {
+            return ((byte[]) value).clone();
+        } else if (value instanceof Date) {
+            return ((Date) value).clone();
+        } else {
+            return value;
+        }
+    }
+
+    @FunctionalInterface
+    private interface ResultSetHandler {
+
+        Object invoke(Method method, Object[] args) throws Throwable;
+    }
+
+    private static final class Value {
+
+        private final String getter;
+        private final Object value;
+        private final boolean wasNull;
+
+        private Value(String getter, Object value, boolean wasNull) {
+            this.getter = getter;
+            this.value = value;
+            this.wasNull = wasNull;
+        }
+    }
+
+    private static final class Recorder implements ResultSetHandler {
+
+        private final ResultSet resultSet;
+        private final Map<Integer, Value> values;
+        private boolean replayable;
+
+        private Recorder(ResultSet resultSet) {
+            this.resultSet = resultSet;
+            this.values = new HashMap<>();
+            this.replayable = true;
+        }
+
+        @Override
+        public Object invoke(Method method, Object[] args) throws Throwable {
+            final Object result;
+            try {
+                result = method.invoke(resultSet, args);
+            } catch (final InvocationTargetException ex) {
+                throw ex.getCause();
+            }
+            if (isIndexedGetter(method, args)) {
+                if (isImmutable(result) || isCopyable(result)) {
+                    // The mapper might keep and modify mutable values
+                    values.put((Integer) args[0], new Value(method.getName(), copyOf(result), resultSet.wasNull()));
+                } else {
+                    replayable = false; // E.g. streams and LOBs
+                }
+            } else if (!"wasNull".equals(method.getName())) {
+                replayable = false;
+            }
+            return result;
+        }
+    }
+
+    private static final class Replayer implements ResultSetHandler {
+
+        private final Map<Integer, Value> values;
+        private boolean wasNull;
+
+        private Replayer(Map<Integer, Value> values) {
+            this.values = values;
+        }
+
+        @Override
+        public Object invoke(Method method, Object[] args) throws Throwable {
+            if ("wasNull".equals(method.getName())) {
+                return wasNull;
+            }
+            if (isIndexedGetter(method, args)) {
+                final Value value = values.get((Integer) args[0]);
+                if (value != null && value.getter.equals(method.getName())) {
+                    wasNull = value.wasNull;
+                    return copyOf(value.value);
+                }
+                throw new SQLException(
+                    "Column " + args[0] + " was not read using " + method.getName() + " when it was recorded."
+                );
+            }
+            throw new SQLFeatureNotSupportedException(
+                "The method " + method.getName() + " can not be replayed."
+            );
+        }
+    }
+}
@@ -16,8 +16,11 @@
  */
 package com.speedment.runtime.core.internal.manager.sql;
 
+import com.speedment.runtime.core.db.SqlConsumer;
 import com.speedment.runtime.field.Field;
 
+import java.sql.PreparedStatement;
+
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -48,6 +51,18 @@ public final class SqlInsertStatement<ENTITY> extends SqlStatement {
         this.generatedColumnFields = requireNonNull(generatedColumnFields);
     }
 
+    public SqlInsertStatement(
+            String sql,
+            SqlConsumer<PreparedStatement> binder,
+            Collection<Field<ENTITY>> generatedColumnFields,
+            Consumer<List<Long>> generatedKeysConsumer) {
+
+        super(sql, binder);
+        this.generatedKeys = new ArrayList<>();
+        this.generatedKeysConsumer = requireNonNull(generatedKeysConsumer);
+        this.generatedColumnFields = requireNonNull(generatedColumnFields);
+    }
+
     public Collection<Field<ENTITY>> getGeneratedColumnFields() {
         return generatedColumnFields;
     }
@@ -60,6 +75,16 @@ public final class SqlInsertStatement<ENTITY> extends SqlStatement {
         generatedKeys.add(generatedKey);
     }
 
+    /**
+     * Removes all the generated keys that have been added, so that the
+     * statement can be executed again.
+     *
+     * @since 3.1.2
+     */
+    public void clearGeneratedKeys() {
+        generatedKeys.clear();
+    }
+
     public void acceptGeneratedKeys() {
         generatedKeysConsumer.accept(generatedKeys);
     }
@@ -16,7 +16,12 @@
  */
 package com.speedment.runtime.core.internal.manager.sql;
 
+import com.speedment.runtime.core.db.SqlConsumer;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 
@@ -28,14 +33,31 @@ public abstract class SqlStatement {
 
     private final String sql;
     private final List<?> values;
+    private final SqlConsumer<PreparedStatement> binder; // Nullable
+    private long updateCount;
 
     public enum Type {
-        INSERT, UPDATE, DELETE
+        INSERT, UPDATE, DELETE, UPSERT
     }
 
     public SqlStatement(final String sql, final List<?> values) {
         this.sql = Objects.requireNonNull(sql);
         this.values = new ArrayList<>(Objects.requireNonNull(values));
+        this.binder = null;
+    }
+
+    /**
+     * Creates a statement that sets its parameters using the given binder
+     * rather than from a list of values.
+     *
+     * @param sql     the SQL of the statement
+     * @param binder  sets the parameters of the prepared statement
+     * @since 3.1.2
+     */
+    public SqlStatement(final String sql, final SqlConsumer<PreparedStatement> binder) {
+        this.sql = Objects.requireNonNull(sql);
+        this.values = Collections.emptyList();
+        this.binder = Objects.requireNonNull(binder);
     }
 
     public String getSql() {
@@ -46,9 +68,54 @@ public abstract class SqlStatement {
         return values;
     }
 
+    /**
+     * Returns if the parameters of this statement are set by a binder, in
+     * which case {@link #getValues()} is empty.
+     *
+     * @return {@code true} if this statement uses a binder
+     * @since 3.1.2
+     */
+    public boolean isBound() {
+        return binder != null;
+    }
+
+    /**
+     * Sets the parameters of the given prepared statement, starting with the
+     * first parameter.
+     *
+     * @param ps  the prepared statement
+     * @throws SQLException if a parameter could not be set
+     * @since 3.1.2
+     */
+    public void bind(PreparedStatement ps) throws SQLException {
+        if (binder != null) {
+            binder.accept(ps);
+            return;
+        }
+        int i = 1;
+        for (final Object o : values) {
+            ps.setObject(i++, o);
+        }
+    }
+
+    /**
+     * Returns the number of rows affected by this statement when it was last
+     * executed, or a negative value if the number is not known.
+     *
+     * @return the number of affected rows
+     * @since 3.1.2
+     */
+    public long getUpdateCount() {
+        return updateCount;
+    }
+
+    public void setUpdateCount(long updateCount) {
+        this.updateCount = updateCount;
+    }
+
     @Override
     public String toString() {
-        return getSql() + ", " + values.toString();
+        return getSql() + ", " + (binder == null ? values.toString() : "<bound>");
     }
 
     public abstract Type getType();
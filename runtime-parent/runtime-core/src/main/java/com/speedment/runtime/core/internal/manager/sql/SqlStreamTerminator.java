@@ -21,19 +21,34 @@ import com.speedment.runtime.core.component.sql.SqlStreamOptimizerComponent;
 import com.speedment.runtime.core.component.sql.SqlStreamOptimizerInfo;
 import com.speedment.runtime.core.component.sql.override.SqlStreamTerminatorComponent;
 import com.speedment.runtime.core.db.AsynchronousQueryResult;
+import com.speedment.runtime.core.db.SqlFunction;
+import com.speedment.runtime.core.exception.SpeedmentException;
+import static com.speedment.runtime.core.internal.component.sql.optimizer.FilterPushdownUtil.hoistFieldPredicates;
+import com.speedment.runtime.core.internal.stream.builder.action.reference.FilterAction;
 import com.speedment.runtime.core.internal.stream.builder.pipeline.DoublePipeline;
 import com.speedment.runtime.core.internal.stream.builder.pipeline.IntPipeline;
 import com.speedment.runtime.core.internal.stream.builder.pipeline.LongPipeline;
 import com.speedment.runtime.core.internal.stream.builder.pipeline.ReferencePipeline;
 import com.speedment.runtime.core.internal.stream.builder.streamterminator.StreamTerminator;
+import com.speedment.runtime.core.manager.EntityCache;
 import com.speedment.runtime.core.stream.Pipeline;
 import com.speedment.runtime.core.util.StreamComposition;
+import com.speedment.runtime.field.Field;
+import com.speedment.runtime.field.predicate.FieldPredicate;
+import com.speedment.runtime.field.predicate.PredicateType;
+import static com.speedment.runtime.field.util.PredicateOperandUtil.getFirstOperandAsRaw;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.Comparator;
 import java.util.Iterator;
 import static java.util.Objects.requireNonNull;
 import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.OptionalInt;
+import java.util.OptionalLong;
 import java.util.PrimitiveIterator;
 import java.util.Spliterator;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
 import java.util.function.BinaryOperator;
@@ -69,6 +84,8 @@ public final class SqlStreamTerminator<ENTITY> implements StreamTerminator {
     private final SqlStreamOptimizerInfo<ENTITY> info;
     private final AsynchronousQueryResult<ENTITY> asynchronousQueryResult;
     private final boolean allowIteratorAndSpliterator;
+    private final EntityCache<ENTITY> entityCache; // Nullable
+    private final Field<ENTITY> primaryKeyField; // Nullable
 
     public SqlStreamTerminator(
         final SqlStreamOptimizerInfo<ENTITY> info,
@@ -76,12 +93,49 @@ public final class SqlStreamTerminator<ENTITY> implements StreamTerminator {
         final SqlStreamOptimizerComponent sqlStreamOptimizerComponent,
         final SqlStreamTerminatorComponent sqlStreamTerminatorComponent,
         final boolean allowIteratorAndSpliterator
+    ) {
+        this(
+            info,
+            asynchronousQueryResult,
+            sqlStreamOptimizerComponent,
+            sqlStreamTerminatorComponent,
+            allowIteratorAndSpliterator,
+            null,
+            null
+        );
+    }
+
+    /**
+     * Creates a terminator that serves {@code findAny()} and
+     * {@code findFirst()} from the given entity cache if the stream only
+     * filters on the primary key being equal to a value.
+     *
+     * @param info                          the optimizer info
+     * @param asynchronousQueryResult       the query result
+     * @param sqlStreamOptimizerComponent   the optimizer component
+     * @param sqlStreamTerminatorComponent  the terminator component
+     * @param allowIteratorAndSpliterator   if iterators may be used
+     * @param entityCache                   the entity cache, or {@code null}
+     * @param primaryKeyField               the single primary key field of
+     *                                      the entity, or {@code null} if
+     *                                      {@code entityCache} is {@code null}
+     */
+    public SqlStreamTerminator(
+        final SqlStreamOptimizerInfo<ENTITY> info,
+        final AsynchronousQueryResult<ENTITY> asynchronousQueryResult,
+        final SqlStreamOptimizerComponent sqlStreamOptimizerComponent,
+        final SqlStreamTerminatorComponent sqlStreamTerminatorComponent,
+        final boolean allowIteratorAndSpliterator,
+        final EntityCache<ENTITY> entityCache,
+        final Field<ENTITY> primaryKeyField
     ) {
         this.info = requireNonNull(info);
         this.asynchronousQueryResult = requireNonNull(asynchronousQueryResult);
         this.sqlStreamOptimizerComponent = requireNonNull(sqlStreamOptimizerComponent);
         this.sqlStreamTerminatorComponent = requireNonNull(sqlStreamTerminatorComponent);
         this.allowIteratorAndSpliterator = allowIteratorAndSpliterator;
+        this.entityCache = entityCache;
+        this.primaryKeyField = entityCache == null ? null : requireNonNull(primaryKeyField);
     }
 
     //Todo: Remove this and split up responsibility
@@ -92,6 +146,7 @@ public final class SqlStreamTerminator<ENTITY> implements StreamTerminator {
     @Override
     public <P extends Pipeline> P optimize(final P initialPipeline) {
         requireNonNull(initialPipeline);
+        hoistFieldPredicates(initialPipeline);
         final SqlStreamOptimizer<ENTITY> optimizer = sqlStreamOptimizerComponent.get(initialPipeline, info.getDbmsType());
         return optimizer.optimize(initialPipeline, info, asynchronousQueryResult);
     }
@@ -173,13 +228,16 @@ public final class SqlStreamTerminator<ENTITY> implements StreamTerminator {
 
     @Override
     public <T> Optional<T> findAny(ReferencePipeline<T> pipeline) {
-        return sqlStreamTerminatorComponent.<ENTITY>getFindAnyTerminator().apply(info, this, pipeline);
-
+        return findCachedOr(pipeline, () ->
+            sqlStreamTerminatorComponent.<ENTITY>getFindAnyTerminator().apply(info, this, pipeline)
+        );
     }
 
     @Override
     public <T> Optional<T> findFirst(ReferencePipeline<T> pipeline) {
-        return sqlStreamTerminatorComponent.<ENTITY>getFindFirstTerminator().apply(info, this, pipeline);
+        return findCachedOr(pipeline, () ->
+            sqlStreamTerminatorComponent.<ENTITY>getFindFirstTerminator().apply(info, this, pipeline)
+        );
     }
 
     @Override
@@ -204,6 +262,26 @@ public final class SqlStreamTerminator<ENTITY> implements StreamTerminator {
         return sqlStreamTerminatorComponent.<ENTITY>getDoubleCountTerminator().apply(info, this, pipeline);
     }
 
+    @Override
+    public double sum(DoublePipeline pipeline) {
+        return sqlStreamTerminatorComponent.<ENTITY>getDoubleSumTerminator().apply(info, this, pipeline);
+    }
+
+    @Override
+    public OptionalDouble min(DoublePipeline pipeline) {
+        return sqlStreamTerminatorComponent.<ENTITY>getDoubleMinTerminator().apply(info, this, pipeline);
+    }
+
+    @Override
+    public OptionalDouble max(DoublePipeline pipeline) {
+        return sqlStreamTerminatorComponent.<ENTITY>getDoubleMaxTerminator().apply(info, this, pipeline);
+    }
+
+    @Override
+    public OptionalDouble average(DoublePipeline pipeline) {
+        return sqlStreamTerminatorComponent.<ENTITY>getDoubleAverageTerminator().apply(info, this, pipeline);
+    }
+
     // Todo: Introduce delegator
     @Override
     public PrimitiveIterator.OfDouble iterator(DoublePipeline pipeline) {
@@ -228,6 +306,26 @@ public final class SqlStreamTerminator<ENTITY> implements StreamTerminator {
         return sqlStreamTerminatorComponent.<ENTITY>getIntCountTerminator().apply(info, this, pipeline);
     }
 
+    @Override
+    public int sum(IntPipeline pipeline) {
+        return sqlStreamTerminatorComponent.<ENTITY>getIntSumTerminator().apply(info, this, pipeline);
+    }
+
+    @Override
+    public OptionalInt min(IntPipeline pipeline) {
+        return sqlStreamTerminatorComponent.<ENTITY>getIntMinTerminator().apply(info, this, pipeline);
+    }
+
+    @Override
+    public OptionalInt max(IntPipeline pipeline) {
+        return sqlStreamTerminatorComponent.<ENTITY>getIntMaxTerminator().apply(info, this, pipeline);
+    }
+
+    @Override
+    public OptionalDouble average(IntPipeline pipeline) {
+        return sqlStreamTerminatorComponent.<ENTITY>getIntAverageTerminator().apply(info, this, pipeline);
+    }
+
     // Todo: Introduce delegator
     @Override
     public PrimitiveIterator.OfInt iterator(IntPipeline pipeline) {
@@ -252,6 +350,26 @@ public final class SqlStreamTerminator<ENTITY> implements StreamTerminator {
         return sqlStreamTerminatorComponent.<ENTITY>getLongCountTerminator().apply(info, this, pipeline);
     }
 
+    @Override
+    public long sum(LongPipeline pipeline) {
+        return sqlStreamTerminatorComponent.<ENTITY>getLongSumTerminator().apply(info, this, pipeline);
+    }
+
+    @Override
+    public OptionalLong min(LongPipeline pipeline) {
+        return sqlStreamTerminatorComponent.<ENTITY>getLongMinTerminator().apply(info, this, pipeline);
+    }
+
+    @Override
+    public OptionalLong max(LongPipeline pipeline) {
+        return sqlStreamTerminatorComponent.<ENTITY>getLongMaxTerminator().apply(info, this, pipeline);
+    }
+
+    @Override
+    public OptionalDouble average(LongPipeline pipeline) {
+        return sqlStreamTerminatorComponent.<ENTITY>getLongAverageTerminator().apply(info, this, pipeline);
+    }
+
     // Todo: Introduce delegator
     @Override
     public PrimitiveIterator.OfLong iterator(LongPipeline pipeline) {
@@ -270,4 +388,75 @@ public final class SqlStreamTerminator<ENTITY> implements StreamTerminator {
         throw new UnsupportedOperationException(UNSUPPORTED_BECAUSE_OF_CLOSE_MAY_NOT_BE_CALLED);
     }
 
+    /**
+     * Returns the cached entity if the pipeline only filters on the primary
+     * key being equal to a value, and otherwise the result of the given
+     * finder. Snapshots of the entities found by the finder for such
+     * pipelines are offered to the cache. The snapshots are recorded while
+     * the entities are mapped and replayed to the same mapper on every hit,
+     * so that callers never share an entity instance.
+     */
+    private <T> Optional<T> findCachedOr(ReferencePipeline<T> pipeline, Supplier<Optional<T>> finder) {
+        final Object key = entityCache == null ? null : primaryKeyOf(pipeline);
+        if (key == null) {
+            return finder.get();
+        }
+
+        // The pipeline only has a filter action so T is the same as ENTITY
+        @SuppressWarnings("unchecked")
+        final Optional<T> cached = (Optional<T>) entityCache.get(key);
+        if (cached.isPresent()) {
+            return cached;
+        }
+
+        final long stamp = entityCache.stamp(key);
+        final SqlFunction<ResultSet, ENTITY> mapper = asynchronousQueryResult.getRsMapper();
+        final AtomicReference<ResultSetSnapshot.Recording<ENTITY>> last = new AtomicReference<>();
+        asynchronousQueryResult.setRsMapper(rs -> {
+            final ResultSetSnapshot.Recording<ENTITY> recording = ResultSetSnapshot.record(rs, mapper);
+            last.set(recording);
+            return recording.getEntity();
+        });
+
+        final Optional<T> result;
+        try {
+            result = finder.get();
+        } finally {
+            asynchronousQueryResult.setRsMapper(mapper);
+        }
+        final ResultSetSnapshot.Recording<ENTITY> recording = last.get();
+        if (result.isPresent() && recording != null && recording.getEntity() == result.get()) {
+            recording.getSnapshot().ifPresent(snapshot -> entityCache.put(
+                primaryKeyField.getter().apply(recording.getEntity()),
+                () -> replay(snapshot, mapper),
+                stamp
+            ));
+        }
+        return result;
+    }
+
+    private static <ENTITY> ENTITY replay(ResultSetSnapshot snapshot, SqlFunction<ResultSet, ENTITY> mapper) {
+        try {
+            return snapshot.replay(mapper);
+        } catch (final SQLException ex) {
+            throw new SpeedmentException("Unable to create an entity from a cached snapshot", ex);
+        }
+    }
+
+    private Object primaryKeyOf(Pipeline pipeline) {
+        if (pipeline.size() != 1 || !(pipeline.getFirst() instanceof FilterAction)) {
+            return null;
+        }
+        final Predicate<?> predicate = ((FilterAction<?>) pipeline.getFirst()).getPredicate();
+        if (!(predicate instanceof FieldPredicate)) {
+            return null;
+        }
+        final FieldPredicate<?> fieldPredicate = (FieldPredicate<?>) predicate;
+        if (fieldPredicate.getPredicateType() != PredicateType.EQUAL
+            || !primaryKeyField.identifier().equals(fieldPredicate.getField().identifier())) {
+            return null;
+        }
+        return getFirstOperandAsRaw(fieldPredicate);
+    }
+
 }
@@ -16,6 +16,9 @@
  */
 package com.speedment.runtime.core.internal.manager.sql;
 
+import com.speedment.runtime.core.db.SqlConsumer;
+
+import java.sql.PreparedStatement;
 import java.util.List;
 
 /**
@@ -28,6 +31,10 @@ public final class SqlUpdateStatement extends SqlStatement {
         super(sql, values);
     }
 
+    public SqlUpdateStatement(final String sql, final SqlConsumer<PreparedStatement> binder) {
+        super(sql, binder);
+    }
+
     @Override
     public Type getType() {
         return Type.UPDATE;
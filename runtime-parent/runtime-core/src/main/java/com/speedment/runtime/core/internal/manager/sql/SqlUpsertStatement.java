@@ -0,0 +1,55 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.manager.sql;
+
+import java.util.List;
+
+/**
+ * A statement that inserts a row or updates it if it already exists. The
+ * outcome is reported as an update count where 1 means inserted, 2 means
+ * updated and 0 means that an existing row was left unchanged.
+ *
+ * @author agent
+ * @since 3.1.2
+ */
+public final class SqlUpsertStatement extends SqlStatement {
+
+    private final boolean returningInsertedFlag;
+
+    public SqlUpsertStatement(final String sql, final List<?> values, final boolean returningInsertedFlag) {
+        super(sql, values);
+        this.returningInsertedFlag = returningInsertedFlag;
+    }
+
+    /**
+     * Returns if this statement returns a row with a flag telling if the row
+     * was inserted, rather than reporting the outcome as an update count.
+     * Such statements can not be sent in JDBC batches.
+     *
+     * @return if this statement returns a flag telling if the row was
+     *         inserted
+     */
+    public boolean isReturningInsertedFlag() {
+        return returningInsertedFlag;
+    }
+
+    @Override
+    public Type getType() {
+        return Type.UPSERT;
+    }
+
+}
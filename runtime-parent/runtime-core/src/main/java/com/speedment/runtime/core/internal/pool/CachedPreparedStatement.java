@@ -0,0 +1,188 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.pool;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A {@link PreparedStatement} that is held in the statement cache of a
+ * {@link PoolableConnectionImpl}. Closing it will not close the underlying
+ * statement but return it to the cache so that it can be reused the next time
+ * the same SQL is prepared on the same connection. Any {@link ResultSet} that
+ * is still open when the statement is closed is closed before the statement
+ * is returned to the cache. Parameters, pending batches and the settings of
+ * the statement are also reset, so that a reused statement behaves as a
+ * newly prepared one.
+ *
+ * @author agent
+ */
+final class CachedPreparedStatement extends PreparedStatementDelegator {
+
+    private final StatementCache cache;
+    private final StatementCache.Key key;
+    private final int initialFetchSize;
+    private final int initialMaxRows;
+    private final int initialQueryTimeout;
+    private final int initialFetchDirection;
+    private final int initialMaxFieldSize;
+    private volatile boolean escapeProcessingChanged;
+    private volatile boolean inUse;
+    private volatile boolean evicted;
+    private volatile ResultSet resultSet; // nullable
+
+    CachedPreparedStatement(
+        final StatementCache cache,
+        final StatementCache.Key key,
+        final PreparedStatement statement
+    ) throws SQLException {
+        super(statement);
+        this.cache = requireNonNull(cache);
+        this.key = requireNonNull(key);
+        this.initialFetchSize = statement.getFetchSize();
+        this.initialMaxRows = statement.getMaxRows();
+        this.initialQueryTimeout = statement.getQueryTimeout();
+        this.initialFetchDirection = statement.getFetchDirection();
+        this.initialMaxFieldSize = statement.getMaxFieldSize();
+    }
+
+    StatementCache.Key key() {
+        return key;
+    }
+
+    boolean isInUse() {
+        return inUse;
+    }
+
+    boolean isUnderlyingClosed() {
+        try {
+            return statement.isClosed();
+        } catch (final SQLException sqle) {
+            return true;
+        }
+    }
+
+    void lease() {
+        inUse = true;
+    }
+
+    /**
+     * Marks this statement as no longer cached. If it is currently in use, it
+     * will be closed for real when the user closes it, otherwise it is closed
+     * immediately.
+     *
+     * @throws SQLException if the underlying statement could not be closed
+     */
+    void evict() throws SQLException {
+        evicted = true;
+        if (!inUse) {
+            statement.close();
+        }
+    }
+
+    @Override
+    public void close() throws SQLException {
+        if (!inUse) {
+            return;
+        }
+        inUse = false;
+        if (evicted) {
+            statement.close();
+            return;
+        }
+        try {
+            closeResultSets();
+            statement.clearBatch(); // Rows added by a failed batch must not be executed later
+            statement.clearParameters();
+            statement.clearWarnings();
+            if (statement.getFetchSize() != initialFetchSize) {
+                statement.setFetchSize(initialFetchSize);
+            }
+            if (statement.getMaxRows() != initialMaxRows) {
+                statement.setMaxRows(initialMaxRows);
+            }
+            if (statement.getQueryTimeout() != initialQueryTimeout) {
+                statement.setQueryTimeout(initialQueryTimeout);
+            }
+            if (statement.getFetchDirection() != initialFetchDirection) {
+                statement.setFetchDirection(initialFetchDirection);
+            }
+            if (statement.getMaxFieldSize() != initialMaxFieldSize) {
+                statement.setMaxFieldSize(initialMaxFieldSize);
+            }
+            if (escapeProcessingChanged) {
+                // The current value can not be read, so restore the default
+                statement.setEscapeProcessing(true);
+                escapeProcessingChanged = false;
+            }
+        } catch (final SQLException sqle) {
+            cache.remove(this);
+            statement.close();
+            throw sqle;
+        }
+    }
+
+    @Override
+    public void setEscapeProcessing(boolean enable) throws SQLException {
+        super.setEscapeProcessing(enable);
+        escapeProcessingChanged = true;
+    }
+
+    @Override
+    public ResultSet executeQuery() throws SQLException {
+        final ResultSet rs = super.executeQuery();
+        resultSet = rs;
+        return rs;
+    }
+
+    @Override
+    public ResultSet getResultSet() throws SQLException {
+        final ResultSet rs = super.getResultSet();
+        if (rs != null) {
+            resultSet = rs;
+        }
+        return rs;
+    }
+
+    /**
+     * Closes the last result set handed out by this statement and the current
+     * result set of the underlying statement, so that a reused statement
+     * never starts with an open cursor.
+     *
+     * @throws SQLException if a result set could not be closed
+     */
+    private void closeResultSets() throws SQLException {
+        final ResultSet last = resultSet;
+        resultSet = null;
+        if (last != null && !last.isClosed()) {
+            last.close();
+        }
+        final ResultSet current = statement.getResultSet();
+        if (current != null && current != last && !current.isClosed()) {
+            current.close();
+        }
+    }
+
+    @Override
+    public boolean isClosed() throws SQLException {
+        return !inUse || statement.isClosed();
+    }
+
+}
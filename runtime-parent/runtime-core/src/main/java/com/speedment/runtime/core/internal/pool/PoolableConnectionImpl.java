@@ -22,7 +22,10 @@ import com.speedment.runtime.core.ApplicationBuilder;
 import com.speedment.runtime.core.component.connectionpool.PoolableConnection;
 
 import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.concurrent.atomic.AtomicLong;
 
 import static java.util.Objects.requireNonNull;
@@ -44,9 +47,14 @@ public final class PoolableConnectionImpl extends PoolableConnectionDelegator im
     private final String uri;
     private final long created;
     private final long expires;
+    private final StatementCache statementCache; // null if disabled
     private Runnable onClose;
 
     public PoolableConnectionImpl(String uri, String username, char[] password, Connection connection, long expires) {
+        this(uri, username, password, connection, expires, 0);
+    }
+
+    public PoolableConnectionImpl(String uri, String username, char[] password, Connection connection, long expires, int statementCacheSize) {
         super(connection);
         this.id = ID_GENERATOR.getAndIncrement();
         this.uri = requireNonNull(uri);
@@ -54,6 +62,7 @@ public final class PoolableConnectionImpl extends PoolableConnectionDelegator im
         this.password = password; //nullable
         this.created = System.currentTimeMillis();
         this.expires = expires;
+        this.statementCache = statementCacheSize > 0 ? new StatementCache(statementCacheSize) : null;
     }
 
     @Override
@@ -69,9 +78,78 @@ public final class PoolableConnectionImpl extends PoolableConnectionDelegator im
     @Override
     public void rawClose() throws SQLException {
         LOGGER_CONNECTION.debug("Closed external connection: %s", connection);
+        if (statementCache != null) {
+            statementCache.clear();
+        }
         connection.close();
     }
 
+    @Override
+    public PreparedStatement prepareStatement(String sql) throws SQLException {
+        return prepareCached(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY, -1, Statement.NO_GENERATED_KEYS);
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency) throws SQLException {
+        return prepareCached(sql, resultSetType, resultSetConcurrency, -1, Statement.NO_GENERATED_KEYS);
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency, int resultSetHoldability) throws SQLException {
+        return prepareCached(sql, resultSetType, resultSetConcurrency, resultSetHoldability, Statement.NO_GENERATED_KEYS);
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql, int autoGeneratedKeys) throws SQLException {
+        return prepareCached(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY, -1, autoGeneratedKeys);
+    }
+
+    private PreparedStatement prepareCached(
+        final String sql,
+        final int resultSetType,
+        final int resultSetConcurrency,
+        final int resultSetHoldability,
+        final int autoGeneratedKeys
+    ) throws SQLException {
+        if (statementCache == null) {
+            return prepareRaw(sql, resultSetType, resultSetConcurrency, resultSetHoldability, autoGeneratedKeys);
+        }
+        final StatementCache.Key key = new StatementCache.Key(sql, resultSetType, resultSetConcurrency, resultSetHoldability, autoGeneratedKeys);
+        final PreparedStatement cached = statementCache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        return statementCache.put(key, prepareRaw(sql, resultSetType, resultSetConcurrency, resultSetHoldability, autoGeneratedKeys));
+    }
+
+    private PreparedStatement prepareRaw(
+        final String sql,
+        final int resultSetType,
+        final int resultSetConcurrency,
+        final int resultSetHoldability,
+        final int autoGeneratedKeys
+    ) throws SQLException {
+        if (autoGeneratedKeys != Statement.NO_GENERATED_KEYS) {
+            return connection.prepareStatement(sql, autoGeneratedKeys);
+        } else if (resultSetHoldability != -1) {
+            return connection.prepareStatement(sql, resultSetType, resultSetConcurrency, resultSetHoldability);
+        } else if (resultSetType != ResultSet.TYPE_FORWARD_ONLY || resultSetConcurrency != ResultSet.CONCUR_READ_ONLY) {
+            return connection.prepareStatement(sql, resultSetType, resultSetConcurrency);
+        } else {
+            return connection.prepareStatement(sql);
+        }
+    }
+
+    @Override
+    public long getStatementCacheHits() {
+        return statementCache == null ? 0 : statementCache.getHits();
+    }
+
+    @Override
+    public long getStatementCacheMisses() {
+        return statementCache == null ? 0 : statementCache.getMisses();
+    }
+
     @Override
     public void setOnClose(Runnable onClose) {
         this.onClose = onClose;
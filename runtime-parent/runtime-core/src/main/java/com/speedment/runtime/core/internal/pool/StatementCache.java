@@ -0,0 +1,188 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.pool;
+
+import com.speedment.common.logger.Logger;
+import com.speedment.common.logger.LoggerManager;
+import com.speedment.runtime.core.ApplicationBuilder;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A bounded, least-recently-used cache of {@link PreparedStatement
+ * PreparedStatements} belonging to a single connection. Statements are keyed
+ * by their SQL text and the parameters used to prepare them.
+ * <p>
+ * A connection is only used by one thread at a time, but the cache is still
+ * synchronized since statements may be closed from other threads.
+ *
+ * @author agent
+ */
+final class StatementCache {
+
+    private static final Logger LOGGER_CONNECTION = LoggerManager.getLogger(
+        ApplicationBuilder.LogType.CONNECTION.getLoggerName()
+    );
+
+    private final int maxSize;
+    private final Map<Key, CachedPreparedStatement> statements;
+    private long hits;
+    private long misses;
+
+    StatementCache(int maxSize) {
+        this.maxSize = maxSize;
+        this.statements = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Returns a cached statement for the given key or {@code null} if no
+     * unused statement is available. If {@code null} is returned, the caller
+     * should prepare a new statement and pass it to {@link #put(Key,
+     * PreparedStatement)}.
+     *
+     * @param key the statement key
+     * @return a leased statement or {@code null}
+     */
+    synchronized PreparedStatement get(Key key) {
+        final CachedPreparedStatement cached = statements.get(key);
+        if (cached == null || cached.isInUse()) {
+            misses++;
+            return null;
+        }
+        if (cached.isUnderlyingClosed()) {
+            statements.remove(key);
+            misses++;
+            return null;
+        }
+        hits++;
+        cached.lease();
+        return cached;
+    }
+
+    /**
+     * Adds a newly prepared statement to this cache and returns it as leased.
+     * If a statement with the same key is already in use, the new statement is
+     * returned as is and will be closed normally by the user.
+     *
+     * @param key the statement key
+     * @param statement the newly prepared statement
+     * @return the statement to hand out to the user
+     * @throws SQLException if the statement could not be inspected or if an
+     * evicted statement could not be closed
+     */
+    synchronized PreparedStatement put(Key key, PreparedStatement statement) throws SQLException {
+        if (statements.containsKey(key)) {
+            return statement;
+        }
+        final CachedPreparedStatement cached = new CachedPreparedStatement(this, key, statement);
+        cached.lease();
+        statements.put(key, cached);
+        if (statements.size() > maxSize) {
+            final Iterator<CachedPreparedStatement> it = statements.values().iterator();
+            final CachedPreparedStatement eldest = it.next();
+            it.remove();
+            eldest.evict();
+        }
+        return cached;
+    }
+
+    synchronized void remove(CachedPreparedStatement statement) {
+        statements.remove(statement.key(), statement);
+    }
+
+    /**
+     * Closes all statements held by this cache.
+     */
+    void clear() {
+        final List<CachedPreparedStatement> toClose;
+        synchronized (this) {
+            toClose = new ArrayList<>(statements.values());
+            statements.clear();
+        }
+        for (final CachedPreparedStatement statement : toClose) {
+            try {
+                statement.evict();
+            } catch (final SQLException sqle) {
+                LOGGER_CONNECTION.debug("Unable to close a cached statement: %s", sqle.getMessage());
+            }
+        }
+    }
+
+    synchronized int size() {
+        return statements.size();
+    }
+
+    synchronized long getHits() {
+        return hits;
+    }
+
+    synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * The SQL text and prepare parameters that identify a statement.
+     */
+    static final class Key {
+
+        private final String sql;
+        private final int resultSetType;
+        private final int resultSetConcurrency;
+        private final int resultSetHoldability;
+        private final int autoGeneratedKeys;
+
+        Key(
+            final String sql,
+            final int resultSetType,
+            final int resultSetConcurrency,
+            final int resultSetHoldability,
+            final int autoGeneratedKeys
+        ) {
+            this.sql = requireNonNull(sql);
+            this.resultSetType = resultSetType;
+            this.resultSetConcurrency = resultSetConcurrency;
+            this.resultSetHoldability = resultSetHoldability;
+            this.autoGeneratedKeys = autoGeneratedKeys;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) { return true; }
+            if (!(o instanceof Key)) { return false; }
+            final Key that = (Key) o;
+            return resultSetType == that.resultSetType
+                && resultSetConcurrency == that.resultSetConcurrency
+                && resultSetHoldability == that.resultSetHoldability
+                && autoGeneratedKeys == that.autoGeneratedKeys
+                && sql.equals(that.sql);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(sql, resultSetType, resultSetConcurrency, resultSetHoldability, autoGeneratedKeys);
+        }
+    }
+}
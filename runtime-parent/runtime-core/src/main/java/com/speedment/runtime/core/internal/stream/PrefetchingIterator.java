@@ -0,0 +1,314 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.stream;
+
+import com.speedment.runtime.core.exception.SpeedmentException;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * An {@link Iterator} that drains a source iterator in a dedicated reader
+ * thread. Elements are handed over to the consuming thread in batches. At
+ * most {@code bufferSize} elements are read from the source ahead of the
+ * consumer, after which the reader blocks until the consumer catches up.
+ * <p>
+ * The reader thread is started upon the first call to {@link #hasNext()} or
+ * {@link #next()} and is stopped by {@link #close()}, which also waits for
+ * the reader to let go of the source. This means that resources used by the
+ * source may safely be released once {@code close()} has returned. If the
+ * reader is still running when the iterator is closed, the {@code abortRead}
+ * action is invoked before waiting so that a reader blocked in the source
+ * can be released (for example by cancelling a statement).
+ * <p>
+ * An iterator that is never closed only holds on to its reader thread until
+ * the iterator is garbage collected, but the source is then never released.
+ * <p>
+ * Exceptions thrown by the source are re-thrown in the consuming thread.
+ * The consuming side of this implementation is not thread safe.
+ *
+ * @param <T>  the type of the elements
+ *
+ * @author agent
+ * @since 3.1.2
+ */
+final class PrefetchingIterator<T> implements Iterator<T> {
+
+    /**
+     * The maximum number of elements that are handed over at a time.
+     */
+    static final int MAX_BATCH_SIZE = 64;
+
+    private static final AtomicLong THREAD_COUNTER = new AtomicLong();
+    private static final Object END = new Object();
+
+    private final Reader<T> reader;
+    private final BlockingQueue<Object> buffer;
+    private final Semaphore permits;
+    private final Runnable abortRead;
+
+    private Thread thread;
+    private Iterator<T> current;
+    private boolean done;
+
+    PrefetchingIterator(Iterator<T> source, int bufferSize) {
+        this(source, bufferSize, () -> {});
+    }
+
+    PrefetchingIterator(Iterator<T> source, int bufferSize, Runnable abortRead) {
+        if (bufferSize < 1) {
+            throw new IllegalArgumentException("The buffer size must be positive: " + bufferSize);
+        }
+        // The buffer is bounded by the permits, one for each element that is
+        // read but not yet consumed
+        this.buffer = new LinkedBlockingQueue<>();
+        this.permits = new Semaphore(bufferSize);
+        // Two batches fit in the buffer so the consumer does not have to
+        // wait for a full buffer before it can start
+        final int batchSize = Math.max(1, Math.min(bufferSize / 2, MAX_BATCH_SIZE));
+        this.reader = new Reader<>(requireNonNull(source), batchSize, buffer, permits, this);
+        this.abortRead = requireNonNull(abortRead);
+        this.current = Collections.emptyIterator();
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (current.hasNext()) {
+            return true;
+        }
+        if (done) {
+            return false;
+        }
+        startReader();
+        final Object item = take();
+        if (item == END) {
+            done = true;
+            return false;
+        }
+        if (item instanceof Failure) {
+            done = true;
+            ((Failure) item).rethrow();
+        }
+        @SuppressWarnings("unchecked")
+        final List<T> batch = (List<T>) item;
+        current = batch.iterator();
+        return true; // Batches are never empty
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException(
+                "Next was called even though hasNext() returned false."
+            );
+        }
+        final T next = current.next();
+        permits.release();
+        return next;
+    }
+
+    /**
+     * Stops the reader thread and waits for it to finish. Calling this method
+     * more than once has no effect.
+     */
+    void close() {
+        done = true;
+        current = Collections.emptyIterator();
+        reader.stop();
+        final Thread t = thread;
+        if (t != null && t != Thread.currentThread() && t.isAlive()) {
+            if (!reader.finished) {
+                // The reader might be blocked in the source
+                abortRead.run();
+            }
+            boolean interrupted = false;
+            while (t.isAlive()) {
+                try {
+                    t.join();
+                } catch (InterruptedException ie) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Returns the reader thread, or {@code null} if it has not been started.
+     * Only for testing.
+     *
+     * @return the reader thread
+     */
+    Thread readerThread() {
+        return thread;
+    }
+
+    private void startReader() {
+        if (thread == null) {
+            thread = new Thread(reader, "speedment-prefetch-" + THREAD_COUNTER.incrementAndGet());
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    private Object take() {
+        try {
+            return buffer.take();
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new SpeedmentException("Interrupted while waiting for prefetched rows", ie);
+        }
+    }
+
+    /**
+     * The task of the reader thread. It only holds a weak reference to the
+     * iterator so that it can detect if the iterator is abandoned without
+     * being closed.
+     *
+     * @param <T>  the type of the elements
+     */
+    private static final class Reader<T> implements Runnable {
+
+        /**
+         * The interval at which a waiting reader checks if the iterator is
+         * still in use.
+         */
+        private static final long ABANDONED_CHECK_MILLIS = 1_000;
+
+        private final Iterator<T> source;
+        private final int batchSize;
+        private final BlockingQueue<Object> buffer;
+        private final Semaphore permits;
+        private final WeakReference<PrefetchingIterator<T>> owner;
+        private volatile boolean stopped;
+        private volatile boolean finished; // The source is no longer used
+
+        private Reader(
+            Iterator<T> source,
+            int batchSize,
+            BlockingQueue<Object> buffer,
+            Semaphore permits,
+            PrefetchingIterator<T> owner
+        ) {
+            this.source = source;
+            this.batchSize = batchSize;
+            this.buffer = buffer;
+            this.permits = permits;
+            this.owner = new WeakReference<>(owner);
+        }
+
+        @Override
+        public void run() {
+            try {
+                List<T> batch = new ArrayList<>(batchSize);
+                while (true) {
+                    if (!permits.tryAcquire()) {
+                        // Hand over what has been read before waiting for the consumer
+                        if (!batch.isEmpty()) {
+                            buffer.add(batch);
+                            batch = new ArrayList<>(batchSize);
+                        }
+                        if (!awaitPermit()) {
+                            return;
+                        }
+                    }
+                    if (stopped) {
+                        return;
+                    }
+                    if (!source.hasNext()) {
+                        break;
+                    }
+                    batch.add(source.next());
+                    if (batch.size() == batchSize) {
+                        buffer.add(batch);
+                        batch = new ArrayList<>(batchSize);
+                    }
+                }
+                finished = true;
+                if (!batch.isEmpty()) {
+                    buffer.add(batch);
+                }
+                buffer.add(END);
+            } catch (RuntimeException | Error e) {
+                finished = true;
+                buffer.add(new Failure(e));
+            }
+        }
+
+        /**
+         * Stops the reader as soon as it is done with the current element.
+         */
+        private void stop() {
+            stopped = true;
+            permits.release(); // Wakes up a waiting reader
+        }
+
+        /**
+         * Waits until the consumer has made room for another element. The
+         * reader thread is never interrupted since some JDBC drivers close
+         * the connection if a thread is interrupted during I/O.
+         *
+         * @return if a permit was acquired, {@code false} if stopped or
+         *         abandoned
+         */
+        private boolean awaitPermit() {
+            try {
+                while (!stopped) {
+                    if (permits.tryAcquire(ABANDONED_CHECK_MILLIS, TimeUnit.MILLISECONDS)) {
+                        return !stopped;
+                    }
+                    if (owner.get() == null) {
+                        return false; // Never closed and no longer reachable
+                    }
+                }
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            }
+            return false;
+        }
+    }
+
+    private static final class Failure {
+
+        private final Throwable throwable;
+
+        private Failure(Throwable throwable) {
+            this.throwable = throwable;
+        }
+
+        private void rethrow() {
+            if (throwable instanceof Error) {
+                throw (Error) throwable;
+            }
+            throw (RuntimeException) throwable;
+        }
+    }
+}
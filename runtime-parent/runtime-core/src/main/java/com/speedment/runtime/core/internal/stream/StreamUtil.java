@@ -70,12 +70,67 @@ public final class StreamUtil {
     }
     
     public static <T> Stream<T> asStream(ResultSet resultSet, SqlFunction<ResultSet, T> mapper, ParallelStrategy parallelStrategy) {
+        return asStream(resultSet, mapper, parallelStrategy, () -> {});
+    }
+
+    /**
+     * Creates a Stream of the rows in the given ResultSet. The provided
+     * {@code onExhausted} action is run once the ResultSet has reported that
+     * there are no more rows.
+     *
+     * @param <T>               the type of the stream elements
+     * @param resultSet         to read rows from
+     * @param mapper            that maps a row to an element
+     * @param parallelStrategy  to use for parallel streams
+     * @param onExhausted       action to run when all rows have been read
+     * @return                  a Stream of the rows in the given ResultSet
+     * @since 3.1.2
+     */
+    public static <T> Stream<T> asStream(ResultSet resultSet, SqlFunction<ResultSet, T> mapper, ParallelStrategy parallelStrategy, Runnable onExhausted) {
         requireNonNull(resultSet);
         requireNonNull(mapper);
-        final Iterator<T> iterator = new ResultSetIterator<>(resultSet, mapper);
+        requireNonNull(parallelStrategy);
+        requireNonNull(onExhausted);
+        final Iterator<T> iterator = new ResultSetIterator<>(resultSet, mapper, onExhausted);
         return StreamSupport.stream(parallelStrategy.spliteratorUnknownSize(iterator, Spliterator.IMMUTABLE + Spliterator.NONNULL), false);
     }
 
+    /**
+     * Creates a Stream of the rows in the given ResultSet where the rows are
+     * read and mapped by a separate reader thread. At most
+     * {@code bufferSize} elements are read ahead of the consumer. The reader
+     * thread is stopped when the returned Stream is closed, which must
+     * therefore happen before the ResultSet is closed. If the reader thread
+     * is still running at that time, {@code abortRead} is run before waiting
+     * for the reader so that a reader blocked in the ResultSet can be
+     * released, for example by cancelling the statement.
+     * <p>
+     * The {@code mapper} and {@code onExhausted} action are used by the reader
+     * thread and should not refer to the owner of the returned Stream, so that
+     * the reader can stop if the Stream is abandoned without being closed.
+     *
+     * @param <T>               the type of the stream elements
+     * @param resultSet         to read rows from
+     * @param mapper            that maps a row to an element
+     * @param parallelStrategy  to use for parallel streams
+     * @param bufferSize        the maximum number of elements read ahead
+     * @param onExhausted       action to run when all rows have been read
+     * @param abortRead         action to run if the reader thread is still
+     *                          running when the Stream is closed
+     * @return                  a Stream of the rows in the given ResultSet
+     * @since 3.1.2
+     */
+    public static <T> Stream<T> asPrefetchingStream(ResultSet resultSet, SqlFunction<ResultSet, T> mapper, ParallelStrategy parallelStrategy, int bufferSize, Runnable onExhausted, Runnable abortRead) {
+        requireNonNull(resultSet);
+        requireNonNull(mapper);
+        requireNonNull(parallelStrategy);
+        requireNonNull(onExhausted);
+        requireNonNull(abortRead);
+        final PrefetchingIterator<T> iterator = new PrefetchingIterator<>(new ResultSetIterator<>(resultSet, mapper, onExhausted), bufferSize, abortRead);
+        return StreamSupport.stream(parallelStrategy.spliteratorUnknownSize(iterator, Spliterator.IMMUTABLE + Spliterator.NONNULL), false)
+            .onClose(iterator::close);
+    }
+
     public static <T> Stream<T> from(@SuppressWarnings("OptionalUsedAsFieldOrParameterType") Optional<T> optional) {
         requireNonNull(optional);
         return optional.map(Stream::of).orElseGet(Stream::empty);
@@ -113,14 +168,23 @@ public final class StreamUtil {
 
         private final ResultSet resultSet;
         private final SqlFunction<ResultSet, T> mapper;
+        private final Runnable onExhausted;
 
         private State state = State.NOT_DETERMINED;
 
         ResultSetIterator(final ResultSet resultSet,
                           final SqlFunction<ResultSet, T> mapper) {
 
-            this.resultSet = requireNonNull(resultSet);
-            this.mapper    = requireNonNull(mapper);
+            this(resultSet, mapper, () -> {});
+        }
+
+        ResultSetIterator(final ResultSet resultSet,
+                          final SqlFunction<ResultSet, T> mapper,
+                          final Runnable onExhausted) {
+
+            this.resultSet   = requireNonNull(resultSet);
+            this.mapper      = requireNonNull(mapper);
+            this.onExhausted = requireNonNull(onExhausted);
         }
 
         /**
@@ -142,6 +206,7 @@ public final class StreamUtil {
                     try {
                         if (!resultSet.next()) {
                             state = State.NO_NEXT;
+                            onExhausted.run();
                             return false;
                         }
                     } catch (final SQLException ex) {
@@ -198,6 +263,7 @@ public final class StreamUtil {
                         throw new SpeedmentException(ex);
                     }
                 } while (resultSet.next());
+                onExhausted.run();
             } catch (final SQLException ex) {
                 // Do nothing.
             } finally {
@@ -0,0 +1,133 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.util;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A bounded, concurrent map that evicts entries using the CLOCK algorithm
+ * (an approximation of LRU). Lookups are lock free and only mark the entry as
+ * recently used. When the cache is full, the clock hand skips (and unmarks)
+ * entries that have been used since it last passed them and evicts the first
+ * entry that has not.
+ *
+ * @param <K>  the key type
+ * @param <V>  the value type
+ *
+ * @author  agent
+ * @since   3.1.2
+ */
+public final class ClockCache<K, V> {
+
+    private final int maxSize;
+    private final Map<K, Entry<K, V>> entries;
+    private final Object lock;
+    private final Deque<Entry<K, V>> clock; // Guarded by lock
+
+    public ClockCache(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException(
+                "The maximum size must be positive: " + maxSize
+            );
+        }
+        this.maxSize = maxSize;
+        this.entries = new ConcurrentHashMap<>();
+        this.lock    = new Object();
+        this.clock   = new ArrayDeque<>();
+    }
+
+    /**
+     * Returns the value mapped to the given key, or {@code null} if there is
+     * no such value in the cache.
+     *
+     * @param key  the key
+     * @return     the value or {@code null}
+     */
+    public V get(K key) {
+        final Entry<K, V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        entry.referenced = true;
+        return entry.value;
+    }
+
+    /**
+     * Maps the given key to the given value, evicting the least recently used
+     * entries if the cache is full.
+     *
+     * @param key    the key
+     * @param value  the value
+     */
+    public void put(K key, V value) {
+        requireNonNull(key);
+        requireNonNull(value);
+        final Entry<K, V> entry = new Entry<>(key, value);
+        synchronized (lock) {
+            final Entry<K, V> previous = entries.put(key, entry);
+            if (previous != null) {
+                clock.remove(previous);
+            }
+            clock.addLast(entry);
+            while (clock.size() > maxSize) {
+                final Entry<K, V> candidate = clock.pollFirst();
+                if (candidate.referenced) {
+                    candidate.referenced = false;
+                    clock.addLast(candidate); // Second chance
+                } else {
+                    entries.remove(candidate.key, candidate);
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes all entries from this cache.
+     */
+    public void clear() {
+        synchronized (lock) {
+            entries.clear();
+            clock.clear();
+        }
+    }
+
+    /**
+     * Returns the number of entries in this cache.
+     *
+     * @return the number of entries
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    private static final class Entry<K, V> {
+
+        private final K key;
+        private final V value;
+        private volatile boolean referenced;
+
+        private Entry(K key, V value) {
+            this.key   = key;
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.util.sql;
+
+import com.speedment.runtime.field.Field;
+import com.speedment.runtime.typemapper.TypeMapper;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+
+import static com.speedment.runtime.core.util.StaticClassUtil.instanceNotAllowed;
+
+/**
+ * Utility methods for setting nullable values of {@code PreparedStatement}
+ * parameters. Used by generated binders.
+ *
+ * @author agent
+ * @since 3.1.2
+ */
+public final class PreparedStatementUtil {
+
+    // Null safe PS setters, must have the same name as PreparedStatement setters
+    public static void setBoolean(final PreparedStatement ps, final int parameterIndex, final Boolean value) throws SQLException {
+        if (value == null) {
+            ps.setNull(parameterIndex, Types.BOOLEAN);
+        } else {
+            ps.setBoolean(parameterIndex, value);
+        }
+    }
+
+    public static void setByte(final PreparedStatement ps, final int parameterIndex, final Byte value) throws SQLException {
+        if (value == null) {
+            ps.setNull(parameterIndex, Types.TINYINT);
+        } else {
+            ps.setByte(parameterIndex, value);
+        }
+    }
+
+    public static void setShort(final PreparedStatement ps, final int parameterIndex, final Short value) throws SQLException {
+        if (value == null) {
+            ps.setNull(parameterIndex, Types.SMALLINT);
+        } else {
+            ps.setShort(parameterIndex, value);
+        }
+    }
+
+    public static void setInt(final PreparedStatement ps, final int parameterIndex, final Integer value) throws SQLException {
+        if (value == null) {
+            ps.setNull(parameterIndex, Types.INTEGER);
+        } else {
+            ps.setInt(parameterIndex, value);
+        }
+    }
+
+    public static void setLong(final PreparedStatement ps, final int parameterIndex, final Long value) throws SQLException {
+        if (value == null) {
+            ps.setNull(parameterIndex, Types.BIGINT);
+        } else {
+            ps.setLong(parameterIndex, value);
+        }
+    }
+
+    public static void setFloat(final PreparedStatement ps, final int parameterIndex, final Float value) throws SQLException {
+        if (value == null) {
+            ps.setNull(parameterIndex, Types.REAL);
+        } else {
+            ps.setFloat(parameterIndex, value);
+        }
+    }
+
+    public static void setDouble(final PreparedStatement ps, final int parameterIndex, final Double value) throws SQLException {
+        if (value == null) {
+            ps.setNull(parameterIndex, Types.DOUBLE);
+        } else {
+            ps.setDouble(parameterIndex, value);
+        }
+    }
+
+    /**
+     * Sets the given parameter to the value of the given field in the given
+     * entity, converted to the database type by the type mapper of the field.
+     *
+     * @param <ENTITY>        the entity type
+     * @param ps              the prepared statement
+     * @param parameterIndex  the index of the parameter, starting with 1
+     * @param field           the field to read the value of
+     * @param entity          the entity to read the value from
+     * @throws SQLException if the parameter could not be set
+     */
+    public static <ENTITY> void setDatabaseValue(
+            final PreparedStatement ps,
+            final int parameterIndex,
+            final Field<ENTITY> field,
+            final ENTITY entity) throws SQLException {
+
+        final Object javaValue = field.getter().apply(entity);
+
+        @SuppressWarnings("unchecked")
+        final Object dbValue = ((TypeMapper<Object, Object>) field.typeMapper()).toDatabaseType(javaValue);
+
+        ps.setObject(parameterIndex, dbValue);
+    }
+
+    /**
+     * Utility classes should not be instantiated.
+     */
+    private PreparedStatementUtil() {
+        instanceNotAllowed(getClass());
+    }
+}
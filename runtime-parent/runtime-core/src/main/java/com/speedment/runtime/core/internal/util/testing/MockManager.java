@@ -20,6 +20,7 @@ import com.speedment.runtime.core.manager.Manager;
 import com.speedment.runtime.core.manager.Persister;
 import com.speedment.runtime.core.manager.Remover;
 import com.speedment.runtime.core.manager.Updater;
+import com.speedment.runtime.core.manager.Upserter;
 
 import java.util.function.Supplier;
 import java.util.stream.Stream;
@@ -85,6 +86,18 @@ public interface MockManager<ENTITY> extends Manager<ENTITY> {
      */
     MockManager<ENTITY> setRemover(Remover<ENTITY> remover);
 
+    /**
+     * Sets the upserter of this {@code MockManager}.
+     *
+     * The upserter is invoked each time a Managers
+     * {@link Manager#upsert(java.lang.Object)} method is called.
+     *
+     * @param upserter the new upserter
+     * @return this instance
+     * @since 3.1.2
+     */
+    MockManager<ENTITY> setUpserter(Upserter<ENTITY> upserter);
+
     /**
      * Wraps the specified manager in a new {@link MockManager}.
      * 
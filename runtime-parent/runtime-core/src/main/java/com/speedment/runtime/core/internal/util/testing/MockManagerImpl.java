@@ -22,6 +22,7 @@ import com.speedment.runtime.core.manager.Manager;
 import com.speedment.runtime.core.manager.Persister;
 import com.speedment.runtime.core.manager.Remover;
 import com.speedment.runtime.core.manager.Updater;
+import com.speedment.runtime.core.manager.Upserter;
 import com.speedment.runtime.field.Field;
 
 import java.util.function.Supplier;
@@ -40,6 +41,7 @@ public class MockManagerImpl<ENTITY> implements MockManager<ENTITY> {
     private Persister<ENTITY> persister;
     private Updater<ENTITY> updater;
     private Remover<ENTITY> remover;
+    private Upserter<ENTITY> upserter; // Nullable
 
     public MockManagerImpl(Manager<ENTITY> inner) {
         this.inner = inner;
@@ -81,6 +83,12 @@ public class MockManagerImpl<ENTITY> implements MockManager<ENTITY> {
         return this;
     }
 
+    @Override
+    public MockManager<ENTITY> setUpserter(Upserter<ENTITY> upserter) {
+        this.upserter = upserter;
+        return this;
+    }
+
 //    @Override
 //    public ENTITY entityCreate() {
 //        return entityCreator.get();
@@ -155,4 +163,10 @@ public class MockManagerImpl<ENTITY> implements MockManager<ENTITY> {
     public Updater<ENTITY> updater() {
         return updater;
     }
+
+    @Override
+    public Upserter<ENTITY> upserter() {
+        // Managers that do not support upserts throw an exception here
+        return upserter == null ? inner.upserter() : upserter;
+    }
 }
@@ -56,13 +56,14 @@ public abstract class AbstractManager<ENTITY> implements Manager<ENTITY> {
     private Persister<ENTITY> persister;
     private Updater<ENTITY> updater;
     private Remover<ENTITY> remover;
+    private Upserter<ENTITY> upserter;
 
     protected AbstractManager() {}
 
     /**
      * In the {@link State#INITIALIZED}-phase, create an instance of each of the
-     * three interfaces {@link Persister}, {@link Updater} and {@link Remover} 
-     * to use when making changes to the data store.
+     * interfaces {@link Persister}, {@link Updater}, {@link Remover} and
+     * {@link Upserter} to use when making changes to the data store.
      * <p>
      * THIS METHOD IS INTENDED TO BE INVOKED AUTOMATICALLY BY THE DEPENDENCY
      * INJECTOR. IT SHOULD THEREFORE NEVER BE CALLED DIRECTLY!
@@ -78,6 +79,7 @@ public abstract class AbstractManager<ENTITY> implements Manager<ENTITY> {
         this.persister = persistenceComponent.persister(tableId);
         this.updater   = persistenceComponent.updater(tableId);
         this.remover   = persistenceComponent.remover(tableId);
+        this.upserter  = persistenceComponent.upserter(tableId);
     }
 
     /**
@@ -122,4 +124,9 @@ public abstract class AbstractManager<ENTITY> implements Manager<ENTITY> {
     public Remover<ENTITY> remover() {
         return remover;
     }
+
+    @Override
+    public Upserter<ENTITY> upserter() {
+        return upserter;
+    }
 }
\ No newline at end of file
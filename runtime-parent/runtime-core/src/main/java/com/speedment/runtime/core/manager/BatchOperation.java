@@ -0,0 +1,102 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.manager;
+
+import com.speedment.runtime.core.exception.SpeedmentException;
+
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * An action that persists, updates or removes all the entities of a
+ * {@code Stream}. Implementations backed by a database send the entities in
+ * batches using a single statement per batch and commit once per batch
+ * (unless they are part of a transaction).
+ * <p>
+ * If an exception is thrown, the batches that were sent before the failing
+ * batch remain committed.
+ *
+ * @param <ENTITY>  the entity type
+ *
+ * @author  agent
+ * @since   3.1.2
+ */
+@FunctionalInterface
+public interface BatchOperation<ENTITY> {
+
+    /**
+     * The batch size used by
+     * {@link Manager#persistAll(java.util.stream.Stream)},
+     * {@link Manager#updateAll(java.util.stream.Stream)} and
+     * {@link Manager#removeAll(java.util.stream.Stream)}.
+     */
+    int DEFAULT_BATCH_SIZE = 1000;
+
+    /**
+     * Applies this operation on all the entities in the given Stream. The
+     * Stream is consumed sequentially. Entities with auto-generated fields are
+     * updated with the generated values if the underlying data store is able
+     * to report them.
+     *
+     * @param entities  to apply this operation on
+     * @return          the number of entities that the operation was applied
+     *                  on
+     *
+     * @throws SpeedmentException  if the operation failed
+     */
+    long apply(Stream<ENTITY> entities) throws SpeedmentException;
+
+    /**
+     * Creates and returns a BatchOperation that applies the given action on
+     * the entities one at a time. This can be used by implementations that
+     * do not support batching.
+     *
+     * @param <ENTITY>  the entity type
+     * @param action    to apply on each entity
+     * @return          a BatchOperation that applies the given action on each
+     *                  entity
+     */
+    static <ENTITY> BatchOperation<ENTITY> ofEach(Consumer<? super ENTITY> action) {
+        requireNonNull(action);
+        return entities -> {
+            final long[] count = {0};
+            entities.sequential().forEach(entity -> {
+                action.accept(entity);
+                count[0]++;
+            });
+            return count[0];
+        };
+    }
+
+    /**
+     * Checks that the given batch size is positive.
+     *
+     * @param batchSize  to check
+     * @return           the given batch size
+     *
+     * @throws IllegalArgumentException  if the batch size is not positive
+     */
+    static int requirePositiveBatchSize(int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("The batch size must be positive: " + batchSize);
+        }
+        return batchSize;
+    }
+
+}
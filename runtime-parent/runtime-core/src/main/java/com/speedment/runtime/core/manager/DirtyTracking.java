@@ -0,0 +1,58 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.manager;
+
+/**
+ * A trait for entities that keep track of which of their fields have been
+ * modified since the entity was read from, or last written to, the database.
+ * <p>
+ * Generated entity implementations implement this interface if the
+ * generator is configured with {@code generator.entity.dirtyTracking=true}.
+ * An {@link Updater} may then only write the modified columns and skip
+ * entities that have not been modified at all.
+ * <p>
+ * Fields are referenced by their index in {@link Manager#fields()}.
+ *
+ * @author  agent
+ * @since   3.1.2
+ */
+public interface DirtyTracking {
+
+    /**
+     * Returns if the field with the given index in {@link Manager#fields()}
+     * has been modified since the dirty state was last cleared.
+     *
+     * @param fieldIndex  the index of the field in {@link Manager#fields()}
+     * @return            if the field has been modified
+     */
+    boolean isDirty(int fieldIndex);
+
+    /**
+     * Returns if any field has been modified since the dirty state was last
+     * cleared.
+     *
+     * @return  if any field has been modified
+     */
+    boolean isDirty();
+
+    /**
+     * Marks all fields as not modified. This is done when the entity is read
+     * from, or written to, the database.
+     */
+    void clearDirty();
+
+}
@@ -0,0 +1,132 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.manager;
+
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * A size bounded cache of the entities of a table, keyed by the value of the
+ * single primary key column of the table. The cache is used to serve streams
+ * that only look up an entity by its primary key, for example
+ * {@code users.stream().filter(User.ID.equal(42)).findAny()}. Entities that
+ * are persisted, updated or removed using the {@link Manager} are evicted
+ * from the cache.
+ * <p>
+ * The cache holds snapshots of the entities as they were read from the
+ * database, and every lookup returns a new entity created from the
+ * snapshot. Modifying an entity that was returned by the cache therefore
+ * does not affect other callers. Changes made to the database by other
+ * means than the {@link Manager} are visible when the cached snapshot has
+ * expired.
+ * <p>
+ * Entity caches are configured using
+ * {@link com.speedment.runtime.core.ApplicationBuilder#withEntityCache}.
+ *
+ * @param <ENTITY>  the entity type
+ *
+ * @author  agent
+ * @since   3.1.2
+ */
+public interface EntityCache<ENTITY> {
+
+    /**
+     * Returns a new entity created from the snapshot with the given primary
+     * key, or an empty {@code Optional} if the entity is not cached or has
+     * expired. The lookup is counted as a hit or a miss.
+     *
+     * @param key  the primary key value
+     * @return     a copy of the cached entity, if any
+     */
+    Optional<ENTITY> get(Object key);
+
+    /**
+     * Returns a stamp for the given primary key that shall be passed to
+     * {@link #put(Object, Object, long)} once an entity that was not found
+     * in the cache has been read from the database. The stamp must be taken
+     * before the entity is read.
+     *
+     * @param key  the primary key value
+     * @return     the current stamp of the key
+     */
+    long stamp(Object key);
+
+    /**
+     * Offers a snapshot of an entity, that was read from the database, to
+     * the cache. The snapshot is a supplier that creates a new entity, equal
+     * to the entity that was read, each time it is called. The snapshot is
+     * not cached if its key might have been invalidated since the given
+     * stamp was taken, or if the cache is full and the entity is accessed
+     * less frequently than the entity it would replace.
+     *
+     * @param key       the primary key value of the entity
+     * @param snapshot  creates a new copy of the entity on each call
+     * @param stamp     the stamp taken before the entity was read
+     */
+    void put(Object key, Supplier<? extends ENTITY> snapshot, long stamp);
+
+    /**
+     * Evicts the entity with the given primary key, if cached.
+     *
+     * @param key  the primary key value
+     */
+    void invalidate(Object key);
+
+    /**
+     * Evicts all the cached entities.
+     */
+    void invalidateAll();
+
+    /**
+     * Returns the number of cached entities, including entities that have
+     * expired but not yet been evicted.
+     *
+     * @return  the number of cached entities
+     */
+    long size();
+
+    /**
+     * Returns the maximum number of cached entities.
+     *
+     * @return  the maximum number of cached entities
+     */
+    long getMaxSize();
+
+    /**
+     * Returns the number of lookups that returned a cached entity.
+     *
+     * @return  the number of hits
+     */
+    long getHitCount();
+
+    /**
+     * Returns the number of lookups that did not find a cached entity.
+     *
+     * @return  the number of misses
+     */
+    long getMissCount();
+
+    /**
+     * Returns the number of entities that have been evicted to make room for
+     * other entities or because they had expired. Invalidated entities are
+     * not counted.
+     *
+     * @return  the number of evictions
+     */
+    long getEvictionCount();
+
+}
@@ -18,15 +18,20 @@ package com.speedment.runtime.core.manager;
 
 import com.speedment.runtime.config.identifier.TableIdentifier;
 import com.speedment.runtime.core.exception.SpeedmentException;
+import com.speedment.runtime.core.util.KeysetPaginationUtil;
 import com.speedment.runtime.field.Field;
 import com.speedment.runtime.field.method.BackwardFinder;
 import com.speedment.runtime.field.method.FindFrom;
 import com.speedment.runtime.field.trait.HasFinder;
 import com.speedment.runtime.field.trait.HasNullableFinder;
 
+import java.util.Comparator;
+import java.util.List;
 import java.util.function.Function;
 import java.util.stream.Stream;
 
+import static java.util.Objects.requireNonNull;
+
 /**
  * A Manager is responsible for abstracting away an Entity's data source CRUD
  * operations. Entity sources can be RDBMSes, files or other data sources.
@@ -184,6 +189,59 @@ public interface Manager<ENTITY> {
      */
     Stream<ENTITY> stream();
 
+    /**
+     * Returns the first page of entities in the order given by the provided
+     * comparator, using keyset pagination.
+     * <p>
+     * The comparator must be a field comparator (e.g.
+     * {@code Hare.NAME.comparator()}) or a combination of field comparators
+     * (e.g. {@code Hare.NAME.comparator().thenComparing(Hare.AGE.comparator())}).
+     * If none of the sort fields is unique, the primary key fields are
+     * appended as tie-breakers. The key columns must not contain
+     * {@code null} values.
+     *
+     * @param comparator  the order of the entities
+     * @param pageSize    the maximum number of entities on the page
+     * @return            the first page
+     *
+     * @throws IllegalArgumentException  if the comparator is not made of
+     *                                   field comparators
+     * @throws SpeedmentException        if an error occurs when reading
+     *                                   from the database
+     * @see #page(Comparator, List, long)
+     * @since 3.1.2
+     */
+    default Page<ENTITY> page(Comparator<ENTITY> comparator, long pageSize) {
+        return KeysetPaginationUtil.page(this, comparator, null, pageSize);
+    }
+
+    /**
+     * Returns the page of entities that follows the provided key in the order
+     * given by the provided comparator, using keyset pagination.
+     * <p>
+     * The key is obtained from {@link Page#getNextKey()} of the previous
+     * page. The entities are selected with a predicate like
+     * {@code WHERE (a > ?) OR (a = ? AND b > ?)} followed by
+     * {@code ORDER BY a, b LIMIT ?} rather than using an offset, so the cost
+     * of retrieving a page does not depend on how many pages precede it.
+     *
+     * @param comparator  the order of the entities
+     * @param afterKey    the key after which the page starts, as returned by
+     *                    {@link Page#getNextKey()}
+     * @param pageSize    the maximum number of entities on the page
+     * @return            the page following the given key
+     *
+     * @throws IllegalArgumentException  if the comparator is not made of
+     *                                   field comparators or if the key does
+     *                                   not match the comparator
+     * @throws SpeedmentException        if an error occurs when reading
+     *                                   from the database
+     * @since 3.1.2
+     */
+    default Page<ENTITY> page(Comparator<ENTITY> comparator, List<?> afterKey, long pageSize) {
+        return KeysetPaginationUtil.page(this, comparator, requireNonNull(afterKey), pageSize);
+    }
+
     /**
      * Persists the provided entity to the underlying database and returns a
      * potentially updated entity. If the persistence fails for any reason, an
@@ -219,6 +277,31 @@ public interface Manager<ENTITY> {
      */
     Persister<ENTITY> persister();
 
+    /**
+     * Persists all the entities in the provided Stream to the underlying
+     * database. The entities are sent in batches of
+     * {@link BatchOperation#DEFAULT_BATCH_SIZE} using a single statement and
+     * commit per batch, which is much faster than persisting the entities
+     * one by one. Entities with auto-generated fields are updated with the
+     * generated values if the database driver is able to report them.
+     * <p>
+     * If the persistence fails for any reason, an unchecked
+     * {@link SpeedmentException} is thrown. Batches that were sent before
+     * the failing batch remain persisted unless the call is part of a
+     * transaction.
+     *
+     * @param entities to persist
+     * @return the number of persisted entities
+     *
+     * @throws SpeedmentException if the underlying database throws an exception
+     * (e.g. SQLException)
+     * @see Persister#batch(int)
+     * @since 3.1.2
+     */
+    default long persistAll(Stream<ENTITY> entities) throws SpeedmentException {
+        return persister().batch(BatchOperation.DEFAULT_BATCH_SIZE).apply(entities);
+    }
+
     /**
      * Updates the provided entity in the underlying database and returns a
      * potentially updated entity. If the update fails for any reason, an
@@ -255,6 +338,99 @@ public interface Manager<ENTITY> {
      */
     Updater<ENTITY> updater();
 
+    /**
+     * Updates all the entities in the provided Stream in the underlying
+     * database. The entities are sent in batches of
+     * {@link BatchOperation#DEFAULT_BATCH_SIZE} using a single statement and
+     * commit per batch.
+     * <p>
+     * If the update fails for any reason, an unchecked
+     * {@link SpeedmentException} is thrown. Batches that were sent before
+     * the failing batch remain updated unless the call is part of a
+     * transaction.
+     *
+     * @param entities to update
+     * @return the number of updated entities
+     *
+     * @throws SpeedmentException if the underlying database throws an exception
+     * (e.g. SQLException)
+     * @see Updater#batch(int)
+     * @since 3.1.2
+     */
+    default long updateAll(Stream<ENTITY> entities) throws SpeedmentException {
+        return updater().batch(BatchOperation.DEFAULT_BATCH_SIZE).apply(entities);
+    }
+
+    /**
+     * Inserts the provided entity into the underlying database or, if an
+     * entity with the same primary key already exists, updates all its
+     * non-key fields, using a single statement. This avoids first looking
+     * up the entity and does not race with concurrent upserts of the same
+     * key. If the upsert fails for any reason, an unchecked
+     * {@link SpeedmentException} is thrown.
+     * <p>
+     * Values generated by the database (e.g. auto-increment keys) are not
+     * read back, so the primary key fields of the entity should be set.
+     *
+     * @param entity to upsert
+     * @return the provided entity instance
+     *
+     * @throws SpeedmentException if the underlying database throws an exception
+     * (e.g. SQLException)
+     * @throws UnsupportedOperationException if this manager or its database
+     * type does not support upserts
+     * @see #upserter()
+     * @since 3.1.2
+     */
+    default ENTITY upsert(ENTITY entity) throws SpeedmentException {
+        return upserter().apply(entity);
+    }
+
+    /**
+     * Returns an {@link Upserter} that when its {@link Upserter#apply(Object)}
+     * method is called, will produce the same result as {@link #upsert(Object)}.
+     * The columns to update for existing entities can be limited using
+     * {@link Upserter#updating(java.util.Collection)}.
+     * <p>
+     * By default, this method throws an
+     * {@code UnsupportedOperationException}.
+     *
+     * @return an Upserter
+     *
+     * @throws UnsupportedOperationException if this manager does not support
+     * upserts
+     * @since 3.1.2
+     */
+    default Upserter<ENTITY> upserter() {
+        throw new UnsupportedOperationException(
+            "Manager " + getClass().getSimpleName() + " does not support upserts."
+        );
+    }
+
+    /**
+     * Upserts all the entities in the provided Stream in the underlying
+     * database. The entities are sent in batches of
+     * {@link BatchOperation#DEFAULT_BATCH_SIZE} with one commit per batch.
+     * <p>
+     * If the upsert fails for any reason, an unchecked
+     * {@link SpeedmentException} is thrown. Batches that were sent before
+     * the failing batch remain upserted unless the call is part of a
+     * transaction.
+     *
+     * @param entities to upsert
+     * @return the number of inserted and updated entities
+     *
+     * @throws SpeedmentException if the underlying database throws an exception
+     * (e.g. SQLException)
+     * @throws UnsupportedOperationException if this manager or its database
+     * type does not support upserts
+     * @see Upserter#upsert(Stream, int)
+     * @since 3.1.2
+     */
+    default UpsertResult upsertAll(Stream<ENTITY> entities) throws SpeedmentException {
+        return upserter().upsert(entities, BatchOperation.DEFAULT_BATCH_SIZE);
+    }
+
     /**
      * Removes the provided entity from the underlying database and returns the
      * provided entity instance. If the deletion fails for any reason, an
@@ -280,6 +456,29 @@ public interface Manager<ENTITY> {
      */
     Remover<ENTITY> remover();
 
+    /**
+     * Removes all the entities in the provided Stream from the underlying
+     * database. The entities are sent in batches of
+     * {@link BatchOperation#DEFAULT_BATCH_SIZE} using a single statement and
+     * commit per batch.
+     * <p>
+     * If the deletion fails for any reason, an unchecked
+     * {@link SpeedmentException} is thrown. Batches that were sent before
+     * the failing batch remain removed unless the call is part of a
+     * transaction.
+     *
+     * @param entities to remove
+     * @return the number of entities the removal was applied on
+     *
+     * @throws SpeedmentException if the underlying database throws an exception
+     * (e.g. SQLException)
+     * @see Remover#batch(int)
+     * @since 3.1.2
+     */
+    default long removeAll(Stream<ENTITY> entities) throws SpeedmentException {
+        return remover().batch(BatchOperation.DEFAULT_BATCH_SIZE).apply(entities);
+    }
+
     /**
      * Returns a Function that, when it is applied, will produce an equivalent
      * result as if {@link #finderByNullable(HasNullableFinder)} was called.
@@ -0,0 +1,56 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.manager;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * A page of entities obtained using keyset pagination, as returned by
+ * {@link Manager#page(java.util.Comparator, long)}.
+ * <p>
+ * The next page is obtained by passing the {@link #getNextKey() next key} to
+ * {@link Manager#page(java.util.Comparator, List, long)} together with the
+ * same comparator and page size. Since the database seeks directly to the
+ * next key rather than skipping all previous rows, retrieving a deep page is
+ * as fast as retrieving the first one.
+ *
+ * @param <ENTITY>  the entity type
+ *
+ * @author  agent
+ * @since   3.1.2
+ */
+public interface Page<ENTITY> {
+
+    /**
+     * Returns the entities on this page in the order given by the comparator.
+     *
+     * @return  the entities on this page
+     */
+    List<ENTITY> getContent();
+
+    /**
+     * Returns the key values of the last entity on this page, or
+     * {@code Optional.empty()} if this is the last page. The values are given
+     * in the order of the sort fields, followed by any primary key fields
+     * that were added to make the order unique.
+     *
+     * @return  the key to use for retrieving the next page, if any
+     */
+    Optional<List<Object>> getNextKey();
+
+}
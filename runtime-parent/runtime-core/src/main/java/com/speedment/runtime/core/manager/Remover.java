@@ -58,4 +58,23 @@ public interface Remover<ENTITY> extends UnaryOperator<ENTITY>, Consumer<ENTITY>
     default void accept(ENTITY entity) {
         apply(entity);
     }
-}
\ No newline at end of file
+
+    /**
+     * Returns a {@link BatchOperation} that removes all the entities of a
+     * Stream, sending them to the data store in batches of the given size.
+     * <p>
+     * The default implementation ignores the batch size and applies this
+     * Remover on one entity at a time.
+     *
+     * @param batchSize  the maximum number of entities per batch
+     * @return           a BatchOperation
+     *
+     * @throws IllegalArgumentException  if the batch size is not positive
+     * @since 3.1.2
+     */
+    default BatchOperation<ENTITY> batch(int batchSize) {
+        BatchOperation.requirePositiveBatchSize(batchSize);
+        return BatchOperation.ofEach(this);
+    }
+
+}
@@ -0,0 +1,60 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.manager;
+
+/**
+ * The outcome of upserting a number of entities using
+ * {@link Manager#upsertAll(java.util.stream.Stream)} or
+ * {@link Upserter#upsert(java.util.stream.Stream, int)}.
+ * <p>
+ * Some databases or drivers are not able to tell the outcome of every row.
+ * Such rows are included in the {@link #getCount() count} but neither in the
+ * {@link #getInserted() inserted} nor in the {@link #getUpdated() updated}
+ * number of rows.
+ * For example, MySQL and MariaDB can only tell inserted rows apart from
+ * unchanged rows if the connection URL contains {@code useAffectedRows=true}.
+ *
+ * @author  agent
+ * @since   3.1.2
+ */
+public interface UpsertResult {
+
+    /**
+     * Returns the number of entities that were upserted.
+     *
+     * @return  the number of entities that were upserted
+     */
+    long getCount();
+
+    /**
+     * Returns the number of entities that were inserted as new rows.
+     *
+     * @return  the number of entities that were inserted
+     */
+    long getInserted();
+
+    /**
+     * Returns the number of entities that had a matching row with the same
+     * primary key. Matching rows that already had the given values, or that
+     * were left unchanged because no columns were to be updated, are also
+     * included.
+     *
+     * @return  the number of entities that matched an existing row
+     */
+    long getUpdated();
+
+}
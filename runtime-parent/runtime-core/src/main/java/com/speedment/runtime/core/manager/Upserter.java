@@ -0,0 +1,101 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.manager;
+
+import com.speedment.runtime.core.exception.SpeedmentException;
+import com.speedment.runtime.field.Field;
+
+import java.util.Collection;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+/**
+ * An action that takes an entity and inserts it into a data store or, if an
+ * entity with the same primary key already exists, updates the existing
+ * entity. This is done using a single statement, so there is no need to
+ * first look up the entity, and concurrent upserts of the same key do not
+ * race. This interface extends the standard {@code UnaryOperator}- and
+ * {@code Consumer}-interfaces so that it can be used inside a {@code Stream}.
+ * <p>
+ * By default, all the columns except the primary key columns are updated if
+ * the entity already exists. Use {@link #updating(Collection)} to update only
+ * some of the columns.
+ *
+ * @param <ENTITY>  the entity type
+ *
+ * @author  agent
+ * @since   3.1.2
+ */
+public interface Upserter<ENTITY> extends UnaryOperator<ENTITY>, Consumer<ENTITY> {
+
+    /**
+     * Upserts the entity in the data store, returning the same entity.
+     * Values generated by the data store are not read back.
+     *
+     * @param entity  the entity to upsert
+     * @return        the upserted entity
+     *
+     * @throws SpeedmentException  if upserting the entity failed
+     */
+    @Override
+    ENTITY apply(ENTITY entity) throws SpeedmentException;
+
+    /**
+     * Upserts the entity in the data store.
+     *
+     * @param entity  the entity to upsert
+     *
+     * @throws SpeedmentException  if upserting the entity failed
+     */
+    @Override
+    default void accept(ENTITY entity) {
+        apply(entity);
+    }
+
+    /**
+     * Upserts all the entities of the given Stream, sending them to the data
+     * store in batches of the given size using one commit per batch (unless
+     * they are part of a transaction). The Stream is consumed sequentially.
+     * <p>
+     * If an exception is thrown, the batches that were sent before the
+     * failing batch remain committed.
+     *
+     * @param entities   the entities to upsert
+     * @param batchSize  the maximum number of entities per batch
+     * @return           the number of inserted and updated entities
+     *
+     * @throws IllegalArgumentException  if the batch size is not positive
+     * @throws SpeedmentException        if upserting the entities failed
+     */
+    UpsertResult upsert(Stream<ENTITY> entities, int batchSize) throws SpeedmentException;
+
+    /**
+     * Returns an Upserter that only updates the given fields if an entity
+     * with the same primary key already exists. If no fields are given,
+     * existing entities are left unchanged so that only missing entities
+     * are inserted.
+     *
+     * @param fields  the fields to update for existing entities
+     * @return        an Upserter that only updates the given fields
+     *
+     * @throws IllegalArgumentException  if any of the fields does not belong
+     *                                   to the table
+     */
+    Upserter<ENTITY> updating(Collection<? extends Field<ENTITY>> fields);
+
+}
@@ -16,9 +16,11 @@
  */
 package com.speedment.runtime.core.stream.parallel;
 
+import com.speedment.runtime.core.internal.stream.parallel.BufferedPrefetchParallelStrategy;
 import com.speedment.runtime.core.internal.stream.parallel.ComputeIntensityExtremeParallelStrategy;
 import com.speedment.runtime.core.internal.stream.parallel.ComputeIntensityHighParallelStrategy;
 import com.speedment.runtime.core.internal.stream.parallel.ComputeIntensityMediumParallelStrategy;
+import com.speedment.runtime.core.internal.stream.parallel.PartitionedScanParallelStrategy;
 
 import java.util.Iterator;
 import java.util.Spliterator;
@@ -73,6 +75,34 @@ public interface ParallelStrategy {
         return Hidden.COMPUTE_INTENSITY_EXTREME;
     }
 
+    /**
+     * A Parallel Strategy that reads the table using a number of concurrent
+     * queries on separate connections, each covering a range of the primary
+     * key. It favors large tables where reading the rows is the bottleneck.
+     *
+     * @param partitions the maximum number of concurrent queries
+     * @return a ParallelStrategy
+     * @see PartitionedParallelStrategy
+     * @since 3.1.2
+     */
+    static PartitionedParallelStrategy partitionedScan(int partitions) {
+        return new PartitionedScanParallelStrategy(partitions);
+    }
+
+    /**
+     * A Parallel Strategy that reads and maps the rows in a separate thread
+     * while the stream is consumed. It favors large sequential streams where
+     * reading the rows and processing them take about the same time.
+     *
+     * @param bufferSize the maximum number of entities read ahead
+     * @return a ParallelStrategy
+     * @see PrefetchingParallelStrategy
+     * @since 3.1.2
+     */
+    static PrefetchingParallelStrategy prefetching(int bufferSize) {
+        return new BufferedPrefetchParallelStrategy(bufferSize);
+    }
+
     <T> Spliterator<T> spliteratorUnknownSize(Iterator<? extends T> iterator, int characteristics);
 
     static ParallelStrategy of(final int... batchSizes) {
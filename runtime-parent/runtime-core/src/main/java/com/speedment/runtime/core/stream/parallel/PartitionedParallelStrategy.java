@@ -0,0 +1,43 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.stream.parallel;
+
+/**
+ * A {@link ParallelStrategy} that, for parallel streams, splits the table
+ * into a number of primary key ranges and reads each range using a separate
+ * query on a separate connection. This parallelizes the reading of the rows
+ * and not only the processing of them.
+ * <p>
+ * Partitioning is only used if the table has a single integral primary key
+ * column, if the stream is parallel and if the query is not ordered and not
+ * part of a transaction. Otherwise, the stream falls back to reading a single
+ * query, split using {@link #spliteratorUnknownSize(java.util.Iterator, int)}.
+ *
+ * @author agent
+ * @since 3.1.2
+ */
+public interface PartitionedParallelStrategy extends ParallelStrategy {
+
+    /**
+     * Returns the maximum number of partitions (and thus concurrent queries
+     * and connections) used for a parallel stream.
+     *
+     * @return the maximum number of partitions
+     */
+    int getPartitions();
+
+}
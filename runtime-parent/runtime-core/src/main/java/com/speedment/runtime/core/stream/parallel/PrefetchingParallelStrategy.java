@@ -0,0 +1,42 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.stream.parallel;
+
+/**
+ * A {@link ParallelStrategy} where the rows of the ResultSet are read and
+ * mapped to entities by a dedicated reader thread. The entities are handed
+ * over to the consuming thread through a bounded buffer. This way, waiting
+ * for the database overlaps with the processing of the entities downstream.
+ * <p>
+ * The reader thread blocks when the buffer is full and is stopped when the
+ * stream is closed. Prefetching is not used for streams that are part of a
+ * transaction, since the connection would then be used by two threads.
+ *
+ * @author agent
+ * @since 3.1.2
+ */
+public interface PrefetchingParallelStrategy extends ParallelStrategy {
+
+    /**
+     * Returns the maximum number of entities that are read ahead of the
+     * consumer.
+     *
+     * @return the maximum number of entities that are read ahead
+     */
+    int getBufferSize();
+
+}
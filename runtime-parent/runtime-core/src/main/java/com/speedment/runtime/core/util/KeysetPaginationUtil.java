@@ -0,0 +1,219 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.util;
+
+import com.speedment.runtime.core.manager.Manager;
+import com.speedment.runtime.core.manager.Page;
+import com.speedment.runtime.field.Field;
+import com.speedment.runtime.field.comparator.CombinedComparator;
+import com.speedment.runtime.field.comparator.FieldComparator;
+import com.speedment.runtime.field.predicate.CombinedPredicate;
+import com.speedment.runtime.field.trait.HasComparableOperators;
+import static com.speedment.runtime.core.util.StaticClassUtil.instanceNotAllowed;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import static java.util.Objects.requireNonNull;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Keyset (seek) pagination for managers.
+ * <p>
+ * Rather than skipping the rows of all the previous pages, the page is
+ * selected using a predicate on the sort key of the last entity of the
+ * previous page. For a key {@code (a, b)} sorted ascending, this is
+ * {@code a >= ? AND (a > ? OR (a = ? AND b > ?))}, which the stream optimizer
+ * renders as a WHERE clause that can use an index on the key columns.
+ *
+ * @author agent
+ * @since 3.1.2
+ */
+public final class KeysetPaginationUtil {
+
+    /**
+     * Returns a page of entities from the given manager.
+     *
+     * @param <ENTITY>    the entity type
+     * @param manager     to obtain entities from
+     * @param comparator  the order of the entities
+     * @param afterKey    the key after which the page starts, or
+     *                    {@code null} for the first page
+     * @param pageSize    the maximum number of entities on the page
+     * @return            the page
+     */
+    public static <ENTITY> Page<ENTITY> page(
+        final Manager<ENTITY> manager,
+        final Comparator<ENTITY> comparator,
+        final List<?> afterKey,
+        final long pageSize
+    ) {
+        requireNonNull(manager);
+        requireNonNull(comparator);
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("The page size must be positive: " + pageSize);
+        }
+
+        final List<FieldComparator<? super ENTITY>> keyComparators = keyComparators(manager, comparator);
+        final Comparator<ENTITY> keyComparator = combined(keyComparators);
+
+        final List<ENTITY> content;
+        try (final Stream<ENTITY> stream = manager.stream()) {
+            Stream<ENTITY> s = stream;
+            if (afterKey != null) {
+                if (afterKey.size() != keyComparators.size()) {
+                    throw new IllegalArgumentException(
+                        "The key " + afterKey + " does not match the " + keyComparators.size() + " key fields of the comparator."
+                    );
+                }
+                if (keyComparators.size() > 1) {
+                    // Lets the database use a range scan on the leading column
+                    s = s.filter(leadingBound(keyComparators.get(0), afterKey.get(0)));
+                }
+                s = s.filter(seek(keyComparators, afterKey));
+            }
+            content = s.sorted(keyComparator)
+                .limit(pageSize)
+                .collect(toList());
+        }
+
+        if (content.size() < pageSize) {
+            return new PageImpl<>(Collections.unmodifiableList(content), null);
+        }
+        final ENTITY last = content.get(content.size() - 1);
+        final List<Object> nextKey = keyComparators.stream()
+            .map(FieldComparator::getField)
+            .map(f -> keyValue(f, last))
+            .collect(toList());
+        return new PageImpl<>(Collections.unmodifiableList(content), Collections.unmodifiableList(nextKey));
+    }
+
+    private static <ENTITY> List<FieldComparator<? super ENTITY>> keyComparators(
+        final Manager<ENTITY> manager,
+        final Comparator<ENTITY> comparator
+    ) {
+        final List<FieldComparator<? super ENTITY>> result = new ArrayList<>();
+        if (comparator instanceof FieldComparator) {
+            result.add((FieldComparator<ENTITY>) comparator);
+        } else if (comparator instanceof CombinedComparator) {
+            ((CombinedComparator<ENTITY>) comparator).stream().forEachOrdered(result::add);
+        } else {
+            throw new IllegalArgumentException(
+                "Keyset pagination requires a field comparator or a combination of field comparators, not " + comparator
+            );
+        }
+
+        final List<Field<?>> fields = new ArrayList<>();
+        for (final FieldComparator<? super ENTITY> fc : result) {
+            if (!(fc.getField() instanceof HasComparableOperators)) {
+                throw new IllegalArgumentException("The field " + fc.getField().identifier().getColumnId() + " is not comparable.");
+            }
+            fields.add(fc.getField());
+        }
+
+        if (fields.stream().noneMatch(Field::isUnique)) {
+            // Append the primary key as a tie-breaker so that the order is total
+            final List<Field<ENTITY>> pks = manager.primaryKeyFields().collect(toList());
+            if (pks.isEmpty()) {
+                throw new IllegalArgumentException(
+                    "Keyset pagination requires a unique sort field or a primary key for " + manager.getTableIdentifier()
+                );
+            }
+            for (final Field<ENTITY> pk : pks) {
+                if (fields.stream().anyMatch(f -> f.identifier().equals(pk.identifier()))) {
+                    continue;
+                }
+                if (!(pk instanceof HasComparableOperators)) {
+                    throw new IllegalArgumentException("The primary key field " + pk.identifier().getColumnId() + " is not comparable.");
+                }
+                @SuppressWarnings("unchecked")
+                final HasComparableOperators<ENTITY, ?> comparable = (HasComparableOperators<ENTITY, ?>) pk;
+                result.add(comparable.comparator());
+            }
+        }
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <ENTITY> Comparator<ENTITY> combined(List<FieldComparator<? super ENTITY>> keyComparators) {
+        Comparator<ENTITY> result = (Comparator<ENTITY>) keyComparators.get(0);
+        for (int i = 1; i < keyComparators.size(); i++) {
+            result = result.thenComparing(keyComparators.get(i));
+        }
+        return result;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <ENTITY> Predicate<ENTITY> leadingBound(FieldComparator<? super ENTITY> fc, Object value) {
+        final HasComparableOperators field = (HasComparableOperators) fc.getField();
+        final Comparable v = comparable(fc, value);
+        return fc.isReversed() ? field.lessOrEqual(v) : field.greaterOrEqual(v);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <ENTITY> Predicate<ENTITY> seek(List<FieldComparator<? super ENTITY>> keyComparators, List<?> afterKey) {
+        final List<Predicate<? super ENTITY>> alternatives = new ArrayList<>();
+        for (int i = 0; i < keyComparators.size(); i++) {
+            final List<Predicate<? super ENTITY>> terms = new ArrayList<>();
+            for (int j = 0; j < i; j++) {
+                final HasComparableOperators field = (HasComparableOperators) keyComparators.get(j).getField();
+                terms.add(field.equal(comparable(keyComparators.get(j), afterKey.get(j))));
+            }
+            final FieldComparator<? super ENTITY> fc = keyComparators.get(i);
+            final HasComparableOperators field = (HasComparableOperators) fc.getField();
+            final Comparable v = comparable(fc, afterKey.get(i));
+            terms.add(fc.isReversed() ? field.lessThan(v) : field.greaterThan(v));
+            alternatives.add(terms.size() == 1 ? terms.get(0) : CombinedPredicate.and(terms));
+        }
+        return alternatives.size() == 1
+            ? (Predicate<ENTITY>) alternatives.get(0)
+            : CombinedPredicate.or(alternatives);
+    }
+
+    private static Comparable<?> comparable(FieldComparator<?> fc, Object value) {
+        if (value == null) {
+            throw new IllegalArgumentException(
+                "Keyset pagination does not support null key values for " + fc.getField().identifier().getColumnId()
+            );
+        }
+        if (!(value instanceof Comparable)) {
+            throw new IllegalArgumentException("The key value " + value + " is not comparable.");
+        }
+        return (Comparable<?>) value;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <ENTITY> Object keyValue(Field<? super ENTITY> field, ENTITY entity) {
+        final Object value = ((Field<ENTITY>) field).getter().apply(entity);
+        if (value == null) {
+            throw new IllegalArgumentException(
+                "Keyset pagination does not support null key values for " + field.identifier().getColumnId()
+            );
+        }
+        return value;
+    }
+
+    /**
+     * Utility classes should not be instantiated.
+     */
+    private KeysetPaginationUtil() {
+        instanceNotAllowed(getClass());
+    }
+
+}
@@ -0,0 +1,55 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.util;
+
+import com.speedment.runtime.core.manager.Page;
+import java.util.List;
+import static java.util.Objects.requireNonNull;
+import java.util.Optional;
+
+/**
+ *
+ * @author agent
+ * @param <ENTITY> the entity type
+ * @since 3.1.2
+ */
+final class PageImpl<ENTITY> implements Page<ENTITY> {
+
+    private final List<ENTITY> content;
+    private final List<Object> nextKey; // Nullable
+
+    PageImpl(List<ENTITY> content, List<Object> nextKey) {
+        this.content = requireNonNull(content);
+        this.nextKey = nextKey;
+    }
+
+    @Override
+    public List<ENTITY> getContent() {
+        return content;
+    }
+
+    @Override
+    public Optional<List<Object>> getNextKey() {
+        return Optional.ofNullable(nextKey);
+    }
+
+    @Override
+    public String toString() {
+        return "PageImpl{" + "size=" + content.size() + ", nextKey=" + nextKey + '}';
+    }
+
+}
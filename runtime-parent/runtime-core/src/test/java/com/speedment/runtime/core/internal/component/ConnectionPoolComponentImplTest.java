@@ -23,12 +23,15 @@ package com.speedment.runtime.core.internal.component;
 
 
 import com.speedment.runtime.core.component.connectionpool.PoolableConnection;
+import com.speedment.runtime.core.exception.SpeedmentException;
 import com.speedment.runtime.core.internal.component.ConnectionPoolComponentImpl;
 import org.junit.*;
 
 import java.sql.*;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.*;
 
@@ -180,6 +183,162 @@ public class ConnectionPoolComponentImplTest {
         }
     }
 
+    @Test
+    public void testMaxTotalRejects() throws Exception {
+        String uri = "thecooldatabase";
+        String user = "tryggve";
+        char[] password = "arne".toCharArray();
+        instance.setMaxTotal(2);
+        instance.setAcquireTimeout(10);
+        final PoolableConnection c0 = instance.getConnection(uri, user, password);
+        final PoolableConnection c1 = instance.getConnection(uri, user, password);
+        try {
+            instance.getConnection(uri, user, password);
+            fail("Expected the pool to be exhausted");
+        } catch (SpeedmentException expected) {
+        }
+        assertEquals(1, instance.rejectCount());
+        assertEquals(2, instance.leaseSize());
+        c0.close();
+        final PoolableConnection c2 = instance.getConnection(uri, user, password);
+        assertNotNull(c2);
+        c1.close();
+        c2.close();
+        assertEquals(0, instance.leaseSize());
+        assertEquals(0, instance.waitSize());
+    }
+
+    @Test
+    public void testMaxTotalWaits() throws Exception {
+        String uri = "thecooldatabase";
+        String user = "tryggve";
+        char[] password = "arne".toCharArray();
+        instance.setMaxTotal(1);
+        instance.setAcquireTimeout(10_000);
+        final PoolableConnection c0 = instance.getConnection(uri, user, password);
+        final CompletableFuture<PoolableConnection> waiter = CompletableFuture.supplyAsync(
+            () -> instance.getConnection(uri, user, password)
+        );
+        while (instance.waitSize() == 0) {
+            Thread.sleep(1);
+        }
+        assertFalse(waiter.isDone());
+        c0.close();
+        final PoolableConnection c1 = waiter.get(10, TimeUnit.SECONDS);
+        assertNotNull(c1);
+        assertEquals(0, instance.rejectCount());
+        c1.close();
+    }
+
+    @Test
+    public void testKeepWarm() throws Exception {
+        String uri = "thecooldatabase";
+        String user = "tryggve";
+        char[] password = "arne".toCharArray();
+        instance.setMaxAge(60 * 60_000);
+        instance.setMaxRetainSize(10);
+        instance.setMinIdle(3);
+        instance.keepWarm(uri, user, password);
+        assertEquals(3, instance.poolSize());
+        final PoolableConnection connection = instance.getConnection(uri, user, password);
+        assertEquals(2, instance.poolSize());
+        instance.housekeep();
+        assertEquals(3, instance.poolSize());
+        connection.close();
+        assertEquals(4, instance.poolSize());
+    }
+
+    @Test
+    public void testKeepWarmRespectsMaxTotal() throws Exception {
+        String uri = "thecooldatabase";
+        String user = "tryggve";
+        char[] password = "arne".toCharArray();
+        instance.setMaxAge(60 * 60_000);
+        instance.setMaxRetainSize(10);
+        instance.setMaxTotal(2);
+        instance.setAcquireTimeout(50);
+        instance.setMinIdle(3);
+        instance.keepWarm(uri, user, password);
+        assertEquals(2, instance.poolSize());
+        final PoolableConnection c0 = instance.getConnection(uri, user, password);
+        final PoolableConnection c1 = instance.getConnection(uri, user, password);
+        assertEquals(0, instance.poolSize());
+        instance.housekeep();
+        assertEquals(0, instance.poolSize());
+        assertEquals(2, instance.leaseSize());
+        c0.close();
+        c0.close();
+        c1.close();
+        assertEquals(2, instance.poolSize());
+        assertEquals(0, instance.leaseSize());
+    }
+
+    @Test
+    public void testIdleConnectionsCountAgainstMaxTotal() throws Exception {
+        String uri = "thecooldatabase";
+        String user = "tryggve";
+        char[] password = "arne".toCharArray();
+        instance.setMaxAge(60 * 60_000);
+        instance.setMaxRetainSize(10);
+        instance.setMaxTotal(2);
+        instance.setAcquireTimeout(50);
+        final PoolableConnection c0 = instance.getConnection(uri, user, password);
+        final PoolableConnection c1 = instance.getConnection(uri, user, password);
+        c0.close();
+        c1.close();
+        instance.setMinIdle(3);
+        instance.keepWarm(uri, user, password);
+        assertEquals(2, instance.poolSize());
+        final PoolableConnection c2 = instance.getConnection(uri, user, password);
+        final PoolableConnection c3 = instance.getConnection(uri, user, password);
+        assertEquals(0, instance.poolSize());
+        try {
+            instance.getConnection(uri, user, password);
+            fail("Expected the pool to be exhausted");
+        } catch (final SpeedmentException expected) {
+            // Expected
+        }
+        c2.close();
+        c3.close();
+        assertEquals(2, instance.poolSize());
+    }
+
+    @Test
+    public void testHousekeepEvictsIdle() throws Exception {
+        String uri = "thecooldatabase";
+        String user = "tryggve";
+        char[] password = "arne".toCharArray();
+        instance.setMaxAge(60 * 60_000);
+        instance.setMaxRetainSize(10);
+        instance.setIdleTimeout(0);
+        final PoolableConnection c0 = instance.getConnection(uri, user, password);
+        final PoolableConnection c1 = instance.getConnection(uri, user, password);
+        c0.close();
+        c1.close();
+        assertEquals(2, instance.poolSize());
+        Thread.sleep(5);
+        instance.housekeep();
+        assertEquals(0, instance.poolSize());
+        assertTrue(c0.isClosed());
+    }
+
+    @Test
+    public void testHousekeepDiscardsInvalid() throws Exception {
+        String uri = "thecooldatabase";
+        String user = "tryggve";
+        char[] password = "arne".toCharArray();
+        instance.setMaxAge(60 * 60_000);
+        instance.setMaxRetainSize(10);
+        instance.setIdleTimeout(60 * 60_000);
+        final PoolableConnection c0 = instance.getConnection(uri, user, password);
+        final PoolableConnection c1 = instance.getConnection(uri, user, password);
+        c0.close();
+        c1.close();
+        c0.rawClose();
+        instance.housekeep();
+        assertEquals(1, instance.poolSize());
+    }
+
     /**
      * Test of setPoolSize method, of class ConnectionPoolComponentImpl.
      */
@@ -410,7 +569,7 @@ public class ConnectionPoolComponentImplTest {
 
         @Override
         public boolean isValid(int timeout) throws SQLException {
-            throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
+            return !closed;
         }
 
         @Override
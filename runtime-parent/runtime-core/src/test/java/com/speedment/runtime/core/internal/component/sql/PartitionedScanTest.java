@@ -0,0 +1,429 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.component.sql;
+
+import com.speedment.runtime.config.Dbms;
+import com.speedment.runtime.config.identifier.ColumnIdentifier;
+import com.speedment.runtime.core.component.sql.SqlStreamOptimizerInfo;
+import com.speedment.runtime.core.db.AsynchronousQueryResult;
+import com.speedment.runtime.core.db.DbmsOperationHandler;
+import com.speedment.runtime.core.db.DbmsType;
+import com.speedment.runtime.core.db.SqlFunction;
+import com.speedment.runtime.core.internal.component.sql.override.SqlStreamTerminatorComponentImpl;
+import com.speedment.runtime.core.internal.manager.sql.SqlStreamTerminator;
+import com.speedment.runtime.core.internal.stream.builder.ReferenceStreamBuilder;
+import com.speedment.runtime.core.internal.stream.builder.pipeline.PipelineImpl;
+import com.speedment.runtime.core.stream.parallel.ParallelStrategy;
+import com.speedment.runtime.test_support.MockDbmsType;
+import com.speedment.runtime.test_support.MockEntity;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import static java.util.stream.Collectors.toList;
+import static org.junit.Assert.*;
+import org.junit.Before;
+import org.junit.Test;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ *
+ * @author agent
+ */
+public class PartitionedScanTest {
+
+    private static final String SQL = "SELECT id FROM mock_entity";
+    private static final SqlFunction<ResultSet, Long> MAPPER = rs -> rs.getLong(1);
+    private static final String ENTITY_SQL = "SELECT id,name FROM mock_entity";
+    private static final SqlFunction<ResultSet, MockEntity> ENTITY_MAPPER = rs -> new MockEntity(rs.getInt(1));
+    private static final long MIN = 10;
+    private static final long MAX = 109;
+
+    private Dbms dbms;
+    private DbmsType dbmsType;
+    private DbmsOperationHandler operationHandler;
+    private RangeQueryResult query;
+    private List<RangeQueryResult> partitions;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() throws SQLException {
+        dbms = mock(Dbms.class);
+        dbmsType = mock(DbmsType.class);
+        operationHandler = mock(DbmsOperationHandler.class);
+        when(dbmsType.getOperationHandler()).thenReturn(operationHandler);
+        when(dbmsType.getSubSelectAlias()).thenReturn(DbmsType.SubSelectAlias.REQUIRED);
+
+        final ResultSet rs = mock(ResultSet.class);
+        when(rs.getLong(1)).thenReturn(MIN);
+        when(rs.getLong(2)).thenReturn(MAX);
+        when(operationHandler.executeQuery(any(Dbms.class), anyString(), anyList(), any(SqlFunction.class)))
+            .thenAnswer(i -> Stream.of(((SqlFunction<ResultSet, ?>) i.getArgument(3)).apply(rs)));
+
+        partitions = Collections.synchronizedList(new ArrayList<>());
+        when(operationHandler.executeQueryAsync(any(Dbms.class), anyString(), anyList(), any(SqlFunction.class), any(ParallelStrategy.class)))
+            .thenAnswer(i -> {
+                final List<?> values = i.getArgument(2);
+                final RangeQueryResult partition = new RangeQueryResult(
+                    i.getArgument(1),
+                    (Long) values.get(values.size() - 2),
+                    (Long) values.get(values.size() - 1)
+                );
+                partitions.add(partition);
+                return partition;
+            });
+
+        query = new RangeQueryResult(SQL, MIN, MAX);
+    }
+
+    @Test
+    public void testPartitions() {
+        final PartitionedScan<Long> instance = new PartitionedScan<>(dbms, dbmsType, query, SQL, MAPPER, "id", 8);
+        final List<Long> result;
+        try (Stream<Long> stream = instance.stream()) {
+            assertTrue(stream.isParallel());
+            result = stream.sorted().collect(toList());
+        }
+        assertEquals(LongStream.rangeClosed(MIN, MAX).boxed().collect(toList()), result);
+        assertEquals(8, partitions.size());
+        assertFalse(query.opened);
+        assertTrue(partitions.get(0).sql, partitions.get(0).sql.startsWith("SELECT * FROM (" + SQL + ") AS A WHERE id >= ? AND id <= ?"));
+        partitions.forEach(p -> assertTrue(p.closed));
+        verify(operationHandler).executeQuery(any(Dbms.class), anyString(), anyList(), any());
+    }
+
+    @Test
+    public void testMorePartitionsThanKeys() {
+        final PartitionedScan<Long> instance = new PartitionedScan<>(dbms, dbmsType, query, SQL, MAPPER, "id", 1000);
+        assertEquals(MAX - MIN + 1, instance.stream().count());
+        assertEquals(MAX - MIN + 1, partitions.size());
+    }
+
+    @Test
+    public void testCloseClosesOpenedPartitions() {
+        final PartitionedScan<Long> instance = new PartitionedScan<>(dbms, dbmsType, query, SQL, MAPPER, "id", 4);
+        assertTrue(instance.stream().findAny().isPresent());
+        instance.close();
+        partitions.forEach(p -> assertTrue(p.closed));
+    }
+
+    @Test
+    public void testOrderedQueryIsNotPartitioned() {
+        query.setSql(SQL + " ORDER BY id ASC");
+        final PartitionedScan<Long> instance = new PartitionedScan<>(dbms, dbmsType, query, SQL, MAPPER, "id", 4);
+        assertEquals(MAX - MIN + 1, instance.stream().count());
+        assertTrue(query.opened);
+        assertTrue(partitions.isEmpty());
+        verify(operationHandler, never()).executeQuery(any(Dbms.class), anyString(), anyList(), any());
+    }
+
+    @Test
+    public void testProjectedQueryIsNotPartitioned() {
+        query.setProjection(MockEntity.ID.identifier());
+        final PartitionedScan<Long> instance = new PartitionedScan<>(dbms, dbmsType, query, SQL, MAPPER, "id", 4);
+        assertEquals(MAX - MIN + 1, instance.stream().count());
+        assertTrue(query.opened);
+        assertTrue(partitions.isEmpty());
+    }
+
+    @Test
+    public void testMappedQueryIsNotPartitioned() {
+        query.setRsMapper(rs -> -1L);
+        final PartitionedScan<Long> instance = new PartitionedScan<>(dbms, dbmsType, query, SQL, MAPPER, "id", 4);
+        assertEquals(MAX - MIN + 1, instance.stream().count());
+        assertTrue(query.opened);
+        assertTrue(partitions.isEmpty());
+    }
+
+    @Test
+    public void testLimitedQueryIsNotPartitioned() {
+        query.setSql(SQL + " LIMIT ?");
+        query.setSkipOrLimit(true);
+        final PartitionedScan<Long> instance = new PartitionedScan<>(dbms, dbmsType, query, SQL, MAPPER, "id", 4);
+        assertEquals(MAX - MIN + 1, instance.stream().count());
+        assertTrue(query.opened);
+        assertTrue(partitions.isEmpty());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testParallelPipeline() {
+        when(operationHandler.executeQueryAsync(any(Dbms.class), anyString(), anyList(), any(SqlFunction.class), any(ParallelStrategy.class)))
+            .thenAnswer(i -> {
+                final List<?> values = i.getArgument(2);
+                return new EntityQueryResult(
+                    i.getArgument(1),
+                    (Long) values.get(values.size() - 2),
+                    (Long) values.get(values.size() - 1)
+                );
+            });
+        final EntityQueryResult entityQuery = new EntityQueryResult(ENTITY_SQL, MIN, MAX);
+        final List<Integer> result = entityStream(entityQuery)
+            .parallel()
+            .map(MockEntity::getId)
+            .sorted()
+            .collect(toList());
+        assertEquals(LongStream.rangeClosed(MIN, MAX).mapToObj(l -> (int) l).collect(toList()), result);
+        assertFalse(entityQuery.opened);
+        verify(operationHandler).executeQuery(any(Dbms.class), anyString(), anyList(), any());
+    }
+
+    @Test
+    public void testParallelProjectedPipelineIsNotPartitioned() {
+        final EntityQueryResult entityQuery = new EntityQueryResult(ENTITY_SQL, MIN, MAX);
+        final List<String> result = entityStream(entityQuery)
+            .parallel()
+            .map(MockEntity.NAME)
+            .collect(toList());
+        assertEquals(LongStream.rangeClosed(MIN, MAX).mapToObj(l -> "Name" + l).collect(toList()), result);
+        assertEquals("SELECT name FROM mock_entity", entityQuery.getSql());
+        assertTrue(entityQuery.opened);
+        verify(operationHandler, never()).executeQuery(any(Dbms.class), anyString(), anyList(), any());
+    }
+
+    @Test
+    public void testParallelLimitedPipelineIsNotPartitioned() {
+        final EntityQueryResult entityQuery = new EntityQueryResult(ENTITY_SQL, MIN, MIN + 4);
+        final List<MockEntity> result = entityStream(entityQuery)
+            .parallel()
+            .limit(5)
+            .collect(toList());
+        assertEquals(5, result.size());
+        assertTrue(entityQuery.getSql(), entityQuery.getSql().startsWith(ENTITY_SQL + " LIMIT ?"));
+        assertTrue(entityQuery.hasSkipOrLimit());
+        assertTrue(entityQuery.opened);
+        verify(operationHandler, never()).executeQuery(any(Dbms.class), anyString(), anyList(), any());
+    }
+
+    private Stream<MockEntity> entityStream(EntityQueryResult entityQuery) {
+        final SqlStreamOptimizerInfo<MockEntity> info = SqlStreamOptimizerInfo.of(
+            new MockDbmsType(),
+            ENTITY_SQL,
+            "SELECT COUNT(*) FROM mock_entity",
+            (sql, l) -> MAX - MIN + 1,
+            f -> f.identifier().getColumnId(),
+            f -> f == MockEntity.ID ? Integer.class : String.class,
+            "mock_entity"
+        );
+        final SqlStreamTerminator<MockEntity> terminator = new SqlStreamTerminator<>(
+            info,
+            entityQuery,
+            new SqlStreamOptimizerComponentImpl(),
+            new SqlStreamTerminatorComponentImpl(),
+            true
+        );
+        final PartitionedScan<MockEntity> partitionedScan = new PartitionedScan<>(
+            dbms, dbmsType, entityQuery, ENTITY_SQL, ENTITY_MAPPER, "id", 4
+        );
+        final PipelineImpl<MockEntity> pipeline = new PipelineImpl<>(entityQuery::stream);
+        pipeline.setInitialSupplier(() -> pipeline.isParallel()
+            ? partitionedScan.stream()
+            : entityQuery.stream()
+        );
+        final Stream<MockEntity> result = new ReferenceStreamBuilder<>(pipeline, terminator);
+        result.onClose(partitionedScan::close);
+        return result;
+    }
+
+    private static final class EntityQueryResult implements AsynchronousQueryResult<MockEntity> {
+
+        private final long from;
+        private final long to;
+        private final ResultSet rs;
+        private final AtomicLong row;
+        private String sql;
+        private List<?> values = new ArrayList<>();
+        private SqlFunction<ResultSet, MockEntity> rsMapper = ENTITY_MAPPER;
+        private ColumnIdentifier<?> projection;
+        private boolean skipOrLimit;
+        private volatile boolean opened;
+
+        private EntityQueryResult(String sql, long from, long to) {
+            this.sql = sql;
+            this.from = from;
+            this.to = to;
+            this.rs = mock(ResultSet.class);
+            this.row = new AtomicLong();
+            try {
+                when(rs.getInt(1)).thenAnswer(i -> (int) row.get());
+                when(rs.getString(1)).thenAnswer(i -> "Name" + row.get());
+            } catch (SQLException sqle) {
+                throw new AssertionError(sqle);
+            }
+        }
+
+        @Override
+        public synchronized Stream<MockEntity> stream() {
+            opened = true;
+            final List<MockEntity> rows = new ArrayList<>();
+            for (long i = from; i <= to; i++) {
+                row.set(i);
+                try {
+                    rows.add(rsMapper.apply(rs));
+                } catch (SQLException sqle) {
+                    throw new AssertionError(sqle);
+                }
+            }
+            return rows.stream();
+        }
+
+        @Override
+        public void close() {}
+
+        @Override
+        public String getSql() {
+            return sql;
+        }
+
+        @Override
+        public void setSql(String sql) {
+            this.sql = sql;
+        }
+
+        @Override
+        public List<?> getValues() {
+            return values;
+        }
+
+        @Override
+        public void setValues(List<?> values) {
+            this.values = values;
+        }
+
+        @Override
+        public SqlFunction<ResultSet, MockEntity> getRsMapper() {
+            return rsMapper;
+        }
+
+        @Override
+        public void setRsMapper(SqlFunction<ResultSet, MockEntity> rsMapper) {
+            this.rsMapper = rsMapper;
+        }
+
+        @Override
+        public Optional<ColumnIdentifier<?>> getProjection() {
+            return Optional.ofNullable(projection);
+        }
+
+        @Override
+        public void setProjection(ColumnIdentifier<?> projection) {
+            this.projection = projection;
+        }
+
+        @Override
+        public boolean hasSkipOrLimit() {
+            return skipOrLimit;
+        }
+
+        @Override
+        public void setSkipOrLimit(boolean skipOrLimit) {
+            this.skipOrLimit = skipOrLimit;
+        }
+    }
+
+    private static final class RangeQueryResult implements AsynchronousQueryResult<Long> {
+
+        private String sql;
+        private final long from;
+        private final long to;
+        private List<?> values = new ArrayList<>();
+        private SqlFunction<ResultSet, Long> rsMapper = MAPPER;
+        private ColumnIdentifier<?> projection;
+        private boolean skipOrLimit;
+        private volatile boolean opened;
+        private volatile boolean closed;
+
+        private RangeQueryResult(String sql, long from, long to) {
+            this.sql = sql;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public Stream<Long> stream() {
+            opened = true;
+            return LongStream.rangeClosed(from, to).boxed();
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+
+        @Override
+        public String getSql() {
+            return sql;
+        }
+
+        @Override
+        public void setSql(String sql) {
+            this.sql = sql;
+        }
+
+        @Override
+        public List<?> getValues() {
+            return values;
+        }
+
+        @Override
+        public void setValues(List<?> values) {
+            this.values = values;
+        }
+
+        @Override
+        public SqlFunction<ResultSet, Long> getRsMapper() {
+            return rsMapper;
+        }
+
+        @Override
+        public void setRsMapper(SqlFunction<ResultSet, Long> rsMapper) {
+            this.rsMapper = rsMapper;
+        }
+
+        @Override
+        public Optional<ColumnIdentifier<?>> getProjection() {
+            return Optional.ofNullable(projection);
+        }
+
+        @Override
+        public void setProjection(ColumnIdentifier<?> projection) {
+            this.projection = projection;
+        }
+
+        @Override
+        public boolean hasSkipOrLimit() {
+            return skipOrLimit;
+        }
+
+        @Override
+        public void setSkipOrLimit(boolean skipOrLimit) {
+            this.skipOrLimit = skipOrLimit;
+        }
+    }
+
+}
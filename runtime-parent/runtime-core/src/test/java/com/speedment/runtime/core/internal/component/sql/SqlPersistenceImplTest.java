@@ -0,0 +1,548 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.component.sql;
+
+import com.speedment.runtime.config.Column;
+import com.speedment.runtime.config.Dbms;
+import com.speedment.runtime.config.PrimaryKeyColumn;
+import com.speedment.runtime.config.Project;
+import com.speedment.runtime.config.Schema;
+import com.speedment.runtime.config.Table;
+import com.speedment.runtime.config.identifier.ColumnIdentifier;
+import com.speedment.runtime.config.identifier.TableIdentifier;
+import com.speedment.runtime.core.component.DbmsHandlerComponent;
+import com.speedment.runtime.core.component.EntityCacheComponent;
+import com.speedment.runtime.core.component.ManagerComponent;
+import com.speedment.runtime.core.component.ProjectComponent;
+import com.speedment.runtime.core.component.SqlBinder;
+import com.speedment.runtime.core.component.resultset.ResultSetMapperComponent;
+import com.speedment.runtime.core.component.transaction.TransactionComponent;
+import com.speedment.runtime.core.db.DatabaseNamingConvention;
+import com.speedment.runtime.core.db.DbmsColumnHandler;
+import com.speedment.runtime.core.db.DbmsOperationHandler;
+import com.speedment.runtime.core.db.DbmsType;
+import com.speedment.runtime.core.db.SqlConsumer;
+import com.speedment.runtime.core.exception.SpeedmentException;
+import com.speedment.runtime.core.internal.component.EntityCacheComponentImpl;
+import com.speedment.runtime.core.internal.component.transaction.TransactionComponentImpl;
+import com.speedment.runtime.core.manager.DirtyTracking;
+import com.speedment.runtime.core.manager.EntityCache;
+import com.speedment.runtime.core.manager.Manager;
+import com.speedment.runtime.core.manager.UpsertResult;
+import com.speedment.runtime.field.IntField;
+import com.speedment.runtime.typemapper.TypeMapper;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ *
+ * @author agent
+ */
+public class SqlPersistenceImplTest {
+
+    private static final String UPDATE_ALL = "UPDATE `item` SET `id` = ?,`a` = ?,`b` = ? WHERE `id` = ?";
+    private static final String UPDATE_A = "UPDATE `item` SET `a` = ? WHERE `id` = ?";
+    private static final String UPDATE_B = "UPDATE `item` SET `b` = ? WHERE `id` = ?";
+    private static final String INSERT = "INSERT INTO `item` (`id`,`a`,`b`) VALUES (?,?,?)";
+
+    private static final IntField<Item, Integer> ID = field("id", Item::getId, Item::setId, true);
+    private static final IntField<Item, Integer> A = field("a", Item::getA, Item::setA, false);
+    private static final IntField<Item, Integer> B = field("b", Item::getB, Item::setB, false);
+
+    private Dbms dbms;
+    private DbmsOperationHandler operationHandler;
+    private DbmsType dbmsType;
+    private SqlPersistenceImpl<Item> instance;
+    private SqlBinder<Item> binder;
+    private SqlPersistenceImpl<Item> unsupportedBoundInstance;
+    private SqlPersistenceImpl<Item> boundInstance;
+    private EntityCache<Item> entityCache;
+    private SqlPersistenceImpl<Item> cachedInstance;
+    private TransactionComponent transactionComponent;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        final Column idColumn = column("id", 1);
+        final Column aColumn = column("a", 2);
+        final Column bColumn = column("b", 3);
+        final PrimaryKeyColumn pkColumn = mock(PrimaryKeyColumn.class);
+        doReturn(Optional.of(idColumn)).when(pkColumn).findColumn();
+        when(pkColumn.getName()).thenReturn("id");
+
+        final Table table = mock(Table.class);
+        when(table.getId()).thenReturn("item");
+        when(table.columns()).thenAnswer(i -> Stream.of(idColumn, aColumn, bColumn));
+        when(table.primaryKeyColumns()).thenAnswer(i -> Stream.of(pkColumn));
+        final Schema schema = mock(Schema.class);
+        when(schema.getId()).thenReturn("schema");
+        when(schema.tables()).thenAnswer(i -> Stream.of(table));
+        dbms = mock(Dbms.class);
+        when(dbms.getId()).thenReturn("db");
+        when(dbms.getTypeName()).thenReturn("MockDbms");
+        when(dbms.schemas()).thenAnswer(i -> Stream.of(schema));
+        final Project project = mock(Project.class);
+        when(project.dbmses()).thenAnswer(i -> Stream.of(dbms));
+        final ProjectComponent projectComponent = mock(ProjectComponent.class);
+        when(projectComponent.getProject()).thenReturn(project);
+
+        final DatabaseNamingConvention naming = mock(DatabaseNamingConvention.class);
+        when(naming.fullNameOf(table)).thenReturn("`item`");
+        when(naming.encloseField(anyString())).thenAnswer(i -> "`" + i.getArgument(0) + "`");
+        final DbmsColumnHandler columnHandler = mock(DbmsColumnHandler.class);
+        when(columnHandler.excludedInInsertStatement()).thenReturn(c -> false);
+        when(columnHandler.excludedInUpdateStatement()).thenReturn(c -> false);
+        operationHandler = mock(DbmsOperationHandler.class);
+        final DbmsType dbmsType = mock(DbmsType.class);
+        when(dbmsType.getDatabaseNamingConvention()).thenReturn(naming);
+        when(dbmsType.getColumnHandler()).thenReturn(columnHandler);
+        when(dbmsType.getOperationHandler()).thenReturn(operationHandler);
+        when(dbmsType.getName()).thenReturn("MockDbms");
+        when(dbmsType.getMultiRowInsertSupport()).thenReturn(DbmsType.MultiRowInsertSupport.NONE);
+        when(dbmsType.renderUpsert(any(), anyString(), anyList(), anyList())).thenAnswer(i -> Optional.of(
+            i.getArgument(1) + " ON CONFLICT " + i.getArgument(2) + " UPDATE " + i.getArgument(3)
+        ));
+        this.dbmsType = dbmsType;
+        final DbmsHandlerComponent dbmsHandlerComponent = mock(DbmsHandlerComponent.class);
+        when(dbmsHandlerComponent.findByName("MockDbms")).thenReturn(Optional.of(dbmsType));
+
+        final TableIdentifier<Item> tableId = TableIdentifier.of("db", "schema", "item");
+        final Manager<Item> manager = mock(Manager.class);
+        when(manager.getTableIdentifier()).thenReturn(tableId);
+        when(manager.getEntityClass()).thenReturn(Item.class);
+        when(manager.fields()).thenAnswer(i -> Stream.of(ID, A, B));
+        when(manager.primaryKeyFields()).thenAnswer(i -> Stream.of(ID));
+        final ManagerComponent managerComponent = mock(ManagerComponent.class);
+        when(managerComponent.stream()).thenAnswer(i -> Stream.of(manager));
+
+        instance = new SqlPersistenceImpl<>(
+            tableId,
+            projectComponent,
+            dbmsHandlerComponent,
+            managerComponent,
+            mock(ResultSetMapperComponent.class)
+        );
+
+        binder = mock(SqlBinder.class);
+        unsupportedBoundInstance = new SqlPersistenceImpl<>(
+            tableId,
+            projectComponent,
+            dbmsHandlerComponent,
+            managerComponent,
+            mock(ResultSetMapperComponent.class),
+            binder
+        );
+        when(operationHandler.isBindingSupported()).thenReturn(true);
+        boundInstance = new SqlPersistenceImpl<>(
+            tableId,
+            projectComponent,
+            dbmsHandlerComponent,
+            managerComponent,
+            mock(ResultSetMapperComponent.class),
+            binder
+        );
+
+        final EntityCacheComponent entityCacheComponent = new EntityCacheComponentImpl();
+        entityCacheComponent.putEntityCache(tableId, 100, Duration.ofMinutes(1));
+        entityCache = entityCacheComponent.getEntityCache(tableId).get();
+        transactionComponent = new TransactionComponentImpl();
+        cachedInstance = new SqlPersistenceImpl<>(
+            tableId,
+            projectComponent,
+            dbmsHandlerComponent,
+            managerComponent,
+            mock(ResultSetMapperComponent.class),
+            null,
+            entityCacheComponent,
+            transactionComponent
+        );
+        clearInvocations(operationHandler);
+    }
+
+    @Test
+    public void testUpdateUntrackedEntityWritesAllColumns() throws SQLException {
+        instance.update(new Item(1, 2, 3));
+        verify(operationHandler).executeUpdate(dbms, UPDATE_ALL, Arrays.asList(1, 2, 3, 1));
+    }
+
+    @Test
+    public void testUpdateWritesDirtyColumnsOnly() throws SQLException {
+        final TrackedItem item = new TrackedItem(1, 2, 3);
+        item.setB(4);
+        instance.update(item);
+        verify(operationHandler).executeUpdate(dbms, UPDATE_B, Arrays.asList(4, 1));
+        assertFalse(item.isDirty());
+    }
+
+    @Test
+    public void testUpdateSkipsCleanEntity() {
+        instance.update(new TrackedItem(1, 2, 3));
+        verifyZeroInteractions(operationHandler);
+    }
+
+    @Test
+    public void testUpdateBatchGroupsByDirtyColumns() throws SQLException {
+        final TrackedItem first = new TrackedItem(1, 0, 0);
+        first.setB(10);
+        final TrackedItem second = new TrackedItem(2, 0, 0);
+        second.setB(20);
+        final TrackedItem third = new TrackedItem(3, 0, 0);
+        third.setA(30);
+        final TrackedItem clean = new TrackedItem(4, 0, 0);
+
+        assertEquals(4, instance.update(Stream.of(first, second, third, clean), 100));
+
+        verify(operationHandler).executeUpdateBatch(dbms, UPDATE_B, Arrays.asList(Arrays.asList(10, 1), Arrays.asList(20, 2)));
+        verify(operationHandler).executeUpdateBatch(dbms, UPDATE_A, Collections.singletonList(Arrays.asList(30, 3)));
+        assertFalse(first.isDirty() || second.isDirty() || third.isDirty());
+    }
+
+    @Test
+    public void testPersistClearsDirty() {
+        final TrackedItem item = new TrackedItem(1, 2, 3);
+        item.setA(5);
+        assertTrue(item.isDirty());
+        instance.persist(item);
+        assertFalse(item.isDirty());
+    }
+
+    @Test
+    public void testUpsertCountsInsertedAndUpdated() throws SQLException {
+        when(operationHandler.executeUpsertBatch(eq(dbms), anyString(), anyList()))
+            .thenReturn(new long[]{1, 2, 0, -2});
+
+        final UpsertResult result = instance.upsert(
+            Stream.of(new Item(1, 1, 1), new Item(2, 2, 2), new Item(3, 3, 3), new Item(4, 4, 4)),
+            100,
+            null
+        );
+
+        assertEquals(4, result.getCount());
+        assertEquals(1, result.getInserted());
+        assertEquals(2, result.getUpdated());
+        verify(operationHandler).executeUpsertBatch(
+            dbms,
+            INSERT + " ON CONFLICT [`id`] UPDATE [`a`, `b`]",
+            Arrays.asList(
+                Arrays.asList(1, 1, 1),
+                Arrays.asList(2, 2, 2),
+                Arrays.asList(3, 3, 3),
+                Arrays.asList(4, 4, 4)
+            )
+        );
+    }
+
+    @Test
+    public void testUpsertUpdatingSelectedFields() throws SQLException {
+        when(operationHandler.executeUpsertBatch(eq(dbms), anyString(), anyList())).thenReturn(new long[]{2});
+        final TrackedItem item = new TrackedItem(1, 2, 3);
+        item.setA(5);
+
+        instance.upsert(item, Collections.singletonList(B));
+
+        verify(operationHandler).executeUpsertBatch(
+            dbms,
+            INSERT + " ON CONFLICT [`id`] UPDATE [`b`]",
+            Collections.singletonList(Arrays.asList(1, 5, 3))
+        );
+        assertFalse(item.isDirty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUpsertUpdatingForeignField() {
+        final IntField<Item, Integer> foreign = IntField.create(
+            ColumnIdentifier.of("db", "schema", "other", "a"),
+            Item::getA,
+            Item::setA,
+            TypeMapper.primitive(),
+            false
+        );
+        instance.upsert(new Item(1, 2, 3), Collections.singletonList(foreign));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testUpsertNotSupported() {
+        when(dbmsType.renderUpsert(any(), anyString(), anyList(), anyList())).thenReturn(Optional.empty());
+        instance.upsert(new Item(1, 2, 3), null);
+    }
+
+    @Test
+    public void testPersistUsesBinder() throws SQLException {
+        final Item item = new Item(1, 2, 3);
+        boundInstance.persist(item);
+
+        final PreparedStatement ps = mock(PreparedStatement.class);
+        bindFirst(captor -> verify(operationHandler).executeBoundInsertBatch(
+            eq(dbms), eq(INSERT), captor.capture(), anyCollection(), anyList()
+        ), ps);
+        verify(binder).bindInsert(ps, item);
+        verify(operationHandler, never()).executeInsert(any(), anyString(), anyList(), anyCollection(), any());
+    }
+
+    @Test
+    public void testPersistBatchUsesBinderWithoutMultiRowInserts() throws SQLException {
+        boundInstance.persist(Stream.of(new Item(1, 2, 3), new Item(4, 5, 6)), 100);
+        verify(operationHandler).executeBoundInsertBatch(
+            eq(dbms), eq(INSERT), anyList(), anyCollection(), anyList()
+        );
+        verify(operationHandler, never()).executeInsertBatch(any(), anyString(), anyList(), anyCollection(), anyList());
+    }
+
+    @Test
+    public void testPersistBatchUsesValuesForMultiRowInserts() throws SQLException {
+        when(dbmsType.getMultiRowInsertSupport()).thenReturn(DbmsType.MultiRowInsertSupport.WITH_GENERATED_KEYS);
+        boundInstance.persist(Stream.of(new Item(1, 2, 3), new Item(4, 5, 6)), 100);
+        verify(operationHandler).executeInsertBatch(
+            eq(dbms), eq(INSERT), eq(Arrays.asList(Arrays.asList(1, 2, 3), Arrays.asList(4, 5, 6))), anyCollection(), anyList()
+        );
+        verify(operationHandler, never()).executeBoundInsertBatch(any(), anyString(), anyList(), anyCollection(), anyList());
+        verifyZeroInteractions(binder);
+    }
+
+    @Test
+    public void testUpdateUsesBinderForAllColumns() throws SQLException {
+        final Item item = new Item(1, 2, 3);
+        boundInstance.update(Stream.of(item), 100);
+
+        final PreparedStatement ps = mock(PreparedStatement.class);
+        bindFirst(captor -> verify(operationHandler).executeBoundUpdateBatch(
+            eq(dbms), eq(UPDATE_ALL), captor.capture()
+        ), ps);
+        verify(binder).bindUpdate(ps, item);
+    }
+
+    @Test
+    public void testPartialUpdateDoesNotUseBinder() throws SQLException {
+        final TrackedItem item = new TrackedItem(1, 2, 3);
+        item.setB(4);
+        boundInstance.update(item);
+        verify(operationHandler).executeUpdate(dbms, UPDATE_B, Arrays.asList(4, 1));
+        verifyZeroInteractions(binder);
+    }
+
+    @Test
+    public void testRemoveUsesBinder() throws SQLException {
+        final Item item = new Item(1, 2, 3);
+        boundInstance.remove(item);
+
+        final PreparedStatement ps = mock(PreparedStatement.class);
+        bindFirst(captor -> verify(operationHandler).executeBoundDeleteBatch(
+            eq(dbms), eq("DELETE FROM `item` WHERE `id` = ?"), captor.capture()
+        ), ps);
+        verify(binder).bindPk(ps, item);
+    }
+
+    @Test
+    public void testBinderNotUsedWithoutHandlerSupport() throws SQLException {
+        unsupportedBoundInstance.update(new Item(1, 2, 3));
+        verify(operationHandler).executeUpdate(dbms, UPDATE_ALL, Arrays.asList(1, 2, 3, 1));
+        verifyZeroInteractions(binder);
+    }
+
+    @Test
+    public void testWritesInvalidateEntityCache() {
+        for (int id = 1; id <= 4; id++) {
+            final Item item = new Item(id, 0, 0);
+            entityCache.put(id, () -> item, entityCache.stamp(id));
+        }
+
+        cachedInstance.update(new Item(1, 2, 3));
+        cachedInstance.remove(new Item(2, 0, 0));
+        cachedInstance.persist(Stream.of(new Item(3, 0, 0)), 10);
+
+        assertFalse(entityCache.get(1).isPresent());
+        assertFalse(entityCache.get(2).isPresent());
+        assertFalse(entityCache.get(3).isPresent());
+        assertTrue(entityCache.get(4).isPresent());
+    }
+
+    @Test
+    public void testWriteInTransactionInvalidatesEntityCacheAfterCommit() {
+        final Object txObject = new Object();
+        transactionComponent.put(Thread.currentThread(), txObject);
+        try {
+            cachedInstance.update(new Item(1, 2, 3));
+
+            // A reader outside the transaction still sees the old entity
+            entityCache.put(1, () -> new Item(1, 0, 0), entityCache.stamp(1));
+            assertTrue(entityCache.get(1).isPresent());
+
+            transactionComponent.committed(txObject);
+            assertFalse(entityCache.get(1).isPresent());
+        } finally {
+            transactionComponent.remove(Thread.currentThread());
+        }
+    }
+
+    @Test
+    public void testFailedWriteInvalidatesEntityCache() throws SQLException {
+        entityCache.put(1, () -> new Item(1, 0, 0), entityCache.stamp(1));
+        doThrow(new SQLException("Lost connection")).when(operationHandler)
+            .executeDelete(eq(dbms), anyString(), anyList());
+
+        try {
+            cachedInstance.remove(new Item(1, 0, 0));
+            fail("Expected a SpeedmentException");
+        } catch (final SpeedmentException ex) {
+            assertFalse(entityCache.get(1).isPresent());
+        }
+    }
+
+    /**
+     * Captures the binders handed to the operation handler by the given
+     * verification and applies the first one to the given statement.
+     */
+    @SuppressWarnings("unchecked")
+    private static void bindFirst(
+        final SqlConsumer<ArgumentCaptor<List<SqlConsumer<PreparedStatement>>>> verification,
+        final PreparedStatement ps
+    ) throws SQLException {
+        final ArgumentCaptor<List<SqlConsumer<PreparedStatement>>> captor
+            = ArgumentCaptor.forClass((Class<List<SqlConsumer<PreparedStatement>>>) (Class<?>) List.class);
+        verification.accept(captor);
+        assertEquals(1, captor.getValue().size());
+        captor.getValue().get(0).accept(ps);
+    }
+
+    private static Column column(String id, int ordinalPosition) {
+        final Column column = mock(Column.class);
+        when(column.getId()).thenReturn(id);
+        when(column.getName()).thenReturn(id);
+        when(column.getOrdinalPosition()).thenReturn(ordinalPosition);
+        when(column.isEnabled()).thenReturn(true);
+        return column;
+    }
+
+    private static IntField<Item, Integer> field(
+        final String columnId,
+        final com.speedment.runtime.field.method.IntGetter<Item> getter,
+        final com.speedment.runtime.field.method.IntSetter<Item> setter,
+        final boolean unique
+    ) {
+        return IntField.create(
+            ColumnIdentifier.of("db", "schema", "item", columnId),
+            getter,
+            setter,
+            TypeMapper.primitive(),
+            unique
+        );
+    }
+
+    private static class Item {
+
+        private int id, a, b;
+
+        private Item(int id, int a, int b) {
+            this.id = id;
+            this.a = a;
+            this.b = b;
+        }
+
+        int getId() {
+            return id;
+        }
+
+        int getA() {
+            return a;
+        }
+
+        int getB() {
+            return b;
+        }
+
+        Item setId(int id) {
+            this.id = id;
+            modified(0);
+            return this;
+        }
+
+        Item setA(int a) {
+            this.a = a;
+            modified(1);
+            return this;
+        }
+
+        Item setB(int b) {
+            this.b = b;
+            modified(2);
+            return this;
+        }
+
+        void modified(int fieldIndex) {}
+    }
+
+    /**
+     * An entity that keeps track of its modified fields in the same way as
+     * generated entities do.
+     */
+    private static final class TrackedItem extends Item implements DirtyTracking {
+
+        private long dirtyMask;
+
+        private TrackedItem(int id, int a, int b) {
+            super(id, a, b);
+        }
+
+        @Override
+        void modified(int fieldIndex) {
+            dirtyMask |= 1L << fieldIndex;
+        }
+
+        @Override
+        public boolean isDirty(int fieldIndex) {
+            if (fieldIndex < 0 || fieldIndex >= 3) { return false; }
+            return (dirtyMask & (1L << fieldIndex)) != 0;
+        }
+
+        @Override
+        public boolean isDirty() {
+            return dirtyMask != 0;
+        }
+
+        @Override
+        public void clearDirty() {
+            dirtyMask = 0;
+        }
+    }
+
+}
@@ -0,0 +1,93 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.component.sql;
+
+import com.speedment.runtime.core.component.sql.SqlStreamOptimizer;
+import com.speedment.runtime.core.db.DbmsType;
+import com.speedment.runtime.core.internal.stream.builder.action.reference.FilterAction;
+import com.speedment.runtime.core.internal.stream.builder.action.reference.SkipAction;
+import com.speedment.runtime.core.internal.stream.builder.action.reference.SortedComparatorAction;
+import com.speedment.runtime.core.internal.stream.builder.pipeline.PipelineImpl;
+import com.speedment.runtime.core.stream.Pipeline;
+import com.speedment.runtime.core.stream.action.Action;
+import com.speedment.runtime.test_support.MockDbmsType;
+import com.speedment.runtime.test_support.MockEntity;
+import com.speedment.runtime.test_support.MockEntityUtil;
+import java.util.stream.Stream;
+import static org.junit.Assert.*;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ *
+ * @author agent
+ */
+public class SqlStreamOptimizerComponentImplTest {
+
+    private static final DbmsType DBMS_TYPE = new MockDbmsType();
+
+    private SqlStreamOptimizerComponentImpl instance;
+
+    @Before
+    public void setUp() {
+        instance = new SqlStreamOptimizerComponentImpl();
+    }
+
+    @Test
+    public void testSameShapeIsCached() {
+        final SqlStreamOptimizer<MockEntity> first = instance.get(pipelineOf(
+            new FilterAction<>(MockEntity.ID.equal(1)),
+            new SkipAction<>(10)
+        ), DBMS_TYPE);
+        final SqlStreamOptimizer<MockEntity> second = instance.get(pipelineOf(
+            new FilterAction<>(MockEntity.ID.equal(42)),
+            new SkipAction<>(20)
+        ), DBMS_TYPE);
+        assertSame(first, second);
+        assertEquals(1, instance.planCacheMisses());
+        assertEquals(1, instance.planCacheHits());
+    }
+
+    @Test
+    public void testDifferentShapeIsNotCached() {
+        instance.get(pipelineOf(new FilterAction<>(MockEntity.ID.equal(1))), DBMS_TYPE);
+        instance.get(pipelineOf(new FilterAction<>(MockEntity.ID.greaterThan(1))), DBMS_TYPE);
+        instance.get(pipelineOf(new FilterAction<>(MockEntity.NAME.equal("a"))), DBMS_TYPE);
+        instance.get(pipelineOf(new SortedComparatorAction<>(MockEntity.NAME.comparator())), DBMS_TYPE);
+        instance.get(pipelineOf(new SortedComparatorAction<>(MockEntity.NAME.comparator().reversed())), DBMS_TYPE);
+        assertEquals(5, instance.planCacheMisses());
+        assertEquals(0, instance.planCacheHits());
+    }
+
+    @Test
+    public void testFingerprint() {
+        assertEquals(
+            PipelineFingerprint.of(pipelineOf(new FilterAction<>(MockEntity.ID.equal(1).and(MockEntity.NAME.equal("a")))), DBMS_TYPE),
+            PipelineFingerprint.of(pipelineOf(new FilterAction<>(MockEntity.ID.equal(2).and(MockEntity.NAME.equal("b")))), DBMS_TYPE)
+        );
+        assertNotEquals(
+            PipelineFingerprint.of(pipelineOf(new FilterAction<>(MockEntity.ID.equal(1).and(MockEntity.NAME.equal("a")))), DBMS_TYPE),
+            PipelineFingerprint.of(pipelineOf(new FilterAction<>(MockEntity.ID.equal(1).or(MockEntity.NAME.equal("a")))), DBMS_TYPE)
+        );
+    }
+
+    private Pipeline pipelineOf(Action<?, ?>... actions) {
+        final Pipeline pipeline = new PipelineImpl<>(() -> MockEntityUtil.stream(2));
+        Stream.of(actions).forEachOrdered(pipeline::add);
+        return pipeline;
+    }
+}
@@ -0,0 +1,140 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.component.sql.optimizer;
+
+import com.speedment.runtime.core.internal.stream.builder.action.reference.FilterAction;
+import com.speedment.runtime.core.internal.stream.builder.action.reference.LimitAction;
+import com.speedment.runtime.core.internal.stream.builder.action.reference.MapAction;
+import com.speedment.runtime.core.internal.stream.builder.action.reference.PeekAction;
+import com.speedment.runtime.core.internal.stream.builder.action.reference.SortedComparatorAction;
+import com.speedment.runtime.core.internal.stream.builder.pipeline.PipelineImpl;
+import com.speedment.runtime.core.stream.Pipeline;
+import com.speedment.runtime.core.stream.action.Action;
+import com.speedment.runtime.field.predicate.CombinedPredicate;
+import com.speedment.runtime.field.predicate.FieldPredicate;
+import com.speedment.runtime.test_support.MockEntity;
+import com.speedment.runtime.test_support.MockEntityUtil;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ *
+ * @author agent
+ */
+public class FilterPushdownUtilTest {
+
+    private static final Predicate<MockEntity> RESIDUAL = e -> e.getId() % 2 == 0;
+
+    @Test
+    public void testSplitAndPredicate() {
+        final Pipeline pipeline = pipelineOf(
+            new FilterAction<>(MockEntity.NAME.equal("a").and(RESIDUAL))
+        );
+        assertTrue(FilterPushdownUtil.hoistFieldPredicates(pipeline));
+        assertEquals(2, pipeline.size());
+        assertTrue(predicateOf(pipeline.get(0)) instanceof FieldPredicate);
+        assertSame(RESIDUAL, predicateOf(pipeline.get(1)));
+    }
+
+    @Test
+    public void testSplitNestedAndPredicate() {
+        final Pipeline pipeline = pipelineOf(
+            new FilterAction<>(MockEntity.NAME.equal("a").and(RESIDUAL).and(MockEntity.ID.greaterThan(1)))
+        );
+        assertTrue(FilterPushdownUtil.hoistFieldPredicates(pipeline));
+        assertEquals(3, pipeline.size());
+        assertTrue(predicateOf(pipeline.get(0)) instanceof FieldPredicate);
+        assertTrue(predicateOf(pipeline.get(1)) instanceof FieldPredicate);
+        assertSame(RESIDUAL, predicateOf(pipeline.get(2)));
+    }
+
+    @Test
+    public void testOrPredicateIsNotSplit() {
+        final Pipeline pipeline = pipelineOf(
+            new FilterAction<>(MockEntity.NAME.equal("a").or(RESIDUAL))
+        );
+        assertFalse(FilterPushdownUtil.hoistFieldPredicates(pipeline));
+        assertEquals(1, pipeline.size());
+        assertTrue(predicateOf(pipeline.get(0)) instanceof CombinedPredicate);
+    }
+
+    @Test
+    public void testHoistPastResidualFilterAndPeek() {
+        final Action<?, ?> residual = new FilterAction<>(RESIDUAL);
+        final Action<?, ?> peek = new PeekAction<MockEntity>(e -> {});
+        final Action<?, ?> sorted = new SortedComparatorAction<>(MockEntity.NAME.comparator());
+        final Action<?, ?> field = new FilterAction<>(MockEntity.ID.equal(1));
+        final Pipeline pipeline = pipelineOf(residual, peek, sorted, field);
+
+        assertTrue(FilterPushdownUtil.hoistFieldPredicates(pipeline));
+        assertSame(field, pipeline.get(0));
+        assertSame(residual, pipeline.get(1));
+        assertSame(peek, pipeline.get(2));
+        assertSame(sorted, pipeline.get(3));
+    }
+
+    @Test
+    public void testStopAtLimit() {
+        final Action<?, ?> residual = new FilterAction<>(RESIDUAL);
+        final Action<?, ?> limit = new LimitAction<>(1);
+        final Action<?, ?> field = new FilterAction<>(MockEntity.ID.equal(1));
+        final Pipeline pipeline = pipelineOf(residual, limit, field);
+
+        assertFalse(FilterPushdownUtil.hoistFieldPredicates(pipeline));
+        assertSame(residual, pipeline.get(0));
+        assertSame(limit, pipeline.get(1));
+        assertSame(field, pipeline.get(2));
+    }
+
+    @Test
+    public void testStopAtMap() {
+        final Action<?, ?> map = new MapAction<MockEntity, MockEntity>(e -> e);
+        final Action<?, ?> field = new FilterAction<>(MockEntity.ID.equal(1));
+        final Pipeline pipeline = pipelineOf(map, field);
+
+        assertFalse(FilterPushdownUtil.hoistFieldPredicates(pipeline));
+        assertSame(map, pipeline.get(0));
+        assertSame(field, pipeline.get(1));
+    }
+
+    @Test
+    public void testResultIsUnchanged() {
+        final Pipeline pipeline = pipelineOf(
+            new FilterAction<>(RESIDUAL),
+            new FilterAction<>(MockEntity.NAME.notEqual("a").and(MockEntity.ID.lessThan(8)).and(RESIDUAL))
+        );
+        final long expected = MockEntityUtil.stream(10)
+            .filter(RESIDUAL)
+            .filter(MockEntity.NAME.notEqual("a").and(MockEntity.ID.lessThan(8)))
+            .count();
+        assertTrue(FilterPushdownUtil.hoistFieldPredicates(pipeline));
+        assertEquals(expected, ((PipelineImpl<?>) pipeline).getAsReferenceStream().count());
+    }
+
+    private static Predicate<?> predicateOf(Action<?, ?> action) {
+        return ((FilterAction<?>) action).getPredicate();
+    }
+
+    private static Pipeline pipelineOf(Action<?, ?>... actions) {
+        final PipelineImpl<MockEntity> pipeline = new PipelineImpl<>(() -> MockEntityUtil.stream(10));
+        Stream.of(actions).forEachOrdered(pipeline::add);
+        return pipeline;
+    }
+
+}
@@ -33,12 +33,15 @@ import com.speedment.runtime.test_support.MockDbmsType;
 import com.speedment.runtime.test_support.MockEntity;
 import com.speedment.runtime.test_support.MockEntityUtil;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.function.Supplier;
 import java.util.stream.BaseStream;
 import java.util.stream.Stream;
 import org.junit.Before;
 import org.junit.Test;
 
+import static org.junit.Assert.assertEquals;
+
 /**
  *
  * @author Per Minborg
@@ -94,6 +97,56 @@ public class FilterSortedSkipOptimizer_OptimizeTest {
         printInfo("After", newPipeline, asynchronousQueryResult);
     }
 
+    @Test
+    public void testSqlIsCachedByShape() {
+        final AsynchronousQueryResult<MockEntity> first = newQuery();
+        instance.optimize(pipelineOf(
+            new FilterAction<>(MockEntity.ID.between(1, 5).or(MockEntity.NAME.equal("a"))),
+            SORTED_ACTION, new SkipAction<>(2), new LimitAction<>(3)
+        ), sqlStreamOptimizerInfo, first);
+        final AsynchronousQueryResult<MockEntity> second = newQuery();
+        final Pipeline pipeline = instance.optimize(pipelineOf(
+            new FilterAction<>(MockEntity.ID.between(10, 50).or(MockEntity.NAME.equal("b"))),
+            SORTED_ACTION, new SkipAction<>(20), new LimitAction<>(30)
+        ), sqlStreamOptimizerInfo, second);
+
+        assertEquals(1, instance.sqlCacheMisses());
+        assertEquals(1, instance.sqlCacheHits());
+        assertEquals(0, pipeline.size());
+        assertEquals(first.getSql(), second.getSql());
+        assertEquals(Arrays.asList(1, 5, "a", 3L, 2L), first.getValues());
+        assertEquals(Arrays.asList(10, 50, "b", 30L, 20L), second.getValues());
+    }
+
+    @Test
+    public void testSqlIsNotSharedBetweenShapes() {
+        final AsynchronousQueryResult<MockEntity> first = newQuery();
+        instance.optimize(pipelineOf(new FilterAction<>(MockEntity.ID.in(1, 2))), sqlStreamOptimizerInfo, first);
+        final AsynchronousQueryResult<MockEntity> second = newQuery();
+        instance.optimize(pipelineOf(new FilterAction<>(MockEntity.ID.in(1, 2, 3))), sqlStreamOptimizerInfo, second);
+        final AsynchronousQueryResult<MockEntity> third = newQuery();
+        instance.optimize(pipelineOf(new FilterAction<>(MockEntity.ID.in(1, 2)), new SkipAction<>(1)), sqlStreamOptimizerInfo, third);
+
+        assertEquals(3, instance.sqlCacheMisses());
+        assertEquals(0, instance.sqlCacheHits());
+        assertEquals(Arrays.asList(1, 2, 3), second.getValues());
+        assertEquals(Arrays.asList(1, 2, 1L), third.getValues());
+    }
+
+    private AsynchronousQueryResult<MockEntity> newQuery() {
+        return new AsynchronousQueryResultImpl<>(
+            "SELECT id, name from mock_entity",
+            new ArrayList<>(),
+            (rs) -> new MockEntity(1),
+            () -> null,
+            ParallelStrategy.computeIntensityDefault(),
+            (st) -> {
+            },
+            (rs) -> {
+            }
+        );
+    }
+
     private Pipeline pipelineOf(Action<?, ?>... actions) {
         return Stream.of(actions)
             .collect(
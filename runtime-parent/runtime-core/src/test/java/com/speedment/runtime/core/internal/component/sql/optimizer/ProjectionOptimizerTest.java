@@ -0,0 +1,163 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.component.sql.optimizer;
+
+import com.speedment.runtime.core.component.sql.Metrics;
+import com.speedment.runtime.core.component.sql.SqlStreamOptimizerInfo;
+import com.speedment.runtime.core.db.AsynchronousQueryResult;
+import com.speedment.runtime.core.db.DbmsType;
+import com.speedment.runtime.core.internal.db.AsynchronousQueryResultImpl;
+import com.speedment.runtime.core.internal.stream.builder.action.reference.FilterAction;
+import com.speedment.runtime.core.internal.stream.builder.action.reference.LimitAction;
+import com.speedment.runtime.core.internal.stream.builder.action.reference.MapAction;
+import com.speedment.runtime.core.internal.stream.builder.action.reference.MapToIntAction;
+import com.speedment.runtime.core.internal.stream.builder.action.reference.PeekAction;
+import com.speedment.runtime.core.internal.stream.builder.action.reference.SortedComparatorAction;
+import com.speedment.runtime.core.internal.stream.builder.pipeline.PipelineImpl;
+import com.speedment.runtime.core.stream.Pipeline;
+import com.speedment.runtime.core.stream.action.Action;
+import com.speedment.runtime.core.stream.parallel.ParallelStrategy;
+import com.speedment.runtime.test_support.MockDbmsType;
+import com.speedment.runtime.test_support.MockEntity;
+import com.speedment.runtime.test_support.MockEntityUtil;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.stream.BaseStream;
+import java.util.stream.Stream;
+import static org.junit.Assert.*;
+import org.junit.Before;
+import org.junit.Test;
+import static org.mockito.Mockito.*;
+
+/**
+ *
+ * @author agent
+ */
+public class ProjectionOptimizerTest {
+
+    private static final DbmsType DBMS_TYPE = new MockDbmsType();
+    private static final Supplier<BaseStream<?, ?>> STREAM_SUPPLIER = () -> MockEntityUtil.stream(2);
+
+    private ProjectionOptimizer<MockEntity> instance;
+    private AsynchronousQueryResult<MockEntity> asynchronousQueryResult;
+    private SqlStreamOptimizerInfo<MockEntity> sqlStreamOptimizerInfo;
+
+    @Before
+    public void setUp() {
+        instance = new ProjectionOptimizer<>();
+        asynchronousQueryResult = new AsynchronousQueryResultImpl<>(
+            "SELECT id,name FROM mock_entity",
+            new ArrayList<>(),
+            rs -> new MockEntity(1),
+            () -> null,
+            ParallelStrategy.computeIntensityDefault(),
+            st -> {},
+            rs -> {}
+        );
+        sqlStreamOptimizerInfo = SqlStreamOptimizerInfo.of(
+            DBMS_TYPE,
+            "SELECT id,name FROM mock_entity",
+            "SELECT COUNT(*) FROM mock_entity",
+            (sql, l) -> 1L,
+            f -> f.identifier().getColumnId(),
+            f -> f == MockEntity.ID ? Integer.class : String.class,
+            "mock_entity"
+        );
+    }
+
+    @Test
+    public void testMetrics() {
+        assertEquals(1, instance.metrics(pipelineOf(new MapAction<>(MockEntity.NAME)), DBMS_TYPE).getPipelineReductions());
+        assertEquals(1, instance.metrics(pipelineOf(new MapToIntAction<>(MockEntity.ID)), DBMS_TYPE).getPipelineReductions());
+        final Metrics metrics = instance.metrics(pipelineOf(
+            new FilterAction<>(MockEntity.ID.greaterThan(1)),
+            new SortedComparatorAction<>(MockEntity.NAME.comparator()),
+            new LimitAction<>(10),
+            new MapAction<>(MockEntity.NAME)
+        ), DBMS_TYPE);
+        assertEquals(4, metrics.getPipelineReductions());
+        assertEquals(1, metrics.getSqlWhileCount());
+        assertEquals(1, metrics.getSqlOrderCount());
+        assertEquals(1, metrics.getSqlLimitCount());
+    }
+
+    @Test
+    public void testMetricsRejects() {
+        assertEquals(Metrics.empty(), instance.metrics(pipelineOf(new MapAction<>(MockEntity::getName)), DBMS_TYPE));
+        assertEquals(Metrics.empty(), instance.metrics(pipelineOf(new PeekAction<>(e -> {}), new MapAction<>(MockEntity.NAME)), DBMS_TYPE));
+        assertEquals(Metrics.empty(), instance.metrics(pipelineOf(new FilterAction<>(e -> true), new MapAction<>(MockEntity.NAME)), DBMS_TYPE));
+        assertEquals(Metrics.empty(), instance.metrics(pipelineOf(new FilterAction<>(MockEntity.ID.equal(1))), DBMS_TYPE));
+    }
+
+    @Test
+    public void testOptimizeMapToInt() throws Exception {
+        final Pipeline pipeline = pipelineOf(
+            new FilterAction<>(MockEntity.NAME.equal("a")),
+            new MapToIntAction<>(MockEntity.ID)
+        );
+        final Pipeline result = instance.optimize(pipeline, sqlStreamOptimizerInfo, asynchronousQueryResult);
+        assertTrue(asynchronousQueryResult.getSql(), asynchronousQueryResult.getSql().startsWith("SELECT id FROM mock_entity WHERE "));
+        assertEquals(1, asynchronousQueryResult.getValues().size());
+        assertEquals(Optional.of(MockEntity.ID.identifier()), asynchronousQueryResult.getProjection());
+        assertEquals(1, result.size());
+        assertTrue(result.getFirst() instanceof MapToIntAction);
+
+        final ResultSet rs = mock(ResultSet.class);
+        when(rs.getInt(1)).thenReturn(42);
+        assertEquals(42, asynchronousQueryResult.getRsMapper().apply(rs));
+    }
+
+    @Test
+    public void testOptimizeMap() throws Exception {
+        final Pipeline pipeline = pipelineOf(new MapAction<>(MockEntity.NAME));
+        final Pipeline result = instance.optimize(pipeline, sqlStreamOptimizerInfo, asynchronousQueryResult);
+        assertEquals("SELECT name FROM mock_entity", asynchronousQueryResult.getSql());
+        assertTrue(result.isEmpty());
+
+        final ResultSet rs = mock(ResultSet.class);
+        when(rs.getString(1)).thenReturn("Olle");
+        assertEquals("Olle", asynchronousQueryResult.getRsMapper().apply(rs));
+    }
+
+    @Test
+    public void testOptimizeWithoutTableReference() {
+        final SqlStreamOptimizerInfo<MockEntity> info = SqlStreamOptimizerInfo.of(
+            DBMS_TYPE,
+            "SELECT id,name FROM mock_entity",
+            "SELECT COUNT(*) FROM mock_entity",
+            (sql, l) -> 1L,
+            f -> f.identifier().getColumnId(),
+            f -> String.class
+        );
+        final MapAction<MockEntity, String> mapAction = new MapAction<>(MockEntity.NAME);
+        final Pipeline result = instance.optimize(pipelineOf(mapAction), info, asynchronousQueryResult);
+        assertEquals("SELECT id,name FROM mock_entity", asynchronousQueryResult.getSql());
+        assertSame(mapAction, result.getFirst());
+    }
+
+    private Pipeline pipelineOf(Action<?, ?>... actions) {
+        return Stream.of(actions)
+            .collect(
+                () -> new PipelineImpl<>(STREAM_SUPPLIER),
+                PipelineImpl::addLast,
+                (a, b) -> b.stream().forEachOrdered(a::add)
+            );
+    }
+
+}
@@ -36,7 +36,14 @@ import com.speedment.runtime.core.component.sql.override.reference.ReferenceTerm
 import com.speedment.runtime.core.component.sql.override.reference.SpliteratorTerminator;
 import com.speedment.runtime.core.component.sql.override.reference.ToArrayGeneratorTerminator;
 import com.speedment.runtime.core.component.sql.override.reference.ToArrayTerminator;
+import com.speedment.runtime.core.internal.component.sql.override.optimized.reference.OptimizedAllMatchTerminator;
+import com.speedment.runtime.core.internal.component.sql.override.optimized.reference.OptimizedAnyMatchTerminator;
 import com.speedment.runtime.core.internal.component.sql.override.optimized.reference.OptimizedCountTerminator;
+import com.speedment.runtime.core.internal.component.sql.override.optimized.reference.OptimizedFindAnyTerminator;
+import com.speedment.runtime.core.internal.component.sql.override.optimized.reference.OptimizedFindFirstTerminator;
+import com.speedment.runtime.core.internal.component.sql.override.optimized.reference.OptimizedMaxTerminator;
+import com.speedment.runtime.core.internal.component.sql.override.optimized.reference.OptimizedMinTerminator;
+import com.speedment.runtime.core.internal.component.sql.override.optimized.reference.OptimizedNoneMatchTerminator;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.stream.Stream;
@@ -62,6 +69,13 @@ public class SqlStreamTerminatorComponentImplTest {
     public void testGetters() {
         referenceTerminators()
             .filter(c -> !CountTerminator.class.equals(c)) // Count is optimized by default. Test separately
+            .filter(c -> !MaxTerminator.class.equals(c)) // Max and Min are optimized by default. Test separately
+            .filter(c -> !MinTerminator.class.equals(c))
+            .filter(c -> !AnyMatchTerminator.class.equals(c)) // Match and find are optimized by default. Test separately
+            .filter(c -> !AllMatchTerminator.class.equals(c))
+            .filter(c -> !NoneMatchTerminator.class.equals(c))
+            .filter(c -> !FindFirstTerminator.class.equals(c))
+            .filter(c -> !FindAnyTerminator.class.equals(c))
             .forEach(this::testGetter);
     }
 
@@ -73,6 +87,42 @@ public class SqlStreamTerminatorComponentImplTest {
         );
     }
 
+    @Test
+    public void testGetMaxAndMinTerminator() {
+        assertEquals(
+            OptimizedMaxTerminator.create().getClass().getName(),
+            instance.getMaxTerminator().getClass().getName()
+        );
+        assertEquals(
+            OptimizedMinTerminator.create().getClass().getName(),
+            instance.getMinTerminator().getClass().getName()
+        );
+    }
+
+    @Test
+    public void testGetMatchAndFindTerminators() {
+        assertEquals(
+            OptimizedAnyMatchTerminator.create().getClass().getName(),
+            instance.getAnyMatchTerminator().getClass().getName()
+        );
+        assertEquals(
+            OptimizedAllMatchTerminator.create().getClass().getName(),
+            instance.getAllMatchTerminator().getClass().getName()
+        );
+        assertEquals(
+            OptimizedNoneMatchTerminator.create().getClass().getName(),
+            instance.getNoneMatchTerminator().getClass().getName()
+        );
+        assertEquals(
+            OptimizedFindFirstTerminator.create().getClass().getName(),
+            instance.getFindFirstTerminator().getClass().getName()
+        );
+        assertEquals(
+            OptimizedFindAnyTerminator.create().getClass().getName(),
+            instance.getFindAnyTerminator().getClass().getName()
+        );
+    }
+
     @Test
     public void testSetters() {
         referenceTerminators()
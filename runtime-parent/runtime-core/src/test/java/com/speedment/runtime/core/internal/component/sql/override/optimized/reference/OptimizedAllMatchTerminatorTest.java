@@ -0,0 +1,84 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.component.sql.override.optimized.reference;
+
+import com.speedment.runtime.test_support.MockEntity;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.function.Predicate;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ *
+ * @author agent
+ */
+public class OptimizedAllMatchTerminatorTest {
+
+    private static final List<MockEntity> ENTITIES = Arrays.asList(
+        new MockEntity(1).setName("a"),
+        new MockEntity(2).setName("b"),
+        new MockEntity(3).setName(null) // The NULL row
+    );
+
+    @Test
+    public void testFalsifierOnNullableField() {
+        assertExactFalsifier(MockEntity.NAME.greaterThan("a"));
+        assertExactFalsifier(MockEntity.NAME.lessOrEqual("a"));
+        assertExactFalsifier(MockEntity.NAME.equal("a"));
+        assertExactFalsifier(MockEntity.NAME.notEqual("a"));
+        assertExactFalsifier(MockEntity.NAME.in("a", "c"));
+        assertExactFalsifier(MockEntity.NAME.between("a", "c"));
+        assertExactFalsifier(MockEntity.NAME.startsWith("b"));
+        assertExactFalsifier(MockEntity.NAME.isNull());
+        assertExactFalsifier(MockEntity.NAME.isNotNull());
+    }
+
+    @Test
+    public void testFalsifierOnCombinedPredicates() {
+        assertExactFalsifier(MockEntity.NAME.greaterThan("a").and(MockEntity.ID.lessThan(3)));
+        assertExactFalsifier(MockEntity.NAME.greaterThan("a").or(MockEntity.ID.equal(1)));
+        assertExactFalsifier(MockEntity.NAME.equal("a").or(MockEntity.NAME.isNull()));
+    }
+
+    @Test
+    public void testFalsifierOnPrimitiveField() {
+        assertExactFalsifier(MockEntity.ID.greaterThan(1));
+        assertExactFalsifier(MockEntity.ID.between(1, 2));
+    }
+
+    @Test
+    public void testNoFalsifier() {
+        assertNull(OptimizedAllMatchTerminator.falsifier(MockEntity.NAME.in(new HashSet<>(Arrays.asList("a", null)))));
+        assertNull(OptimizedAllMatchTerminator.falsifier(MockEntity.NAME.isEmpty()));
+        assertNull(OptimizedAllMatchTerminator.falsifier(MockEntity.NAME.greaterThan("a").and(MockEntity.NAME.isNotEmpty())));
+        assertNull(OptimizedAllMatchTerminator.falsifier((MockEntity e) -> true));
+    }
+
+    private static void assertExactFalsifier(Predicate<MockEntity> predicate) {
+        final Predicate<MockEntity> falsifier = OptimizedAllMatchTerminator.falsifier(predicate);
+        assertNotNull(predicate.toString(), falsifier);
+        for (final MockEntity entity : ENTITIES) {
+            assertNotEquals(
+                predicate + " on " + entity.getName(),
+                predicate.test(entity),
+                falsifier.test(entity)
+            );
+        }
+    }
+}
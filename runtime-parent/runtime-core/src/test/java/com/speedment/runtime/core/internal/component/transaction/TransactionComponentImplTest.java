@@ -0,0 +1,72 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.component.transaction;
+
+import com.speedment.runtime.core.component.transaction.TransactionComponent;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ *
+ * @author agent
+ */
+public final class TransactionComponentImplTest {
+
+    private TransactionComponent instance;
+    private Object txObject;
+    private AtomicInteger runs;
+
+    @Before
+    public void setUp() {
+        instance = new TransactionComponentImpl();
+        txObject = new Object();
+        runs = new AtomicInteger();
+    }
+
+    @Test
+    public void testAfterCommitWithoutTransaction() {
+        assertFalse(instance.afterCommit(Thread.currentThread(), runs::incrementAndGet));
+        instance.committed(txObject);
+        assertEquals(0, runs.get());
+    }
+
+    @Test
+    public void testAfterCommitRunsOnce() {
+        instance.put(Thread.currentThread(), txObject);
+        assertTrue(instance.afterCommit(Thread.currentThread(), runs::incrementAndGet));
+        assertEquals(0, runs.get());
+        instance.committed(txObject);
+        assertEquals(1, runs.get());
+        instance.committed(txObject);
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    public void testAfterCommitDiscardedWhenTransactionEnds() {
+        instance.put(Thread.currentThread(), txObject);
+        instance.afterCommit(Thread.currentThread(), runs::incrementAndGet);
+        instance.remove(Thread.currentThread());
+        instance.committed(txObject);
+        assertEquals(0, runs.get());
+    }
+}
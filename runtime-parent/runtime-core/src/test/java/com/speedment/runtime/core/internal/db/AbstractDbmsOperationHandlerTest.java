@@ -0,0 +1,437 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.db;
+
+import com.speedment.runtime.config.Dbms;
+import com.speedment.runtime.core.component.DbmsHandlerComponent;
+import com.speedment.runtime.core.component.RetryPolicyComponent;
+import com.speedment.runtime.core.component.connectionpool.ConnectionPoolComponent;
+import com.speedment.runtime.core.component.connectionpool.PoolableConnection;
+import com.speedment.runtime.core.db.DbmsType;
+import com.speedment.runtime.core.db.DbmsType.MultiRowInsertSupport;
+import com.speedment.runtime.core.db.DbmsType.UpsertOutcomeReporting;
+import com.speedment.runtime.core.db.RetryPolicy;
+import com.speedment.runtime.core.db.SqlConsumer;
+import com.speedment.runtime.field.Field;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTransactionRollbackException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.*;
+import org.junit.Before;
+import org.junit.Test;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.CALLS_REAL_METHODS;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ *
+ * @author agent
+ */
+public class AbstractDbmsOperationHandlerTest {
+
+    private static final String INSERT = "INSERT INTO mock_entity (name) VALUES (?)";
+    private static final String UPDATE = "UPDATE mock_entity SET name = ? WHERE id = ?";
+    private static final String UPSERT = "INSERT INTO mock_entity (id, name) VALUES (?, ?) ON CONFLICT (id) DO UPDATE SET name = EXCLUDED.name";
+
+    private Dbms dbms;
+    private PoolableConnection connection;
+    private ConnectionPoolComponent connectionPoolComponent;
+    private PreparedStatement ps;
+    private ResultSet generatedKeys;
+    private DbmsType dbmsType;
+    private RetryPolicyComponent retryPolicyComponent;
+    private AbstractDbmsOperationHandler instance;
+
+    @Before
+    public void setUp() throws Exception {
+        dbms = mock(Dbms.class);
+        generatedKeys = mock(ResultSet.class);
+        ps = mock(PreparedStatement.class);
+        when(ps.getGeneratedKeys()).thenReturn(generatedKeys);
+        when(ps.executeBatch()).thenReturn(new int[0]);
+        connection = mock(PoolableConnection.class);
+        when(connection.prepareStatement(anyString(), anyInt())).thenReturn(ps);
+        connectionPoolComponent = mock(ConnectionPoolComponent.class);
+        when(connectionPoolComponent.getConnection(dbms)).thenReturn(connection);
+
+        dbmsType = mock(DbmsType.class, withSettings().defaultAnswer(CALLS_REAL_METHODS));
+        when(dbms.getTypeName()).thenReturn("MockDbms");
+        final DbmsHandlerComponent dbmsHandlerComponent = mock(DbmsHandlerComponent.class);
+        when(dbmsHandlerComponent.findByName("MockDbms")).thenReturn(Optional.of(dbmsType));
+
+        instance = new AbstractDbmsOperationHandler() {};
+        inject("connectionPoolComponent", connectionPoolComponent);
+        inject("dbmsHandlerComponent", dbmsHandlerComponent);
+
+        retryPolicyComponent = mock(RetryPolicyComponent.class);
+        when(retryPolicyComponent.getRetryPolicy(dbms)).thenReturn(
+            RetryPolicy.exponentialBackoff(3, 0, 0, 60_000, dbmsType::isRetryable)
+        );
+        inject("retryPolicyComponent", retryPolicyComponent);
+    }
+
+    private void inject(String fieldName, Object value) throws ReflectiveOperationException {
+        final java.lang.reflect.Field field = AbstractDbmsOperationHandler.class.getDeclaredField(fieldName);
+        field.setAccessible(true);
+        field.set(instance, value);
+    }
+
+    @Test
+    public void testUpdateBatch() throws SQLException {
+        instance.executeUpdateBatch(dbms, UPDATE, Arrays.asList(
+            Arrays.asList("a", 1),
+            Arrays.asList("b", 2),
+            Arrays.asList("c", 3)
+        ));
+        verify(connection, times(1)).prepareStatement(UPDATE, Statement.NO_GENERATED_KEYS);
+        verify(ps, times(3)).addBatch();
+        verify(ps, times(1)).executeBatch();
+        verify(ps, never()).executeUpdate();
+        verify(ps).setObject(1, "c");
+        verify(ps).setObject(2, 3);
+        verify(connection, times(1)).commit();
+    }
+
+    @Test
+    public void testSingleUpdateIsNotBatched() throws SQLException {
+        instance.executeUpdate(dbms, UPDATE, Arrays.asList("a", 1));
+        verify(ps, times(1)).executeUpdate();
+        verify(ps, never()).executeBatch();
+    }
+
+    @Test
+    public void testUpdateAndCount() throws SQLException {
+        when(ps.executeUpdate()).thenReturn(17);
+        assertEquals(17, instance.executeUpdateAndCount(dbms, UPDATE, Arrays.asList("a", 1)));
+        verify(connection, times(1)).commit();
+    }
+
+    @Test
+    public void testUpsertBatchWithUpdateCounts() throws SQLException {
+        when(ps.executeBatch()).thenReturn(new int[]{1, 2, 0});
+        final long[] outcomes = instance.executeUpsertBatch(dbms, UPSERT, Arrays.asList(
+            Arrays.asList(1, "a"),
+            Arrays.asList(2, "b"),
+            Arrays.asList(3, "c")
+        ));
+        assertArrayEquals(new long[]{1, 2, 0}, outcomes);
+        verify(ps, times(1)).executeBatch();
+        verify(connection, times(1)).commit();
+    }
+
+    @Test
+    public void testUpsertBatchWithUpdateCountsOfFoundRows() throws SQLException {
+        when(dbmsType.getUpsertOutcomeReporting(dbms)).thenReturn(UpsertOutcomeReporting.UPDATE_COUNT_OF_FOUND_ROWS);
+        when(ps.executeBatch()).thenReturn(new int[]{1, 2, Statement.SUCCESS_NO_INFO});
+        final long[] outcomes = instance.executeUpsertBatch(dbms, UPSERT, Arrays.asList(
+            Arrays.asList(1, "a"),
+            Arrays.asList(2, "b"),
+            Arrays.asList(3, "c")
+        ));
+        // A found row may have been inserted or left unchanged
+        assertArrayEquals(new long[]{Statement.SUCCESS_NO_INFO, 2, Statement.SUCCESS_NO_INFO}, outcomes);
+    }
+
+    @Test
+    public void testUpsertBatchWithReturnedFlag() throws SQLException {
+        when(dbmsType.getUpsertOutcomeReporting(dbms)).thenReturn(UpsertOutcomeReporting.RETURNED_FLAG);
+        final ResultSet rs = mock(ResultSet.class);
+        when(ps.executeQuery()).thenReturn(rs);
+        when(rs.next()).thenReturn(true, true, false);
+        when(rs.getBoolean(1)).thenReturn(true, false);
+
+        final long[] outcomes = instance.executeUpsertBatch(dbms, UPSERT, Arrays.asList(
+            Arrays.asList(1, "a"),
+            Arrays.asList(2, "b"),
+            Arrays.asList(3, "c")
+        ));
+
+        assertArrayEquals(new long[]{1, 2, 0}, outcomes);
+        verify(ps, times(3)).executeQuery();
+        verify(ps, never()).executeBatch();
+        verify(connection, times(1)).commit();
+    }
+
+    @Test
+    public void testInsertBatchWithGeneratedKeys() throws SQLException {
+        when(generatedKeys.next()).thenReturn(true, true, false);
+        when(generatedKeys.getLong(1)).thenReturn(42L, 43L);
+        final List<List<Long>> keys = new ArrayList<>();
+
+        instance.executeInsertBatch(
+            dbms,
+            INSERT,
+            Arrays.asList(singletonList("a"), singletonList("b")),
+            generatedFields(),
+            Arrays.asList(collector(keys), collector(keys))
+        );
+
+        verify(connection).prepareStatement(INSERT, Statement.RETURN_GENERATED_KEYS);
+        verify(ps, times(1)).executeBatch();
+        assertEquals(Arrays.asList(singletonList(42L), singletonList(43L)), keys);
+    }
+
+    @Test
+    public void testBoundUpdateBatch() throws SQLException {
+        final List<SqlConsumer<PreparedStatement>> binders = Arrays.asList(
+            p -> p.setInt(1, 10),
+            p -> p.setInt(1, 20)
+        );
+        assertTrue(instance.isBindingSupported());
+        instance.executeBoundUpdateBatch(dbms, UPDATE, binders);
+        verify(connection, times(1)).prepareStatement(UPDATE, Statement.NO_GENERATED_KEYS);
+        verify(ps).setInt(1, 10);
+        verify(ps).setInt(1, 20);
+        verify(ps, times(2)).addBatch();
+        verify(ps, never()).setObject(anyInt(), any());
+        verify(connection, times(1)).commit();
+    }
+
+    @Test
+    public void testBoundInsertWithGeneratedKeys() throws SQLException {
+        when(generatedKeys.next()).thenReturn(true, false);
+        when(generatedKeys.getLong(1)).thenReturn(42L);
+        final List<List<Long>> keys = new ArrayList<>();
+
+        instance.executeBoundInsertBatch(
+            dbms,
+            INSERT,
+            singletonList(p -> p.setString(1, "a")),
+            generatedFields(),
+            singletonList(collector(keys))
+        );
+
+        verify(ps).setString(1, "a");
+        verify(ps, times(1)).executeUpdate();
+        assertEquals(singletonList(singletonList(42L)), keys);
+    }
+
+    @Test
+    public void testInsertBatchWithUnmappableGeneratedKeys() throws SQLException {
+        when(generatedKeys.next()).thenReturn(true, false);
+        when(generatedKeys.getLong(1)).thenReturn(43L);
+        final List<List<Long>> keys = new ArrayList<>();
+
+        instance.executeInsertBatch(
+            dbms,
+            INSERT,
+            Arrays.asList(singletonList("a"), singletonList("b")),
+            generatedFields(),
+            Arrays.asList(collector(keys), collector(keys))
+        );
+
+        assertEquals(Arrays.asList(emptyList(), emptyList()), keys);
+    }
+
+    @Test
+    public void testInsertBatchWithoutGeneratedFields() throws SQLException {
+        final List<List<Long>> keys = new ArrayList<>();
+
+        instance.executeInsertBatch(
+            dbms,
+            INSERT,
+            Arrays.asList(singletonList("a"), singletonList("b")),
+            emptyList(),
+            Arrays.asList(collector(keys), collector(keys))
+        );
+
+        verify(connection).prepareStatement(INSERT, Statement.NO_GENERATED_KEYS);
+        verify(ps, never()).getGeneratedKeys();
+    }
+
+    @Test
+    public void testMultiRowInsertBatchWithGeneratedKeys() throws SQLException {
+        doReturn(MultiRowInsertSupport.WITH_GENERATED_KEYS).when(dbmsType).getMultiRowInsertSupport();
+        doReturn(2).when(dbmsType).getMaxParametersPerStatement();
+        when(generatedKeys.next()).thenReturn(true, true, true, true, true, false);
+        when(generatedKeys.getLong(1)).thenReturn(40L, 41L, 42L, 43L, 44L);
+        final List<List<Long>> keys = new ArrayList<>();
+
+        instance.executeInsertBatch(
+            dbms,
+            INSERT,
+            Arrays.asList(singletonList("a"), singletonList("b"), singletonList("c"), singletonList("d"), singletonList("e")),
+            generatedFields(),
+            Arrays.asList(collector(keys), collector(keys), collector(keys), collector(keys), collector(keys))
+        );
+
+        // Two identical two-row statements in a batch followed by a single row
+        final String twoRows = "INSERT INTO mock_entity (name) VALUES (?),(?)";
+        verify(connection, times(1)).prepareStatement(twoRows, Statement.RETURN_GENERATED_KEYS);
+        verify(connection, times(1)).prepareStatement(INSERT, Statement.RETURN_GENERATED_KEYS);
+        verify(ps, times(2)).addBatch();
+        verify(ps, times(1)).executeBatch();
+        verify(ps, times(1)).executeUpdate();
+        verify(ps).setObject(2, "d");
+        verify(connection, times(1)).commit();
+        assertEquals(5, keys.size());
+    }
+
+    @Test
+    public void testMultiRowInsertNotUsedWithoutGeneratedKeySupport() throws SQLException {
+        doReturn(MultiRowInsertSupport.WITHOUT_GENERATED_KEYS).when(dbmsType).getMultiRowInsertSupport();
+        instance.executeInsertBatch(
+            dbms,
+            INSERT,
+            Arrays.asList(singletonList("a"), singletonList("b")),
+            generatedFields(),
+            Arrays.asList(keys -> {}, keys -> {})
+        );
+        verify(connection, times(1)).prepareStatement(INSERT, Statement.RETURN_GENERATED_KEYS);
+        verify(ps, times(2)).addBatch();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInsertBatchConsumerMismatch() throws SQLException {
+        instance.executeInsertBatch(
+            dbms,
+            INSERT,
+            Arrays.asList(singletonList("a"), singletonList("b")),
+            emptyList(),
+            singletonList(keys -> {})
+        );
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Collection<Field<Object>> generatedFields() {
+        return singletonList(mock(Field.class));
+    }
+
+    private static Consumer<List<Long>> collector(List<List<Long>> keys) {
+        return l -> keys.add(new ArrayList<>(l));
+    }
+
+    @Test
+    public void testRetryAfterDeadlock() throws SQLException {
+        when(ps.executeUpdate())
+            .thenThrow(new SQLTransactionRollbackException("Deadlock", "40001"))
+            .thenReturn(1);
+        assertEquals(1, instance.executeUpdateAndCount(dbms, UPDATE, Arrays.asList("a", 1)));
+        verify(connectionPoolComponent, times(2)).getConnection(dbms);
+        verify(connection, times(1)).rollback();
+        verify(connection, times(1)).commit();
+        assertEquals(1, instance.getRetryCount());
+        assertEquals(Long.valueOf(1), instance.getRetryCountBySql().get(UPDATE));
+    }
+
+    @Test
+    public void testRetryCountBySqlIsBounded() throws SQLException {
+        final int statements = AbstractDbmsOperationHandler.MAX_RETRY_COUNT_STATEMENTS + 10;
+        for (int i = 0; i < statements; i++) {
+            final String sql = UPDATE + " AND version = " + i;
+            final PreparedStatement failing = mock(PreparedStatement.class);
+            when(failing.executeUpdate())
+                .thenThrow(new SQLTransactionRollbackException("Deadlock", "40001"))
+                .thenReturn(1);
+            when(connection.prepareStatement(eq(sql), anyInt())).thenReturn(failing);
+            instance.executeUpdate(dbms, sql, Arrays.asList("a", 1));
+        }
+        assertEquals(statements, instance.getRetryCount());
+        assertEquals(AbstractDbmsOperationHandler.MAX_RETRY_COUNT_STATEMENTS, instance.getRetryCountBySql().size());
+        assertEquals(Long.valueOf(1), instance.getRetryCountBySql().get(UPDATE + " AND version = 0"));
+    }
+
+    @Test
+    public void testRetryableVendorErrorCode() throws SQLException {
+        when(dbmsType.getRetryableErrorCodes()).thenReturn(Collections.singleton(1213));
+        when(ps.executeUpdate())
+            .thenThrow(new SQLException("Deadlock found", "HY000", 1213))
+            .thenReturn(1);
+        instance.executeUpdate(dbms, UPDATE, Arrays.asList("a", 1));
+        assertEquals(1, instance.getRetryCount());
+    }
+
+    @Test
+    public void testRetriesExhausted() throws SQLException {
+        final SQLException deadlock = new SQLException("Deadlock", "40001");
+        when(ps.executeUpdate()).thenThrow(deadlock);
+        try {
+            instance.executeUpdate(dbms, UPDATE, Arrays.asList("a", 1));
+            fail("Expected the last exception to be thrown");
+        } catch (final SQLException ex) {
+            assertSame(deadlock, ex);
+        }
+        verify(ps, times(3)).executeUpdate();
+        verify(connection, times(3)).rollback();
+        verify(connection, never()).commit();
+        assertEquals(2, instance.getRetryCount());
+    }
+
+    @Test
+    public void testNotRetryable() throws SQLException {
+        when(ps.executeUpdate()).thenThrow(new SQLException("Duplicate key", "23505"));
+        try {
+            instance.executeUpdate(dbms, UPDATE, Arrays.asList("a", 1));
+            fail("Expected the exception to be thrown");
+        } catch (final SQLException ex) {
+            assertEquals("23505", ex.getSQLState());
+        }
+        verify(ps, times(1)).executeUpdate();
+        assertEquals(0, instance.getRetryCount());
+    }
+
+    @Test
+    public void testRetryOutsideTimeBudget() throws SQLException {
+        final RetryPolicy slow = mock(RetryPolicy.class);
+        when(slow.getMaxAttempts()).thenReturn(5);
+        when(slow.isRetryable(org.mockito.ArgumentMatchers.any())).thenReturn(true);
+        when(slow.getBackoffMillis(anyInt())).thenReturn(1_000L);
+        when(slow.getTimeBudgetMillis()).thenReturn(500L);
+        when(retryPolicyComponent.getRetryPolicy(dbms)).thenReturn(slow);
+        when(ps.executeUpdate()).thenThrow(new SQLException("Deadlock", "40001"));
+        try {
+            instance.executeUpdate(dbms, UPDATE, Arrays.asList("a", 1));
+            fail("Expected the exception to be thrown");
+        } catch (final SQLException ex) {
+            assertEquals("40001", ex.getSQLState());
+        }
+        verify(ps, times(1)).executeUpdate();
+        assertEquals(0, instance.getRetryCount());
+    }
+
+    @Test
+    public void testRetryClearsGeneratedKeys() throws SQLException {
+        doThrow(new SQLException("Connection reset", "08S01")).doNothing().when(connection).commit();
+        when(generatedKeys.next()).thenReturn(true, false, true, false);
+        when(generatedKeys.getLong(1)).thenReturn(41L, 42L);
+        final List<List<Long>> keys = new ArrayList<>();
+        instance.executeInsert(dbms, INSERT, singletonList("a"), generatedFields(), collector(keys));
+        assertEquals(singletonList(singletonList(42L)), keys);
+    }
+
+}
@@ -0,0 +1,185 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.db;
+
+import com.speedment.runtime.config.Dbms;
+import com.speedment.runtime.core.component.connectionpool.ConnectionPoolComponent;
+import com.speedment.runtime.core.component.connectionpool.PoolableConnection;
+import com.speedment.runtime.core.db.SqlConsumer;
+import com.speedment.runtime.core.stream.parallel.ParallelStrategy;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import static java.util.Collections.emptyList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import static org.junit.Assert.*;
+import org.junit.Before;
+import org.junit.Test;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ *
+ * @author agent
+ */
+public class AsynchronousQueryResultImplTest {
+
+    private static final String SQL = "SELECT id FROM mock_entity";
+
+    private ConnectionPoolComponent connectionPoolComponent;
+    private Dbms dbms;
+    private PreparedStatement ps;
+    private ResultSet rs;
+    private AtomicInteger cancelled;
+
+    @Before
+    public void setUp() throws SQLException {
+        dbms = mock(Dbms.class);
+        rs = mock(ResultSet.class);
+        ps = mock(PreparedStatement.class);
+        when(ps.executeQuery()).thenReturn(rs);
+        final PoolableConnection connection = mock(PoolableConnection.class);
+        when(connection.prepareStatement(anyString(), anyInt(), anyInt())).thenReturn(ps);
+        connectionPoolComponent = mock(ConnectionPoolComponent.class);
+        when(connectionPoolComponent.getConnection(dbms)).thenReturn(connection);
+        cancelled = new AtomicInteger();
+    }
+
+    @Test
+    public void testCancelWhenClosedEarly() throws SQLException {
+        when(rs.next()).thenReturn(true);
+        final AsynchronousQueryResultImpl<Integer> query = create(statement -> cancelled.incrementAndGet());
+        try (Stream<Integer> stream = query.stream()) {
+            assertEquals(3, stream.limit(3).count());
+        }
+        query.close();
+        assertEquals(1, cancelled.get());
+        verify(rs).close();
+        verify(ps).close();
+    }
+
+    @Test
+    public void testNoCancelWhenExhausted() throws SQLException {
+        when(rs.next()).thenReturn(true, true, false);
+        final AsynchronousQueryResultImpl<Integer> query = create(statement -> cancelled.incrementAndGet());
+        assertEquals(2, query.stream().count());
+        query.close();
+        assertEquals(0, cancelled.get());
+    }
+
+    @Test
+    public void testNoCancelWhenFewRowsRemain() throws SQLException {
+        when(rs.next()).thenReturn(true, true, false);
+        final AsynchronousQueryResultImpl<Integer> query = create(statement -> cancelled.incrementAndGet());
+        assertTrue(query.stream().findFirst().isPresent());
+        query.close();
+        assertEquals(0, cancelled.get());
+    }
+
+    @Test
+    public void testNoCancelWithoutCanceller() throws SQLException {
+        when(rs.next()).thenReturn(true);
+        final AsynchronousQueryResultImpl<Integer> query = create(null);
+        assertTrue(query.stream().findFirst().isPresent());
+        query.close();
+        verify(rs).close();
+    }
+
+    @Test
+    public void testFailingCancelStillCloses() throws SQLException {
+        when(rs.next()).thenReturn(true);
+        final AsynchronousQueryResultImpl<Integer> query = create(statement -> {
+            throw new SQLException("Not supported");
+        });
+        assertTrue(query.stream().findFirst().isPresent());
+        query.close();
+        verify(rs).close();
+        verify(ps).close();
+    }
+
+    @Test
+    public void testPrefetching() throws SQLException {
+        when(rs.next()).thenReturn(true, true, true, true, true, false);
+        final AsynchronousQueryResultImpl<Integer> query = create(statement -> cancelled.incrementAndGet(), ParallelStrategy.prefetching(2));
+        try (Stream<Integer> stream = query.stream()) {
+            assertEquals(5, stream.mapToInt(Integer::intValue).sum());
+        }
+        query.close();
+        assertEquals(0, cancelled.get());
+        verify(rs).close();
+    }
+
+    @Test
+    public void testPrefetchingClosedEarly() throws SQLException {
+        when(rs.next()).thenReturn(true);
+        final AsynchronousQueryResultImpl<Integer> query = create(statement -> cancelled.incrementAndGet(), ParallelStrategy.prefetching(100));
+        assertEquals(3, query.stream().limit(3).count());
+        query.close();
+        assertEquals(1, cancelled.get());
+        verify(rs).close();
+        verify(ps).close();
+    }
+
+    @Test(timeout = 10_000)
+    public void testPrefetchingClosedWhileReaderIsBlocked() throws SQLException, InterruptedException {
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final CountDownLatch cancel = new CountDownLatch(1);
+        final AtomicInteger rows = new AtomicInteger();
+        when(rs.next()).thenAnswer(i -> {
+            if (rows.incrementAndGet() < 3) {
+                return true;
+            }
+            // Waits for the database until the statement is cancelled
+            blocked.countDown();
+            cancel.await();
+            throw new SQLException("Statement cancelled");
+        });
+        final AsynchronousQueryResultImpl<Integer> query = create(statement -> {
+            cancelled.incrementAndGet();
+            cancel.countDown();
+        }, ParallelStrategy.prefetching(2));
+        assertTrue(query.stream().findFirst().isPresent());
+        blocked.await();
+        query.close();
+        assertEquals(1, cancelled.get());
+        verify(rs).close();
+        verify(ps).close();
+    }
+
+    private AsynchronousQueryResultImpl<Integer> create(SqlConsumer<PreparedStatement> canceller) {
+        return create(canceller, ParallelStrategy.computeIntensityDefault());
+    }
+
+    private AsynchronousQueryResultImpl<Integer> create(SqlConsumer<PreparedStatement> canceller, ParallelStrategy parallelStrategy) {
+        return new AsynchronousQueryResultImpl<>(
+            SQL,
+            emptyList(),
+            r -> 1,
+            () -> new ConnectionInfo(dbms, connectionPoolComponent, null),
+            parallelStrategy,
+            statement -> {},
+            resultSet -> {},
+            canceller
+        );
+    }
+
+}
@@ -0,0 +1,153 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.db;
+
+import com.speedment.runtime.core.db.DbmsType;
+import com.speedment.runtime.core.db.DbmsType.MultiRowInsertSupport;
+import com.speedment.runtime.core.internal.manager.sql.SqlInsertStatement;
+import com.speedment.runtime.field.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.nCopies;
+import static java.util.Collections.singletonList;
+import static java.util.stream.Collectors.toList;
+import static org.junit.Assert.*;
+import org.junit.Before;
+import org.junit.Test;
+import static org.mockito.Mockito.CALLS_REAL_METHODS;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ *
+ * @author agent
+ */
+public class MultiRowInsertUtilTest {
+
+    private static final String INSERT = "INSERT INTO `t` (`a`,`b`) VALUES (?,?)";
+
+    private DbmsType dbmsType;
+
+    @Before
+    public void setUp() {
+        dbmsType = mock(DbmsType.class, withSettings().defaultAnswer(CALLS_REAL_METHODS));
+    }
+
+    @Test
+    public void testRenderMultiRowInsert() {
+        assertEquals(INSERT, dbmsType.renderMultiRowInsert(INSERT, 1));
+        assertEquals("INSERT INTO `t` (`a`,`b`) VALUES (?,?),(?,?),(?,?)", dbmsType.renderMultiRowInsert(INSERT, 3));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRenderMultiRowInsertIllegal() {
+        dbmsType.renderMultiRowInsert("INSERT INTO `t` SELECT * FROM `u`", 2);
+    }
+
+    @Test
+    public void testIsApplicable() {
+        final List<List<?>> rows = rows(2);
+        assertFalse(MultiRowInsertUtil.isApplicable(dbmsType, rows, emptyList()));
+
+        doReturn(MultiRowInsertSupport.WITHOUT_GENERATED_KEYS).when(dbmsType).getMultiRowInsertSupport();
+        assertTrue(MultiRowInsertUtil.isApplicable(dbmsType, rows, emptyList()));
+        assertFalse(MultiRowInsertUtil.isApplicable(dbmsType, rows, generatedFields()));
+        assertFalse(MultiRowInsertUtil.isApplicable(dbmsType, rows(1), emptyList()));
+
+        doReturn(MultiRowInsertSupport.WITH_GENERATED_KEYS).when(dbmsType).getMultiRowInsertSupport();
+        assertTrue(MultiRowInsertUtil.isApplicable(dbmsType, rows, generatedFields()));
+    }
+
+    @Test
+    public void testParameterLimit() {
+        doReturn(7).when(dbmsType).getMaxParametersPerStatement(); // Three rows of two columns
+        final List<SqlInsertStatement<Object>> statements = statements(rows(8), noConsumers(8));
+        assertEquals(Arrays.asList(6, 6, 4), statements.stream().map(s -> s.getValues().size()).collect(toList()));
+        assertEquals(dbmsType.renderMultiRowInsert(INSERT, 3), statements.get(0).getSql());
+        assertEquals(Arrays.asList("a6", 6, "a7", 7), statements.get(2).getValues());
+    }
+
+    @Test
+    public void testSizeLimit() {
+        doReturn((long) INSERT.length() + 100).when(dbmsType).getMaxStatementSize();
+        final List<List<?>> rows = Arrays.asList(
+            Arrays.asList("x", 1),
+            Arrays.asList("x", 2),
+            Arrays.asList(String.join("", nCopies(100, "x")), 3),
+            Arrays.asList("x", 4)
+        );
+        final List<SqlInsertStatement<Object>> statements = statements(rows, noConsumers(4));
+        // A row that is too large on its own is still sent in its own statement
+        assertEquals(Arrays.asList(4, 2, 2), statements.stream().map(s -> s.getValues().size()).collect(toList()));
+        assertEquals(INSERT, statements.get(1).getSql());
+    }
+
+    @Test
+    public void testGeneratedKeys() {
+        final List<List<Long>> keys = new ArrayList<>();
+        final List<Consumer<List<Long>>> consumers = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            consumers.add(l -> keys.add(new ArrayList<>(l)));
+        }
+        final SqlInsertStatement<Object> statement = statements(rows(3), consumers).get(0);
+        statement.addGeneratedKey(10L);
+        statement.addGeneratedKey(11L);
+        statement.addGeneratedKey(12L);
+        statement.acceptGeneratedKeys();
+        assertEquals(Arrays.asList(singletonList(10L), singletonList(11L), singletonList(12L)), keys);
+    }
+
+    @Test
+    public void testUnmappableGeneratedKeys() {
+        final List<List<Long>> keys = new ArrayList<>();
+        final List<Consumer<List<Long>>> consumers = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            consumers.add(l -> keys.add(new ArrayList<>(l)));
+        }
+        final SqlInsertStatement<Object> statement = statements(rows(2), consumers).get(0);
+        statement.addGeneratedKey(10L);
+        statement.acceptGeneratedKeys();
+        assertEquals(Arrays.asList(emptyList(), emptyList()), keys);
+    }
+
+    private List<SqlInsertStatement<Object>> statements(List<List<?>> rows, List<Consumer<List<Long>>> consumers) {
+        return MultiRowInsertUtil.statements(dbmsType, INSERT, rows, generatedFields(), consumers);
+    }
+
+    private static List<List<?>> rows(int count) {
+        final List<List<?>> rows = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            rows.add(Arrays.asList("a" + i, i));
+        }
+        return rows;
+    }
+
+    private static List<Consumer<List<Long>>> noConsumers(int count) {
+        return nCopies(count, l -> {});
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Collection<Field<Object>> generatedFields() {
+        return singletonList(mock(Field.class));
+    }
+
+}
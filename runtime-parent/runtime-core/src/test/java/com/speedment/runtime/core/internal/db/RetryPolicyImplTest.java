@@ -0,0 +1,77 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.db;
+
+import com.speedment.runtime.core.db.DbmsType;
+import com.speedment.runtime.core.db.RetryPolicy;
+import java.sql.SQLException;
+import static org.junit.Assert.*;
+import org.junit.Test;
+import static org.mockito.Mockito.CALLS_REAL_METHODS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ *
+ * @author agent
+ */
+public class RetryPolicyImplTest {
+
+    @Test
+    public void testBackoffIsBoundedAndGrows() {
+        final RetryPolicy policy = RetryPolicy.exponentialBackoff(10, 10, 100, 1000, ex -> true);
+        for (int i = 0; i < 100; i++) {
+            assertBetween(0, 10, policy.getBackoffMillis(1));
+            assertBetween(0, 20, policy.getBackoffMillis(2));
+            assertBetween(0, 80, policy.getBackoffMillis(4));
+            assertBetween(0, 100, policy.getBackoffMillis(5));
+            assertBetween(0, 100, policy.getBackoffMillis(1000));
+        }
+    }
+
+    @Test
+    public void testNone() {
+        final RetryPolicy none = RetryPolicy.none();
+        assertEquals(1, none.getMaxAttempts());
+        assertFalse(none.isRetryable(new SQLException("Deadlock", "40001")));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIllegalMaxAttempts() {
+        RetryPolicy.exponentialBackoff(0, 10, 100, 1000, ex -> true);
+    }
+
+    @Test
+    public void testDefaultForDbmsType() {
+        final DbmsType dbmsType = mock(DbmsType.class, withSettings().defaultAnswer(CALLS_REAL_METHODS));
+        final RetryPolicy policy = RetryPolicy.defaultFor(dbmsType);
+        assertEquals(RetryPolicy.DEFAULT_MAX_ATTEMPTS, policy.getMaxAttempts());
+        assertTrue(policy.isRetryable(new SQLException("Deadlock", "40001")));
+        assertTrue(policy.isRetryable(new SQLException("Communication link failure", "08S01")));
+        assertFalse(policy.isRetryable(new SQLException("Duplicate key", "23505")));
+        assertFalse(policy.isRetryable(new SQLException("No state")));
+
+        final SQLException batchFailure = new SQLException("Batch entry failed", "22000");
+        batchFailure.setNextException(new SQLException("Deadlock", "40001"));
+        assertTrue(policy.isRetryable(batchFailure));
+    }
+
+    private static void assertBetween(long min, long max, long actual) {
+        assertTrue(actual + " is not in [" + min + ", " + max + "]", actual >= min && actual <= max);
+    }
+
+}
@@ -0,0 +1,169 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.manager;
+
+import com.speedment.runtime.core.manager.EntityCache;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ *
+ * @author agent
+ */
+public final class EntityCacheImplTest {
+
+    private static final Duration TTL = Duration.ofSeconds(10);
+
+    private long nanoTime;
+    private EntityCache<String> cache;
+
+    @Before
+    public void setUp() {
+        nanoTime = 0;
+        cache = new EntityCacheImpl<>(3, TTL, () -> nanoTime);
+    }
+
+    @Test
+    public void testHitAndMiss() {
+        assertEquals(Optional.empty(), cache.get(1));
+        cache.put(1, () -> "one", cache.stamp(1));
+        assertEquals(Optional.of("one"), cache.get(1));
+        assertEquals(Optional.of("one"), cache.get(1));
+        assertEquals(2, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testExpired() {
+        cache.put(1, () -> "one", cache.stamp(1));
+        nanoTime = TTL.toNanos() - 1;
+        assertTrue(cache.get(1).isPresent());
+        nanoTime = TTL.toNanos();
+        assertFalse(cache.get(1).isPresent());
+        assertEquals(0, cache.size());
+        assertEquals(1, cache.getEvictionCount());
+    }
+
+    @Test
+    public void testInvalidate() {
+        cache.put(1, () -> "one", cache.stamp(1));
+        cache.put(2, () -> "two", cache.stamp(2));
+        cache.invalidate(1);
+        assertFalse(cache.get(1).isPresent());
+        assertTrue(cache.get(2).isPresent());
+        cache.invalidateAll();
+        assertFalse(cache.get(2).isPresent());
+        assertEquals(0, cache.getEvictionCount());
+    }
+
+    @Test
+    public void testStaleStampIsRejected() {
+        final long stamp = cache.stamp(1);
+        cache.invalidate(1); // An update completed while the entity was read
+        cache.put(1, () -> "stale", stamp);
+        assertFalse(cache.get(1).isPresent());
+    }
+
+    @Test
+    public void testStampIsRejectedAfterInvalidateAll() {
+        final long stamp = cache.stamp(1);
+        cache.invalidateAll();
+        cache.put(1, () -> "stale", stamp);
+        assertFalse(cache.get(1).isPresent());
+    }
+
+    @Test
+    public void testInvalidationOfOtherKeyDoesNotRejectStamp() {
+        final long stamp = cache.stamp(1);
+        cache.invalidate(2);
+        cache.put(1, () -> "one", stamp);
+        assertEquals(Optional.of("one"), cache.get(1));
+    }
+
+    @Test
+    public void testMaxSize() {
+        for (int i = 0; i < 100; i++) {
+            cache.get(i);
+            cache.get(i);
+            final String value = Integer.toString(i);
+            cache.put(i, () -> value, cache.stamp(i));
+            assertTrue(cache.size() <= cache.getMaxSize());
+        }
+        assertEquals(3, cache.size());
+        assertTrue(cache.getEvictionCount() > 0);
+    }
+
+    @Test
+    public void testFrequentEntitiesAreRetained() {
+        final EntityCache<String> largeCache = new EntityCacheImpl<>(100, TTL, () -> nanoTime);
+        for (int i = 0; i < 100; i++) {
+            final String value = "hot" + i;
+            largeCache.put(i, () -> value, largeCache.stamp(i));
+            for (int j = 0; j < 5; j++) {
+                largeCache.get(i);
+            }
+        }
+
+        // Keys that are only read once do not flush the frequently read keys
+        for (int i = 1000; i < 2000; i++) {
+            largeCache.get(i % 100);
+            if (!largeCache.get(i).isPresent()) {
+                final String value = "cold" + i;
+                largeCache.put(i, () -> value, largeCache.stamp(i));
+            }
+        }
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals(Optional.of("hot" + i), largeCache.get(i));
+        }
+        assertEquals(0, largeCache.getEvictionCount());
+    }
+
+    @Test
+    public void testExpiredEntityIsEvictedFirst() {
+        for (int i = 0; i < 3; i++) {
+            final String value = "hot" + i;
+            cache.put(i, () -> value, cache.stamp(i));
+            for (int j = 0; j < 5; j++) {
+                cache.get(i);
+            }
+        }
+        nanoTime = TTL.toNanos();
+        cache.put(3, () -> "three", cache.stamp(3));
+        assertEquals(Optional.of("three"), cache.get(3));
+        assertEquals(3, cache.size());
+        assertEquals(1, cache.getEvictionCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIllegalMaxSize() {
+        new EntityCacheImpl<>(0, TTL);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIllegalTtl() {
+        new EntityCacheImpl<>(1, Duration.ZERO);
+    }
+}
@@ -0,0 +1,136 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.manager.sql;
+
+import com.speedment.runtime.core.db.SqlFunction;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.InputStream;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ *
+ * @author agent
+ */
+public final class ResultSetSnapshotTest {
+
+    private static final SqlFunction<ResultSet, Row> MAPPER = rs -> {
+        final Row row = new Row();
+        row.id = rs.getLong(1);
+        row.name = rs.getString(2);
+        row.nameWasNull = rs.wasNull();
+        row.data = rs.getBytes(3);
+        row.created = rs.getTimestamp(4);
+        return row;
+    };
+
+    private ResultSet resultSet;
+
+    @Before
+    public void setUp() throws SQLException {
+        resultSet = mock(ResultSet.class);
+        when(resultSet.getLong(1)).thenReturn(42L);
+        when(resultSet.getString(2)).thenReturn(null);
+        when(resultSet.wasNull()).thenReturn(true);
+        when(resultSet.getBytes(3)).thenReturn(new byte[]{1, 2, 3});
+        when(resultSet.getTimestamp(4)).thenReturn(new Timestamp(1_000L));
+    }
+
+    @Test
+    public void testReplayCreatesNewEntities() throws SQLException {
+        final ResultSetSnapshot.Recording<Row> recording = ResultSetSnapshot.record(resultSet, MAPPER);
+        final ResultSetSnapshot snapshot = recording.getSnapshot().get();
+
+        final Row first = snapshot.replay(MAPPER);
+        final Row second = snapshot.replay(MAPPER);
+        assertNotSame(recording.getEntity(), first);
+        assertNotSame(first, second);
+
+        assertEquals(42L, first.id);
+        assertNull(first.name);
+        assertTrue(first.nameWasNull);
+        assertArrayEquals(new byte[]{1, 2, 3}, first.data);
+        assertEquals(new Timestamp(1_000L), first.created);
+    }
+
+    @Test
+    public void testReplayCopiesMutableValues() throws SQLException {
+        final ResultSetSnapshot.Recording<Row> recording = ResultSetSnapshot.record(resultSet, MAPPER);
+        final ResultSetSnapshot snapshot = recording.getSnapshot().get();
+
+        recording.getEntity().data[0] = 9;
+        recording.getEntity().created.setTime(2_000L);
+
+        final Row first = snapshot.replay(MAPPER);
+        first.data[1] = 9;
+        first.created.setTime(3_000L);
+
+        final Row second = snapshot.replay(MAPPER);
+        assertArrayEquals(new byte[]{1, 2, 3}, second.data);
+        assertEquals(new Timestamp(1_000L), second.created);
+    }
+
+    @Test
+    public void testStreamsAreNotReplayable() throws SQLException {
+        final InputStream stream = mock(InputStream.class);
+        when(resultSet.getBinaryStream(1)).thenReturn(stream);
+
+        final ResultSetSnapshot.Recording<InputStream> recording =
+            ResultSetSnapshot.record(resultSet, rs -> rs.getBinaryStream(1));
+        assertSame(stream, recording.getEntity());
+        assertFalse(recording.getSnapshot().isPresent());
+    }
+
+    @Test
+    public void testLabelGettersAreNotReplayable() throws SQLException {
+        when(resultSet.getString("name")).thenReturn("Olle");
+
+        final ResultSetSnapshot.Recording<String> recording =
+            ResultSetSnapshot.record(resultSet, rs -> rs.getString("name"));
+        assertEquals("Olle", recording.getEntity());
+        assertFalse(recording.getSnapshot().isPresent());
+    }
+
+    @Test(expected = SQLException.class)
+    public void testReplayOtherColumn() throws SQLException {
+        ResultSetSnapshot.record(resultSet, rs -> rs.getLong(1))
+            .getSnapshot().get()
+            .replay(rs -> rs.getLong(2));
+    }
+
+    private static final class Row {
+
+        private long id;
+        private String name;
+        private boolean nameWasNull;
+        private byte[] data;
+        private Timestamp created;
+    }
+}
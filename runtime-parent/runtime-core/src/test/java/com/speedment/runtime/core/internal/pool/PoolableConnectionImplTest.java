@@ -0,0 +1,176 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.pool;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ *
+ * @author agent
+ */
+public class PoolableConnectionImplTest {
+
+    private Connection raw;
+    private PoolableConnectionImpl connection;
+
+    @Before
+    public void setUp() throws SQLException {
+        raw = mock(Connection.class);
+        when(raw.prepareStatement(anyString())).thenAnswer(i -> mock(PreparedStatement.class));
+        when(raw.prepareStatement(anyString(), anyInt())).thenAnswer(i -> mock(PreparedStatement.class));
+        connection = new PoolableConnectionImpl("uri", "user", null, raw, Long.MAX_VALUE, 2);
+    }
+
+    @Test
+    public void testReuse() throws SQLException {
+        final PreparedStatement first = connection.prepareStatement("SELECT 1");
+        first.close();
+        final PreparedStatement second = connection.prepareStatement("SELECT 1");
+        assertSame(first, second);
+        assertFalse(second.isClosed());
+        verify(raw, times(1)).prepareStatement("SELECT 1");
+        assertEquals(1, connection.getStatementCacheHits());
+        assertEquals(1, connection.getStatementCacheMisses());
+    }
+
+    @Test
+    public void testGeneratedKeysIsSeparateKey() throws SQLException {
+        connection.prepareStatement("INSERT").close();
+        connection.prepareStatement("INSERT", Statement.RETURN_GENERATED_KEYS).close();
+        verify(raw, times(1)).prepareStatement("INSERT");
+        verify(raw, times(1)).prepareStatement("INSERT", Statement.RETURN_GENERATED_KEYS);
+        assertEquals(0, connection.getStatementCacheHits());
+    }
+
+    @Test
+    public void testInUseIsNotShared() throws SQLException {
+        final PreparedStatement first = connection.prepareStatement("SELECT 1");
+        final PreparedStatement second = connection.prepareStatement("SELECT 1");
+        assertNotSame(first, second);
+        second.close();
+        first.close();
+        assertSame(first, connection.prepareStatement("SELECT 1"));
+    }
+
+    @Test
+    public void testEviction() throws SQLException {
+        final PreparedStatement a = connection.prepareStatement("A");
+        final PreparedStatement underlying = ((CachedPreparedStatement) a).statement;
+        a.close();
+        connection.prepareStatement("B").close();
+        verify(underlying, never()).close();
+        connection.prepareStatement("C").close();
+        verify(underlying).close();
+        final PreparedStatement a2 = connection.prepareStatement("A");
+        assertNotSame(a, a2);
+        verify(raw, times(2)).prepareStatement("A");
+    }
+
+    @Test
+    public void testCloseClosesOpenResultSet() throws SQLException {
+        final PreparedStatement statement = connection.prepareStatement("SELECT 1");
+        final PreparedStatement underlying = ((CachedPreparedStatement) statement).statement;
+        final ResultSet rs = mock(ResultSet.class);
+        when(underlying.executeQuery()).thenReturn(rs);
+        assertSame(rs, statement.executeQuery());
+        statement.close();
+        verify(rs).close();
+        verify(underlying, never()).close();
+        assertSame(statement, connection.prepareStatement("SELECT 1"));
+    }
+
+    @Test
+    public void testCloseClosesCurrentResultSet() throws SQLException {
+        final PreparedStatement statement = connection.prepareStatement("SELECT 1");
+        final PreparedStatement underlying = ((CachedPreparedStatement) statement).statement;
+        final ResultSet rs = mock(ResultSet.class);
+        when(underlying.execute()).thenReturn(true);
+        when(underlying.getResultSet()).thenReturn(rs);
+        statement.execute();
+        statement.close();
+        verify(rs).close();
+        verify(underlying, never()).close();
+    }
+
+    @Test
+    public void testCloseClearsBatch() throws SQLException {
+        final PreparedStatement statement = connection.prepareStatement("INSERT");
+        final PreparedStatement underlying = ((CachedPreparedStatement) statement).statement;
+        final AtomicInteger batchSize = new AtomicInteger();
+        doAnswer(i -> batchSize.incrementAndGet()).when(underlying).addBatch();
+        doAnswer(i -> {
+            batchSize.set(0);
+            return null;
+        }).when(underlying).clearBatch();
+        when(underlying.executeBatch()).thenAnswer(i -> new int[batchSize.getAndSet(0)]);
+
+        statement.addBatch(); // The batch fails before it is executed
+        statement.close();
+
+        final PreparedStatement reused = connection.prepareStatement("INSERT");
+        assertSame(statement, reused);
+        assertEquals(0, reused.executeBatch().length);
+    }
+
+    @Test
+    public void testCloseResetsSettings() throws SQLException {
+        final PreparedStatement prepared = mock(PreparedStatement.class);
+        when(prepared.getFetchDirection()).thenReturn(ResultSet.FETCH_FORWARD);
+        when(raw.prepareStatement("SELECT 2")).thenReturn(prepared);
+        final PreparedStatement statement = connection.prepareStatement("SELECT 2");
+        final PreparedStatement underlying = ((CachedPreparedStatement) statement).statement;
+        when(underlying.getFetchDirection()).thenReturn(ResultSet.FETCH_REVERSE);
+        when(underlying.getMaxFieldSize()).thenReturn(10);
+        statement.setEscapeProcessing(false);
+        statement.close();
+        verify(underlying).setFetchDirection(ResultSet.FETCH_FORWARD);
+        verify(underlying).setMaxFieldSize(0);
+        verify(underlying).setEscapeProcessing(true);
+    }
+
+    @Test
+    public void testRawCloseClosesCachedStatements() throws SQLException {
+        final PreparedStatement statement = connection.prepareStatement("SELECT 1");
+        final PreparedStatement underlying = ((CachedPreparedStatement) statement).statement;
+        statement.close();
+        verify(underlying, never()).close();
+        connection.rawClose();
+        verify(underlying).close();
+    }
+
+    @Test
+    public void testDisabled() throws SQLException {
+        final PoolableConnectionImpl uncached = new PoolableConnectionImpl("uri", "user", null, raw, Long.MAX_VALUE);
+        final PreparedStatement first = uncached.prepareStatement("SELECT 1");
+        first.close();
+        verify(first).close();
+        assertNotSame(first, uncached.prepareStatement("SELECT 1"));
+    }
+}
@@ -0,0 +1,198 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.stream;
+
+import com.speedment.runtime.core.exception.SpeedmentException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import static java.util.stream.Collectors.toList;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ *
+ * @author agent
+ */
+public class PrefetchingIteratorTest {
+
+    @Test
+    public void testEmpty() {
+        final PrefetchingIterator<Integer> it = new PrefetchingIterator<>(Collections.emptyIterator(), 10);
+        assertFalse(it.hasNext());
+        assertFalse(it.hasNext());
+        it.close();
+    }
+
+    @Test
+    public void testOrder() {
+        for (int bufferSize : new int[]{1, 3, 64, 1000}) {
+            final List<Integer> expected = IntStream.range(0, 1000).boxed().collect(toList());
+            final PrefetchingIterator<Integer> it = new PrefetchingIterator<>(expected.iterator(), bufferSize);
+            final List<Integer> actual = new ArrayList<>();
+            it.forEachRemaining(actual::add);
+            it.close();
+            assertEquals(expected, actual);
+        }
+    }
+
+    @Test(timeout = 10_000)
+    public void testBoundedReadAhead() throws InterruptedException {
+        for (int bufferSize : new int[]{1, 2, 8, 1000}) {
+            final AtomicInteger produced = new AtomicInteger();
+            // One consumed element and a full buffer
+            final CountDownLatch bufferFull = new CountDownLatch(bufferSize + 1);
+            final PrefetchingIterator<Integer> it = new PrefetchingIterator<>(infinite(produced, bufferFull), bufferSize);
+            assertEquals(0, produced.get());
+            assertEquals(1, (int) it.next());
+            bufferFull.await();
+            // Close waits for the reader so nothing is read after this
+            it.close();
+            assertEquals(bufferSize + 1, produced.get());
+            assertFalse(it.hasNext());
+        }
+    }
+
+    @Test(timeout = 10_000)
+    public void testCloseAbortsBlockedRead() throws InterruptedException {
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final CountDownLatch aborted = new CountDownLatch(1);
+        final Iterator<Integer> source = new Iterator<Integer>() {
+            private int i;
+
+            @Override
+            public boolean hasNext() {
+                if (i == 2) {
+                    // Like a ResultSet waiting for the database
+                    blocked.countDown();
+                    try {
+                        aborted.await();
+                    } catch (InterruptedException ie) {
+                        throw new AssertionError(ie);
+                    }
+                    throw new SpeedmentException("Cancelled");
+                }
+                return true;
+            }
+
+            @Override
+            public Integer next() {
+                return ++i;
+            }
+        };
+        final PrefetchingIterator<Integer> it = new PrefetchingIterator<>(source, 2, aborted::countDown);
+        assertEquals(1, (int) it.next());
+        blocked.await();
+        it.close();
+        assertEquals(0, aborted.getCount());
+        assertFalse(it.readerThread().isAlive());
+        assertFalse(it.hasNext());
+    }
+
+    @Test
+    public void testNoAbortWhenReaderIsDone() {
+        final AtomicInteger aborted = new AtomicInteger();
+        final PrefetchingIterator<Integer> it = new PrefetchingIterator<>(Collections.singletonList(1).iterator(), 10, aborted::incrementAndGet);
+        assertEquals(1, (int) it.next());
+        assertFalse(it.hasNext());
+        it.close();
+        assertEquals(0, aborted.get());
+    }
+
+    @Test(timeout = 30_000)
+    public void testAbandonedReaderStops() throws InterruptedException {
+        PrefetchingIterator<Integer> it = new PrefetchingIterator<>(infinite(new AtomicInteger()), 1);
+        assertEquals(1, (int) it.next());
+        final Thread reader = it.readerThread();
+        it = null; // Abandoned without being closed
+        while (reader.isAlive()) {
+            System.gc();
+            reader.join(100);
+        }
+    }
+
+    @Test
+    public void testSourceException() {
+        final Iterator<Integer> source = new Iterator<Integer>() {
+            private int i;
+
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public Integer next() {
+                if (i == 3) {
+                    throw new SpeedmentException("Broken row");
+                }
+                return ++i;
+            }
+        };
+        final PrefetchingIterator<Integer> it = new PrefetchingIterator<>(source, 1);
+        assertEquals(1, (int) it.next());
+        assertEquals(2, (int) it.next());
+        assertEquals(3, (int) it.next());
+        try {
+            it.next();
+            fail("Expected an exception from the source");
+        } catch (SpeedmentException e) {
+            assertEquals("Broken row", e.getMessage());
+        }
+        assertFalse(it.hasNext());
+        it.close();
+    }
+
+    @Test
+    public void testCloseBeforeStart() {
+        final AtomicInteger produced = new AtomicInteger();
+        final PrefetchingIterator<Integer> it = new PrefetchingIterator<>(infinite(produced), 10);
+        it.close();
+        assertFalse(it.hasNext());
+        assertEquals(0, produced.get());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIllegalBufferSize() {
+        new PrefetchingIterator<>(Collections.emptyIterator(), 0);
+    }
+
+    private static Iterator<Integer> infinite(AtomicInteger produced) {
+        return infinite(produced, new CountDownLatch(0));
+    }
+
+    private static Iterator<Integer> infinite(AtomicInteger produced, CountDownLatch latch) {
+        return new Iterator<Integer>() {
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public Integer next() {
+                latch.countDown();
+                return produced.incrementAndGet();
+            }
+        };
+    }
+
+}
@@ -118,6 +118,51 @@ public class ResultSetIteratorTest {
         }
     }
 
+    @Test
+    public void testOnExhausted() {
+        final AtomicInteger exhausted = new AtomicInteger(0);
+        final StreamUtil.ResultSetIterator<Integer> it
+            = new StreamUtil.ResultSetIterator<>(new MockResultSet(2), RS_MAPPER, exhausted::incrementAndGet);
+
+        assertTrue(it.hasNext());
+        assertEquals((Integer) 1, it.next());
+        assertEquals(0, exhausted.get());
+        assertTrue(it.hasNext());
+        assertEquals((Integer) 2, it.next());
+        assertEquals(0, exhausted.get());
+        assertFalse(it.hasNext());
+        assertEquals(1, exhausted.get());
+        assertFalse(it.hasNext());
+        assertEquals(1, exhausted.get());
+    }
+
+    @Test
+    public void testOnExhaustedForEachRemaining() {
+        final AtomicInteger exhausted = new AtomicInteger(0);
+        final StreamUtil.ResultSetIterator<Integer> it
+            = new StreamUtil.ResultSetIterator<>(new MockResultSet(SIZE), RS_MAPPER, exhausted::incrementAndGet);
+
+        it.forEachRemaining(rsInt -> {});
+        assertEquals(1, exhausted.get());
+    }
+
+    @Test
+    public void testNotExhaustedWhenAborted() {
+        final AtomicInteger exhausted = new AtomicInteger(0);
+        final StreamUtil.ResultSetIterator<Integer> it
+            = new StreamUtil.ResultSetIterator<>(new MockResultSet(SIZE), RS_MAPPER, exhausted::incrementAndGet);
+
+        try {
+            it.forEachRemaining(rsInt -> {
+                throw new IllegalStateException();
+            });
+            fail("Expected an exception");
+        } catch (IllegalStateException expected) {
+            // Expected
+        }
+        assertEquals(0, exhausted.get());
+    }
+
     private static final class MockResultSet implements ResultSet {
 
         private int itemsLeft;
@@ -0,0 +1,69 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author agent
+ */
+public class ClockCacheTest {
+
+    @Test
+    public void testGetAndPut() {
+        final ClockCache<String, Integer> cache = new ClockCache<>(2);
+        assertNull(cache.get("a"));
+        cache.put("a", 1);
+        cache.put("a", 2);
+        assertEquals(Integer.valueOf(2), cache.get("a"));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsed() {
+        final ClockCache<String, Integer> cache = new ClockCache<>(2);
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.get("a");
+        cache.put("c", 3);
+        assertEquals(2, cache.size());
+        assertEquals(Integer.valueOf(1), cache.get("a"));
+        assertNull(cache.get("b"));
+        assertEquals(Integer.valueOf(3), cache.get("c"));
+    }
+
+    @Test
+    public void testBounded() {
+        final ClockCache<Integer, Integer> cache = new ClockCache<>(16);
+        for (int i = 0; i < 1000; i++) {
+            cache.put(i, i);
+            cache.get(i % 4);
+        }
+        assertEquals(16, cache.size());
+        for (int i = 0; i < 4; i++) {
+            assertEquals(Integer.valueOf(i), cache.get(i));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIllegalSize() {
+        new ClockCache<>(0);
+    }
+}
@@ -0,0 +1,323 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.manager.sql;
+
+import com.speedment.runtime.config.identifier.ColumnIdentifier;
+import com.speedment.runtime.core.component.sql.SqlStreamOptimizerInfo;
+import com.speedment.runtime.core.db.AsynchronousQueryResult;
+import com.speedment.runtime.core.db.SqlFunction;
+import com.speedment.runtime.core.internal.component.sql.SqlStreamOptimizerComponentImpl;
+import com.speedment.runtime.core.internal.component.sql.override.SqlStreamTerminatorComponentImpl;
+import com.speedment.runtime.core.internal.manager.sql.SqlStreamTerminator;
+import com.speedment.runtime.core.internal.stream.builder.action.reference.FilterAction;
+import com.speedment.runtime.core.internal.stream.builder.action.reference.LimitAction;
+import com.speedment.runtime.core.internal.stream.builder.action.reference.MapToIntAction;
+import com.speedment.runtime.core.internal.stream.builder.action.reference.SortedComparatorAction;
+import com.speedment.runtime.core.internal.stream.builder.pipeline.IntPipeline;
+import com.speedment.runtime.core.internal.stream.builder.pipeline.PipelineImpl;
+import com.speedment.runtime.core.internal.stream.builder.pipeline.ReferencePipeline;
+import com.speedment.runtime.core.stream.action.Action;
+import com.speedment.runtime.test_support.MockDbmsType;
+import com.speedment.runtime.test_support.MockEntity;
+import com.speedment.runtime.test_support.MockEntityUtil;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.OptionalInt;
+import java.util.stream.Stream;
+import static org.junit.Assert.*;
+import org.junit.Before;
+import org.junit.Test;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ *
+ * @author agent
+ */
+public class SqlStreamTerminatorAggregateTest {
+
+    private static final String SELECT_SQL = "SELECT id,name FROM mock_entity";
+    private static final String SELECT_COUNT_SQL = "SELECT COUNT(*) FROM mock_entity";
+    private static final int ELEMENTS = 10;
+
+    private ResultSet resultSet;
+    private String countSql;
+    private long countResult;
+    private MockQueryResult query;
+    private SqlStreamTerminator<MockEntity> terminator;
+
+    @Before
+    public void setUp() {
+        resultSet = mock(ResultSet.class);
+        setUp(new MockQueryResult(true));
+    }
+
+    private void setUp(MockQueryResult query) {
+        this.query = query;
+        final SqlStreamOptimizerInfo<MockEntity> info = SqlStreamOptimizerInfo.of(
+            new MockDbmsType(),
+            SELECT_SQL,
+            SELECT_COUNT_SQL,
+            (sql, l) -> {
+                countSql = sql;
+                return countResult;
+            },
+            f -> f.identifier().getColumnId(),
+            f -> f == MockEntity.ID ? Integer.class : String.class,
+            "mock_entity"
+        );
+        terminator = new SqlStreamTerminator<>(
+            info,
+            query,
+            new SqlStreamOptimizerComponentImpl(),
+            new SqlStreamTerminatorComponentImpl(),
+            true
+        );
+    }
+
+    @Test
+    public void testSum() throws SQLException {
+        when(resultSet.getLong(1)).thenReturn(42L);
+        final int sum = terminator.sum(intPipelineOf(
+            new FilterAction<>(MockEntity.NAME.equal("a")),
+            new MapToIntAction<>(MockEntity.ID)
+        ));
+        assertEquals(42, sum);
+        assertTrue(query.getSql(), query.getSql().startsWith("SELECT SUM(id) FROM mock_entity WHERE "));
+        assertEquals(1, query.getValues().size());
+        assertEquals(Optional.of(MockEntity.ID.identifier()), query.getProjection());
+    }
+
+    @Test
+    public void testSumWithoutRecordedProjection() {
+        // The SQL is projected but the query result does not know about it
+        setUp(new MockQueryResult(false));
+        try {
+            terminator.sum(intPipelineOf(
+                new FilterAction<>(MockEntity.NAME.equal("a")),
+                new MapToIntAction<>(MockEntity.ID)
+            ));
+        } catch (ClassCastException ignored) {
+            // The fallback reads entities from the source of the test pipeline
+            // rather than the column values of the (projected) query
+        }
+        assertTrue(query.getSql(), query.getSql().startsWith("SELECT id FROM mock_entity WHERE "));
+    }
+
+    @Test
+    public void testMaxWithLimit() throws SQLException {
+        when(resultSet.getInt(1)).thenReturn(7);
+        final OptionalInt max = terminator.max(intPipelineOf(
+            new LimitAction<>(5),
+            new MapToIntAction<>(MockEntity.ID)
+        ));
+        assertEquals(OptionalInt.of(7), max);
+        assertTrue(query.getSql(), query.getSql().startsWith("SELECT MAX(id) FROM (SELECT id FROM mock_entity"));
+    }
+
+    @Test
+    public void testMinEmpty() throws SQLException {
+        when(resultSet.getInt(1)).thenReturn(0);
+        when(resultSet.wasNull()).thenReturn(true);
+        assertEquals(OptionalInt.empty(), terminator.min(intPipelineOf(new MapToIntAction<>(MockEntity.ID))));
+        assertEquals("SELECT MIN(id) FROM mock_entity", query.getSql());
+    }
+
+    @Test
+    public void testAverage() throws SQLException {
+        when(resultSet.getLong(1)).thenReturn(4L);
+        when(resultSet.getDouble(2)).thenReturn(10d);
+        assertEquals(OptionalDouble.of(2.5), terminator.average(intPipelineOf(new MapToIntAction<>(MockEntity.ID))));
+        assertEquals("SELECT COUNT(*), SUM(id) FROM mock_entity", query.getSql());
+    }
+
+    @Test
+    public void testSumFallback() {
+        final int sum = terminator.sum(intPipelineOf(new MapToIntAction<>(MockEntity::getId)));
+        assertEquals(ELEMENTS * (ELEMENTS - 1) / 2, sum);
+        assertEquals(SELECT_SQL, query.getSql());
+    }
+
+    @Test
+    public void testMaxFieldComparator() {
+        final Optional<MockEntity> max = terminator.max(
+            referencePipelineOf(new FilterAction<>(MockEntity.NAME.equal("a"))),
+            MockEntity.ID.comparator()
+        );
+        assertTrue(max.isPresent());
+        assertTrue(query.getSql(), query.getSql().contains(" ORDER BY id DESC"));
+    }
+
+    @Test
+    public void testAnyMatch() {
+        assertTrue(terminator.anyMatch(
+            referencePipelineOf(new SortedComparatorAction<>(MockEntity.NAME.comparator())),
+            MockEntity.NAME.equal("a")
+        ));
+        assertTrue(query.getSql(), query.getSql().startsWith("SELECT 1 FROM mock_entity WHERE "));
+        assertTrue(query.getSql(), query.getSql().contains(" LIMIT "));
+        assertFalse("Sort order is irrelevant for existence", query.getSql().contains(" ORDER BY "));
+        assertNull(countSql);
+    }
+
+    @Test
+    public void testNoneMatch() {
+        query.rows = 0;
+        assertTrue(terminator.noneMatch(referencePipelineOf(), MockEntity.NAME.equal("a")));
+        assertTrue(query.getSql(), query.getSql().startsWith("SELECT 1 FROM mock_entity WHERE "));
+        assertTrue(query.getSql(), query.getSql().contains(" LIMIT "));
+    }
+
+    @Test
+    public void testAllMatch() {
+        query.rows = 0;
+        assertTrue(terminator.allMatch(referencePipelineOf(), MockEntity.ID.greaterThan(-1)));
+        assertTrue(query.getSql(), query.getSql().contains(" WHERE "));
+        assertTrue(query.getSql(), query.getSql().contains(" LIMIT "));
+    }
+
+    @Test
+    public void testAllMatchNullable() {
+        // The database holds a row where name is NULL
+        assertFalse(terminator.allMatch(referencePipelineOf(), MockEntity.NAME.greaterThan("a")));
+        assertTrue(query.getSql(), query.getSql().contains("(name <= ?"));
+        assertTrue(query.getSql(), query.getSql().contains("(name IS NULL)"));
+    }
+
+    @Test
+    public void testAnyMatchFallback() {
+        assertTrue(terminator.anyMatch(referencePipelineOf(), e -> e.getId() == 3));
+        assertNull(countSql);
+        assertEquals(SELECT_SQL, query.getSql());
+    }
+
+    @Test
+    public void testFindFirst() {
+        final Optional<MockEntity> first = terminator.findFirst(
+            referencePipelineOf(new FilterAction<>(MockEntity.NAME.equal("a")))
+        );
+        assertTrue(first.isPresent());
+        assertTrue(query.getSql(), query.getSql().contains(" LIMIT "));
+    }
+
+    @Test
+    public void testFindAny() {
+        assertTrue(terminator.findAny(referencePipelineOf()).isPresent());
+        assertTrue(query.getSql(), query.getSql().contains(" LIMIT "));
+    }
+
+    @Test
+    public void testPartialPredicatePushdown() {
+        final Optional<MockEntity> first = terminator.findFirst(referencePipelineOf(
+            new FilterAction<MockEntity>(e -> e.getId() >= 0),
+            new FilterAction<>(MockEntity.NAME.equal("a").and(e -> e.getId() >= 0))
+        ));
+        assertTrue(first.isPresent());
+        assertTrue(query.getSql(), query.getSql().startsWith(SELECT_SQL + " WHERE "));
+        assertEquals(1, query.getValues().size());
+    }
+
+    private IntPipeline intPipelineOf(Action<?, ?>... actions) {
+        return pipelineOf(actions);
+    }
+
+    private ReferencePipeline<MockEntity> referencePipelineOf(Action<?, ?>... actions) {
+        return pipelineOf(actions);
+    }
+
+    private PipelineImpl<MockEntity> pipelineOf(Action<?, ?>... actions) {
+        final PipelineImpl<MockEntity> pipeline = new PipelineImpl<>(() -> MockEntityUtil.stream(ELEMENTS));
+        Stream.of(actions).forEachOrdered(pipeline::add);
+        return pipeline;
+    }
+
+    private final class MockQueryResult implements AsynchronousQueryResult<MockEntity> {
+
+        private final boolean tracksProjection;
+        private ColumnIdentifier<?> projection;
+        private int rows = 1;
+        private String sql = SELECT_SQL;
+        private List<?> values = new ArrayList<>();
+        private SqlFunction<ResultSet, MockEntity> rsMapper = rs -> new MockEntity(1);
+
+        private MockQueryResult(boolean tracksProjection) {
+            this.tracksProjection = tracksProjection;
+        }
+
+        @Override
+        public Stream<MockEntity> stream() {
+            if (rows == 0) {
+                return Stream.empty();
+            }
+            try {
+                return Stream.of(rsMapper.apply(resultSet));
+            } catch (SQLException sqle) {
+                throw new RuntimeException(sqle);
+            }
+        }
+
+        @Override
+        public void close() {}
+
+        @Override
+        public String getSql() {
+            return sql;
+        }
+
+        @Override
+        public void setSql(String sql) {
+            this.sql = sql;
+        }
+
+        @Override
+        public List<?> getValues() {
+            return values;
+        }
+
+        @Override
+        public void setValues(List<?> values) {
+            this.values = values;
+        }
+
+        @Override
+        public SqlFunction<ResultSet, MockEntity> getRsMapper() {
+            return rsMapper;
+        }
+
+        @Override
+        public void setRsMapper(SqlFunction<ResultSet, MockEntity> rsMapper) {
+            this.rsMapper = rsMapper;
+        }
+
+        @Override
+        public Optional<ColumnIdentifier<?>> getProjection() {
+            return Optional.ofNullable(projection);
+        }
+
+        @Override
+        public void setProjection(ColumnIdentifier<?> projection) {
+            if (tracksProjection) {
+                this.projection = projection;
+            }
+        }
+    }
+
+}
@@ -19,27 +19,35 @@ package com.speedment.runtime.core.manager.sql;
 import com.speedment.runtime.core.component.sql.SqlStreamOptimizerInfo;
 import com.speedment.runtime.core.db.AsynchronousQueryResult;
 import com.speedment.runtime.core.db.DbmsType;
+import com.speedment.runtime.core.db.SqlFunction;
 import com.speedment.runtime.core.internal.component.sql.SqlStreamOptimizerComponentImpl;
 import com.speedment.runtime.core.internal.component.sql.override.SqlStreamTerminatorComponentImpl;
 import com.speedment.runtime.core.internal.db.AsynchronousQueryResultImpl;
+import com.speedment.runtime.core.internal.manager.EntityCacheImpl;
 import com.speedment.runtime.core.internal.manager.sql.SqlStreamTerminator;
 import com.speedment.runtime.core.internal.stream.builder.action.reference.FilterAction;
 import com.speedment.runtime.core.internal.stream.builder.action.reference.MapAction;
 import com.speedment.runtime.core.internal.stream.builder.pipeline.PipelineImpl;
 import com.speedment.runtime.core.internal.stream.builder.pipeline.ReferencePipeline;
+import com.speedment.runtime.core.manager.EntityCache;
 import com.speedment.runtime.core.stream.action.Action;
 import com.speedment.runtime.core.stream.parallel.ParallelStrategy;
 import com.speedment.runtime.test_support.MockDbmsType;
 import com.speedment.runtime.test_support.MockEntity;
 import com.speedment.runtime.test_support.MockEntityUtil;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
 import java.util.ArrayList;
 import static java.util.Collections.singletonList;
 import java.util.List;
+import java.util.Optional;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
 import java.util.stream.BaseStream;
 import java.util.stream.Stream;
 import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertNotSame;
 import static junit.framework.TestCase.assertNull;
 import org.junit.Test;
 import static org.mockito.Mockito.mock;
@@ -91,17 +99,115 @@ public class SqlStreamTerminatorTest {
         assertNull(lastCountingValues);
     }
 
+    @Test
+    public void testFindAnyByPrimaryKeyIsCached() {
+        final EntityCache<MockEntity> entityCache = new EntityCacheImpl<>(100, Duration.ofMinutes(1));
+        final int[] queries = {0};
+
+        final Optional<MockEntity> first = findAnyOf(entityCache, queries, new FilterAction<>(MockEntity.ID.equal(42)));
+        assertEquals(42, first.get().getId());
+        assertEquals(1, queries[0]);
+        assertEquals(0, entityCache.getHitCount());
+        assertEquals(1, entityCache.getMissCount());
+
+        final Optional<MockEntity> second = findAnyOf(entityCache, queries, new FilterAction<>(MockEntity.ID.equal(42)));
+        assertEquals(42, second.get().getId());
+        assertEquals("Forty-two", second.get().getName());
+        assertEquals(1, queries[0]); // Served by the cache
+        assertEquals(1, entityCache.getHitCount());
+
+        entityCache.invalidate(42);
+        findAnyOf(entityCache, queries, new FilterAction<>(MockEntity.ID.equal(42)));
+        assertEquals(2, queries[0]);
+    }
+
+    @Test
+    public void testFindAnyByPrimaryKeyReturnsNewEntities() {
+        final EntityCache<MockEntity> entityCache = new EntityCacheImpl<>(100, Duration.ofMinutes(1));
+        final int[] queries = {0};
+
+        final MockEntity first = findAnyOf(entityCache, queries, new FilterAction<>(MockEntity.ID.equal(42))).get();
+        first.setName("Changed");
+
+        final MockEntity second = findAnyOf(entityCache, queries, new FilterAction<>(MockEntity.ID.equal(42))).get();
+        final MockEntity third = findAnyOf(entityCache, queries, new FilterAction<>(MockEntity.ID.equal(42))).get();
+        assertEquals(1, queries[0]); // Served by the cache
+        assertNotSame(first, second);
+        assertNotSame(second, third);
+        assertEquals("Forty-two", second.getName());
+
+        second.setName("Changed again");
+        assertEquals("Forty-two", third.getName());
+    }
+
+    @Test
+    public void testFindAnyByOtherPredicateIsNotCached() {
+        final EntityCache<MockEntity> entityCache = new EntityCacheImpl<>(100, Duration.ofMinutes(1));
+        final int[] queries = {0};
+
+        findAnyOf(entityCache, queries, new FilterAction<>(MockEntity.NAME.equal("42")));
+        findAnyOf(entityCache, queries, new FilterAction<>(MockEntity.ID.greaterThan(41)));
+        findAnyOf(entityCache, queries, new FilterAction<>(MockEntity.ID.equal(42).or(MockEntity.ID.equal(43))));
+        assertEquals(3, queries[0]);
+        assertEquals(0, entityCache.size());
+        assertEquals(0, entityCache.getMissCount());
+    }
+
+    private Optional<MockEntity> findAnyOf(EntityCache<MockEntity> entityCache, int[] queries, Action<?, ?> action) {
+        final AsynchronousQueryResult<MockEntity> asynchronousQueryResult = createAsynchronousQueryResult(
+            rs -> new MockEntity(rs.getInt(1)).setName(rs.getString(2))
+        );
+        final SqlStreamTerminator<MockEntity> terminator = new SqlStreamTerminator<>(
+            createInfo(),
+            asynchronousQueryResult,
+            new SqlStreamOptimizerComponentImpl(),
+            new SqlStreamTerminatorComponentImpl(),
+            true,
+            entityCache,
+            MockEntity.ID
+        );
+
+        @SuppressWarnings("unchecked")
+        final ReferencePipeline<MockEntity> pipeline = new PipelineImpl<>(() -> {
+            queries[0]++;
+            try {
+                final ResultSet resultSet = mock(ResultSet.class);
+                when(resultSet.getInt(1)).thenReturn(42);
+                when(resultSet.getString(2)).thenReturn("Forty-two");
+                return Stream.of(asynchronousQueryResult.getRsMapper().apply(resultSet));
+            } catch (final SQLException ex) {
+                throw new RuntimeException(ex);
+            }
+        });
+        pipeline.add(action);
+        return terminator.findAny(pipeline);
+    }
+
     private String makeCountSql(String sql) {
         return "SELECT COUNT(*) FROM (" + sql + ") AS A";
     }
 
     private long countStreamOf(Action<?, ?> action) {
+        SqlStreamTerminator<MockEntity> terminator = new SqlStreamTerminator<>(
+            createInfo(),
+            createAsynchronousQueryResult(),
+            new SqlStreamOptimizerComponentImpl(),
+            new SqlStreamTerminatorComponentImpl(),
+            true
+        );
+        return terminator.count(createPipeline(action));
+    }
 
+    private AsynchronousQueryResult<MockEntity> createAsynchronousQueryResult() {
+        return createAsynchronousQueryResult(rs -> new MockEntity(1));
+    }
+
+    private AsynchronousQueryResult<MockEntity> createAsynchronousQueryResult(SqlFunction<ResultSet, MockEntity> rsMapper) {
         @SuppressWarnings("unchecked")
         final AsynchronousQueryResult<MockEntity> asynchronousQueryResult = new AsynchronousQueryResultImpl<>(
             SELECT_SQL,
             new ArrayList<>(),
-            rs -> new MockEntity(1),
+            rsMapper,
             () -> null, // getConnection()
             ParallelStrategy.computeIntensityDefault(),
             (ps) -> {
@@ -109,8 +215,11 @@ public class SqlStreamTerminatorTest {
             (rs) -> {
             }
         );
+        return asynchronousQueryResult;
+    }
 
-        final SqlStreamOptimizerInfo<MockEntity> info = SqlStreamOptimizerInfo.of(
+    private SqlStreamOptimizerInfo<MockEntity> createInfo() {
+        return SqlStreamOptimizerInfo.of(
             createDbmsType(),
             SELECT_SQL,
             SELECT_COUNT_SQL,
@@ -122,15 +231,6 @@ public class SqlStreamTerminatorTest {
             f -> f.identifier().getColumnId(),
             f -> Object.class
         );
-
-        SqlStreamTerminator<MockEntity> terminator = new SqlStreamTerminator<>(
-            info,
-            asynchronousQueryResult,
-            new SqlStreamOptimizerComponentImpl(),
-            new SqlStreamTerminatorComponentImpl(),
-            true
-        );
-        return terminator.count(createPipeline(action));
     }
 
     private ReferencePipeline<MockEntity> createPipeline(Action<?, ?> action) {
@@ -0,0 +1,135 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.util;
+
+import com.speedment.runtime.config.identifier.ColumnIdentifier;
+import com.speedment.runtime.core.manager.Manager;
+import com.speedment.runtime.core.manager.Page;
+import com.speedment.runtime.field.IntField;
+import com.speedment.runtime.test_support.MockEntity;
+import com.speedment.runtime.test_support.MockEntityUtil;
+import com.speedment.runtime.typemapper.TypeMapper;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+import static java.util.stream.Collectors.toList;
+import static org.junit.Assert.*;
+import org.junit.Before;
+import org.junit.Test;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ *
+ * @author agent
+ */
+public class KeysetPaginationUtilTest {
+
+    private static final int ELEMENTS = 10;
+
+    // A non-unique field with three entities per group
+    private static final IntField<MockEntity, Integer> GROUP = IntField.create(
+        ColumnIdentifier.of("db0", "speedment_test", "mock_entity", "grp"),
+        e -> e.getId() / 3,
+        (e, v) -> {},
+        TypeMapper.primitive(),
+        false
+    );
+
+    private Manager<MockEntity> manager;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        manager = mock(Manager.class);
+        when(manager.stream()).thenAnswer(i -> MockEntityUtil.stream(ELEMENTS));
+        when(manager.primaryKeyFields()).thenAnswer(i -> Stream.of(MockEntity.ID));
+    }
+
+    @Test
+    public void testFirstPage() {
+        final Page<MockEntity> page = KeysetPaginationUtil.page(manager, MockEntity.ID.comparator(), null, 4);
+        assertEquals(Arrays.asList(0, 1, 2, 3), ids(page.getContent()));
+        assertEquals(Arrays.asList(3), page.getNextKey().get());
+    }
+
+    @Test
+    public void testAllPages() {
+        assertEquals(
+            MockEntityUtil.stream(ELEMENTS).map(MockEntity::getId).collect(toList()),
+            allIds(MockEntity.ID.comparator(), 3)
+        );
+    }
+
+    @Test
+    public void testAllPagesReversed() {
+        assertEquals(
+            MockEntityUtil.stream(ELEMENTS).map(MockEntity::getId).sorted(Comparator.reverseOrder()).collect(toList()),
+            allIds(MockEntity.ID.comparator().reversed(), 4)
+        );
+    }
+
+    @Test
+    public void testPrimaryKeyTieBreaker() {
+        final Page<MockEntity> page = KeysetPaginationUtil.page(manager, GROUP.comparator().reversed(), null, 2);
+        assertEquals(Arrays.asList(9, 6), ids(page.getContent()));
+        assertEquals(Arrays.asList(2, 6), page.getNextKey().get());
+
+        final Page<MockEntity> next = KeysetPaginationUtil.page(manager, GROUP.comparator().reversed(), page.getNextKey().get(), 2);
+        assertEquals(Arrays.asList(7, 8), ids(next.getContent()));
+
+        assertEquals(
+            Arrays.asList(9, 6, 7, 8, 3, 4, 5, 0, 1, 2),
+            allIds(GROUP.comparator().reversed(), 2)
+        );
+    }
+
+    @Test
+    public void testLastPage() {
+        final Page<MockEntity> page = KeysetPaginationUtil.page(manager, MockEntity.ID.comparator(), Arrays.asList(7), 5);
+        assertEquals(Arrays.asList(8, 9), ids(page.getContent()));
+        assertFalse(page.getNextKey().isPresent());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testWrongKeySize() {
+        KeysetPaginationUtil.page(manager, MockEntity.ID.comparator(), Arrays.asList(1, 2), 5);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNonFieldComparator() {
+        KeysetPaginationUtil.page(manager, Comparator.comparing(MockEntity::getId), null, 5);
+    }
+
+    private List<Integer> allIds(Comparator<MockEntity> comparator, int pageSize) {
+        final List<Integer> result = new ArrayList<>();
+        Page<MockEntity> page = KeysetPaginationUtil.page(manager, comparator, null, pageSize);
+        result.addAll(ids(page.getContent()));
+        while (page.getNextKey().isPresent()) {
+            page = KeysetPaginationUtil.page(manager, comparator, page.getNextKey().get(), pageSize);
+            result.addAll(ids(page.getContent()));
+        }
+        return result;
+    }
+
+    private static List<Integer> ids(List<MockEntity> entities) {
+        return entities.stream().map(MockEntity::getId).collect(toList());
+    }
+
+}
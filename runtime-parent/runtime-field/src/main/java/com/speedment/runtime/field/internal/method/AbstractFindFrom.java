@@ -18,14 +18,25 @@ package com.speedment.runtime.field.internal.method;
 
 import com.speedment.runtime.config.identifier.TableIdentifier;
 import com.speedment.runtime.field.Field;
+import com.speedment.runtime.field.exception.SpeedmentFieldException;
 import com.speedment.runtime.field.method.FindFrom;
 import com.speedment.runtime.field.trait.HasComparableOperators;
 import com.speedment.runtime.field.trait.HasFinder;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiFunction;
 import java.util.function.Supplier;
+import java.util.stream.Collector;
 import java.util.stream.Stream;
 
+import static java.util.Collections.emptyMap;
 import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.toSet;
 
 /**
  *
@@ -79,4 +90,68 @@ abstract class AbstractFindFrom<
     protected final Stream<FK_ENTITY> stream() {
         return streamSupplier.get();
     }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The foreign entities of each chunk are fetched using a single stream
+     * filtered on the target field being in the set of referenced values.
+     * Chunks that reference more than 1000 distinct values are fetched
+     * using one stream per 1000 values, so that the number of parameters
+     * of each query stays within the limits of the database.
+     */
+    @Override
+    public <R> Collector<ENTITY, ?, List<R>> batch(
+            int batchSize,
+            BiFunction<? super ENTITY, ? super FK_ENTITY, ? extends R> mapper) {
+
+        requireNonNull(mapper);
+        return BatchCollector.of(batchSize, entities -> {
+            final Map<V, FK_ENTITY> fkEntities = findAll(entities);
+            final List<R> results = new ArrayList<>(entities.size());
+            for (final ENTITY entity : entities) {
+                final V value = sourceValueOf(entity);
+                final FK_ENTITY fkEntity = value == null ? null : fkEntities.get(value);
+                if (value != null && fkEntity == null) {
+                    throw new SpeedmentFieldException(
+                        "Error! Could not find any entities in table '" +
+                        getTableIdentifier() +
+                        "' with '" + target.identifier().getColumnId() +
+                        "' = '" + value + "'."
+                    );
+                }
+                results.add(mapper.apply(entity, fkEntity));
+            }
+            return results;
+        });
+    }
+
+    private Map<V, FK_ENTITY> findAll(List<ENTITY> entities) {
+        final Set<V> values = entities.stream()
+            .map(this::sourceValueOf)
+            .filter(Objects::nonNull)
+            .collect(toSet());
+
+        if (values.isEmpty()) {
+            return emptyMap();
+        }
+
+        final Map<V, FK_ENTITY> fkEntities = new HashMap<>();
+        for (final Set<V> chunk : BatchCollector.chunks(values)) {
+            try (Stream<FK_ENTITY> stream = stream().filter(target.in(chunk))) {
+                stream.forEachOrdered(fkEntity -> fkEntities.putIfAbsent(targetValueOf(fkEntity), fkEntity));
+            }
+        }
+        return fkEntities;
+    }
+
+    @SuppressWarnings("unchecked")
+    private V sourceValueOf(ENTITY entity) {
+        return (V) source.getter().apply(entity);
+    }
+
+    @SuppressWarnings("unchecked")
+    private V targetValueOf(FK_ENTITY fkEntity) {
+        return (V) target.getter().apply(fkEntity);
+    }
 }
\ No newline at end of file
@@ -22,10 +22,21 @@ import com.speedment.runtime.field.method.BackwardFinder;
 import com.speedment.runtime.field.trait.HasComparableOperators;
 import com.speedment.runtime.field.trait.HasFinder;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiFunction;
 import java.util.function.Supplier;
+import java.util.stream.Collector;
 import java.util.stream.Stream;
 
+import static java.util.Collections.emptyList;
+import static java.util.Collections.emptyMap;
 import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.toSet;
 
 /**
  *
@@ -80,4 +91,67 @@ implements BackwardFinder<ENTITY, FK_ENTITY> {
             return streamSupplier.get().filter(getField().equal(value));
         }
     }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The foreign entities of each chunk are fetched using a single stream
+     * filtered on the foreign key field being in the set of referenced
+     * values, and are then grouped by the value of the foreign key field.
+     * Chunks that reference more than 1000 distinct values are fetched
+     * using one stream per 1000 values, so that the number of parameters
+     * of each query stays within the limits of the database.
+     */
+    @Override
+    public <R> Collector<ENTITY, ?, List<R>> batch(
+            int batchSize,
+            BiFunction<? super ENTITY, ? super FK_ENTITY, ? extends R> mapper) {
+
+        requireNonNull(mapper);
+        return BatchCollector.of(batchSize, entities -> {
+            final Map<T, List<FK_ENTITY>> fkEntities = findAll(entities);
+            final List<R> results = new ArrayList<>();
+            for (final ENTITY entity : entities) {
+                final T value = referencedValueOf(entity);
+                if (value != null) {
+                    for (final FK_ENTITY fkEntity : fkEntities.getOrDefault(value, emptyList())) {
+                        results.add(mapper.apply(entity, fkEntity));
+                    }
+                }
+            }
+            return results;
+        });
+    }
+
+    private Map<T, List<FK_ENTITY>> findAll(List<ENTITY> entities) {
+        final Set<T> values = entities.stream()
+            .map(this::referencedValueOf)
+            .filter(Objects::nonNull)
+            .collect(toSet());
+
+        if (values.isEmpty()) {
+            return emptyMap();
+        }
+
+        final Map<T, List<FK_ENTITY>> fkEntities = new HashMap<>();
+        for (final Set<T> chunk : BatchCollector.chunks(values)) {
+            try (Stream<FK_ENTITY> stream = streamSupplier.get().filter(target.in(chunk))) {
+                stream.forEachOrdered(fkEntity -> fkEntities
+                    .computeIfAbsent(foreignKeyValueOf(fkEntity), value -> new ArrayList<>())
+                    .add(fkEntity)
+                );
+            }
+        }
+        return fkEntities;
+    }
+
+    @SuppressWarnings("unchecked")
+    private T referencedValueOf(ENTITY entity) {
+        return (T) target.getReferencedField().getter().apply(entity);
+    }
+
+    @SuppressWarnings("unchecked")
+    private T foreignKeyValueOf(FK_ENTITY fkEntity) {
+        return (T) target.getter().apply(fkEntity);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,148 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.field.internal.method;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collector;
+
+import static java.util.Collections.singletonList;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Utility for creating collectors that gather the entities of a stream in
+ * chunks and resolve each chunk using a single lookup, rather than one
+ * lookup per entity. The resolved elements keep the encounter order of the
+ * entities.
+ *
+ * @author  agent
+ * @since   3.1.2
+ */
+final class BatchCollector {
+
+    /**
+     * The maximum number of distinct values looked up using a single query.
+     * This is well below the number of parameters that the supported
+     * databases accept in a single statement, including the default of
+     * {@code DbmsType.getMaxParametersPerStatement()}.
+     */
+    static final int MAX_VALUES_PER_QUERY = 1_000;
+
+    /**
+     * Returns a collector that hands over the collected elements to the given
+     * resolver in chunks of at most {@code batchSize} elements, and collects
+     * the resolved elements into a list.
+     *
+     * @param <T>        the collected type
+     * @param <R>        the resolved type
+     * @param batchSize  the maximum number of elements in a chunk
+     * @param resolver   resolves a chunk of elements
+     * @return           the collector
+     *
+     * @throws IllegalArgumentException if the batch size is not positive
+     */
+    static <T, R> Collector<T, ?, List<R>> of(int batchSize, Function<List<T>, List<R>> resolver) {
+        requirePositiveBatchSize(batchSize);
+        requireNonNull(resolver);
+        return Collector.of(
+            () -> new Accumulator<>(batchSize, resolver),
+            Accumulator::add,
+            Accumulator::merge,
+            Accumulator::finish
+        );
+    }
+
+    /**
+     * Splits the given values into chunks of at most
+     * {@link #MAX_VALUES_PER_QUERY} values, so that each chunk can be looked
+     * up using a single query.
+     *
+     * @param <V>     the value type
+     * @param values  the values to split
+     * @return        the chunks
+     */
+    static <V> List<Set<V>> chunks(Set<V> values) {
+        if (values.size() <= MAX_VALUES_PER_QUERY) {
+            return singletonList(values);
+        }
+        final List<Set<V>> chunks = new ArrayList<>();
+        Set<V> chunk = new HashSet<>();
+        for (final V value : values) {
+            if (chunk.size() == MAX_VALUES_PER_QUERY) {
+                chunks.add(chunk);
+                chunk = new HashSet<>();
+            }
+            chunk.add(value);
+        }
+        chunks.add(chunk);
+        return chunks;
+    }
+
+    static void requirePositiveBatchSize(int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("The batch size must be positive: " + batchSize);
+        }
+    }
+
+    private static final class Accumulator<T, R> {
+
+        private final int batchSize;
+        private final Function<List<T>, List<R>> resolver;
+        private final List<R> resolved;
+        private List<T> pending;
+
+        private Accumulator(int batchSize, Function<List<T>, List<R>> resolver) {
+            this.batchSize = batchSize;
+            this.resolver  = resolver;
+            this.resolved  = new ArrayList<>();
+            this.pending   = new ArrayList<>();
+        }
+
+        private void add(T element) {
+            pending.add(element);
+            if (pending.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        private Accumulator<T, R> merge(Accumulator<T, R> other) {
+            flush(); // Keeps the encounter order
+            resolved.addAll(other.resolved);
+            pending = other.pending;
+            return this;
+        }
+
+        private List<R> finish() {
+            flush();
+            return resolved;
+        }
+
+        private void flush() {
+            if (!pending.isEmpty()) {
+                resolved.addAll(resolver.apply(pending));
+                pending = new ArrayList<>();
+            }
+        }
+    }
+
+    private BatchCollector() {
+        throw new UnsupportedOperationException();
+    }
+}
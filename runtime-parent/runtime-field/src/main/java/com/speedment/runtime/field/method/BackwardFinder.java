@@ -19,9 +19,15 @@ package com.speedment.runtime.field.method;
 import com.speedment.runtime.config.identifier.TableIdentifier;
 import com.speedment.runtime.field.trait.HasFinder;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiFunction;
 import java.util.function.Function;
+import java.util.stream.Collector;
 import java.util.stream.Stream;
 
+import static java.util.Objects.requireNonNull;
+
 /**
  * An operation that can produce a {@code Stream} of foreign entities given a
  * single entity. This is useful since it can be passed to an outer stream as
@@ -64,4 +70,71 @@ public interface BackwardFinder<ENTITY, FK_ENTITY>
      * @return  target (foreign) table identifier
      */
     TableIdentifier<FK_ENTITY> getTableIdentifier();
+
+    /**
+     * Returns a {@code Collector} that finds the foreign entities that
+     * reference each collected entity, in encounter order, as if the
+     * collected stream was flat mapped using this {@code BackwardFinder}. The
+     * foreign entities are looked up for chunks of at most {@code batchSize}
+     * collected entities at a time, so that
+     * {@code languages.stream().collect(finder.batch(100))} issues one query
+     * per hundred languages rather than one query per language.
+     *
+     * @param batchSize  the maximum number of entities looked up at a time
+     * @return           a collector that collects the foreign entities
+     *
+     * @throws IllegalArgumentException if the batch size is not positive
+     * @since 3.1.2
+     */
+    default Collector<ENTITY, ?, List<FK_ENTITY>> batch(int batchSize) {
+        return batch(batchSize, (entity, fkEntity) -> fkEntity);
+    }
+
+    /**
+     * Returns a {@code Collector} that finds the foreign entities that
+     * reference each collected entity and collects the result of applying
+     * the given mapper to each such pair, in encounter order. The foreign
+     * entities are looked up for chunks of at most {@code batchSize}
+     * collected entities at a time.
+     * <p>
+     * The default implementation looks up the foreign entities of each
+     * collected entity separately. Implementations backed by a database
+     * fetch all the foreign entities of a chunk using a single query. Since
+     * the number of parameters of a query is limited, chunks that reference
+     * more than 1000 distinct values are fetched using one query per 1000
+     * values.
+     *
+     * @param <R>        the result type
+     * @param batchSize  the maximum number of entities looked up at a time
+     * @param mapper     maps an entity and a foreign entity that references
+     *                   it to a result
+     * @return           a collector that collects the results
+     *
+     * @throws IllegalArgumentException if the batch size is not positive
+     * @since 3.1.2
+     */
+    default <R> Collector<ENTITY, ?, List<R>> batch(
+            int batchSize,
+            BiFunction<? super ENTITY, ? super FK_ENTITY, ? extends R> mapper) {
+
+        requireNonNull(mapper);
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("The batch size must be positive: " + batchSize);
+        }
+        return Collector.of(
+            ArrayList::new,
+            (List<R> results, ENTITY entity) -> {
+                final Stream<FK_ENTITY> fkEntities = apply(entity);
+                if (fkEntities != null) {
+                    try (Stream<FK_ENTITY> s = fkEntities) {
+                        s.forEach(fkEntity -> results.add(mapper.apply(entity, fkEntity)));
+                    }
+                }
+            },
+            (left, right) -> {
+                left.addAll(right);
+                return left;
+            }
+        );
+    }
 }
\ No newline at end of file
@@ -19,7 +19,14 @@ package com.speedment.runtime.field.method;
 import com.speedment.runtime.config.identifier.TableIdentifier;
 import com.speedment.runtime.field.Field;
 
+import java.util.List;
+import java.util.function.BiFunction;
 import java.util.function.Function;
+import java.util.stream.Collector;
+
+import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.mapping;
+import static java.util.stream.Collectors.toList;
 
 /**
  * A handle for a find-operation that can be replaced runtime to optimize a 
@@ -74,4 +81,53 @@ public interface FindFrom<ENTITY, FK_ENTITY> extends Function<ENTITY, FK_ENTITY>
      */
     TableIdentifier<FK_ENTITY> getTableIdentifier();
 
+    /**
+     * Returns a {@code Collector} that finds the foreign entity of each
+     * collected entity, in encounter order, as if this {@code FindFrom} was
+     * applied to each of them. The foreign entities are looked up for chunks
+     * of at most {@code batchSize} collected entities at a time, so that
+     * {@code films.stream().collect(finder.batch(100))} issues one query per
+     * hundred films rather than one query per film.
+     *
+     * @param batchSize  the maximum number of entities looked up at a time
+     * @return           a collector that collects the foreign entities
+     *
+     * @throws IllegalArgumentException if the batch size is not positive
+     * @since 3.1.2
+     */
+    default Collector<ENTITY, ?, List<FK_ENTITY>> batch(int batchSize) {
+        return batch(batchSize, (entity, fkEntity) -> fkEntity);
+    }
+
+    /**
+     * Returns a {@code Collector} that finds the foreign entity of each
+     * collected entity and collects the result of applying the given mapper
+     * to the two of them, in encounter order. The foreign entities are looked
+     * up for chunks of at most {@code batchSize} collected entities at a time.
+     * <p>
+     * The default implementation looks up each foreign entity separately.
+     * Implementations backed by a database fetch all the foreign entities of
+     * a chunk using a single query. Since the number of parameters of a
+     * query is limited, chunks that reference more than 1000 distinct
+     * values are fetched using one query per 1000 values.
+     *
+     * @param <R>        the result type
+     * @param batchSize  the maximum number of entities looked up at a time
+     * @param mapper     maps an entity and its foreign entity to a result
+     * @return           a collector that collects the results
+     *
+     * @throws IllegalArgumentException if the batch size is not positive
+     * @since 3.1.2
+     */
+    default <R> Collector<ENTITY, ?, List<R>> batch(
+            int batchSize,
+            BiFunction<? super ENTITY, ? super FK_ENTITY, ? extends R> mapper) {
+
+        requireNonNull(mapper);
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("The batch size must be positive: " + batchSize);
+        }
+        return mapping(entity -> mapper.apply(entity, apply(entity)), toList());
+    }
+
 }
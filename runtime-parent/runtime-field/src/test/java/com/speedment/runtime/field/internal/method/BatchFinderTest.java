@@ -0,0 +1,184 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.field.internal.method;
+
+import com.speedment.runtime.config.identifier.ColumnIdentifier;
+import com.speedment.runtime.config.identifier.TableIdentifier;
+import com.speedment.runtime.field.IntField;
+import com.speedment.runtime.field.IntForeignKeyField;
+import com.speedment.runtime.field.exception.SpeedmentFieldException;
+import com.speedment.runtime.field.method.BackwardFinder;
+import com.speedment.runtime.field.method.FindFrom;
+import com.speedment.runtime.typemapper.TypeMapper;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static java.util.Arrays.asList;
+import static java.util.stream.Collectors.toList;
+import static org.junit.Assert.assertEquals;
+
+/**
+ *
+ * @author agent
+ */
+public final class BatchFinderTest {
+
+    private static final TableIdentifier<Language> LANGUAGE_TABLE = TableIdentifier.of("db", "schema", "language");
+    private static final TableIdentifier<Film> FILM_TABLE = TableIdentifier.of("db", "schema", "film");
+
+    private static final IntField<Language, Integer> LANGUAGE_ID = IntField.create(
+        ColumnIdentifier.of("db", "schema", "language", "id"),
+        Language::getId,
+        (language, id) -> {},
+        TypeMapper.primitive(),
+        true
+    );
+
+    private static final IntForeignKeyField<Film, Integer, Language> FILM_LANGUAGE_ID = IntForeignKeyField.create(
+        ColumnIdentifier.of("db", "schema", "film", "language_id"),
+        Film::getLanguageId,
+        (film, languageId) -> {},
+        LANGUAGE_ID,
+        TypeMapper.primitive(),
+        false
+    );
+
+    private final Language english = new Language(1);
+    private final Language swedish = new Language(2);
+    private final Language german = new Language(3);
+    private List<Language> languages;
+    private List<Film> films;
+    private int queries;
+
+    @Before
+    public void setUp() {
+        languages = asList(english, swedish, german);
+        films = asList(
+            new Film(1, 1), new Film(2, 2), new Film(3, 1), new Film(4, 3), new Film(5, 2)
+        );
+        queries = 0;
+    }
+
+    @Test
+    public void testBatch() {
+        final FindFrom<Film, Language> finder = FILM_LANGUAGE_ID.finder(LANGUAGE_TABLE, this::languages);
+        final List<Language> expected = films.stream().map(finder).collect(toList());
+        queries = 0;
+
+        assertEquals(expected, films.stream().collect(finder.batch(2)));
+        assertEquals(3, queries);
+    }
+
+    @Test
+    public void testBatchWithMapper() {
+        final FindFrom<Film, Language> finder = FILM_LANGUAGE_ID.finder(LANGUAGE_TABLE, this::languages);
+
+        assertEquals(
+            asList("1:1", "2:2", "3:1", "4:3", "5:2"),
+            films.stream().collect(finder.batch(100, (film, language) -> film.getId() + ":" + language.getId()))
+        );
+        assertEquals(1, queries);
+    }
+
+    @Test(expected = SpeedmentFieldException.class)
+    public void testBatchMissingForeignEntity() {
+        final FindFrom<Film, Language> finder = FILM_LANGUAGE_ID.finder(LANGUAGE_TABLE, this::languages);
+        Stream.of(new Film(1, 4)).collect(finder.batch(10));
+    }
+
+    @Test
+    public void testBackwardBatch() {
+        final BackwardFinder<Language, Film> finder = FILM_LANGUAGE_ID.backwardFinder(FILM_TABLE, this::films);
+        final List<Film> expected = languages.stream().flatMap(finder).collect(toList());
+        queries = 0;
+
+        assertEquals(expected, languages.stream().collect(finder.batch(2)));
+        assertEquals(2, queries);
+        assertEquals(
+            asList("1:1", "1:3", "2:2", "2:5", "3:4"),
+            languages.stream().collect(finder.batch(10, (language, film) -> language.getId() + ":" + film.getId()))
+        );
+    }
+
+    @Test
+    public void testLargeBatchIsSplit() {
+        final int count = 2 * BatchCollector.MAX_VALUES_PER_QUERY + 1;
+        languages = IntStream.rangeClosed(1, count).mapToObj(Language::new).collect(toList());
+        films = IntStream.rangeClosed(1, count).mapToObj(i -> new Film(i, i)).collect(toList());
+
+        final FindFrom<Film, Language> finder = FILM_LANGUAGE_ID.finder(LANGUAGE_TABLE, this::languages);
+        final List<Language> found = films.stream().collect(finder.batch(count));
+        assertEquals(languages, found);
+        assertEquals(3, queries);
+
+        queries = 0;
+        final BackwardFinder<Language, Film> backwardFinder = FILM_LANGUAGE_ID.backwardFinder(FILM_TABLE, this::films);
+        assertEquals(films, languages.stream().collect(backwardFinder.batch(count)));
+        assertEquals(3, queries);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIllegalBatchSize() {
+        FILM_LANGUAGE_ID.finder(LANGUAGE_TABLE, this::languages).batch(0);
+    }
+
+    private Stream<Language> languages() {
+        queries++;
+        return languages.stream();
+    }
+
+    private Stream<Film> films() {
+        queries++;
+        return films.stream();
+    }
+
+    private static final class Language {
+
+        private final int id;
+
+        private Language(int id) {
+            this.id = id;
+        }
+
+        private int getId() {
+            return id;
+        }
+    }
+
+    private static final class Film {
+
+        private final int id;
+        private final int languageId;
+
+        private Film(int id, int languageId) {
+            this.id = id;
+            this.languageId = languageId;
+        }
+
+        private int getId() {
+            return id;
+        }
+
+        private int getLanguageId() {
+            return languageId;
+        }
+    }
+}